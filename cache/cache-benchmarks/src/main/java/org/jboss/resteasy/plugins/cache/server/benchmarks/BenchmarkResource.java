@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server.benchmarks;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * The resource the benchmarks request. It returns a fixed body which is cacheable for an hour and varies on the
+ * {@value #VARIANT} header.
+ */
+@Path("/resource")
+public class BenchmarkResource {
+    static final String VARIANT = "X-Variant";
+
+    private final byte[] body;
+    private final CacheControl cc;
+
+    BenchmarkResource(final int bodySize) {
+        this.body = new byte[bodySize];
+        for (int i = 0; i < bodySize; i++) {
+            body[i] = (byte) ('a' + i % 26);
+        }
+        this.cc = new CacheControl();
+        cc.setMaxAge(3600);
+    }
+
+    @GET
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    public Response get(@HeaderParam(VARIANT) String variant, @QueryParam("miss") String miss) {
+        Response.ResponseBuilder builder = Response.ok(body).cacheControl(cc);
+        if (variant != null) {
+            builder.header(HttpHeaders.VARY, VARIANT);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server.benchmarks;
+
+import java.net.URISyntaxException;
+
+import org.jboss.resteasy.mock.MockDispatcherFactory;
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.mock.MockHttpResponse;
+import org.jboss.resteasy.plugins.cache.server.LocalServerCache;
+import org.jboss.resteasy.plugins.cache.server.ServerCache;
+import org.jboss.resteasy.plugins.cache.server.ServerCacheFeature;
+import org.jboss.resteasy.spi.Dispatcher;
+
+/**
+ * An in-memory RESTEasy deployment of the {@link BenchmarkResource} with the server cache enabled. Requests go through
+ * the full filter and interceptor chain, but no network.
+ */
+class CachedDeployment {
+    private final Dispatcher dispatcher;
+    private final ServerCache cache;
+
+    CachedDeployment(final String cacheType, final int bodySize) {
+        dispatcher = MockDispatcherFactory.createDispatcher();
+        cache = "local".equals(cacheType) ? new LocalServerCache(64 * 1024 * 1024) : createInfinispanCache();
+        dispatcher.getProviderFactory().register(new ServerCacheFeature(cache));
+        dispatcher.getRegistry().addSingletonResource(new BenchmarkResource(bodySize));
+    }
+
+    MockHttpResponse get(String uri, String variant) throws URISyntaxException {
+        MockHttpRequest request = MockHttpRequest.get(uri);
+        if (variant != null) {
+            request.header(BenchmarkResource.VARIANT, variant);
+        }
+        MockHttpResponse response = new MockHttpResponse();
+        dispatcher.invoke(request, response);
+        return response;
+    }
+
+    private static ServerCache createInfinispanCache() {
+        // the default cache of the feature, a local Infinispan cache of 100 resources
+        return new ServerCacheFeature() {
+            ServerCache create() {
+                return getDefaultCache();
+            }
+        }.create();
+    }
+
+    ServerCache getCache() {
+        return cache;
+    }
+
+    void close() {
+        cache.clear();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.resteasy.mock.MockHttpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cache hits on a resource with several cached variants. The requested variant is the oldest one, which is the last
+ * one a lookup matches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HitBenchmark {
+
+    @Param({ "1", "5", "20" })
+    int variants;
+
+    @Param({ "1024" })
+    int bodySize;
+
+    @Param({ "infinispan", "local" })
+    String cacheType;
+
+    private CachedDeployment deployment;
+
+    @Setup
+    public void setup() throws Exception {
+        deployment = new CachedDeployment(cacheType, bodySize);
+        for (int i = 0; i < variants; i++) {
+            deployment.get("/resource", "v" + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        deployment.close();
+    }
+
+    @Benchmark
+    public MockHttpResponse hit() throws Exception {
+        return deployment.get("/resource", "v0");
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+import org.jboss.resteasy.plugins.cache.server.LocalServerCache;
+import org.jboss.resteasy.plugins.cache.server.ServerCache;
+import org.jboss.resteasy.plugins.cache.server.ServerCacheMarshaller;
+import org.jboss.resteasy.plugins.cache.server.VariantGroup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization of a cached resource, which is how a clustered or persistent Infinispan cache stores it: with Java
+ * serialization and with the {@link ServerCacheMarshaller}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({ "1024", "65536", "1048576" })
+    int bodySize;
+
+    private VariantGroup group;
+    private byte[] serialized;
+    private final ServerCacheMarshaller marshaller = new ServerCacheMarshaller();
+    private byte[] marshalled;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        CacheControl cc = new CacheControl();
+        cc.setMaxAge(3600);
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.putSingle(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM);
+        headers.putSingle(HttpHeaders.CACHE_CONTROL, cc);
+        headers.putSingle(HttpHeaders.ETAG, "etag");
+        ServerCache.Entry entry = new LocalServerCache(64L * 1024 * 1024).add("/resource",
+                MediaType.APPLICATION_OCTET_STREAM_TYPE, cc, headers, new byte[bodySize], "etag",
+                new MultivaluedHashMap<>());
+        group = VariantGroup.of(MediaType.APPLICATION_OCTET_STREAM, entry);
+        serialized = serialize();
+        marshalled = marshal();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(bodySize + 1024);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(group);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return in.readObject();
+        }
+    }
+
+    @Benchmark
+    public byte[] marshal() throws IOException, InterruptedException {
+        return marshaller.objectToByteBuffer(group);
+    }
+
+    @Benchmark
+    public Object unmarshal() throws IOException {
+        return marshaller.objectFromByteBuffer(marshalled, 0, marshalled.length);
+    }
+}
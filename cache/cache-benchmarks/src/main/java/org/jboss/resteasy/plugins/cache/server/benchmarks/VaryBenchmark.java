@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+import org.jboss.resteasy.plugins.cache.server.LocalServerCache;
+import org.jboss.resteasy.plugins.cache.server.ServerCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Matching the request headers against the {@code Vary} headers of a cached entry with
+ * {@link ServerCache#mayVary(ServerCache.Entry, MultivaluedMap)}, and selecting a variant of a resource by its
+ * {@link org.jboss.resteasy.plugins.cache.server.VaryFingerprint}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VaryBenchmark {
+
+    @Param({ "1", "4" })
+    int varyHeaders;
+
+    @Param({ "1", "16" })
+    int variants;
+
+    private ServerCache cache;
+    private ServerCache.Entry entry;
+    private MultivaluedMap<String, String> matching;
+    private MultivaluedMap<String, String> notMatching;
+
+    @Setup
+    public void setup() {
+        MultivaluedMap<String, String> vary = new MultivaluedHashMap<>();
+        matching = new MultivaluedHashMap<>();
+        notMatching = new MultivaluedHashMap<>();
+        for (int i = 0; i < varyHeaders; i++) {
+            vary.putSingle("X-Vary-" + i, "value" + i);
+            matching.putSingle("X-Vary-" + i, "value" + i);
+            notMatching.putSingle("X-Vary-" + i, i == varyHeaders - 1 ? "other" : "value" + i);
+        }
+        matching.putSingle("Accept", MediaType.WILDCARD);
+        notMatching.putSingle("Accept", MediaType.WILDCARD);
+        CacheControl cc = new CacheControl();
+        cc.setMaxAge(3600);
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        for (String name : vary.keySet()) {
+            headers.add(HttpHeaders.VARY, name);
+        }
+        cache = new LocalServerCache(1024 * 1024);
+        // the matching variant is the last one added
+        for (int i = variants - 1; i > 0; i--) {
+            MultivaluedMap<String, String> other = new MultivaluedHashMap<>(vary);
+            other.putSingle("X-Vary-0", "variant" + i);
+            cache.add("/resource", MediaType.TEXT_PLAIN_TYPE, cc, headers, new byte[16], "etag" + i, other);
+        }
+        entry = cache.add("/resource", MediaType.TEXT_PLAIN_TYPE, cc, headers, new byte[16], "etag", vary);
+    }
+
+    @Benchmark
+    public boolean matching() {
+        return ServerCache.mayVary(entry, matching);
+    }
+
+    @Benchmark
+    public boolean notMatching() {
+        return ServerCache.mayVary(entry, notMatching);
+    }
+
+    @Benchmark
+    public ServerCache.Entry select() {
+        return cache.get("/resource", MediaType.WILDCARD_TYPE, matching);
+    }
+
+    @Benchmark
+    public ServerCache.Entry selectNone() {
+        return cache.get("/resource", MediaType.WILDCARD_TYPE, notMatching);
+    }
+}
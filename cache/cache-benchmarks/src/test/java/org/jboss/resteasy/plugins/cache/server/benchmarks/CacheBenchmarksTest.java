@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server.benchmarks;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Smoke tests the benchmarks: every benchmark method runs once, in this JVM, so that a benchmark broken by a change to
+ * the cache fails the build of the {@code benchmarks} profile rather than the next measurement.
+ */
+public class CacheBenchmarksTest {
+
+    @Test
+    public void testBenchmarksRun() throws Exception {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(CacheBenchmarks.class.getPackageName() + "\\.")
+                .mode(Mode.SingleShotTime)
+                .forks(0)
+                .threads(1)
+                .warmupIterations(0)
+                .measurementIterations(1)
+                .param("bodySize", "1024")
+                .param("cacheType", "local")
+                .shouldFailOnError(true)
+                .build()).run();
+
+        Set<String> benchmarks = new TreeSet<>();
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            benchmarks.add(benchmark.substring(0, benchmark.lastIndexOf('.')));
+        }
+        Assertions.assertEquals(Set.of(ContentionBenchmark.class.getName(), HitBenchmark.class.getName(),
+                MissBenchmark.class.getName(), SerializationBenchmark.class.getName(),
+                VaryBenchmark.class.getName()), benchmarks);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Refreshes stale entries in the background, so that every request within the {@code stale-while-revalidate} window
+ * of an entry is served the stale response, including the one which revalidates it. The refresh replays the
+ * request through the application on an executor of its own; the replayed request goes past the cache to the
+ * resource method and the {@link ServerCacheInterceptor} stores its response.
+ * <p>
+ * Requests are always replayed against the configured base URI of the application, never against the URI they were
+ * received on, which is built from the {@code Host} header the client chose. Each replayed request carries a random
+ * nonce of its own in the {@value #REFRESH} header, which is accepted once while the refresh is in progress; other
+ * requests with the header do not skip the cache. The credentials of the request, its {@code Authorization},
+ * {@code Proxy-Authorization} and {@code Cookie} headers, are not replayed unless
+ * {@link #setForwardCredentials(boolean) allowed}.
+ * </p>
+ */
+public class BackgroundRefresher {
+    /**
+     * The header marking the requests replayed by a refresher.
+     */
+    public static final String REFRESH = "X-Resteasy-Cache-Refresh";
+    private static final Logger LOGGER = Logger.getLogger(BackgroundRefresher.class);
+    // the same as the revalidation flights of the ServerCacheHitFilter
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    // the client sets these itself, conditional and range requests would not return the full response
+    private static final Set<String> SKIPPED_HEADERS = new HashSet<>(Arrays.asList("connection", "content-length",
+            "expect", "host", "upgrade", "te", "trailer", "transfer-encoding", "keep-alive", "http2-settings",
+            "if-match", "if-none-match", "if-modified-since", "if-unmodified-since", "if-range", "range",
+            REFRESH.toLowerCase(Locale.ROOT)));
+    private static final Set<String> CREDENTIAL_HEADERS = new HashSet<>(Arrays.asList("authorization",
+            "proxy-authorization", "cookie"));
+
+    private final ExecutorService executor;
+    private final HttpClient client;
+    private final URI baseUri;
+    private final SecureRandom random = new SecureRandom();
+    private final Set<String> nonces = ConcurrentHashMap.newKeySet();
+    private volatile boolean forwardCredentials;
+
+    /**
+     * Creates a refresher.
+     *
+     * @param executor the executor the refreshes run on, shut down by {@link #shutdown()}
+     * @param baseUri  the base URI of the application the requests are replayed against
+     */
+    public BackgroundRefresher(final ExecutorService executor, final URI baseUri) {
+        this.executor = executor;
+        this.client = HttpClient.newBuilder().executor(executor).build();
+        this.baseUri = Objects.requireNonNull(baseUri, "baseUri");
+    }
+
+    /**
+     * Sets whether the credentials of a request are replayed with it. They are not by default.
+     *
+     * @param forwardCredentials {@code true} to replay the {@code Authorization}, {@code Proxy-Authorization} and
+     *                           {@code Cookie} headers
+     */
+    public void setForwardCredentials(boolean forwardCredentials) {
+        this.forwardCredentials = forwardCredentials;
+    }
+
+    /**
+     * Replays a request in the background to refresh the entry it was served.
+     *
+     * @param request the request served a stale entry
+     * @param done    run once the refresh has completed or failed
+     */
+    public void refresh(ContainerRequestContext request, Runnable done) {
+        String nonce = newNonce();
+        HttpRequest replayed;
+        try {
+            replayed = newRequest(request, nonce);
+        } catch (IllegalArgumentException e) {
+            LOGGER.debugf(e, "Could not refresh %s", request.getUriInfo().getRequestUri());
+            done.run();
+            return;
+        }
+        nonces.add(nonce);
+        try {
+            executor.execute(() -> client.sendAsync(replayed, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, t) -> {
+                        nonces.remove(nonce);
+                        if (t != null) {
+                            LOGGER.debugf(t, "Could not refresh %s", replayed.uri());
+                        }
+                        done.run();
+                    }));
+        } catch (RejectedExecutionException e) {
+            // shut down
+            nonces.remove(nonce);
+            done.run();
+        }
+    }
+
+    private String newNonce() {
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private HttpRequest newRequest(ContainerRequestContext request, String nonce) {
+        URI relative = request.getUriInfo().getBaseUri().relativize(request.getUriInfo().getRequestUri());
+        URI uri = relative.isAbsolute() || relative.getRawAuthority() != null ? null : baseUri.resolve(relative);
+        if (uri == null || !Objects.equals(uri.getScheme(), baseUri.getScheme())
+                || !Objects.equals(uri.getRawAuthority(), baseUri.getRawAuthority())) {
+            throw new IllegalArgumentException(relative.toString());
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).GET().timeout(TIMEOUT);
+        for (Map.Entry<String, List<String>> header : request.getHeaders().entrySet()) {
+            String name = header.getKey().toLowerCase(Locale.ROOT);
+            if (SKIPPED_HEADERS.contains(name) || !forwardCredentials && CREDENTIAL_HEADERS.contains(name))
+                continue;
+            for (String value : header.getValue()) {
+                builder.header(header.getKey(), value);
+            }
+        }
+        return builder.header(REFRESH, nonce).build();
+    }
+
+    /**
+     * Tells whether a request was replayed by this refresher. The nonce of a replayed request is only accepted once.
+     *
+     * @param request the request
+     *
+     * @return {@code true} if the request carries the nonce of a refresh in progress
+     */
+    public boolean isRefresh(ContainerRequestContext request) {
+        String value = request.getHeaderString(REFRESH);
+        return value != null && nonces.remove(value);
+    }
+
+    /**
+     * Stops the refresher, refreshes in progress are abandoned.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        nonces.clear();
+    }
+}
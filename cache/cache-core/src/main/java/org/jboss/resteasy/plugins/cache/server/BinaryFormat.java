@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Cookie;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.NewCookie;
+
+import org.jboss.resteasy.plugins.cache.server.i18n.Messages;
+
+/**
+ * The binary format of cached responses, see {@link ServerCacheMarshaller}. Numbers are written as unsigned variable
+ * length integers, strings as their UTF-8 length followed by the bytes and entities as their raw bytes.
+ * <p>
+ * Headers are written as a block of serialized strings, each value preceded by a byte naming its type. The block is
+ * kept as it is when an entry is read and only decoded once the entry is served.
+ * </p>
+ */
+final class BinaryFormat {
+    // 2: the status code of cache entries
+    static final int VERSION = 2;
+
+    private static final byte IDENTITY = 0;
+    private static final byte ENCODED = 1;
+
+    private static final byte STRING = 0;
+    private static final byte CACHE_CONTROL = 1;
+    private static final byte COOKIE = 2;
+    private static final byte NEW_COOKIE = 3;
+    private static final byte ENTITY_TAG = 4;
+    private static final byte MEDIA_TYPE = 5;
+
+    private BinaryFormat() {
+    }
+
+    static void writeVersion(DataOutput out) throws IOException {
+        out.writeByte(VERSION);
+    }
+
+    /**
+     * Reads the version written by {@link #writeVersion(DataOutput)}.
+     *
+     * @throws InvalidObjectException if the version cannot be read, see {@link #isSupported(int)}
+     */
+    static int readVersion(DataInput in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (!isSupported(version))
+            throw new InvalidObjectException(Messages.MESSAGES.unsupportedFormatVersion(version));
+        return version;
+    }
+
+    /**
+     * Tells whether data written in the given version can be read: all the versions up to the current one can.
+     */
+    static boolean isSupported(int version) {
+        return version >= 1 && version <= VERSION;
+    }
+
+    static void writeLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new InvalidObjectException("malformed number");
+    }
+
+    static void writeInt(DataOutput out, int value) throws IOException {
+        writeLong(out, value & 0xFFFFFFFFL);
+    }
+
+    static int readInt(DataInput in) throws IOException {
+        return (int) readLong(in);
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = readInt(in);
+        if (length == 0)
+            return null;
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeEntity(DataOutput out, CachedEntity entity) throws IOException {
+        if (entity instanceof EncodedEntity) {
+            out.writeByte(ENCODED);
+            writeRaw(out, entity);
+            Map<String, CachedEntity> encodings = ((EncodedEntity) entity).getEncodings();
+            writeInt(out, encodings.size());
+            for (Map.Entry<String, CachedEntity> encoding : encodings.entrySet()) {
+                writeString(out, encoding.getKey());
+                writeRaw(out, encoding.getValue());
+            }
+        } else {
+            out.writeByte(IDENTITY);
+            writeRaw(out, entity);
+        }
+    }
+
+    static CachedEntity readEntity(DataInput in) throws IOException {
+        byte type = in.readByte();
+        CachedEntity identity = SegmentedEntity.read(in, readLong(in));
+        if (type == IDENTITY)
+            return identity;
+        int count = readInt(in);
+        HashMap<String, CachedEntity> encodings = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String contentCoding = readString(in);
+            encodings.put(contentCoding, SegmentedEntity.read(in, readLong(in)));
+        }
+        return new EncodedEntity(identity, encodings);
+    }
+
+    private static void writeRaw(DataOutput out, CachedEntity entity) throws IOException {
+        writeLong(out, entity.getLength());
+        entity.write(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+        });
+    }
+
+    /**
+     * Encodes the headers of a response and the request headers it varies on.
+     *
+     * @param headers     the response headers
+     * @param varyHeaders the request headers
+     *
+     * @return the header block
+     */
+    static byte[] encodeHeaders(MultivaluedMap<String, Object> headers, MultivaluedMap<String, String> varyHeaders)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeInt(out, headers.size());
+        for (Map.Entry<String, List<Object>> header : headers.entrySet()) {
+            writeString(out, header.getKey());
+            writeInt(out, header.getValue().size());
+            for (Object value : header.getValue()) {
+                out.writeByte(typeOf(value));
+                writeString(out, PreparedHeaders.toString(value));
+            }
+        }
+        writeInt(out, varyHeaders.size());
+        for (Map.Entry<String, List<String>> header : varyHeaders.entrySet()) {
+            writeString(out, header.getKey());
+            writeInt(out, header.getValue().size());
+            for (String value : header.getValue()) {
+                writeString(out, value);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte typeOf(Object value) {
+        if (value instanceof CacheControl)
+            return CACHE_CONTROL;
+        if (value instanceof NewCookie)
+            return NEW_COOKIE;
+        if (value instanceof Cookie)
+            return COOKIE;
+        if (value instanceof EntityTag)
+            return ENTITY_TAG;
+        if (value instanceof MediaType)
+            return MEDIA_TYPE;
+        return STRING;
+    }
+
+    /**
+     * Decodes a header block into strings, the header values are not parsed.
+     *
+     * @param block the header block
+     *
+     * @return the decoded headers
+     */
+    static HeaderBlock decodeHeaders(byte[] block) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(block));
+            int count = readInt(in);
+            List<String> names = new ArrayList<>(count);
+            List<byte[]> types = new ArrayList<>(count);
+            List<String[]> values = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                names.add(readString(in));
+                int size = readInt(in);
+                byte[] headerTypes = new byte[size];
+                String[] headerValues = new String[size];
+                for (int j = 0; j < size; j++) {
+                    headerTypes[j] = in.readByte();
+                    headerValues[j] = readString(in);
+                }
+                types.add(headerTypes);
+                values.add(headerValues);
+            }
+            count = readInt(in);
+            MultivaluedMap<String, String> varyHeaders = new MultivaluedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                String name = readString(in);
+                int size = readInt(in);
+                for (int j = 0; j < size; j++) {
+                    varyHeaders.add(name, readString(in));
+                }
+            }
+            return new HeaderBlock(names, types, values, varyHeaders);
+        } catch (IOException e) {
+            // the block was read completely when the entry was read
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The decoded header block of an entry.
+     */
+    static final class HeaderBlock {
+        final List<String> names;
+        final List<String[]> values;
+        final MultivaluedMap<String, String> varyHeaders;
+        private final List<byte[]> types;
+
+        private HeaderBlock(final List<String> names, final List<byte[]> types, final List<String[]> values,
+                final MultivaluedMap<String, String> varyHeaders) {
+            this.names = names;
+            this.types = types;
+            this.values = values;
+            this.varyHeaders = varyHeaders;
+        }
+
+        /**
+         * Parses the header values into the objects they were stored as.
+         *
+         * @return the headers
+         */
+        MultivaluedMap<String, Object> toHeaders() {
+            MultivaluedMap<String, Object> headers = new MultivaluedTreeMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                byte[] headerTypes = types.get(i);
+                String[] headerValues = values.get(i);
+                List<Object> list = new ArrayList<>(headerValues.length);
+                for (int j = 0; j < headerValues.length; j++) {
+                    list.add(parse(headerTypes[j], headerValues[j]));
+                }
+                headers.put(names.get(i), list);
+            }
+            return headers;
+        }
+
+        private static Object parse(byte type, String value) {
+            switch (type) {
+                case CACHE_CONTROL:
+                    return CacheControl.valueOf(value);
+                case COOKIE:
+                    return Cookie.valueOf(value);
+                case NEW_COOKIE:
+                    return NewCookie.valueOf(value);
+                case ENTITY_TAG:
+                    return EntityTag.valueOf(value);
+                case MEDIA_TYPE:
+                    return MediaType.valueOf(value);
+                default:
+                    return value;
+            }
+        }
+    }
+}
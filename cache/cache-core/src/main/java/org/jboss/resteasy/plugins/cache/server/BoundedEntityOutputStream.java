@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.jboss.resteasy.spi.AsyncOutputStream;
+
+/**
+ * Buffers an entity for the cache up to a maximum size. Once the entity outgrows it, the buffered bytes are written to
+ * the output stream of the response and the rest of the entity streams through without being buffered.
+ */
+class BoundedEntityOutputStream extends AsyncOutputStream {
+    private static final CompletionStage<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final OutputStream out;
+    private final long maxBytes;
+    private SegmentedEntityOutputStream buffer;
+
+    /**
+     * Creates a bounded buffer.
+     *
+     * @param out      the output stream of the response, an {@link AsyncOutputStream} for asynchronous writes
+     * @param buffer   the cache buffer
+     * @param maxBytes the size of the largest entity which is buffered
+     */
+    BoundedEntityOutputStream(final OutputStream out, final SegmentedEntityOutputStream buffer, final long maxBytes) {
+        this.out = out;
+        this.buffer = buffer;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns whether the entity outgrew the buffer and was streamed.
+     *
+     * @return {@code true} if the entity was not buffered
+     */
+    boolean isOverflowed() {
+        return buffer == null;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (buffer != null && buffer.getLength() + 1 > maxBytes) {
+            overflow().write(out);
+        }
+        if (buffer != null) {
+            buffer.write(b);
+        } else {
+            out.write(b);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (buffer != null && buffer.getLength() + len > maxBytes) {
+            overflow().write(out);
+        }
+        if (buffer != null) {
+            buffer.write(b, off, len);
+        } else {
+            out.write(b, off, len);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // nothing reaches the response until the entity overflows
+        if (buffer == null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public CompletionStage<Void> asyncFlush() {
+        return buffer == null ? ((AsyncOutputStream) out).asyncFlush() : DONE;
+    }
+
+    @Override
+    public CompletionStage<Void> asyncWrite(byte[] bytes, int offset, int length) {
+        AsyncOutputStream asyncOut = (AsyncOutputStream) out;
+        if (buffer == null)
+            return asyncOut.asyncWrite(bytes, offset, length);
+        if (buffer.getLength() + length <= maxBytes) {
+            buffer.write(bytes, offset, length);
+            return DONE;
+        }
+        return overflow().asyncWrite(asyncOut).thenCompose(v -> asyncOut.asyncWrite(bytes, offset, length));
+    }
+
+    private CachedEntity overflow() {
+        CachedEntity buffered = buffer.toEntity();
+        buffer = null;
+        return buffered;
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+
+import org.jboss.resteasy.spi.AsyncOutputStream;
+
+/**
+ * Serves the byte ranges of a cached entity which a {@code Range} request header asks for, as defined by RFC 9110.
+ * The ranges are {@link CachedEntity#slice(long, long) slices} of the stored entity, so they are written without
+ * copying the entity.
+ */
+final class ByteRanges {
+    static final String RANGE = "Range";
+    static final String IF_RANGE = "If-Range";
+    static final String ACCEPT_RANGES = "Accept-Ranges";
+    static final String CONTENT_RANGE = "Content-Range";
+    // more ranges than that are more likely an attack than a download manager, the whole entity is served instead
+    private static final int MAX_RANGES = 16;
+
+    private ByteRanges() {
+    }
+
+    /**
+     * Parses a {@code Range} header.
+     *
+     * @param range  the header
+     * @param length the length of the entity
+     *
+     * @return the first and last byte of every satisfiable range, an empty array if no range is satisfiable or
+     *         {@code null} if the header has to be ignored
+     */
+    static long[][] parse(String range, long length) {
+        if (!range.regionMatches(true, 0, "bytes=", 0, 6))
+            return null;
+        String[] specs = range.substring(6).split(",");
+        if (specs.length > MAX_RANGES)
+            return null;
+        List<long[]> ranges = new ArrayList<>(specs.length);
+        try {
+            for (String spec : specs) {
+                int dash = spec.indexOf('-');
+                if (dash < 0)
+                    return null;
+                String first = spec.substring(0, dash).trim();
+                String last = spec.substring(dash + 1).trim();
+                if (first.isEmpty()) {
+                    // the last bytes of the entity
+                    long suffix = parseDigits(last);
+                    if (suffix > 0 && length > 0) {
+                        ranges.add(new long[] { Math.max(0, length - suffix), length - 1 });
+                    }
+                    continue;
+                }
+                long start = parseDigits(first);
+                long end = last.isEmpty() ? Long.MAX_VALUE : parseDigits(last);
+                if (end < start)
+                    return null;
+                if (start < length) {
+                    ranges.add(new long[] { start, Math.min(end, length - 1) });
+                }
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return ranges.toArray(new long[0][]);
+    }
+
+    private static long parseDigits(String value) {
+        if (value.isEmpty() || !Character.isDigit(value.charAt(0)))
+            throw new NumberFormatException(value);
+        return Long.parseLong(value);
+    }
+
+    /**
+     * Checks an {@code If-Range} header against the ETag of the cached entity. Only a strong ETag matches, a date never
+     * does as the cache does not keep the modification date. The ETags are compared by value, whether or not they are
+     * quoted: the ETags generated by the {@link ServerCacheInterceptor} are sent unquoted.
+     *
+     * @param ifRange the header, may be {@code null}
+     * @param etag    the stored ETag
+     *
+     * @return {@code true} if the ranges may be served, {@code false} if the whole entity has to be
+     */
+    static boolean isCurrent(String ifRange, String etag) {
+        if (ifRange == null)
+            return true;
+        if (etag == null)
+            return false;
+        EntityTag requested = parseETag(ifRange);
+        EntityTag current = parseETag(etag);
+        return !requested.isWeak() && !current.isWeak() && requested.getValue().equals(current.getValue());
+    }
+
+    /**
+     * Parses an ETag, quoted as in a header or not.
+     *
+     * @param value the ETag
+     *
+     * @return the parsed ETag
+     */
+    static EntityTag parseETag(String value) {
+        value = value.trim();
+        boolean weak = value.startsWith("W/");
+        if (weak) {
+            value = value.substring(2);
+        }
+        if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        return new EntityTag(value, weak);
+    }
+
+    /**
+     * Creates the response serving the ranges of an entity: a single part, a {@code multipart/byteranges} entity or a
+     * {@code 416 Range Not Satisfiable} if there is no range.
+     *
+     * @param headers the headers of the whole entity, modified
+     * @param entity  the entity
+     * @param ranges  the ranges, see {@link #parse(String, long)}
+     *
+     * @return the response
+     */
+    static Response.ResponseBuilder partial(MultivaluedMap<String, Object> headers, CachedEntity entity,
+            long[][] ranges) {
+        long length = entity.getLength();
+        if (ranges.length == 0) {
+            return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(CONTENT_RANGE, "bytes */" + length);
+        }
+        if (ranges.length == 1) {
+            long[] range = ranges[0];
+            headers.putSingle(CONTENT_RANGE, contentRange(range, length));
+            return Response.status(Response.Status.PARTIAL_CONTENT).replaceAll(headers)
+                    .entity(entity.slice(range[0], range[1] - range[0] + 1));
+        }
+        String boundary = Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+        Object contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+        List<Object> parts = new ArrayList<>(ranges.length * 2 + 1);
+        for (long[] range : ranges) {
+            StringBuilder part = new StringBuilder("\r\n--").append(boundary).append("\r\n");
+            if (contentType != null) {
+                part.append(HttpHeaders.CONTENT_TYPE).append(": ").append(PreparedHeaders.toString(contentType))
+                        .append("\r\n");
+            }
+            part.append(CONTENT_RANGE).append(": ").append(contentRange(range, length)).append("\r\n\r\n");
+            parts.add(part.toString().getBytes(StandardCharsets.ISO_8859_1));
+            parts.add(entity.slice(range[0], range[1] - range[0] + 1));
+        }
+        parts.add(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        headers.putSingle(HttpHeaders.CONTENT_TYPE, "multipart/byteranges; boundary=" + boundary);
+        return Response.status(Response.Status.PARTIAL_CONTENT).replaceAll(headers).entity(new Multipart(parts));
+    }
+
+    private static String contentRange(long[] range, long length) {
+        return "bytes " + range[0] + "-" + range[1] + "/" + length;
+    }
+
+    /**
+     * A {@code multipart/byteranges} entity: the part headers and the slices of the entity in turn.
+     */
+    private static final class Multipart implements CachedEntity {
+        private final List<Object> parts;
+        private final long length;
+
+        private Multipart(final List<Object> parts) {
+            this.parts = parts;
+            long length = 0;
+            for (Object part : parts) {
+                length += part instanceof byte[] ? ((byte[]) part).length : ((CachedEntity) part).getLength();
+            }
+            this.length = length;
+        }
+
+        @Override
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public void write(OutputStream output) throws IOException {
+            for (Object part : parts) {
+                if (part instanceof byte[]) {
+                    output.write((byte[]) part);
+                } else {
+                    ((CachedEntity) part).write(output);
+                }
+            }
+        }
+
+        @Override
+        public CompletionStage<Void> asyncWrite(AsyncOutputStream output) {
+            CompletionStage<Void> stage = CompletableFuture.completedFuture(null);
+            for (Object part : parts) {
+                stage = stage.thenCompose(v -> part instanceof byte[] ? output.asyncWrite((byte[]) part)
+                        : ((CachedEntity) part).asyncWrite(output));
+            }
+            return stage;
+        }
+
+        @Override
+        public byte[] toByteArray() {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.toIntExact(length));
+            try {
+                write(bytes);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+/**
+ * Decides which cacheable responses are stored. A response is only admitted once its cache key has missed a given
+ * number of times recently, so the long tail of resources requested only once neither pushes popular entries out of
+ * the cache nor costs a store.
+ * <p>
+ * The misses are counted by {@link FrequencySketch FrequencySketches}, counting Bloom filters which take a fixed
+ * amount of memory however many keys there are. Their counts fade over time, so a key has to be missed repeatedly
+ * within a while. The keys are split between a few sketches by their hash, each with a lock of its own, so that
+ * concurrent misses seldom wait for each other.
+ * </p>
+ */
+public class CacheAdmission {
+    private static final int MAX_STRIPES = 64;
+
+    private final int minMisses;
+    private final FrequencySketch[] doorkeepers;
+    private final int mask;
+
+    /**
+     * Creates an admission policy.
+     *
+     * @param minMisses    the number of misses after which a response is admitted, at most {@code 15}
+     * @param expectedKeys the number of distinct keys expected to be counted at once
+     */
+    public CacheAdmission(final int minMisses, final long expectedKeys) {
+        this.minMisses = Math.min(minMisses, 15);
+        // a power of two, about four stripes per processor
+        int stripes = Math.min(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 8 - 1),
+                MAX_STRIPES);
+        this.doorkeepers = new FrequencySketch[stripes];
+        for (int i = 0; i < stripes; i++) {
+            doorkeepers[i] = new FrequencySketch(expectedKeys / stripes);
+        }
+        this.mask = stripes - 1;
+    }
+
+    /**
+     * Counts a miss and tells whether its response is admitted.
+     *
+     * @param key the cache key of the request
+     *
+     * @return {@code true} if the response may be stored
+     */
+    public boolean admit(String key) {
+        if (minMisses <= 1)
+            return true;
+        // the sketches hash the keys again, differently, to choose their counters
+        int hash = key.hashCode() * 0x9e3779b9;
+        FrequencySketch doorkeeper = doorkeepers[(hash >>> 16) & mask];
+        synchronized (doorkeeper) {
+            return doorkeeper.increment(key) >= minMisses;
+        }
+    }
+}
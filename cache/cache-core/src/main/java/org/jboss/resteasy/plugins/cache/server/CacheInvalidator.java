@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Invalidates cached resources by tag or by URI prefix.
+ * <p>
+ * The invalidator keeps an index of the cached keys, their paths and their tags. Tags are attached with
+ * {@link CacheTags} or with the {@value #SURROGATE_KEY} response header, which holds a space separated list of tags.
+ * The index is bounded: once it holds its maximum number of keys, the oldest indexed key is evicted from both the index
+ * and the cache, so every cached resource can always be invalidated. The index should therefore hold at least as many
+ * keys as the cache.
+ * </p>
+ * <p>
+ * The invalidator of a deployment is available as the {@code org.jboss.resteasy.plugins.cache.server.CacheInvalidator}
+ * property of the JAX-RS {@link jakarta.ws.rs.core.Configuration}.
+ * </p>
+ */
+public class CacheInvalidator {
+    /**
+     * The response header holding the tags of a response.
+     */
+    public static final String SURROGATE_KEY = "Surrogate-Key";
+
+    // separates the path from the full key in the sorted path index
+    private static final char SEPARATOR = '\u0000';
+
+    private final ServerCache cache;
+    private final int maxKeys;
+    private final ConcurrentMap<String, Indexed> keys = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, String> order = new ConcurrentSkipListMap<>();
+    private final NavigableSet<String> paths = new ConcurrentSkipListSet<>();
+    private final ConcurrentMap<String, Set<String>> tags = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Creates an invalidator.
+     *
+     * @param cache   the cache to invalidate
+     * @param maxKeys the maximum number of keys to index
+     */
+    public CacheInvalidator(final ServerCache cache, final int maxKeys) {
+        this.cache = cache;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Indexes a cached key.
+     *
+     * @param key     the cache key
+     * @param keyTags the tags of the cached response
+     */
+    public void add(String key, Collection<String> keyTags) {
+        Indexed indexed = new Indexed(sequence.incrementAndGet(), key, keyTags);
+        Indexed previous = keys.put(key, indexed);
+        order.put(indexed.sequence, key);
+        if (previous != null) {
+            order.remove(previous.sequence, key);
+            for (String tag : previous.tags) {
+                if (!indexed.tags.contains(tag)) {
+                    untag(tag, key);
+                }
+            }
+        } else {
+            paths.add(indexed.path);
+        }
+        for (String tag : indexed.tags) {
+            tags.computeIfAbsent(tag, t -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        while (keys.size() > maxKeys) {
+            Map.Entry<Long, String> oldest = order.pollFirstEntry();
+            if (oldest == null)
+                break;
+            Indexed evicted = keys.get(oldest.getValue());
+            if (evicted != null && evicted.sequence == oldest.getKey()) {
+                invalidate(oldest.getValue());
+            }
+        }
+    }
+
+    /**
+     * Invalidates a single cached key.
+     *
+     * @param key the cache key
+     */
+    public void invalidate(String key) {
+        cache.remove(key);
+        Indexed indexed = keys.remove(key);
+        if (indexed == null)
+            return;
+        order.remove(indexed.sequence, key);
+        paths.remove(indexed.path);
+        for (String tag : indexed.tags) {
+            untag(tag, key);
+        }
+    }
+
+    /**
+     * Invalidates all the cached resources tagged with the given tag.
+     *
+     * @param tag the tag
+     */
+    public void invalidateTag(String tag) {
+        Set<String> tagged = tags.remove(tag);
+        if (tagged == null)
+            return;
+        for (String key : tagged) {
+            invalidate(key);
+        }
+    }
+
+    /**
+     * Invalidates all the cached resources whose URI starts with the given prefix.
+     *
+     * @param prefix an absolute URI prefix, or a path prefix such as {@code /orders/} matching any host
+     */
+    public void invalidatePrefix(String prefix) {
+        String pathPrefix = getPath(prefix);
+        for (String key : keysWithPathPrefix(pathPrefix)) {
+            if (prefix.startsWith("/") || key.startsWith(prefix)) {
+                invalidate(key);
+            }
+        }
+    }
+
+    /**
+     * Invalidates a cached resource, the resources below it and the resources above it. For {@code /orders/42}
+     * these are {@code /orders/42}, {@code /orders/42/items} and {@code /orders}, each with any query, but not
+     * {@code /orders/43}. Only the resources of the same scheme and authority are invalidated if the key is an
+     * absolute URI.
+     *
+     * @param key the cache key of the resource
+     */
+    public void invalidateHierarchy(String key) {
+        String path = getPath(key);
+        String origin = getOrigin(key);
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        if (path.endsWith("/") && path.length() > 1) {
+            path = path.substring(0, path.length() - 1);
+        }
+        invalidatePath(origin, path);
+        invalidate(origin, keysWithPathPrefix(path + "/"));
+        for (int slash = path.lastIndexOf('/'); slash > 0; slash = path.lastIndexOf('/', slash - 1)) {
+            invalidatePath(origin, path.substring(0, slash));
+            invalidatePath(origin, path.substring(0, slash + 1));
+        }
+    }
+
+    /**
+     * Returns the number of indexed keys.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return keys.size();
+    }
+
+    private void invalidatePath(String origin, String path) {
+        invalidate(origin, keysWithPathPrefix(path + SEPARATOR));
+        invalidate(origin, keysWithPathPrefix(path + "?"));
+    }
+
+    private void invalidate(String origin, List<String> matches) {
+        for (String key : matches) {
+            // the path index matches any host
+            if (origin.isEmpty() || origin.equals(getOrigin(key))) {
+                invalidate(key);
+            }
+        }
+    }
+
+    private List<String> keysWithPathPrefix(String pathPrefix) {
+        Set<String> matches = paths.subSet(pathPrefix, true, pathPrefix + Character.MAX_VALUE, false);
+        if (matches.isEmpty())
+            return Collections.emptyList();
+        List<String> result = new ArrayList<>();
+        for (String path : matches) {
+            result.add(path.substring(path.indexOf(SEPARATOR) + 1));
+        }
+        return result;
+    }
+
+    private void untag(String tag, String key) {
+        tags.computeIfPresent(tag, (t, tagged) -> {
+            tagged.remove(key);
+            return tagged.isEmpty() ? null : tagged;
+        });
+    }
+
+    /**
+     * Returns the path and query of a URI, or the value itself if it is not absolute.
+     */
+    private static String getPath(String uri) {
+        int scheme = uri.indexOf("://");
+        if (scheme < 0 || uri.startsWith("/"))
+            return uri;
+        int path = uri.indexOf('/', scheme + 3);
+        return path < 0 ? "/" : uri.substring(path);
+    }
+
+    /**
+     * Returns the scheme and authority of a URI, or an empty string if it is not absolute.
+     */
+    private static String getOrigin(String uri) {
+        int scheme = uri.indexOf("://");
+        if (scheme < 0 || uri.startsWith("/"))
+            return "";
+        int path = uri.indexOf('/', scheme + 3);
+        return path < 0 ? uri : uri.substring(0, path);
+    }
+
+    private static class Indexed {
+        final long sequence;
+        final String path;
+        final Set<String> tags;
+
+        Indexed(final long sequence, final String key, final Collection<String> tags) {
+            this.sequence = sequence;
+            this.path = getPath(key) + SEPARATOR + key;
+            this.tags = tags.isEmpty() ? Collections.emptySet() : Set.copyOf(tags);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.net.URI;
+
+/**
+ * Creates the key a request is cached under. Requests for the same resource which differ in insignificant ways, such
+ * as the order of their query parameters, should map to the same key so they share a cache entry.
+ * <p>
+ * The key is created once per request by the {@link ServerCacheHitFilter} and kept in the
+ * {@link ServerCacheHitFilter#CACHE_KEY} request property for the {@link ServerCacheInterceptor}.
+ * </p>
+ */
+public interface CacheKeyStrategy {
+
+    /**
+     * Keys a request by its request URI as is.
+     */
+    CacheKeyStrategy VERBATIM = URI::toString;
+
+    /**
+     * Creates the cache key of a request.
+     *
+     * @param requestUri the absolute request URI, including the query
+     *
+     * @return the cache key
+     */
+    String getKey(URI requestUri);
+}
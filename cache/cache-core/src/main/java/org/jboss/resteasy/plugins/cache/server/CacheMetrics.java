@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server;
+
+/**
+ * Receives the events of the server cache, so hit ratios, miss latencies and eviction rates can be monitored.
+ * <p>
+ * Events are reported per endpoint, the URI template of the resource method, such as {@code /orders/{id}}. The endpoint
+ * is {@code null} for events the cache itself reports. Implementations are called on the request path and must be
+ * thread safe and fast.
+ * </p>
+ * <p>
+ * A custom implementation can be set as the {@code org.jboss.resteasy.plugins.cache.server.CacheMetrics} property of
+ * the JAX-RS configuration. By default {@link ServerCacheFeature} uses {@link DefaultCacheMetrics}.
+ * </p>
+ */
+public interface CacheMetrics {
+
+    /**
+     * Metrics which discard all events.
+     */
+    CacheMetrics NONE = new CacheMetrics() {
+    };
+
+    /**
+     * A request was served a fresh cached response.
+     *
+     * @param endpoint the endpoint
+     */
+    default void hit(String endpoint) {
+    }
+
+    /**
+     * A request was served an expired cached response, per {@code stale-while-revalidate} or {@code stale-if-error}.
+     *
+     * @param endpoint the endpoint
+     */
+    default void staleHit(String endpoint) {
+    }
+
+    /**
+     * A conditional request was answered with {@code 304 Not Modified}.
+     *
+     * @param endpoint the endpoint
+     */
+    default void notModified(String endpoint) {
+    }
+
+    /**
+     * A request was not found in the cache and was passed to the resource method.
+     *
+     * @param endpoint the endpoint
+     */
+    default void miss(String endpoint) {
+    }
+
+    /**
+     * A response was stored in the cache.
+     *
+     * @param endpoint    the endpoint
+     * @param bytes       the size of the stored entity
+     * @param missLatency the time, in nanoseconds, from the cache miss until the response was stored, or {@code -1}
+     *                    if it is not known
+     */
+    default void stored(String endpoint, long bytes, long missLatency) {
+    }
+
+    /**
+     * A response was not stored in the cache, because it is not cacheable or because the cache did not admit it.
+     *
+     * @param endpoint the endpoint, or {@code null} if the cache rejected the response
+     */
+    default void rejected(String endpoint) {
+    }
+
+    /**
+     * A cached resource was evicted to make room for others.
+     *
+     * @param bytes the size of the evicted resource, or {@code 0} if it is not known
+     */
+    default void evicted(long bytes) {
+    }
+
+    /**
+     * An ETag was created.
+     *
+     * @param nanos the time spent completing the hash, in nanoseconds
+     */
+    default void hashed(long nanos) {
+    }
+}
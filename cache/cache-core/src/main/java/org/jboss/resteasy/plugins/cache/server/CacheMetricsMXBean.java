@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.util.Map;
+
+/**
+ * The management interface of the server cache metrics, see {@link DefaultCacheMetrics}.
+ */
+public interface CacheMetricsMXBean {
+
+    long getHits();
+
+    long getStaleHits();
+
+    long getNotModified();
+
+    long getMisses();
+
+    /**
+     * Returns the share of requests served from the cache, stale hits included.
+     *
+     * @return the hit ratio, between {@code 0} and {@code 1}
+     */
+    double getHitRatio();
+
+    long getStores();
+
+    long getStoredBytes();
+
+    long getRejects();
+
+    long getEvictions();
+
+    long getEvictedBytes();
+
+    /**
+     * Returns the mean time spent completing ETag hashes.
+     *
+     * @return the mean time in microseconds
+     */
+    double getMeanHashTime();
+
+    /**
+     * Returns the statistics of each endpoint, by URI template.
+     *
+     * @return the statistics
+     */
+    Map<String, EndpointStatistics> getEndpoints();
+
+    /**
+     * Resets all the metrics.
+     */
+    void reset();
+}
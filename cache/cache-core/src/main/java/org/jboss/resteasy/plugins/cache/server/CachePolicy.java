@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.net.URI;
+import java.util.Arrays;
+
+import jakarta.ws.rs.core.CacheControl;
+
+/**
+ * The cache policy of a resource method, parsed once from its {@link ServerCached} annotation. The policy of the
+ * matched method is kept in the {@link #PROPERTY} request property.
+ */
+public final class CachePolicy {
+    /**
+     * Request property holding the policy of the matched resource method.
+     */
+    public static final String PROPERTY = CachePolicy.class.getName();
+
+    private final CacheControl cacheControl;
+    private final String cacheControlHeader;
+    private final String vary;
+    private final CacheKeyStrategy keyStrategy;
+    private final long maxBodyBytes;
+
+    private CachePolicy(final ServerCached cached) {
+        CacheControl cc = new CacheControl();
+        cc.setMaxAge(cached.maxAge());
+        if (cached.staleWhileRevalidate() > 0) {
+            cc.getCacheExtension().put(ServerCache.STALE_WHILE_REVALIDATE,
+                    Integer.toString(cached.staleWhileRevalidate()));
+        }
+        this.cacheControl = cc;
+        this.cacheControlHeader = PreparedHeaders.toString(cc);
+        this.vary = cached.varyOn().length == 0 ? null : String.join(", ", cached.varyOn());
+        // keeping all the parameters is what the configured strategy does anyway
+        this.keyStrategy = Arrays.asList(cached.keyParams()).contains("*") ? null
+                : CanonicalCacheKeyStrategy.keeping(Arrays.asList(cached.keyParams()));
+        this.maxBodyBytes = cached.maxBodyBytes();
+    }
+
+    /**
+     * Parses the policy of an annotation.
+     *
+     * @param cached the annotation
+     *
+     * @return the policy
+     */
+    public static CachePolicy of(ServerCached cached) {
+        return new CachePolicy(cached);
+    }
+
+    /**
+     * Returns the cache control of responses. It is shared by all the responses and must not be modified.
+     *
+     * @return the cache control
+     */
+    public CacheControl getCacheControl() {
+        return cacheControl;
+    }
+
+    /**
+     * Returns the {@code Cache-Control} header of responses, serialized once.
+     *
+     * @return the header value
+     */
+    public String getCacheControlHeader() {
+        return cacheControlHeader;
+    }
+
+    /**
+     * Returns the {@code Vary} header of responses.
+     *
+     * @return the header value or {@code null} if responses do not vary
+     */
+    public String getVary() {
+        return vary;
+    }
+
+    /**
+     * Creates the cache key of a request.
+     *
+     * @param requestUri the request URI
+     * @param fallback   the strategy keying requests if the policy keeps all the query parameters
+     *
+     * @return the cache key
+     */
+    public String getKey(URI requestUri, CacheKeyStrategy fallback) {
+        return (keyStrategy != null ? keyStrategy : fallback).getKey(requestUri);
+    }
+
+    /**
+     * Returns the size of the largest response which is cached.
+     *
+     * @return the maximum size in bytes or {@code -1} for no limit
+     */
+    public long getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.lang.reflect.Method;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.DynamicFeature;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.FeatureContext;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+/**
+ * Resolves the {@link ServerCached} policies of the {@code GET} resource methods when the application is deployed.
+ * Annotated methods are bound a filter which passes their {@link CachePolicy} to the {@link ServerCacheHitFilter} and
+ * the {@link ServerCacheInterceptor} and sets the headers of the policy on their responses.
+ * <p>
+ * If the feature is given the interceptor, only annotated methods are cached: the interceptor is bound to them alone,
+ * so the other methods do not pass it at all.
+ * </p>
+ */
+public class CachePolicyFeature implements DynamicFeature {
+    private final ServerCacheInterceptor interceptor;
+
+    /**
+     * Creates the feature.
+     *
+     * @param interceptor the interceptor to bind to annotated methods only, or {@code null} if it is registered for all
+     *                    methods
+     */
+    public CachePolicyFeature(final ServerCacheInterceptor interceptor) {
+        this.interceptor = interceptor;
+    }
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        Method method = resourceInfo.getResourceMethod();
+        if (method == null || !method.isAnnotationPresent(GET.class))
+            return;
+        ServerCached cached = method.getAnnotation(ServerCached.class);
+        if (cached == null) {
+            cached = resourceInfo.getResourceClass().getAnnotation(ServerCached.class);
+        }
+        if (cached == null)
+            return;
+        context.register(new PolicyFilter(CachePolicy.of(cached)));
+        if (interceptor != null) {
+            context.register(interceptor);
+        }
+    }
+
+    /**
+     * Runs before the {@link ServerCacheHitFilter} on requests, so that it keys them by the policy, and after it on
+     * responses.
+     */
+    @Priority(Priorities.USER - 100)
+    static final class PolicyFilter implements ContainerRequestFilter, ContainerResponseFilter {
+        private final CachePolicy policy;
+
+        PolicyFilter(final CachePolicy policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public void filter(ContainerRequestContext request) {
+            request.setProperty(CachePolicy.PROPERTY, policy);
+        }
+
+        @Override
+        public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+            if (response.getStatus() != ServerCache.OK)
+                return;
+            MultivaluedMap<String, Object> headers = response.getHeaders();
+            if (!headers.containsKey(HttpHeaders.CACHE_CONTROL)) {
+                // the interceptor recognises the header of the policy and does not parse it
+                headers.putSingle(HttpHeaders.CACHE_CONTROL, policy.getCacheControlHeader());
+            }
+            if (policy.getVary() != null && !headers.containsKey(HttpHeaders.VARY)) {
+                headers.putSingle(HttpHeaders.VARY, policy.getVary());
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.resteasy.plugins.cache.server.i18n.Messages;
+
+/**
+ * Writes the resources of a {@link ServerCache} to a file and reads them back, so that a restarted node does not start
+ * with an empty cache. Resources are written in the binary format of the {@link ServerCacheMarshaller}; only those
+ * which can still be served are written and read back, and they keep the time they were stored.
+ */
+public final class CacheSnapshot {
+    // "RCSS", a RESTEasy cache snapshot
+    private static final int MAGIC = 0x52435353;
+
+    private CacheSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of a cache. The file is replaced once the snapshot is complete, a failed write leaves the
+     * previous snapshot in place.
+     *
+     * @param cache the cache, see {@link ServerCache#forEachResource}
+     * @param file  the file to write
+     *
+     * @return the number of resources written
+     *
+     * @throws IOException if writing fails
+     */
+    public static int write(ServerCache cache, Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        AtomicInteger count = new AtomicInteger();
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                BinaryFormat.writeVersion(out);
+                IOException[] failure = new IOException[1];
+                cache.forEachResource((uri, group) -> {
+                    if (failure[0] != null || group.getRetentionInSeconds() <= 0)
+                        return;
+                    try {
+                        BinaryFormat.writeString(out, uri);
+                        group.writeTo(out);
+                        count.incrementAndGet();
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                });
+                if (failure[0] != null)
+                    throw failure[0];
+                BinaryFormat.writeString(out, null);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return count.get();
+    }
+
+    /**
+     * Reads a snapshot into a cache, see {@link ServerCache#restore(String, VariantGroup)}.
+     *
+     * @param cache the cache
+     * @param file  the snapshot
+     *
+     * @return the number of resources read
+     *
+     * @throws IOException if the file cannot be read or is not a snapshot of a supported version
+     */
+    public static int read(ServerCache cache, Path file) throws IOException {
+        int count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC)
+                throw new InvalidObjectException(Messages.MESSAGES.notASnapshot(file.toString()));
+            int version = BinaryFormat.readVersion(in);
+            String uri;
+            while ((uri = BinaryFormat.readString(in)) != null) {
+                cache.restore(uri, VariantGroup.readFrom(in, version));
+                count++;
+            }
+        }
+        return count;
+    }
+}
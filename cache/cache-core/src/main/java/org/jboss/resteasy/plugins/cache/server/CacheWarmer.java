@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.ws.rs.core.HttpHeaders;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Warms the server cache up when a node starts, so that the first requests after a deployment do not all go to the
+ * resource methods. Resources are restored from a {@link CacheSnapshot} written when the previous node shut down,
+ * and the requests of a manifest are replayed through the application, at most a given number at a time, to cache
+ * their responses.
+ * <p>
+ * A manifest has one request per line, the URI and optionally the {@code Accept} header separated by white space.
+ * Relative URIs are resolved against the base URI of the application; empty lines and lines starting with {@code #}
+ * are skipped. The replay starts right away and waits for the application to accept connections.
+ * </p>
+ * <p>
+ * The progress is available through {@link CacheWarmerMXBean}, for example for a readiness check.
+ * </p>
+ */
+public class CacheWarmer implements CacheWarmerMXBean {
+    private static final Logger LOGGER = Logger.getLogger(CacheWarmer.class);
+    // how long a request waits for the application to accept connections
+    private static final int CONNECT_ATTEMPTS = 60;
+    private static final long CONNECT_INTERVAL = 1000;
+
+    private final ServerCache cache;
+    private volatile int restored;
+    private volatile int requests;
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile boolean replaying;
+
+    /**
+     * Creates a warmer.
+     *
+     * @param cache the cache to warm up
+     */
+    public CacheWarmer(final ServerCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Restores the resources of a snapshot, if it exists. A snapshot which cannot be read is skipped.
+     *
+     * @param snapshot the snapshot file
+     */
+    public void restore(Path snapshot) {
+        if (!Files.exists(snapshot))
+            return;
+        try {
+            restored = CacheSnapshot.read(cache, snapshot);
+        } catch (IOException e) {
+            LOGGER.warnf(e, "Could not read the server cache snapshot %s", snapshot);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the cache, for the next node to {@link #restore(Path)}.
+     *
+     * @param snapshot the snapshot file
+     */
+    public void writeSnapshot(Path snapshot) {
+        try {
+            int count = CacheSnapshot.write(cache, snapshot);
+            LOGGER.debugf("Wrote %d resources to the server cache snapshot %s", count, snapshot);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warnf(e, "Could not write the server cache snapshot %s", snapshot);
+        }
+    }
+
+    /**
+     * Starts replaying the requests of a manifest.
+     *
+     * @param manifest    the manifest file
+     * @param baseUri     the base URI of the application
+     * @param concurrency the maximum number of requests in progress
+     *
+     * @throws IOException if the manifest cannot be read
+     */
+    public void replay(Path manifest, URI baseUri, int concurrency) throws IOException {
+        List<HttpRequest> parsed = new ArrayList<>();
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+            String[] fields = line.split("\\s+", 2);
+            HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(fields[0])).GET();
+            if (fields.length > 1) {
+                request.header(HttpHeaders.ACCEPT, fields[1]);
+            }
+            parsed.add(request.build());
+        }
+        requests = parsed.size();
+        if (parsed.isEmpty())
+            return;
+        replaying = true;
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, task -> {
+            Thread thread = new Thread(task, "server-cache-warmer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // the client has an executor of its own, the pool threads are blocked in send()
+        HttpClient client = HttpClient.newHttpClient();
+        for (HttpRequest request : parsed) {
+            executor.execute(() -> send(client, request));
+        }
+        executor.shutdown();
+    }
+
+    private void send(HttpClient client, HttpRequest request) {
+        try {
+            for (int attempt = 1;; attempt++) {
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() >= 400) {
+                        failed.incrementAndGet();
+                    }
+                    return;
+                } catch (ConnectException e) {
+                    // the application is not accepting connections yet
+                    if (attempt == CONNECT_ATTEMPTS)
+                        throw e;
+                    TimeUnit.MILLISECONDS.sleep(CONNECT_INTERVAL);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.incrementAndGet();
+        } catch (IOException e) {
+            LOGGER.debugf(e, "Could not warm the server cache up with %s", request.uri());
+            failed.incrementAndGet();
+        } finally {
+            if (completed.incrementAndGet() == requests) {
+                replaying = false;
+            }
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return !replaying;
+    }
+
+    @Override
+    public int getRestored() {
+        return restored;
+    }
+
+    @Override
+    public int getRequests() {
+        return requests;
+    }
+
+    @Override
+    public int getCompleted() {
+        return completed.get();
+    }
+
+    @Override
+    public int getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public double getProgress() {
+        int total = requests;
+        return total == 0 ? 1 : (double) completed.get() / total;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+/**
+ * The management interface of the warm-up of the server cache, see {@link CacheWarmer}.
+ */
+public interface CacheWarmerMXBean {
+
+    /**
+     * Returns whether the warm-up is over, whether it succeeded or not. Load balancers can hold traffic back until
+     * then.
+     *
+     * @return {@code true} once the snapshot is read and all the requests of the manifest are completed
+     */
+    boolean isReady();
+
+    /**
+     * Returns the number of resources read from the snapshot.
+     *
+     * @return the number of restored resources
+     */
+    int getRestored();
+
+    /**
+     * Returns the number of requests in the manifest.
+     *
+     * @return the number of requests
+     */
+    int getRequests();
+
+    int getCompleted();
+
+    int getFailed();
+
+    /**
+     * Returns the share of the requests of the manifest which are completed, failed requests included.
+     *
+     * @return the progress, between {@code 0} and {@code 1}
+     */
+    double getProgress();
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletionStage;
+
+import jakarta.ws.rs.core.StreamingOutput;
+
+import org.jboss.resteasy.spi.AsyncOutputStream;
+
+/**
+ * The body of a cached response. Implementations write their content straight to the output stream of the response, so
+ * serving a hit does not need to materialise the body as a single {@code byte[]}.
+ * <p>
+ * As a {@link StreamingOutput} a cached entity can be returned as a response entity even if the
+ * {@link CachedEntityWriter} is not registered.
+ * </p>
+ */
+public interface CachedEntity extends StreamingOutput {
+
+    /**
+     * Returns the number of bytes in this entity.
+     *
+     * @return the length of the entity
+     */
+    long getLength();
+
+    /**
+     * Writes the entity to the given output stream.
+     *
+     * @param output the stream to write to
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    void write(OutputStream output) throws IOException;
+
+    /**
+     * Writes the entity to the given asynchronous output stream.
+     *
+     * @param output the stream to write to
+     *
+     * @return a stage completed once the whole entity has been written
+     */
+    default CompletionStage<Void> asyncWrite(AsyncOutputStream output) {
+        return output.asyncWrite(toByteArray());
+    }
+
+    /**
+     * Writes a range of the entity to the given output stream. The default implementation writes the whole entity
+     * through a stream which drops the bytes outside of the range.
+     *
+     * @param output the stream to write to
+     * @param offset the offset of the first byte to write
+     * @param length the number of bytes to write
+     *
+     * @throws IOException if writing fails
+     */
+    default void write(OutputStream output, long offset, long length) throws IOException {
+        write(new OutputStream() {
+            private long position;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                long from = Math.max(position, offset);
+                long to = Math.min(position + len, offset + length);
+                if (from < to) {
+                    output.write(b, off + (int) (from - position), (int) (to - from));
+                }
+                position += len;
+            }
+        });
+    }
+
+    /**
+     * Writes a range of the entity to the given asynchronous output stream. The default implementation copies the
+     * whole entity.
+     *
+     * @param output the stream to write to
+     * @param offset the offset of the first byte to write
+     * @param length the number of bytes to write
+     *
+     * @return a stage completed once the range has been written
+     */
+    default CompletionStage<Void> asyncWrite(AsyncOutputStream output, long offset, long length) {
+        return output.asyncWrite(toByteArray(), Math.toIntExact(offset), Math.toIntExact(length));
+    }
+
+    /**
+     * Returns a view of a range of this entity. Nothing is copied, the view writes the range with
+     * {@link #write(OutputStream, long, long)} and {@link #asyncWrite(AsyncOutputStream, long, long)}.
+     *
+     * @param offset the offset of the first byte of the range
+     * @param length the length of the range
+     *
+     * @return the range
+     */
+    default CachedEntity slice(long offset, long length) {
+        if (offset < 0 || length < 0 || offset + length > getLength())
+            throw new IndexOutOfBoundsException();
+        return new EntitySlice(this, offset, length);
+    }
+
+    /**
+     * Returns this entity encoded with the given content coding, if such an encoding was stored with it.
+     *
+     * @param contentCoding the content coding, for example {@code gzip}
+     *
+     * @return the encoded entity or {@code null} if it is not available
+     */
+    default CachedEntity getEncoding(String contentCoding) {
+        return null;
+    }
+
+    /**
+     * Copies the entity into a new array.
+     *
+     * @return a copy of the entity
+     */
+    byte[] toByteArray();
+}
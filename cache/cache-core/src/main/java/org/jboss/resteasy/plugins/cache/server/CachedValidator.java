@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+/**
+ * The validator of a cached variant: its ETags, how long it is fresh and the headers of a {@code 304 Not Modified}
+ * response, without the entity. Conditional requests are answered from validators without loading the entity from the
+ * cache, see {@link ETagIndex}.
+ */
+public final class CachedValidator {
+    private final String etag;
+    private final MediaType mediaType;
+    private final VaryFingerprint varyFingerprint;
+    private final String cacheControl;
+    private final long stored;
+    private final long expires;
+    private final Set<String> contentCodings;
+
+    private CachedValidator(final ServerCache.Entry entry) {
+        long now = System.currentTimeMillis();
+        this.etag = entry.getEtag();
+        this.mediaType = entry.getMediaType();
+        this.varyFingerprint = entry.getVaryFingerprint();
+        this.cacheControl = entry.getPreparedHeaders().getCacheControl();
+        this.stored = now - entry.getAgeInSeconds() * 1000L;
+        this.expires = now + entry.getExpirationInSeconds() * 1000L;
+        CachedEntity entity = entry.getEntity();
+        this.contentCodings = entity instanceof EncodedEntity
+                ? Collections.unmodifiableSet(new HashSet<>(((EncodedEntity) entity).getEncodings().keySet()))
+                : Collections.emptySet();
+    }
+
+    /**
+     * Creates the validator of a cached entry.
+     *
+     * @param entry the entry
+     *
+     * @return the validator
+     */
+    public static CachedValidator of(ServerCache.Entry entry) {
+        return new CachedValidator(entry);
+    }
+
+    /**
+     * Returns the ETag of the variant.
+     *
+     * @return the ETag
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Returns the content codings the variant is stored in besides the identity encoding, each of which has an ETag of
+     * its own, see {@link EncodedEntity#getETag(String, String)}.
+     *
+     * @return the content codings
+     */
+    public Set<String> getContentCodings() {
+        return contentCodings;
+    }
+
+    /**
+     * Returns the {@code Cache-Control} header of the variant.
+     *
+     * @return the serialized header
+     */
+    public String getCacheControl() {
+        return cacheControl;
+    }
+
+    /**
+     * Returns how long ago, in seconds, the variant was stored.
+     *
+     * @return the value of the {@value PreparedHeaders#AGE} header
+     */
+    public int getAgeInSeconds() {
+        return (int) Math.max(0, (System.currentTimeMillis() - stored) / 1000);
+    }
+
+    /**
+     * Returns whether the variant is no longer fresh.
+     *
+     * @return {@code true} if it is expired
+     */
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= expires;
+    }
+
+    /**
+     * Returns whether this is the validator of the variant another entry replaces.
+     */
+    boolean isVariantOf(CachedValidator other) {
+        return mediaType.equals(other.mediaType) && varyFingerprint.getValue().equals(other.varyFingerprint.getValue());
+    }
+
+    /**
+     * Returns whether a request selects this variant, as {@link VariantGroup#match(MediaType, MultivaluedMap)} does.
+     */
+    boolean matches(MediaType accept, MultivaluedMap<String, String> headers) {
+        return accept.isCompatible(mediaType)
+                && varyFingerprint.getValue().equals(VaryFingerprint.of(varyFingerprint.getNames(), headers));
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The default {@link CacheKeyStrategy}. It normalises the request URI as described in
+ * <a href="https://www.rfc-editor.org/rfc/rfc3986#section-6.2.2">RFC 3986, section 6.2.2</a> and canonicalises its
+ * query:
+ * <ul>
+ * <li>the scheme and host are lower cased</li>
+ * <li>percent-encoded unreserved characters are decoded and the hex digits of the other percent-encodings are upper
+ * cased</li>
+ * <li>query parameters are sorted by name, keeping the order of parameters with the same name</li>
+ * <li>ignored query parameters, such as {@code utm_source}, are dropped, as are the parameters which are not kept if
+ * the strategy only keeps some, see {@link #keeping(Collection)}</li>
+ * </ul>
+ */
+public class CanonicalCacheKeyStrategy implements CacheKeyStrategy {
+    private final Set<String> ignored = new HashSet<>();
+    private final List<String> ignoredPrefixes = new ArrayList<>();
+    private Set<String> kept;
+    private final List<String> keptPrefixes = new ArrayList<>();
+
+    /**
+     * Creates a strategy which keeps all query parameters.
+     */
+    public CanonicalCacheKeyStrategy() {
+    }
+
+    /**
+     * Creates a strategy which drops the given query parameters.
+     *
+     * @param ignoredParameters the names of the parameters to drop; a name ending with {@code *}, such as
+     *                          {@code utm_*}, drops all the parameters starting with it
+     */
+    public CanonicalCacheKeyStrategy(final Collection<String> ignoredParameters) {
+        addNames(ignoredParameters, ignored, ignoredPrefixes);
+    }
+
+    /**
+     * Creates a strategy which drops all the query parameters but the given ones.
+     *
+     * @param keptParameters the names of the parameters to keep; a name ending with {@code *} keeps all the parameters
+     *                       starting with it
+     *
+     * @return the new strategy
+     */
+    public static CanonicalCacheKeyStrategy keeping(Collection<String> keptParameters) {
+        CanonicalCacheKeyStrategy strategy = new CanonicalCacheKeyStrategy();
+        strategy.kept = new HashSet<>();
+        addNames(keptParameters, strategy.kept, strategy.keptPrefixes);
+        return strategy;
+    }
+
+    private static void addNames(Collection<String> parameters, Set<String> names, List<String> prefixes) {
+        for (String name : parameters) {
+            if (name.endsWith("*")) {
+                prefixes.add(name.substring(0, name.length() - 1));
+            } else {
+                names.add(name);
+            }
+        }
+    }
+
+    @Override
+    public String getKey(URI requestUri) {
+        StringBuilder key = new StringBuilder(requestUri.toString().length());
+        if (requestUri.getScheme() != null) {
+            key.append(requestUri.getScheme().toLowerCase(Locale.ROOT)).append(':');
+        }
+        if (requestUri.getRawAuthority() != null) {
+            key.append("//").append(requestUri.getRawAuthority().toLowerCase(Locale.ROOT));
+        }
+        normalize(requestUri.getRawPath(), key);
+        String query = requestUri.getRawQuery();
+        if (query != null && !query.isEmpty()) {
+            appendQuery(query, key);
+        }
+        return key.toString();
+    }
+
+    private void appendQuery(String query, StringBuilder key) {
+        List<String> parameters = new ArrayList<>();
+        int start = 0;
+        while (start <= query.length()) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = query.length();
+            }
+            if (end > start) {
+                String parameter = normalize(query.substring(start, end), new StringBuilder()).toString();
+                if (!isIgnored(parameter)) {
+                    parameters.add(parameter);
+                }
+            }
+            start = end + 1;
+        }
+        if (parameters.isEmpty())
+            return;
+        // a stable sort keeps repeated parameters in their original order
+        parameters.sort((a, b) -> name(a).compareTo(name(b)));
+        char separator = '?';
+        for (String parameter : parameters) {
+            key.append(separator).append(parameter);
+            separator = '&';
+        }
+    }
+
+    private static String name(String parameter) {
+        int index = parameter.indexOf('=');
+        return index < 0 ? parameter : parameter.substring(0, index);
+    }
+
+    private boolean isIgnored(String parameter) {
+        if (ignored.isEmpty() && ignoredPrefixes.isEmpty() && kept == null)
+            return false;
+        String name = name(parameter);
+        if (kept != null && !matches(name, kept, keptPrefixes))
+            return true;
+        return matches(name, ignored, ignoredPrefixes);
+    }
+
+    private static boolean matches(String name, Set<String> names, List<String> prefixes) {
+        if (names.contains(name))
+            return true;
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix))
+                return true;
+        }
+        return false;
+    }
+
+    private static StringBuilder normalize(String value, StringBuilder out) {
+        if (value == null)
+            return out;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c != '%' || i + 2 >= length) {
+                out.append(c);
+                continue;
+            }
+            int high = Character.digit(value.charAt(i + 1), 16);
+            int low = Character.digit(value.charAt(i + 2), 16);
+            if (high < 0 || low < 0) {
+                out.append(c);
+                continue;
+            }
+            char decoded = (char) (high << 4 | low);
+            if (isUnreserved(decoded)) {
+                out.append(decoded);
+            } else {
+                out.append('%')
+                        .append(Character.toUpperCase(value.charAt(i + 1)))
+                        .append(Character.toUpperCase(value.charAt(i + 2)));
+            }
+            i += 2;
+        }
+        return out;
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * A concurrent map holding at most a given number of entries, evicted with the CLOCK algorithm: a read only marks its
+ * entry as referenced, without locking, and the eviction passes over the entries in the order they were added, giving
+ * the referenced ones a second chance, until it finds one which was not read since it was last passed over. This
+ * approximates evicting the least recently used entry, in constant amortized time.
+ */
+final class ClockMap<K, V> {
+    private final int maxEntries;
+    private final ConcurrentHashMap<K, Node<K, V>> map = new ConcurrentHashMap<>();
+    // the entries in clock order, including those removed since they were added, which are dropped when passed over
+    private final Queue<Node<K, V>> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private static final class Node<K, V> {
+        private final K key;
+        private volatile V value;
+        private volatile boolean referenced;
+
+        private Node(final K key, final V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Creates a map.
+     *
+     * @param maxEntries the maximum number of entries
+     */
+    ClockMap(final int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the value of a key and marks it as referenced.
+     *
+     * @param key the key
+     *
+     * @return the value or {@code null} if there is none
+     */
+    V get(Object key) {
+        Node<K, V> node = map.get(key);
+        if (node == null)
+            return null;
+        if (!node.referenced) {
+            node.referenced = true;
+        }
+        return node.value;
+    }
+
+    /**
+     * Computes the value of a key atomically, see {@link ConcurrentHashMap#compute}, and evicts entries if a new one
+     * makes the map exceed its maximum size. Replacing the value of an entry counts as a read, a new entry is not
+     * referenced until it is read.
+     *
+     * @param key       the key
+     * @param remapping computes the new value from the current one, returns {@code null} to remove the entry
+     *
+     * @return the new value
+     */
+    V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+        @SuppressWarnings("unchecked")
+        Node<K, V>[] added = new Node[1];
+        Object[] computed = new Object[1];
+        map.compute(key, (k, node) -> {
+            V value = remapping.apply(k, node == null ? null : node.value);
+            computed[0] = value;
+            if (value == null)
+                return null;
+            if (node != null) {
+                node.value = value;
+                node.referenced = true;
+                return node;
+            }
+            added[0] = new Node<>(k, value);
+            return added[0];
+        });
+        if (added[0] != null) {
+            clock.add(added[0]);
+            queued.incrementAndGet();
+            evict();
+        }
+        @SuppressWarnings("unchecked")
+        V value = (V) computed[0];
+        return value;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key
+     */
+    void remove(Object key) {
+        map.remove(key);
+    }
+
+    /**
+     * Removes a key if it still has the given value, compared by identity.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    void remove(K key, V value) {
+        map.computeIfPresent(key, (k, node) -> node.value == value ? null : node);
+    }
+
+    /**
+     * Removes all the entries.
+     */
+    void clear() {
+        map.clear();
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of entries
+     */
+    int size() {
+        return map.size();
+    }
+
+    private void evict() {
+        if (map.size() <= maxEntries && queued.get() <= 2 * maxEntries)
+            return;
+        synchronized (clock) {
+            // two passes clear every reference, the entries read meanwhile are not spared again
+            int passes = 2 * queued.get();
+            while (map.size() > maxEntries || queued.get() > 2 * maxEntries) {
+                Node<K, V> node = clock.poll();
+                if (node == null)
+                    break;
+                if (map.get(node.key) != node) {
+                    // removed since it was added
+                    queued.decrementAndGet();
+                } else if (node.referenced && passes-- > 0) {
+                    node.referenced = false;
+                    clock.add(node);
+                } else if (map.size() > maxEntries) {
+                    queued.decrementAndGet();
+                    map.remove(node.key, node);
+                } else {
+                    // only stale nodes to drop
+                    clock.add(node);
+                    if (passes-- <= 0)
+                        break;
+                }
+            }
+        }
+    }
+}
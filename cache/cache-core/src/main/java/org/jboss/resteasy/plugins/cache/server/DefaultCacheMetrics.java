@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The default {@link CacheMetrics}: lock free {@link LongAdder} counters and {@link LatencyHistogram}s, kept in total
+ * and per endpoint. The metrics can be read through {@link CacheMetricsMXBean}, and registered with JMX by setting
+ * {@link ServerCacheFeature#METRICS_JMX}.
+ */
+public class DefaultCacheMetrics implements CacheMetrics, CacheMetricsMXBean {
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Endpoint total = new Endpoint();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder evictedBytes = new LongAdder();
+    private final LatencyHistogram hashTime = new LatencyHistogram();
+
+    @Override
+    public void hit(String endpoint) {
+        total.hits.increment();
+        Endpoint metrics = endpoint(endpoint);
+        if (metrics != null)
+            metrics.hits.increment();
+    }
+
+    @Override
+    public void staleHit(String endpoint) {
+        total.staleHits.increment();
+        Endpoint metrics = endpoint(endpoint);
+        if (metrics != null)
+            metrics.staleHits.increment();
+    }
+
+    @Override
+    public void notModified(String endpoint) {
+        total.notModified.increment();
+        Endpoint metrics = endpoint(endpoint);
+        if (metrics != null)
+            metrics.notModified.increment();
+    }
+
+    @Override
+    public void miss(String endpoint) {
+        total.misses.increment();
+        Endpoint metrics = endpoint(endpoint);
+        if (metrics != null)
+            metrics.misses.increment();
+    }
+
+    @Override
+    public void stored(String endpoint, long bytes, long missLatency) {
+        total.stored(bytes, missLatency);
+        Endpoint metrics = endpoint(endpoint);
+        if (metrics != null)
+            metrics.stored(bytes, missLatency);
+    }
+
+    @Override
+    public void rejected(String endpoint) {
+        total.rejects.increment();
+        Endpoint metrics = endpoint(endpoint);
+        if (metrics != null)
+            metrics.rejects.increment();
+    }
+
+    @Override
+    public void evicted(long bytes) {
+        evictions.increment();
+        evictedBytes.add(bytes);
+    }
+
+    @Override
+    public void hashed(long nanos) {
+        hashTime.record(nanos);
+    }
+
+    private Endpoint endpoint(String endpoint) {
+        if (endpoint == null)
+            return null;
+        Endpoint metrics = endpoints.get(endpoint);
+        return metrics != null ? metrics : endpoints.computeIfAbsent(endpoint, e -> new Endpoint());
+    }
+
+    /**
+     * Returns the miss latencies of all the endpoints.
+     *
+     * @return the histogram of miss latencies in nanoseconds
+     */
+    public LatencyHistogram getMissLatency() {
+        return total.missLatency;
+    }
+
+    @Override
+    public long getHits() {
+        return total.hits.sum();
+    }
+
+    @Override
+    public long getStaleHits() {
+        return total.staleHits.sum();
+    }
+
+    @Override
+    public long getNotModified() {
+        return total.notModified.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return total.misses.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hits = getHits() + getStaleHits();
+        long requests = hits + getMisses();
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public long getStores() {
+        return total.stores.sum();
+    }
+
+    @Override
+    public long getStoredBytes() {
+        return total.storedBytes.sum();
+    }
+
+    @Override
+    public long getRejects() {
+        return total.rejects.sum();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long getEvictedBytes() {
+        return evictedBytes.sum();
+    }
+
+    @Override
+    public double getMeanHashTime() {
+        return hashTime.getMean() / 1000.0;
+    }
+
+    @Override
+    public Map<String, EndpointStatistics> getEndpoints() {
+        Map<String, EndpointStatistics> statistics = new TreeMap<>();
+        endpoints.forEach((name, endpoint) -> statistics.put(name, new EndpointStatistics(endpoint)));
+        return statistics;
+    }
+
+    @Override
+    public void reset() {
+        endpoints.clear();
+        total.reset();
+        evictions.reset();
+        evictedBytes.reset();
+        hashTime.reset();
+    }
+
+    static class Endpoint {
+        final LongAdder hits = new LongAdder();
+        final LongAdder staleHits = new LongAdder();
+        final LongAdder notModified = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder stores = new LongAdder();
+        final LongAdder rejects = new LongAdder();
+        final LongAdder storedBytes = new LongAdder();
+        final LatencyHistogram missLatency = new LatencyHistogram();
+
+        void stored(long bytes, long latency) {
+            stores.increment();
+            storedBytes.add(bytes);
+            missLatency.record(latency);
+        }
+
+        void reset() {
+            hits.reset();
+            staleHits.reset();
+            notModified.reset();
+            misses.reset();
+            stores.reset();
+            rejects.reset();
+            storedBytes.reset();
+            missLatency.reset();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+/**
+ * Keeps the {@link CachedValidator validators} of the variants stored in or read from another {@link ServerCache}, so
+ * that {@code If-None-Match} revalidations are answered with a {@code 304 Not Modified} without loading the entity
+ * from a remote or disk tier.
+ * <p>
+ * A validator is dropped when its resource is removed or replaced through this cache or, if the wrapped cache supports
+ * {@link ServerCache#addRemovalListener removal listeners}, anywhere else. Evictions do not drop validators: until it
+ * expires, a validator still describes the response the resource method created. Once the index is full, the
+ * validators of the least recently used resources are dropped first, see {@link ClockMap}.
+ * </p>
+ */
+public class ETagIndex implements ServerCache {
+    private final ServerCache cache;
+    private final ClockMap<String, CachedValidator[]> validators;
+    // bumped by every removal so that a lookup racing with it does not index what it read
+    private final AtomicLong removals = new AtomicLong();
+
+    /**
+     * Creates an index.
+     *
+     * @param cache      the cache to index
+     * @param maxEntries the maximum number of resources indexed
+     */
+    public ETagIndex(final ServerCache cache, final int maxEntries) {
+        this.cache = cache;
+        this.validators = new ClockMap<>(maxEntries);
+        cache.addRemovalListener(this::invalidate);
+    }
+
+    @Override
+    public CachedValidator getValidator(String uri, MediaType accept, MultivaluedMap<String, String> headers) {
+        CachedValidator[] indexed = validators.get(uri);
+        if (indexed == null)
+            return null;
+        for (CachedValidator validator : indexed) {
+            if (!validator.isExpired() && validator.matches(accept, headers))
+                return validator;
+        }
+        return null;
+    }
+
+    @Override
+    public Entry get(String uri, MediaType accept, MultivaluedMap<String, String> headers) {
+        long removed = removals.get();
+        return index(uri, cache.get(uri, accept, headers), removed);
+    }
+
+    @Override
+    public CompletionStage<Entry> getAsync(String uri, MediaType accept, MultivaluedMap<String, String> headers) {
+        long removed = removals.get();
+        return cache.getAsync(uri, accept, headers).thenApply(entry -> index(uri, entry, removed));
+    }
+
+    @Override
+    public Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers,
+            byte[] entity, String etag, MultivaluedMap<String, String> varyHeaders) {
+        Entry entry = cache.add(uri, mediaType, cc, headers, entity, etag, varyHeaders);
+        return index(uri, entry, removals.get());
+    }
+
+    @Override
+    public Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers,
+            CachedEntity entity, String etag, MultivaluedMap<String, String> varyHeaders) {
+        Entry entry = cache.add(uri, mediaType, cc, headers, entity, etag, varyHeaders);
+        return index(uri, entry, removals.get());
+    }
+
+    @Override
+    public CompletionStage<Entry> addAsync(String uri, MediaType mediaType, CacheControl cc,
+            MultivaluedMap<String, Object> headers, CachedEntity entity, String etag,
+            MultivaluedMap<String, String> varyHeaders) {
+        return cache.addAsync(uri, mediaType, cc, headers, entity, etag, varyHeaders)
+                .thenApply(entry -> index(uri, entry, removals.get()));
+    }
+
+    @Override
+    public Entry add(String uri, int status, MediaType mediaType, CacheControl cc,
+            MultivaluedMap<String, Object> headers, CachedEntity entity, String etag,
+            MultivaluedMap<String, String> varyHeaders) {
+        if (status == OK)
+            return add(uri, mediaType, cc, headers, entity, etag, varyHeaders);
+        // an error response replaces the variant, its old validator must not answer revalidations any more
+        Entry entry = cache.add(uri, status, mediaType, cc, headers, entity, etag, varyHeaders);
+        invalidate(uri);
+        return entry;
+    }
+
+    @Override
+    public CompletionStage<Entry> addAsync(String uri, int status, MediaType mediaType, CacheControl cc,
+            MultivaluedMap<String, Object> headers, CachedEntity entity, String etag,
+            MultivaluedMap<String, String> varyHeaders) {
+        if (status == OK)
+            return addAsync(uri, mediaType, cc, headers, entity, etag, varyHeaders);
+        return cache.addAsync(uri, status, mediaType, cc, headers, entity, etag, varyHeaders)
+                .whenComplete((entry, t) -> invalidate(uri));
+    }
+
+    /**
+     * Indexes the validator of an entry, unless it is expired or the resource was removed since the given count of
+     * removals. An added entry is indexed with the count after the add, as the removal listener reports it too.
+     */
+    private Entry index(String uri, Entry entry, long removed) {
+        if (entry == null || entry.isExpired() || entry.getStatus() != OK)
+            return entry;
+        CachedValidator validator = CachedValidator.of(entry);
+        CachedValidator[] kept = validators.compute(uri, (key, indexed) -> {
+            if (indexed == null)
+                return new CachedValidator[] { validator };
+            // the newest validator first, as in a VariantGroup
+            CachedValidator[] merged = new CachedValidator[indexed.length + 1];
+            merged[0] = validator;
+            int size = 1;
+            for (CachedValidator other : indexed) {
+                if (!other.isVariantOf(validator) && !other.isExpired()) {
+                    merged[size++] = other;
+                }
+            }
+            return Arrays.copyOf(merged, size);
+        });
+        if (removals.get() != removed) {
+            validators.remove(uri, kept);
+        }
+        return entry;
+    }
+
+    private void invalidate(String uri) {
+        removals.incrementAndGet();
+        validators.remove(uri);
+    }
+
+    @Override
+    public void forEachResource(BiConsumer<String, VariantGroup> action) {
+        cache.forEachResource(action);
+    }
+
+    @Override
+    public void restore(String uri, VariantGroup group) {
+        cache.restore(uri, group);
+    }
+
+    @Override
+    public void remove(String uri) {
+        cache.remove(uri);
+        invalidate(uri);
+    }
+
+    @Override
+    public CompletionStage<Void> removeAsync(String uri) {
+        // no longer answered from now on, and not indexed again by a lookup racing with the removal
+        invalidate(uri);
+        return cache.removeAsync(uri).whenComplete((v, t) -> invalidate(uri));
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+        removals.incrementAndGet();
+        validators.clear();
+    }
+
+    @Override
+    public void setMetrics(CacheMetrics metrics) {
+        cache.setMetrics(metrics);
+    }
+
+    @Override
+    public boolean addRemovalListener(Consumer<String> listener) {
+        return cache.addRemovalListener(listener);
+    }
+}
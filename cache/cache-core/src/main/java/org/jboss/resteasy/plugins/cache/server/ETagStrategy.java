@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Creates the ETags of cached responses which do not set one themselves. The hash is computed incrementally while the
+ * entity is buffered, see {@link SegmentedEntityOutputStream#SegmentedEntityOutputStream(Hasher)}.
+ * <p>
+ * The default strategy, {@link #XXHASH64}, is a fast non-cryptographic hash. {@link #MD5} creates the same ETags as
+ * earlier versions did.
+ * </p>
+ */
+public interface ETagStrategy {
+
+    /**
+     * Hashes entities with xxHash64.
+     */
+    ETagStrategy XXHASH64 = XxHash64::new;
+
+    /**
+     * Hashes entities with MD5.
+     */
+    ETagStrategy MD5 = () -> new MessageDigestHasher("MD5");
+
+    /**
+     * Creates a hasher for a single entity.
+     *
+     * @return a new hasher
+     */
+    Hasher newHasher();
+
+    /**
+     * Returns the strategy with the given name.
+     *
+     * @param name {@code xxhash64}, {@code md5} or the name of a class implementing {@link ETagStrategy}
+     *
+     * @return the strategy
+     */
+    static ETagStrategy forName(String name) {
+        if ("xxhash64".equalsIgnoreCase(name))
+            return XXHASH64;
+        if ("md5".equalsIgnoreCase(name))
+            return MD5;
+        try {
+            return Class.forName(name, true, ETagStrategy.class.getClassLoader()).asSubclass(ETagStrategy.class)
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException(name, e);
+        }
+    }
+
+    /**
+     * Hashes the bytes of a single entity. Hashers are not thread safe.
+     */
+    interface Hasher {
+
+        /**
+         * Adds bytes to the hash.
+         *
+         * @param b   the bytes
+         * @param off the offset of the first byte
+         * @param len the number of bytes
+         */
+        void update(byte[] b, int off, int len);
+
+        /**
+         * Completes the hash.
+         *
+         * @return the ETag value
+         */
+        String getValue();
+    }
+
+    /**
+     * A hasher backed by a {@link MessageDigest}.
+     */
+    class MessageDigestHasher implements Hasher {
+        private final MessageDigest digest;
+
+        MessageDigestHasher(final String algorithm) {
+            try {
+                this.digest = MessageDigest.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public void update(byte[] b, int off, int len) {
+            digest.update(b, off, len);
+        }
+
+        @Override
+        public String getValue() {
+            return ServerCacheInterceptor.byteArrayToHexString(digest.digest());
+        }
+    }
+}
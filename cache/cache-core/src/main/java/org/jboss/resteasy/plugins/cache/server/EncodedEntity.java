@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.ws.rs.core.EntityTag;
+
+import org.jboss.resteasy.spi.AsyncOutputStream;
+
+/**
+ * A cached entity stored together with encodings of itself, so that a cache hit can be served compressed without
+ * compressing it again. The entity itself is the identity encoding; the others are looked up with
+ * {@link #getEncoding(String)}.
+ */
+public class EncodedEntity implements CachedEntity, Serializable {
+    private static final long serialVersionUID = 4410436931624374958L;
+
+    /**
+     * The {@code gzip} content coding.
+     */
+    public static final String GZIP = "gzip";
+    /**
+     * The {@code deflate} content coding, which is the zlib format.
+     */
+    public static final String DEFLATE = "deflate";
+
+    private final CachedEntity identity;
+    private final HashMap<String, CachedEntity> encodings;
+
+    EncodedEntity(final CachedEntity identity, final HashMap<String, CachedEntity> encodings) {
+        this.identity = identity;
+        this.encodings = encodings;
+    }
+
+    /**
+     * Encodes an entity with the given content codings at the default compression level. Encodings which are not
+     * smaller than the entity itself are not kept.
+     *
+     * @param entity         the entity to encode
+     * @param contentCodings the content codings, {@code gzip} and {@code deflate} are supported
+     *
+     * @return the entity with its encodings, or the entity itself if none was kept
+     *
+     * @throws IOException if encoding fails
+     */
+    public static CachedEntity encode(CachedEntity entity, Iterable<String> contentCodings) throws IOException {
+        return encode(entity, contentCodings, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Encodes an entity with the given content codings. Encodings which are not smaller than the entity itself are not
+     * kept.
+     *
+     * @param entity         the entity to encode
+     * @param contentCodings the content codings, {@code gzip} and {@code deflate} are supported
+     * @param level          the compression level, see {@link Deflater#setLevel(int)}
+     *
+     * @return the entity with its encodings, or the entity itself if none was kept
+     *
+     * @throws IOException if encoding fails
+     */
+    public static CachedEntity encode(CachedEntity entity, Iterable<String> contentCodings, int level)
+            throws IOException {
+        HashMap<String, CachedEntity> encodings = new HashMap<>();
+        for (String contentCoding : contentCodings) {
+            SegmentedEntityOutputStream buffer = new SegmentedEntityOutputStream();
+            try (OutputStream out = encoder(contentCoding, buffer, level)) {
+                entity.write(out);
+            }
+            if (buffer.getLength() < entity.getLength()) {
+                encodings.put(contentCoding, buffer.toEntity());
+            }
+        }
+        return encodings.isEmpty() ? entity : new EncodedEntity(entity, encodings);
+    }
+
+    /**
+     * Returns the ETag of an encoding of an entity. A strong validator must differ between the content codings of a
+     * resource, so the content coding is appended to the ETag of the identity encoding, for example
+     * {@code "a1b2-gzip"}.
+     *
+     * @param etag          the ETag of the identity encoding, quoted or not
+     * @param contentCoding the content coding
+     *
+     * @return the ETag of the encoding
+     */
+    public static EntityTag getETag(String etag, String contentCoding) {
+        EntityTag identity = ByteRanges.parseETag(etag);
+        return new EntityTag(identity.getValue() + "-" + contentCoding, identity.isWeak());
+    }
+
+    /**
+     * Checks whether a content coding is supported by {@link #encode(CachedEntity, Iterable)}.
+     *
+     * @param contentCoding the content coding
+     *
+     * @return {@code true} if the content coding is supported
+     */
+    public static boolean isSupported(String contentCoding) {
+        return GZIP.equals(contentCoding) || DEFLATE.equals(contentCoding);
+    }
+
+    private static OutputStream encoder(String contentCoding, OutputStream out, int level) throws IOException {
+        if (GZIP.equals(contentCoding)) {
+            return new GZIPOutputStream(out) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+        if (DEFLATE.equals(contentCoding)) {
+            return new DeflaterOutputStream(out, new Deflater(level)) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        def.end();
+                    }
+                }
+            };
+        }
+        throw new IllegalArgumentException(contentCoding);
+    }
+
+    /**
+     * Returns the identity encoding of this entity.
+     *
+     * @return the identity encoding
+     */
+    CachedEntity getIdentity() {
+        return identity;
+    }
+
+    /**
+     * Returns the content codings this entity is available in, besides the identity.
+     *
+     * @return the content codings
+     */
+    public Map<String, CachedEntity> getEncodings() {
+        return Collections.unmodifiableMap(encodings);
+    }
+
+    @Override
+    public CachedEntity getEncoding(String contentCoding) {
+        return encodings.get(contentCoding);
+    }
+
+    @Override
+    public long getLength() {
+        return identity.getLength();
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        identity.write(output);
+    }
+
+    @Override
+    public CompletionStage<Void> asyncWrite(AsyncOutputStream output) {
+        return identity.asyncWrite(output);
+    }
+
+    @Override
+    public void write(OutputStream output, long offset, long length) throws IOException {
+        identity.write(output, offset, length);
+    }
+
+    @Override
+    public CompletionStage<Void> asyncWrite(AsyncOutputStream output, long offset, long length) {
+        return identity.asyncWrite(output, offset, length);
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        return identity.toByteArray();
+    }
+}
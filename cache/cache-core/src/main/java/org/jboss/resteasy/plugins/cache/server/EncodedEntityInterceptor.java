@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionStage;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.ConstrainedTo;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.RuntimeType;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+import org.jboss.resteasy.spi.AsyncWriterInterceptor;
+import org.jboss.resteasy.spi.AsyncWriterInterceptorContext;
+
+/**
+ * Writes cache hits which the {@link ServerCacheHitFilter} serves with a stored content coding. The entity is already
+ * encoded, so this interceptor runs before the entity coders, such as the gzip encoding interceptor, and writes it
+ * without proceeding to them.
+ */
+@ConstrainedTo(RuntimeType.SERVER)
+@Priority(Priorities.ENTITY_CODER - 100)
+public class EncodedEntityInterceptor implements WriterInterceptor, AsyncWriterInterceptor {
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        if (isEncoded(context.getProperty(ServerCacheHitFilter.ENCODED_ENTITY), context.getEntity())) {
+            CachedEntity entity = (CachedEntity) context.getEntity();
+            context.getHeaders().putSingle(HttpHeaders.CONTENT_LENGTH, entity.getLength());
+            entity.write(context.getOutputStream());
+            return;
+        }
+        context.proceed();
+    }
+
+    @Override
+    public CompletionStage<Void> asyncAroundWriteTo(AsyncWriterInterceptorContext context) {
+        if (isEncoded(context.getProperty(ServerCacheHitFilter.ENCODED_ENTITY), context.getEntity())) {
+            CachedEntity entity = (CachedEntity) context.getEntity();
+            context.getHeaders().putSingle(HttpHeaders.CONTENT_LENGTH, entity.getLength());
+            return entity.asyncWrite(context.getAsyncOutputStream());
+        }
+        return context.asyncProceed();
+    }
+
+    private static boolean isEncoded(Object property, Object entity) {
+        return property != null && property == entity;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server;
+
+/**
+ * A snapshot of the cache statistics of a single endpoint. Latencies are in microseconds.
+ */
+public class EndpointStatistics {
+    private final long hits;
+    private final long staleHits;
+    private final long notModified;
+    private final long misses;
+    private final long stores;
+    private final long rejects;
+    private final long storedBytes;
+    private final double meanMissLatency;
+    private final double medianMissLatency;
+    private final double p99MissLatency;
+
+    EndpointStatistics(final DefaultCacheMetrics.Endpoint endpoint) {
+        this.hits = endpoint.hits.sum();
+        this.staleHits = endpoint.staleHits.sum();
+        this.notModified = endpoint.notModified.sum();
+        this.misses = endpoint.misses.sum();
+        this.stores = endpoint.stores.sum();
+        this.rejects = endpoint.rejects.sum();
+        this.storedBytes = endpoint.storedBytes.sum();
+        this.meanMissLatency = endpoint.missLatency.getMean() / 1000.0;
+        this.medianMissLatency = endpoint.missLatency.getPercentile(50) / 1000.0;
+        this.p99MissLatency = endpoint.missLatency.getPercentile(99) / 1000.0;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getStaleHits() {
+        return staleHits;
+    }
+
+    public long getNotModified() {
+        return notModified;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getStores() {
+        return stores;
+    }
+
+    public long getRejects() {
+        return rejects;
+    }
+
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    public double getMeanMissLatency() {
+        return meanMissLatency;
+    }
+
+    public double getMedianMissLatency() {
+        return medianMissLatency;
+    }
+
+    public double getP99MissLatency() {
+        return p99MissLatency;
+    }
+}
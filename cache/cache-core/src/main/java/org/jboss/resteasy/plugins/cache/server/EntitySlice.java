@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletionStage;
+
+import org.jboss.resteasy.spi.AsyncOutputStream;
+
+/**
+ * A range of a {@link CachedEntity}, see {@link CachedEntity#slice(long, long)}.
+ */
+class EntitySlice implements CachedEntity {
+    private final CachedEntity entity;
+    private final long offset;
+    private final long length;
+
+    EntitySlice(final CachedEntity entity, final long offset, final long length) {
+        this.entity = entity;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        entity.write(output, offset, length);
+    }
+
+    @Override
+    public CompletionStage<Void> asyncWrite(AsyncOutputStream output) {
+        return entity.asyncWrite(output, offset, length);
+    }
+
+    @Override
+    public void write(OutputStream output, long offset, long length) throws IOException {
+        entity.write(output, this.offset + offset, length);
+    }
+
+    @Override
+    public CompletionStage<Void> asyncWrite(AsyncOutputStream output, long offset, long length) {
+        return entity.asyncWrite(output, this.offset + offset, length);
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.toIntExact(length));
+        try {
+            write(bytes);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
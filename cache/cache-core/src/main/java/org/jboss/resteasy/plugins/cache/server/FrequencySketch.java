@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+/**
+ * Estimates how often keys have been seen recently with a counting Bloom filter: every key is counted in a few
+ * counters chosen by its hash, and its frequency is the smallest of them. Counters saturate at {@code 15}.
+ * <p>
+ * Only the smallest of the counters of a key are incremented, which keeps the estimates of keys sharing counters with
+ * popular keys low. Once there have been ten increments per expected key all the counters are halved, so old
+ * popularity fades away.
+ * </p>
+ * <p>
+ * This class is not thread safe, callers must synchronize access to it.
+ * </p>
+ */
+class FrequencySketch {
+    private static final int MAX_COUNT = 15;
+    private static final int HASHES = 4;
+    private static final int COUNTERS_PER_KEY = 8;
+    private static final int MAX_COUNTERS = 1 << 26;
+
+    private final byte[] counters;
+    private final int mask;
+    private final long agingPeriod;
+    private long increments;
+
+    /**
+     * Creates a sketch sized for the given number of distinct keys.
+     *
+     * @param expectedKeys the number of keys expected to be tracked at once
+     */
+    FrequencySketch(final long expectedKeys) {
+        long keys = Math.max(expectedKeys, 64);
+        long wanted = Math.min(keys * COUNTERS_PER_KEY, MAX_COUNTERS);
+        int size = (int) Long.highestOneBit(wanted - 1) << 1;
+        counters = new byte[size];
+        mask = size - 1;
+        agingPeriod = 10 * keys;
+    }
+
+    /**
+     * Returns the estimated number of times the key has been seen, at most {@code 15}.
+     *
+     * @param key the key
+     *
+     * @return the estimated frequency
+     */
+    int frequency(Object key) {
+        long hash = mix(key.hashCode());
+        int min = MAX_COUNT;
+        for (int i = 0; i < HASHES; i++) {
+            min = Math.min(min, counters[index(hash, i)]);
+        }
+        return min;
+    }
+
+    /**
+     * Records an occurrence of the key.
+     *
+     * @param key the key
+     *
+     * @return the estimated frequency of the key once it is counted, as {@link #frequency(Object)} would return it
+     */
+    int increment(Object key) {
+        long hash = mix(key.hashCode());
+        int min = MAX_COUNT;
+        for (int i = 0; i < HASHES; i++) {
+            min = Math.min(min, counters[index(hash, i)]);
+        }
+        if (min < MAX_COUNT) {
+            for (int i = 0; i < HASHES; i++) {
+                int index = index(hash, i);
+                if (counters[index] == min) {
+                    counters[index]++;
+                }
+            }
+        }
+        int count = min < MAX_COUNT ? min + 1 : MAX_COUNT;
+        if (++increments >= agingPeriod) {
+            age();
+            // halving keeps the order of the counters, the smallest one is still the key's
+            count >>= 1;
+        }
+        return count;
+    }
+
+    private void age() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] >>= 1;
+        }
+        increments /= 2;
+    }
+
+    /**
+     * Chooses the counter of the i-th hash function by double hashing the two halves of the mixed hash.
+     */
+    private int index(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return (h1 + i * h2) & mask;
+    }
+
+    /**
+     * Spreads the bits of a hash code over 64 bits with the finalizer of MurmurHash3.
+     */
+    private static long mix(int hashCode) {
+        long h = hashCode;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93e69ad1ca7L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -16,16 +16,21 @@
 
 package org.jboss.resteasy.plugins.cache.server;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import jakarta.ws.rs.core.CacheControl;
 import jakarta.ws.rs.core.Cookie;
@@ -35,6 +40,18 @@ import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.NewCookie;
 
 import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntriesEvicted;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryExpired;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryInvalidated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
+import org.infinispan.notifications.cachelistener.event.CacheEntriesEvictedEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryExpiredEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryInvalidatedEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryModifiedEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryRemovedEvent;
 
 /**
  * An HTTP cache that behaves somewhat the same way as a proxy (like Squid)
@@ -45,31 +62,86 @@ import org.infinispan.Cache;
 public class InfinispanCache implements ServerCache {
 
     public static class CacheEntry implements Entry, Serializable {
+        // the one entries had before the binary format, so that they can still be read, see readResolve()
         private static final long serialVersionUID = 2848638331930090578L;
 
-        private byte[] cached;
+        private CachedEntity entity;
         private int expires;
         private long timestamp = System.currentTimeMillis();
         private String etag;
-        private transient MultivaluedMap<String, Object> headers;
+        private HashMap<String, String> cacheExtension;
+        private int staleWhileRevalidate;
+        private int staleIfError;
+        private int status = OK;
+        private transient volatile MultivaluedMap<String, Object> headers;
         private transient MediaType mediaType;
-        private transient MultivaluedMap<String, String> varyHeaders;
+        private transient volatile MultivaluedMap<String, String> varyHeaders;
+        private transient volatile PreparedHeaders preparedHeaders;
+        private transient VaryFingerprint varyFingerprint;
+        // the encoded headers of an entry which was read, see BinaryFormat
+        private transient byte[] headerBlock;
+        private transient volatile BinaryFormat.HeaderBlock decodedHeaders;
 
-        private CacheEntry(final MultivaluedMap<String, Object> headers, final byte[] cached, final int expires,
+        CacheEntry(final MultivaluedMap<String, Object> headers, final CachedEntity entity, final CacheControl cc,
                 final String etag, final MediaType mediaType,
                 final MultivaluedMap<String, String> varyHeaders) {
-            this.cached = cached;
-            this.expires = expires;
+            this(OK, headers, entity, cc, etag, mediaType, varyHeaders);
+        }
+
+        CacheEntry(final int status, final MultivaluedMap<String, Object> headers, final CachedEntity entity,
+                final CacheControl cc, final String etag, final MediaType mediaType,
+                final MultivaluedMap<String, String> varyHeaders) {
+            this.status = status;
+            this.entity = entity;
+            this.expires = cc.getMaxAge();
+            this.cacheExtension = new HashMap<>(cc.getCacheExtension());
+            this.staleWhileRevalidate = ServerCache.getExtensionSeconds(cc, STALE_WHILE_REVALIDATE);
+            this.staleIfError = ServerCache.getExtensionSeconds(cc, STALE_IF_ERROR);
             this.headers = headers;
             this.etag = etag;
             this.mediaType = mediaType;
             this.varyHeaders = varyHeaders;
+            this.preparedHeaders = PreparedHeaders.of(this);
+            this.varyFingerprint = VaryFingerprint.of(headers, varyHeaders);
+        }
+
+        private CacheEntry() {
+        }
+
+        /**
+         * Copies an entry of another cache implementation so that it can be written in the binary format.
+         */
+        static CacheEntry of(Entry entry) {
+            if (entry instanceof CacheEntry)
+                return (CacheEntry) entry;
+            CacheControl cc = new CacheControl();
+            cc.setMaxAge(entry.getExpirationInSeconds() + entry.getAgeInSeconds());
+            cc.getCacheExtension().putAll(entry.getCacheExtension());
+            CacheEntry copy = new CacheEntry(entry.getStatus(), entry.getHeaders(), entry.getEntity(), cc,
+                    entry.getEtag(), entry.getMediaType(), entry.getVaryHeaders());
+            copy.timestamp -= entry.getAgeInSeconds() * 1000L;
+            return copy;
+        }
+
+        /**
+         * Tells whether another entry is a copy of this one, see {@link VariantGroup#equals(Object)}.
+         */
+        boolean isSameAs(Entry entry) {
+            if (!(entry instanceof CacheEntry))
+                return false;
+            CacheEntry other = (CacheEntry) entry;
+            return timestamp == other.timestamp && expires == other.expires && status == other.status
+                    && Objects.equals(etag, other.etag) && entity.getLength() == other.entity.getLength();
         }
 
         public int getExpirationInSeconds() {
             return expires - (int) ((System.currentTimeMillis() - timestamp) / 1000);
         }
 
+        public int getAgeInSeconds() {
+            return (int) ((System.currentTimeMillis() - timestamp) / 1000);
+        }
+
         public boolean isExpired() {
             return System.currentTimeMillis() - timestamp >= expires * 1000L;
         }
@@ -79,39 +151,154 @@ public class InfinispanCache implements ServerCache {
         }
 
         public MultivaluedMap<String, Object> getHeaders() {
+            MultivaluedMap<String, Object> headers = this.headers;
+            if (headers == null) {
+                headers = decodeHeaders().toHeaders();
+                this.headers = headers;
+            }
             return headers;
         }
 
         public MultivaluedMap<String, String> getVaryHeaders() {
+            MultivaluedMap<String, String> varyHeaders = this.varyHeaders;
+            if (varyHeaders == null) {
+                varyHeaders = decodeHeaders().varyHeaders;
+                this.varyHeaders = varyHeaders;
+            }
             return varyHeaders;
         }
 
+        public VaryFingerprint getVaryFingerprint() {
+            return varyFingerprint;
+        }
+
+        public PreparedHeaders getPreparedHeaders() {
+            PreparedHeaders preparedHeaders = this.preparedHeaders;
+            if (preparedHeaders == null) {
+                // served straight from the serialized strings, without parsing them
+                BinaryFormat.HeaderBlock block = decodeHeaders();
+                preparedHeaders = PreparedHeaders.of(block.names, block.values, this);
+                this.preparedHeaders = preparedHeaders;
+            }
+            return preparedHeaders;
+        }
+
+        private BinaryFormat.HeaderBlock decodeHeaders() {
+            BinaryFormat.HeaderBlock decoded = decodedHeaders;
+            if (decoded == null) {
+                decoded = BinaryFormat.decodeHeaders(headerBlock);
+                decodedHeaders = decoded;
+            }
+            return decoded;
+        }
+
         public byte[] getCached() {
-            return cached;
+            return entity.toByteArray();
+        }
+
+        public CachedEntity getEntity() {
+            return entity;
         }
 
         public MediaType getMediaType() {
             return mediaType;
         }
 
-        private void writeObject(ObjectOutputStream stream) throws IOException {
-            stream.defaultWriteObject();
-            stream.writeObject(stringifyHeaders(headers));
-            stream.writeObject(stringifyHeaders(varyHeaders));
-            stream.writeUTF(mediaType.toString());
+        public Map<String, String> getCacheExtension() {
+            return cacheExtension;
         }
 
-        @SuppressWarnings("unchecked")
-        private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
-            stream.defaultReadObject();
-            headers = unstringifyHeaders(MultivaluedMap.class.cast(stream.readObject()));
-            varyHeaders = unstringifyHeaders(MultivaluedMap.class.cast(stream.readObject()));
-            mediaType = MediaType.valueOf(stream.readUTF());
+        public int getStaleWhileRevalidate() {
+            return staleWhileRevalidate;
+        }
+
+        public int getStaleIfError() {
+            return staleIfError;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * Writes this entry in the binary format, see {@link ServerCacheMarshaller}.
+         */
+        void writeTo(DataOutput out) throws IOException {
+            BinaryFormat.writeInt(out, status);
+            BinaryFormat.writeString(out, etag);
+            BinaryFormat.writeInt(out, expires);
+            out.writeLong(timestamp);
+            BinaryFormat.writeInt(out, staleWhileRevalidate);
+            BinaryFormat.writeInt(out, staleIfError);
+            BinaryFormat.writeInt(out, cacheExtension.size());
+            for (Map.Entry<String, String> extension : cacheExtension.entrySet()) {
+                BinaryFormat.writeString(out, extension.getKey());
+                BinaryFormat.writeString(out, extension.getValue());
+            }
+            BinaryFormat.writeString(out, mediaType.toString());
+            String[] varyNames = varyFingerprint.getNames();
+            BinaryFormat.writeInt(out, varyNames.length);
+            for (String name : varyNames) {
+                BinaryFormat.writeString(out, name);
+            }
+            BinaryFormat.writeString(out, varyFingerprint.getValue());
+            byte[] block = headerBlock;
+            if (block == null) {
+                block = BinaryFormat.encodeHeaders(headers, varyHeaders);
+                headerBlock = block;
+            }
+            BinaryFormat.writeInt(out, block.length);
+            out.write(block);
+            BinaryFormat.writeEntity(out, entity);
+        }
+
+        /**
+         * Reads an entry written by {@link #writeTo(DataOutput)}. Its headers are decoded once they are needed.
+         *
+         * @param version the version of the format the entry was written in, see {@link BinaryFormat#readVersion}
+         */
+        static CacheEntry readFrom(DataInput in, int version) throws IOException {
+            CacheEntry entry = new CacheEntry();
+            // version 1 only cached 200 responses
+            entry.status = version >= 2 ? BinaryFormat.readInt(in) : OK;
+            entry.etag = BinaryFormat.readString(in);
+            entry.expires = BinaryFormat.readInt(in);
+            entry.timestamp = in.readLong();
+            entry.staleWhileRevalidate = BinaryFormat.readInt(in);
+            entry.staleIfError = BinaryFormat.readInt(in);
+            int count = BinaryFormat.readInt(in);
+            entry.cacheExtension = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                entry.cacheExtension.put(BinaryFormat.readString(in), BinaryFormat.readString(in));
+            }
+            entry.mediaType = MediaType.valueOf(BinaryFormat.readString(in));
+            String[] varyNames = new String[BinaryFormat.readInt(in)];
+            for (int i = 0; i < varyNames.length; i++) {
+                varyNames[i] = BinaryFormat.readString(in);
+            }
+            entry.varyFingerprint = new VaryFingerprint(varyNames, BinaryFormat.readString(in));
+            entry.headerBlock = new byte[BinaryFormat.readInt(in)];
+            in.readFully(entry.headerBlock);
+            entry.entity = BinaryFormat.readEntity(in);
+            return entry;
+        }
+
+        private Object writeReplace() {
+            return new ServerCacheMarshaller.SerializedForm(this);
+        }
+
+        /**
+         * Only entries Java serialized before the binary format, with the same serial version UID, are read through
+         * here; they are stored under keys which are no longer looked up and are dropped.
+         */
+        private Object readResolve() {
+            return ServerCacheMarshaller.unreadable("serialized before the binary format");
         }
     }
 
     @SuppressWarnings("rawtypes")
     protected Cache cache;
+    private EvictionListener evictionListener;
 
     @SuppressWarnings("rawtypes")
     public InfinispanCache(final Cache cache) {
@@ -119,50 +306,245 @@ public class InfinispanCache implements ServerCache {
     }
 
     public Entry get(String uri, MediaType accept, MultivaluedMap<String, String> headers) {
-        @SuppressWarnings("unchecked")
-        Set<String> entries = (Set<String>) cache.get(uri);
-        if (entries == null)
+        Object value = cache.get(uri);
+        if (!(value instanceof VariantGroup))
             return null;
 
-        for (String entry : entries) {
-            CacheEntry cacheEntry = (CacheEntry) cache.get(entry);
-            if (cacheEntry == null)
-                continue;
-            if (accept.isCompatible(cacheEntry.getMediaType()) && !ServerCache.mayVary(cacheEntry, headers)) {
+        return ((VariantGroup) value).match(accept, headers);
+    }
+
+    public Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers,
+            byte[] entity, String etag, MultivaluedMap<String, String> varyHeaders) {
+        return add(uri, mediaType, cc, headers, SegmentedEntity.wrap(entity), etag, varyHeaders);
+    }
+
+    @Override
+    public Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers,
+            CachedEntity entity, String etag, MultivaluedMap<String, String> varyHeaders) {
+        return add(uri, OK, mediaType, cc, headers, entity, etag, varyHeaders);
+    }
+
+    @Override
+    public Entry add(String uri, int status, MediaType mediaType, CacheControl cc,
+            MultivaluedMap<String, Object> headers, CachedEntity entity, String etag,
+            MultivaluedMap<String, String> varyHeaders) {
+        return add(uri, newEntry(status, mediaType, cc, headers, entity, etag, varyHeaders));
+    }
+
+    private Entry add(String uri, CacheEntry cacheEntry) {
+        String variant = VariantGroup.variantKey(cacheEntry.getMediaType(), cacheEntry.getVaryFingerprint());
+        // the whole group is swapped in a single atomic operation, so a concurrent get() sees either the old or the
+        // new set of variants, and lives as long as its longest retained variant; the swap is retried if another add
+        // got in between, groups are compared with VariantGroup.equals() as a clustered cache returns copies
+        @SuppressWarnings("unchecked")
+        Cache<String, Object> groups = cache;
+        for (;;) {
+            Object current = groups.get(uri);
+            VariantGroup group = with(current, variant, cacheEntry);
+            int retention = group.getRetentionInSeconds();
+            if (retention <= 0) {
+                // nothing left to serve
+                if (current == null || groups.remove(uri, current))
+                    return cacheEntry;
+            } else if (current != null ? groups.replace(uri, current, group, retention, TimeUnit.SECONDS)
+                    : groups.putIfAbsent(uri, group, retention, TimeUnit.SECONDS) == null) {
                 return cacheEntry;
             }
         }
-        return null;
     }
 
+    @Override
     @SuppressWarnings("unchecked")
-    public Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers,
-            byte[] entity, String etag, MultivaluedMap<String, String> varyHeaders) {
-        // there's a race condition here with a concurrent get() method above.  Too bad JBoss Cache doesn't have a way to create
-        // a node before hand then insert it
-        CacheEntry cacheEntry = new CacheEntry(headers, entity, cc.getMaxAge(), etag, mediaType, varyHeaders);
-        StringBuffer varyHeadersString = new StringBuffer();
-        varyHeaders.forEach((name, values) -> values.forEach(value -> varyHeadersString.append(name).append(value)));
-        String entryName = uri + "    " + mediaType.toString() + "    " + varyHeadersString.toString();
-        Set<String> entries = (Set<String>) cache.get(uri);
-        Set<String> newEntries = new HashSet<String>();
-        newEntries.add(entryName);
-        if (entries != null) {
-            newEntries.addAll(entries);
-        }
-        cache.put(uri, newEntries);
-        cache.put(entryName, cacheEntry, cc.getMaxAge(), TimeUnit.SECONDS);
-        return cacheEntry;
+    public void forEachResource(BiConsumer<String, VariantGroup> action) {
+        ((Cache<Object, Object>) cache).forEach((key, value) -> {
+            if (value instanceof VariantGroup) {
+                action.accept(key.toString(), (VariantGroup) value);
+            }
+        });
     }
 
-    public void remove(String uri) {
+    @Override
+    public void restore(String uri, VariantGroup group) {
+        for (int i = group.size() - 1; i >= 0; i--) {
+            Entry entry = group.getEntry(i);
+            if (VariantGroup.getRetentionInSeconds(entry) > 0) {
+                add(uri, CacheEntry.of(entry));
+            }
+        }
+    }
+
+    @Override
+    public CompletionStage<Entry> getAsync(String uri, MediaType accept, MultivaluedMap<String, String> headers) {
+        @SuppressWarnings("unchecked")
+        Cache<String, Object> groups = cache;
+        return groups.getAsync(uri)
+                .thenApply(value -> value instanceof VariantGroup ? ((VariantGroup) value).match(accept, headers)
+                        : null);
+    }
+
+    @Override
+    public CompletionStage<Entry> addAsync(String uri, MediaType mediaType, CacheControl cc,
+            MultivaluedMap<String, Object> headers, CachedEntity entity, String etag,
+            MultivaluedMap<String, String> varyHeaders) {
+        return addAsync(uri, OK, mediaType, cc, headers, entity, etag, varyHeaders);
+    }
+
+    @Override
+    public CompletionStage<Entry> addAsync(String uri, int status, MediaType mediaType, CacheControl cc,
+            MultivaluedMap<String, Object> headers, CachedEntity entity, String etag,
+            MultivaluedMap<String, String> varyHeaders) {
+        CacheEntry cacheEntry = newEntry(status, mediaType, cc, headers, entity, etag, varyHeaders);
+        String variant = VariantGroup.variantKey(mediaType, cacheEntry.getVaryFingerprint());
         @SuppressWarnings("unchecked")
-        Set<String> entries = (Set<String>) cache.remove(uri);
-        if (entries == null)
-            return;
-        for (String entry : entries) {
-            cache.remove(entry);
+        Cache<String, Object> groups = cache;
+        return addAsync(groups, uri, variant, cacheEntry);
+    }
+
+    private static CompletionStage<Entry> addAsync(Cache<String, Object> groups, String uri, String variant,
+            CacheEntry cacheEntry) {
+        // the same as add(), retried until the group read is still the one stored
+        return groups.getAsync(uri).thenCompose(current -> {
+            VariantGroup group = with(current, variant, cacheEntry);
+            int retention = group.getRetentionInSeconds();
+            CompletionStage<Boolean> stored = retention <= 0
+                    ? current == null ? CompletableFuture.completedFuture(true) : groups.removeAsync(uri, current)
+                    : current != null ? groups.replaceAsync(uri, current, group, retention, TimeUnit.SECONDS)
+                    : groups.putIfAbsentAsync(uri, group, retention, TimeUnit.SECONDS).thenApply(Objects::isNull);
+            return stored.thenCompose(done -> done ? CompletableFuture.completedFuture((Entry) cacheEntry)
+                    : addAsync(groups, uri, variant, cacheEntry));
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CompletionStage<Void> removeAsync(String uri) {
+        return ((Cache<String, Object>) cache).removeAsync(uri).thenApply(value -> null);
+    }
+
+    private static CacheEntry newEntry(int status, MediaType mediaType, CacheControl cc,
+            MultivaluedMap<String, Object> headers, CachedEntity entity, String etag,
+            MultivaluedMap<String, String> varyHeaders) {
+        if (!(entity instanceof Serializable)) {
+            entity = SegmentedEntity.wrap(entity.toByteArray());
+        }
+        return new CacheEntry(status, headers, entity, cc, etag, mediaType, varyHeaders);
+    }
+
+    private static VariantGroup with(Object value, String variant, CacheEntry entry) {
+        return VariantGroup.with(value instanceof VariantGroup ? (VariantGroup) value : null, variant, entry);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized void setMetrics(CacheMetrics metrics) {
+        if (evictionListener != null) {
+            ((Cache<Object, Object>) cache).removeListener(evictionListener);
+            evictionListener = null;
+        }
+        if (metrics != CacheMetrics.NONE) {
+            evictionListener = new EvictionListener(metrics);
+            ((Cache<Object, Object>) cache).addListener(evictionListener);
+        }
+    }
+
+    /**
+     * Reports the resources Infinispan evicts from memory to the cache metrics.
+     */
+    @Listener(observation = Listener.Observation.POST)
+    public static class EvictionListener {
+        private final CacheMetrics metrics;
+
+        EvictionListener(final CacheMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @CacheEntriesEvicted
+        public void evicted(CacheEntriesEvictedEvent<Object, Object> event) {
+            for (Object value : event.getEntries().values()) {
+                long bytes = 0;
+                if (value instanceof VariantGroup) {
+                    VariantGroup group = (VariantGroup) value;
+                    for (int i = 0; i < group.size(); i++) {
+                        bytes += group.getEntry(i).getEntity().getLength();
+                    }
+                }
+                metrics.evicted(bytes);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean addRemovalListener(Consumer<String> listener) {
+        CacheMode mode = cache.getCacheConfiguration().clustering().cacheMode();
+        // clustered listeners see the changes made on every node, but are not supported by invalidation caches
+        Object removals = mode.isClustered() && !mode.isInvalidation() ? new ClusteredRemovalListener(listener)
+                : new RemovalListener(listener);
+        ((Cache<Object, Object>) cache).addListener(removals);
+        return true;
+    }
+
+    /**
+     * Reports the resources modified, removed, expired or invalidated on this node.
+     */
+    @Listener(observation = Listener.Observation.POST)
+    public static class RemovalListener {
+        private final Consumer<String> listener;
+
+        RemovalListener(final Consumer<String> listener) {
+            this.listener = listener;
         }
+
+        @CacheEntryModified
+        public void modified(CacheEntryModifiedEvent<Object, Object> event) {
+            listener.accept(event.getKey().toString());
+        }
+
+        @CacheEntryRemoved
+        public void removed(CacheEntryRemovedEvent<Object, Object> event) {
+            listener.accept(event.getKey().toString());
+        }
+
+        @CacheEntryExpired
+        public void expired(CacheEntryExpiredEvent<Object, Object> event) {
+            listener.accept(event.getKey().toString());
+        }
+
+        @CacheEntryInvalidated
+        public void invalidated(CacheEntryInvalidatedEvent<Object, Object> event) {
+            listener.accept(event.getKey().toString());
+        }
+    }
+
+    /**
+     * Reports the resources modified, removed or expired on any node of the cluster.
+     */
+    @Listener(clustered = true, observation = Listener.Observation.POST)
+    public static class ClusteredRemovalListener {
+        private final Consumer<String> listener;
+
+        ClusteredRemovalListener(final Consumer<String> listener) {
+            this.listener = listener;
+        }
+
+        @CacheEntryModified
+        public void modified(CacheEntryModifiedEvent<Object, Object> event) {
+            listener.accept(event.getKey().toString());
+        }
+
+        @CacheEntryRemoved
+        public void removed(CacheEntryRemovedEvent<Object, Object> event) {
+            listener.accept(event.getKey().toString());
+        }
+
+        @CacheEntryExpired
+        public void expired(CacheEntryExpiredEvent<Object, Object> event) {
+            listener.accept(event.getKey().toString());
+        }
+    }
+
+    public void remove(String uri) {
+        cache.remove(uri);
     }
 
     public void clear() {
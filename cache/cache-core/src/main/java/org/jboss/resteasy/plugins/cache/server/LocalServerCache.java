@@ -0,0 +1,450 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+/**
+ * An in-process {@link ServerCache} for single node deployments which needs nothing but the JDK.
+ * <p>
+ * The capacity of the cache is a number of bytes; each resource weighs the size of the entities and headers of its
+ * variants. Eviction follows the W-TinyLFU policy: new resources enter a small LRU admission window and then have to
+ * win against the least recently used resource of the main space, by the estimate of a {@link FrequencySketch}, to be
+ * kept. Resources hit again in the main space are promoted to its protected segment. Expired resources are purged by a
+ * timer wheel with a resolution of one second.
+ * </p>
+ * <p>
+ * Lookups are lock free. Updates to the eviction policy are serialized; a lookup skips them rather than waiting when
+ * another thread holds the lock.
+ * </p>
+ */
+public class LocalServerCache implements ServerCache {
+    private static final int WINDOW = 1;
+    private static final int PROBATION = 2;
+    private static final int PROTECTED = 3;
+    private static final int WHEEL_SIZE = 256;
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final ConcurrentMap<String, Node> data = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final FrequencySketch sketch;
+    private final Node window = new Node(null);
+    private final Node probation = new Node(null);
+    private final Node protectedSegment = new Node(null);
+    private final Node[] wheel = new Node[WHEEL_SIZE];
+    private long windowWeight;
+    private long protectedWeight;
+    private long totalWeight;
+    private long currentTick;
+    private volatile CacheMetrics metrics = CacheMetrics.NONE;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maximumWeight the capacity of the cache in bytes
+     */
+    public LocalServerCache(final long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(1, maximumWeight / 100);
+        this.protectedMaximum = (maximumWeight - windowMaximum) * 80 / 100;
+        // assume an average resource of 2 KiB to size the sketch
+        this.sketch = new FrequencySketch(maximumWeight / 2048);
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new Node(null);
+        }
+        this.currentTick = now();
+    }
+
+    /**
+     * Returns the capacity of this cache.
+     *
+     * @return the capacity in bytes
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Returns the current weight of all the cached resources.
+     *
+     * @return the weight in bytes
+     */
+    public long getWeight() {
+        evictionLock.lock();
+        try {
+            return totalWeight;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public Entry get(String uri, MediaType accept, MultivaluedMap<String, String> headers) {
+        Node node = data.get(uri);
+        if (node == null)
+            return null;
+        if (node.deadline <= now()) {
+            // the timer wheel only advances on writes, a quiet cache must not serve what it has yet to purge
+            if (evictionLock.tryLock()) {
+                try {
+                    if (node.deadline <= now()) {
+                        removeNode(node);
+                    }
+                } finally {
+                    evictionLock.unlock();
+                }
+            }
+            return null;
+        }
+        Entry entry = node.group.match(accept, headers);
+        if (entry != null && evictionLock.tryLock()) {
+            try {
+                sketch.increment(uri);
+                onAccess(node);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        return entry;
+    }
+
+    @Override
+    public Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers,
+            byte[] entity, String etag, MultivaluedMap<String, String> varyHeaders) {
+        return add(uri, mediaType, cc, headers, SegmentedEntity.wrap(entity), etag, varyHeaders);
+    }
+
+    @Override
+    public Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers,
+            CachedEntity entity, String etag, MultivaluedMap<String, String> varyHeaders) {
+        return add(uri, OK, mediaType, cc, headers, entity, etag, varyHeaders);
+    }
+
+    @Override
+    public Entry add(String uri, int status, MediaType mediaType, CacheControl cc,
+            MultivaluedMap<String, Object> headers, CachedEntity entity, String etag,
+            MultivaluedMap<String, String> varyHeaders) {
+        // the cache entry is shared with the Infinispan cache
+        return add(uri, new InfinispanCache.CacheEntry(status, headers, entity, cc, etag, mediaType, varyHeaders));
+    }
+
+    private Entry add(String uri, InfinispanCache.CacheEntry cacheEntry) {
+        String variant = VariantGroup.variantKey(cacheEntry.getMediaType(), cacheEntry.getVaryFingerprint());
+        evictionLock.lock();
+        try {
+            expire();
+            Node node = data.get(uri);
+            VariantGroup group = VariantGroup.with(node == null ? null : node.group, variant, cacheEntry);
+            long weight = weigh(uri, group);
+            if (group.getRetentionInSeconds() <= 0) {
+                // already expired, for example without a max-age, so there is nothing to schedule
+                if (node != null) {
+                    removeNode(node);
+                }
+                return cacheEntry;
+            }
+            if (weight > maximumWeight) {
+                // can never fit, drop the resource altogether
+                if (node != null) {
+                    removeNode(node);
+                }
+                metrics.rejected(null);
+                return cacheEntry;
+            }
+            sketch.increment(uri);
+            long deadline = now() + group.getRetentionInSeconds();
+            if (node == null) {
+                node = new Node(uri);
+                node.group = group;
+                // lookups see the deadline as soon as they see the node
+                node.deadline = deadline;
+                node.weight = weight;
+                node.queue = WINDOW;
+                linkLast(window, node);
+                windowWeight += weight;
+                totalWeight += weight;
+                data.put(uri, node);
+            } else {
+                node.group = group;
+                setWeight(node, weight);
+                onAccess(node);
+            }
+            schedule(node, deadline);
+            evict();
+        } finally {
+            evictionLock.unlock();
+        }
+        return cacheEntry;
+    }
+
+    @Override
+    public void forEachResource(BiConsumer<String, VariantGroup> action) {
+        for (Node node : data.values()) {
+            action.accept(node.key, node.group);
+        }
+    }
+
+    @Override
+    public void restore(String uri, VariantGroup group) {
+        for (int i = group.size() - 1; i >= 0; i--) {
+            Entry entry = group.getEntry(i);
+            if (VariantGroup.getRetentionInSeconds(entry) > 0) {
+                add(uri, InfinispanCache.CacheEntry.of(entry));
+            }
+        }
+    }
+
+    @Override
+    public void remove(String uri) {
+        evictionLock.lock();
+        try {
+            Node node = data.get(uri);
+            if (node != null) {
+                removeNode(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            for (Node node : data.values()) {
+                removeNode(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void setMetrics(CacheMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    private static long weigh(String uri, VariantGroup group) {
+        long weight = uri.length();
+        for (int i = 0; i < group.size(); i++) {
+            Entry entry = group.getEntry(i);
+            CachedEntity entity = entry.getEntity();
+            weight += ENTRY_OVERHEAD + weigh(entity);
+            if (entity instanceof EncodedEntity) {
+                for (CachedEntity encoding : ((EncodedEntity) entity).getEncodings().values()) {
+                    weight += weigh(encoding);
+                }
+            }
+            for (Map.Entry<String, List<Object>> header : entry.getHeaders().entrySet()) {
+                for (Object value : header.getValue()) {
+                    weight += header.getKey().length() + String.valueOf(value).length();
+                }
+            }
+        }
+        return weight;
+    }
+
+    private static long weigh(CachedEntity entity) {
+        // mapped entities are off the heap, see TieredServerCache
+        if (entity instanceof EncodedEntity)
+            entity = ((EncodedEntity) entity).getIdentity();
+        return entity instanceof MappedEntity ? 0 : entity.getLength();
+    }
+
+    private void onAccess(Node node) {
+        switch (node.queue) {
+            case WINDOW:
+                moveToLast(window, node);
+                break;
+            case PROBATION:
+                unlink(node);
+                node.queue = PROTECTED;
+                linkLast(protectedSegment, node);
+                protectedWeight += node.weight;
+                demoteProtected();
+                break;
+            case PROTECTED:
+                moveToLast(protectedSegment, node);
+                break;
+            default:
+                // already removed
+        }
+    }
+
+    private void setWeight(Node node, long weight) {
+        long delta = weight - node.weight;
+        node.weight = weight;
+        totalWeight += delta;
+        if (node.queue == WINDOW) {
+            windowWeight += delta;
+        } else if (node.queue == PROTECTED) {
+            protectedWeight += delta;
+        }
+    }
+
+    private void demoteProtected() {
+        while (protectedWeight > protectedMaximum && protectedSegment.next != protectedSegment) {
+            Node node = protectedSegment.next;
+            unlink(node);
+            protectedWeight -= node.weight;
+            node.queue = PROBATION;
+            linkLast(probation, node);
+        }
+    }
+
+    private void evict() {
+        // the oldest resources of the admission window become candidates for the main space
+        while (windowWeight > windowMaximum && window.next != window) {
+            Node node = window.next;
+            unlink(node);
+            windowWeight -= node.weight;
+            node.queue = PROBATION;
+            linkLast(probation, node);
+        }
+        while (totalWeight > maximumWeight) {
+            Node victim = probation.next;
+            Node candidate = probation.prev;
+            if (victim == probation) {
+                // probation is empty, fall back to the protected segment and then the window
+                Node fallback = protectedSegment.next != protectedSegment ? protectedSegment.next : window.next;
+                if (fallback == window)
+                    break;
+                evictNode(fallback);
+            } else if (victim == candidate || sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                evictNode(victim);
+            } else {
+                evictNode(candidate);
+            }
+        }
+    }
+
+    private void expire() {
+        long now = now();
+        long ticks = Math.min(now - currentTick, WHEEL_SIZE);
+        for (long tick = now - ticks + 1; tick <= now; tick++) {
+            Node bucket = wheel[(int) (tick & (WHEEL_SIZE - 1))];
+            Node node = bucket.nextInWheel;
+            while (node != bucket) {
+                Node next = node.nextInWheel;
+                if (node.deadline <= now) {
+                    removeNode(node);
+                }
+                node = next;
+            }
+        }
+        currentTick = now;
+    }
+
+    private void schedule(Node node, long deadline) {
+        unlinkFromWheel(node);
+        node.deadline = deadline;
+        Node bucket = wheel[(int) (deadline & (WHEEL_SIZE - 1))];
+        node.previousInWheel = bucket.previousInWheel;
+        node.nextInWheel = bucket;
+        bucket.previousInWheel.nextInWheel = node;
+        bucket.previousInWheel = node;
+    }
+
+    private void evictNode(Node node) {
+        metrics.evicted(node.weight);
+        removeNode(node);
+    }
+
+    private void removeNode(Node node) {
+        data.remove(node.key, node);
+        unlinkFromWheel(node);
+        if (node.queue == 0)
+            return;
+        unlink(node);
+        totalWeight -= node.weight;
+        if (node.queue == WINDOW) {
+            windowWeight -= node.weight;
+        } else if (node.queue == PROTECTED) {
+            protectedWeight -= node.weight;
+        }
+        node.queue = 0;
+    }
+
+    private static void unlinkFromWheel(Node node) {
+        if (node.nextInWheel != null) {
+            node.previousInWheel.nextInWheel = node.nextInWheel;
+            node.nextInWheel.previousInWheel = node.previousInWheel;
+            node.previousInWheel = null;
+            node.nextInWheel = null;
+        }
+    }
+
+    private static void linkLast(Node queue, Node node) {
+        node.prev = queue.prev;
+        node.next = queue;
+        queue.prev.next = node;
+        queue.prev = node;
+    }
+
+    private static void unlink(Node node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    private static void moveToLast(Node queue, Node node) {
+        unlink(node);
+        linkLast(queue, node);
+    }
+
+    private static long now() {
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    }
+
+    /**
+     * A cached resource. Sentinel nodes, with a {@code null} key, head the circular queues and wheel buckets.
+     */
+    private static class Node {
+        final String key;
+        volatile VariantGroup group;
+        long weight;
+        int queue;
+        volatile long deadline;
+        Node prev = this;
+        Node next = this;
+        Node previousInWheel;
+        Node nextInWheel;
+
+        Node(final String key) {
+            this.key = key;
+            if (key == null) {
+                previousInWheel = this;
+                nextInWheel = this;
+            }
+        }
+    }
+}
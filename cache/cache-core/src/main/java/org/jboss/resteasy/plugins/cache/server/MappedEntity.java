@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.jboss.resteasy.spi.AsyncOutputStream;
+
+/**
+ * A {@link CachedEntity} held in a memory-mapped segment file of a {@link TieredServerCache}. It is written straight
+ * from the mapped pages, one chunk at a time, so the entity is never copied onto the heap as a whole.
+ * <p>
+ * Serializing the entity copies it onto the heap.
+ * </p>
+ */
+public class MappedEntity implements CachedEntity, Serializable {
+    private static final long serialVersionUID = -1852379284165830377L;
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final transient SegmentStore.Location location;
+
+    MappedEntity(final SegmentStore.Location location) {
+        this.location = location;
+    }
+
+    @Override
+    public long getLength() {
+        return location.getLength();
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        write(output, 0, location.getLength());
+    }
+
+    @Override
+    public CompletionStage<Void> asyncWrite(AsyncOutputStream output) {
+        return asyncWrite(output, 0, location.getLength());
+    }
+
+    @Override
+    public void write(OutputStream output, long offset, long length) throws IOException {
+        SegmentStore.Region region = acquire();
+        try {
+            ByteBuffer buffer = region.buffer((int) (offset + length));
+            buffer.position(buffer.position() + (int) offset);
+            byte[] chunk = new byte[(int) Math.min(length, CHUNK_SIZE)];
+            while (buffer.hasRemaining()) {
+                int count = Math.min(chunk.length, buffer.remaining());
+                buffer.get(chunk, 0, count);
+                output.write(chunk, 0, count);
+            }
+        } finally {
+            region.release();
+        }
+    }
+
+    @Override
+    public CompletionStage<Void> asyncWrite(AsyncOutputStream output, long offset, long length) {
+        SegmentStore.Region region = acquire();
+        ByteBuffer buffer = region.buffer((int) (offset + length));
+        buffer.position(buffer.position() + (int) offset);
+        CompletionStage<Void> stage = CompletableFuture.completedFuture(null);
+        while (buffer.hasRemaining()) {
+            ByteBuffer slice = buffer.slice();
+            slice.limit(Math.min(CHUNK_SIZE, buffer.remaining()));
+            buffer.position(buffer.position() + slice.limit());
+            // copied when it is its turn, so only one chunk is on the heap at a time
+            stage = stage.thenCompose(v -> {
+                byte[] chunk = new byte[slice.remaining()];
+                slice.get(chunk);
+                return output.asyncWrite(chunk);
+            });
+        }
+        return stage.whenComplete((v, t) -> region.release());
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        int length = location.getLength();
+        SegmentStore.Region region = acquire();
+        try {
+            byte[] bytes = new byte[length];
+            region.buffer(length).get(bytes);
+            return bytes;
+        } finally {
+            region.release();
+        }
+    }
+
+    private SegmentStore.Region acquire() {
+        try {
+            return location.acquire();
+        } finally {
+            // the location is released once this entity is unreachable
+            Reference.reachabilityFence(this);
+        }
+    }
+
+    private Object writeReplace() throws ObjectStreamException {
+        return SegmentedEntity.wrap(toByteArray());
+    }
+}
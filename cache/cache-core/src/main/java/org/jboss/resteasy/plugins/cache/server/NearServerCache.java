@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+/**
+ * A small local cache in front of another {@link ServerCache}, typically a clustered or remote Infinispan cache, so
+ * that the hottest resources are found without a network round trip.
+ * <p>
+ * The near cache keeps the variants it was recently asked for, up to a number of resources, the least recently used
+ * ones being evicted first, see {@link ClockMap}. It only serves them while they are fresh and for no longer than its
+ * time to live. Resources removed or replaced through this cache are dropped at once; changes made elsewhere are
+ * dropped when the wrapped cache reports them, see {@link ServerCache#addRemovalListener}, or else after the time to
+ * live.
+ * </p>
+ */
+public class NearServerCache implements ServerCache {
+    private final ServerCache cache;
+    private final long timeToLive;
+    private final ClockMap<String, Near> near;
+    // bumped by every removal so that a lookup racing with it does not keep what it read
+    private final AtomicLong removals = new AtomicLong();
+
+    private static final class Near {
+        private final VariantGroup group;
+        private final long expires;
+
+        private Near(final VariantGroup group, final long expires) {
+            this.group = group;
+            this.expires = expires;
+        }
+    }
+
+    /**
+     * Creates a near cache.
+     *
+     * @param cache      the cache to keep the hottest resources of
+     * @param maxEntries the maximum number of resources kept
+     * @param timeToLive the maximum time a resource is kept, in seconds
+     */
+    public NearServerCache(final ServerCache cache, final int maxEntries, final int timeToLive) {
+        this.cache = cache;
+        this.near = new ClockMap<>(maxEntries);
+        this.timeToLive = TimeUnit.SECONDS.toNanos(timeToLive);
+        cache.addRemovalListener(this::invalidate);
+    }
+
+    @Override
+    public Entry get(String uri, MediaType accept, MultivaluedMap<String, String> headers) {
+        Entry entry = getNear(uri, accept, headers);
+        if (entry != null)
+            return entry;
+        long removed = removals.get();
+        return remember(uri, cache.get(uri, accept, headers), removed);
+    }
+
+    @Override
+    public CompletionStage<Entry> getAsync(String uri, MediaType accept, MultivaluedMap<String, String> headers) {
+        Entry entry = getNear(uri, accept, headers);
+        if (entry != null)
+            return CompletableFuture.completedFuture(entry);
+        long removed = removals.get();
+        return cache.getAsync(uri, accept, headers).thenApply(found -> remember(uri, found, removed));
+    }
+
+    private Entry getNear(String uri, MediaType accept, MultivaluedMap<String, String> headers) {
+        Near cached = near.get(uri);
+        if (cached == null || System.nanoTime() - cached.expires >= 0)
+            return null;
+        Entry entry = cached.group.match(accept, headers);
+        return entry == null || entry.isExpired() ? null : entry;
+    }
+
+    /**
+     * Keeps an entry read from the wrapped cache, unless it is expired or the resource was removed since the lookup
+     * started.
+     */
+    private Entry remember(String uri, Entry entry, long removed) {
+        if (entry == null || entry.isExpired())
+            return entry;
+        long now = System.nanoTime();
+        String variant = VariantGroup.variantKey(entry.getMediaType(), entry.getVaryFingerprint());
+        Near kept = near.compute(uri, (key, cached) -> {
+            if (cached == null || now - cached.expires >= 0) {
+                long ttl = Math.min(timeToLive, TimeUnit.SECONDS.toNanos(entry.getExpirationInSeconds()));
+                return new Near(VariantGroup.of(variant, entry), now + ttl);
+            }
+            // the other variants were read at the same time, they expire together
+            return new Near(VariantGroup.with(cached.group, variant, entry), cached.expires);
+        });
+        if (removals.get() != removed) {
+            near.remove(uri, kept);
+        }
+        return entry;
+    }
+
+    private void invalidate(String uri) {
+        removals.incrementAndGet();
+        near.remove(uri);
+    }
+
+    @Override
+    public Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers,
+            byte[] entity, String etag, MultivaluedMap<String, String> varyHeaders) {
+        Entry entry = cache.add(uri, mediaType, cc, headers, entity, etag, varyHeaders);
+        invalidate(uri);
+        return entry;
+    }
+
+    @Override
+    public Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers,
+            CachedEntity entity, String etag, MultivaluedMap<String, String> varyHeaders) {
+        Entry entry = cache.add(uri, mediaType, cc, headers, entity, etag, varyHeaders);
+        invalidate(uri);
+        return entry;
+    }
+
+    @Override
+    public CompletionStage<Entry> addAsync(String uri, MediaType mediaType, CacheControl cc,
+            MultivaluedMap<String, Object> headers, CachedEntity entity, String etag,
+            MultivaluedMap<String, String> varyHeaders) {
+        return cache.addAsync(uri, mediaType, cc, headers, entity, etag, varyHeaders)
+                .whenComplete((entry, t) -> invalidate(uri));
+    }
+
+    @Override
+    public Entry add(String uri, int status, MediaType mediaType, CacheControl cc,
+            MultivaluedMap<String, Object> headers, CachedEntity entity, String etag,
+            MultivaluedMap<String, String> varyHeaders) {
+        Entry entry = cache.add(uri, status, mediaType, cc, headers, entity, etag, varyHeaders);
+        invalidate(uri);
+        return entry;
+    }
+
+    @Override
+    public CompletionStage<Entry> addAsync(String uri, int status, MediaType mediaType, CacheControl cc,
+            MultivaluedMap<String, Object> headers, CachedEntity entity, String etag,
+            MultivaluedMap<String, String> varyHeaders) {
+        return cache.addAsync(uri, status, mediaType, cc, headers, entity, etag, varyHeaders)
+                .whenComplete((entry, t) -> invalidate(uri));
+    }
+
+    @Override
+    public CompletionStage<Void> removeAsync(String uri) {
+        return cache.removeAsync(uri).whenComplete((v, t) -> invalidate(uri));
+    }
+
+    @Override
+    public CachedValidator getValidator(String uri, MediaType accept, MultivaluedMap<String, String> headers) {
+        return cache.getValidator(uri, accept, headers);
+    }
+
+    @Override
+    public void forEachResource(BiConsumer<String, VariantGroup> action) {
+        cache.forEachResource(action);
+    }
+
+    @Override
+    public void restore(String uri, VariantGroup group) {
+        cache.restore(uri, group);
+    }
+
+    @Override
+    public void remove(String uri) {
+        cache.remove(uri);
+        invalidate(uri);
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+        removals.incrementAndGet();
+        near.clear();
+    }
+
+    @Override
+    public void setMetrics(CacheMetrics metrics) {
+        cache.setMetrics(metrics);
+    }
+
+    @Override
+    public boolean addRemovalListener(Consumer<String> listener) {
+        return cache.addRemovalListener(listener);
+    }
+}
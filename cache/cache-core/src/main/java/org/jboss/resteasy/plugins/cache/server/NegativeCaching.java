@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jboss.resteasy.plugins.cache.server.i18n.Messages;
+
+/**
+ * The times to live of cached error responses, such as {@code 404 Not Found}, either for the exact code or for its
+ * class:
+ *
+ * <pre>
+ * 404=60,410=3600,4xx=5,5xx=0
+ * </pre>
+ * <p>
+ * A response is cached for the time to live of its status code, or less if its own {@code max-age} is shorter, so a
+ * resource which is created right after it was requested is not hidden by a cached {@code 404} for longer than the
+ * configured time to live. A response without a {@code Cache-Control} header is cached for the time to live. A time
+ * to live of {@code 0} disables caching for the status code. The responses with other status codes are cached as
+ * {@code 200} responses are, as long as their {@code Cache-Control} header allows it.
+ * </p>
+ */
+public final class NegativeCaching {
+    private final Map<String, Integer> ttls;
+
+    private NegativeCaching(final Map<String, Integer> ttls) {
+        this.ttls = ttls;
+    }
+
+    /**
+     * Parses the times to live of status codes.
+     *
+     * @param spec a comma separated list of {@code status=seconds}, the status being a code such as {@code 404} or a
+     *             class such as {@code 4xx}
+     *
+     * @return the negative caching configuration
+     */
+    public static NegativeCaching parse(String spec) {
+        Map<String, Integer> ttls = new HashMap<>();
+        for (String ttl : spec.split(",")) {
+            if (ttl.isBlank())
+                continue;
+            int eq = ttl.indexOf('=');
+            if (eq < 0)
+                throw new IllegalArgumentException(Messages.MESSAGES.invalidNegativeTtl(ttl.trim()));
+            String status = ttl.substring(0, eq).trim().toLowerCase();
+            if (!status.matches("[1-5](xx|\\d\\d)"))
+                throw new IllegalArgumentException(Messages.MESSAGES.invalidNegativeTtl(ttl.trim()));
+            try {
+                ttls.put(status, Math.max(0, Integer.parseInt(ttl.substring(eq + 1).trim())));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(Messages.MESSAGES.invalidNegativeTtl(ttl.trim()), e);
+            }
+        }
+        return new NegativeCaching(ttls);
+    }
+
+    /**
+     * Returns the time to live of responses with a status code.
+     *
+     * @param status the status code
+     *
+     * @return the time to live in seconds, {@code 0} if responses with this status code are not cached or
+     *         {@code -1} if none is configured for it
+     */
+    public int getTtl(int status) {
+        Integer ttl = ttls.get(Integer.toString(status));
+        if (ttl == null)
+            ttl = ttls.get(status / 100 + "xx");
+        return ttl == null ? -1 : ttl;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.RuntimeDelegate;
+
+/**
+ * The headers of a cached response, serialized to strings once when the response is stored. A cache hit copies the
+ * prepared values instead of running every header through its {@link RuntimeDelegate.HeaderDelegate} again; only the
+ * {@value #AGE} header differs from one hit to the next.
+ */
+public final class PreparedHeaders {
+    public static final String AGE = "Age";
+
+    private final String[] names;
+    private final Object[][] values;
+    private final String cacheControl;
+    private final boolean varyOnEncoding;
+
+    private PreparedHeaders(final String[] names, final Object[][] values, final String cacheControl,
+            final boolean varyOnEncoding) {
+        this.names = names;
+        this.values = values;
+        this.cacheControl = cacheControl;
+        this.varyOnEncoding = varyOnEncoding;
+    }
+
+    /**
+     * Prepares the headers of a cache entry.
+     *
+     * @param entry the entry
+     *
+     * @return the prepared headers
+     */
+    public static PreparedHeaders of(ServerCache.Entry entry) {
+        MultivaluedMap<String, Object> headers = entry.getHeaders();
+        List<String> names = new ArrayList<>(headers.size());
+        List<String[]> values = new ArrayList<>(headers.size());
+        for (Map.Entry<String, List<Object>> header : headers.entrySet()) {
+            List<Object> list = header.getValue();
+            if (list == null || list.isEmpty())
+                continue;
+            String[] strings = new String[list.size()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = toString(list.get(i));
+            }
+            names.add(header.getKey());
+            values.add(strings);
+        }
+        return of(names, values, entry);
+    }
+
+    /**
+     * Prepares headers which are already serialized.
+     *
+     * @param names  the header names
+     * @param values the serialized values of each header
+     * @param entry  the entry the headers belong to
+     *
+     * @return the prepared headers
+     */
+    static PreparedHeaders of(List<String> names, List<String[]> values, ServerCache.Entry entry) {
+        List<String> preparedNames = new ArrayList<>(names.size());
+        List<Object[]> preparedValues = new ArrayList<>(values.size());
+        String cacheControl = null;
+        boolean varyOnEncoding = false;
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            String[] strings = values.get(i);
+            if (HttpHeaders.CACHE_CONTROL.equalsIgnoreCase(name)) {
+                cacheControl = String.join(", ", strings);
+                continue;
+            }
+            if (HttpHeaders.VARY.equalsIgnoreCase(name)) {
+                for (String vary : strings) {
+                    varyOnEncoding |= vary.toLowerCase(Locale.ROOT).contains("accept-encoding");
+                }
+            }
+            preparedNames.add(name);
+            preparedValues.add(strings);
+        }
+        if (cacheControl == null) {
+            CacheControl cc = new CacheControl();
+            cc.setMaxAge(entry.getExpirationInSeconds() + entry.getAgeInSeconds());
+            cc.getCacheExtension().putAll(entry.getCacheExtension());
+            cacheControl = toString(cc);
+        }
+        return new PreparedHeaders(preparedNames.toArray(new String[0]), preparedValues.toArray(new Object[0][]),
+                cacheControl, varyOnEncoding);
+    }
+
+    /**
+     * Returns the {@code Cache-Control} header the response was stored with. Its {@code max-age} is the original one,
+     * how much of it has been used up is told by the {@value #AGE} header.
+     *
+     * @return the serialized {@code Cache-Control} header
+     */
+    public String getCacheControl() {
+        return cacheControl;
+    }
+
+    /**
+     * Returns whether the {@code Vary} header of the response already names {@code Accept-Encoding}.
+     *
+     * @return {@code true} if the response varies on its encoding
+     */
+    public boolean isVaryOnEncoding() {
+        return varyOnEncoding;
+    }
+
+    /**
+     * Creates the headers of a cache hit. Every header gets a list of its own, so filters running after the hit may
+     * modify them without touching the cached entry.
+     *
+     * @param contentEncoding {@code false} to leave out the stored {@code Content-Encoding} header
+     * @param age             the value of the {@value #AGE} header, in seconds
+     *
+     * @return the headers
+     */
+    public MultivaluedMap<String, Object> toHeaders(boolean contentEncoding, int age) {
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            if (!contentEncoding && HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(names[i]))
+                continue;
+            headers.put(names[i], new ArrayList<>(Arrays.asList(values[i])));
+        }
+        List<Object> cc = new ArrayList<>(1);
+        cc.add(cacheControl);
+        headers.put(HttpHeaders.CACHE_CONTROL, cc);
+        List<Object> ageValue = new ArrayList<>(1);
+        ageValue.add(Integer.toString(Math.max(0, age)));
+        headers.put(AGE, ageValue);
+        return headers;
+    }
+
+    /**
+     * Serializes a header value with its {@link RuntimeDelegate.HeaderDelegate}.
+     *
+     * @param value the header value
+     *
+     * @return the serialized value
+     */
+    @SuppressWarnings("unchecked")
+    static String toString(Object value) {
+        if (value instanceof String)
+            return (String) value;
+        RuntimeDelegate.HeaderDelegate<Object> delegate = null;
+        try {
+            delegate = (RuntimeDelegate.HeaderDelegate<Object>) RuntimeDelegate.getInstance()
+                    .createHeaderDelegate(value.getClass());
+        } catch (IllegalArgumentException e) {
+            // no delegate for this type
+        }
+        return delegate != null ? delegate.toString(value) : value.toString();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Coalesces concurrent cache misses for the same resource. The first request which misses becomes the leader of a
+ * {@link Flight} and goes on to the resource method; later requests for the same key wait, for a bounded time, until
+ * the leader has stored its response and then look the cache up again.
+ * <p>
+ * Flights also elect the single request which revalidates a stale entry while the others are served the stale
+ * response.
+ * </p>
+ */
+public class RequestCoalescer {
+    /**
+     * The request property holding the {@link Flight} led by a request.
+     */
+    public static final String FLIGHT = RequestCoalescer.class.getName() + ".flight";
+
+    private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final long timeout;
+
+    /**
+     * Creates a new coalescer.
+     *
+     * @param timeout the maximum time, in milliseconds, a request waits for the leader of a flight
+     */
+    public RequestCoalescer(final long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Starts a flight for the given key unless one is already in progress. A flight whose leader has not completed it
+     * within the timeout is considered abandoned and replaced.
+     *
+     * @param key the key of the flight
+     *
+     * @return the new flight, led by the caller, or {@code null} if another request is already leading a flight for
+     *         the key
+     */
+    public Flight lead(String key) {
+        Flight flight = new Flight(key);
+        return flights.compute(key, (k, existing) -> existing == null || existing.isAbandoned() ? flight
+                : existing) == flight ? flight : null;
+    }
+
+    /**
+     * Waits until the flight in progress for the given key, if any, has completed.
+     *
+     * @param key the key of the flight
+     *
+     * @return {@code true} if there is no flight in progress or it completed in time, {@code false} if the wait timed
+     *         out or was interrupted
+     */
+    public boolean await(String key) {
+        Flight flight = flights.get(key);
+        if (flight == null) {
+            return true;
+        }
+        try {
+            flight.done.get(timeout, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Waits, without blocking the calling thread, until the flight in progress for the given key, if any, has
+     * completed.
+     *
+     * @param key the key of the flight
+     *
+     * @return a stage completed with {@code true} if there is no flight in progress or it completed in time,
+     *         {@code false} if the wait timed out
+     */
+    public CompletionStage<Boolean> awaitAsync(String key) {
+        Flight flight = flights.get(key);
+        if (flight == null) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return flight.done.copy().orTimeout(timeout, TimeUnit.MILLISECONDS).handle((v, t) -> t == null);
+    }
+
+    /**
+     * A response being computed by a leading request.
+     */
+    public class Flight {
+        private final String key;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private final long started = System.nanoTime();
+
+        private Flight(final String key) {
+            this.key = key;
+        }
+
+        private boolean isAbandoned() {
+            return System.nanoTime() - started > TimeUnit.MILLISECONDS.toNanos(timeout);
+        }
+
+        /**
+         * Completes this flight and releases the waiting requests. Calling this method more than once has no effect.
+         */
+        public void complete() {
+            flights.remove(key, this);
+            done.complete(null);
+        }
+    }
+}
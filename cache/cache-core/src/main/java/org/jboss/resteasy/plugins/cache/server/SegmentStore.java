@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Append-only segment files holding the entities of a {@link TieredServerCache}. Each segment is mapped into memory
+ * with {@link FileChannel#map}, entities are appended to the active segment until it is full and a new one is started.
+ * <p>
+ * An entity stays in its segment as long as its {@link MappedEntity} is reachable, there is no explicit removal: once
+ * the cache drops an entry its entity is collected and a {@link Cleaner} marks its bytes dead. A full segment whose
+ * bytes are mostly dead is compacted in the background by copying its live entities to the active segment. A segment
+ * without live entities is closed and its file deleted.
+ * </p>
+ * <p>
+ * The space of the store is bounded by a number of bytes. A segment counts against it from the creation of its file
+ * until its mapping is released: the blocks of a deleted file are only freed once its buffer is garbage collected.
+ * An entity which would need a new segment beyond the bound is not stored.
+ * </p>
+ */
+final class SegmentStore {
+    private static final Logger LOGGER = Logger.getLogger(SegmentStore.class);
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final int CLOSED = Integer.MIN_VALUE;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxBytes;
+    private final AtomicLong bytes = new AtomicLong();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "resteasy-server-cache-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object lock = new Object();
+    private Segment active;
+    private int sequence;
+
+    /**
+     * Creates a store in a new directory.
+     *
+     * @param parent      the directory to create the segment directory in
+     * @param segmentSize the size of a segment file in bytes
+     * @param maxBytes    the maximum size of all the segment files in bytes
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    SegmentStore(final Path parent, final int segmentSize, final long maxBytes) throws IOException {
+        Files.createDirectories(parent);
+        this.directory = Files.createTempDirectory(parent, "resteasy-cache-");
+        this.segmentSize = segmentSize;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the size of the segment files which are still mapped, including the deleted ones.
+     *
+     * @return the size in bytes
+     */
+    long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * Copies an entity into the store.
+     *
+     * @param entity the entity, at most {@link Integer#MAX_VALUE} bytes long
+     *
+     * @return the entity mapped from its segment, or {@code null} if the store is full
+     *
+     * @throws IOException if the entity cannot be written
+     */
+    MappedEntity store(CachedEntity entity) throws IOException {
+        int length = Math.toIntExact(entity.getLength());
+        Region region = allocate(length, true);
+        if (region == null)
+            return null;
+        Location location = new Location(region, length);
+        try {
+            entity.write(new BufferOutputStream(region.buffer(length)));
+        } catch (IOException | RuntimeException e) {
+            region.segment.written();
+            location.release();
+            throw e;
+        }
+        region.segment.written();
+        MappedEntity mapped = new MappedEntity(location);
+        CLEANER.register(mapped, location::release);
+        return mapped;
+    }
+
+    private Region allocate(int length, boolean bounded) throws IOException {
+        synchronized (lock) {
+            if (active == null || active.capacity - active.position < length) {
+                int capacity = Math.max(segmentSize, length);
+                if (bounded && bytes.get() + capacity > maxBytes)
+                    return null;
+                if (active != null) {
+                    active.seal();
+                }
+                Path file = directory.resolve("segment-" + sequence++ + ".dat");
+                active = new Segment(file, capacity);
+            }
+            Region region = new Region(active, active.position);
+            active.position += length;
+            active.writers.incrementAndGet();
+            active.references.incrementAndGet();
+            active.liveBytes.addAndGet(length);
+            return region;
+        }
+    }
+
+    private void compact(Segment segment) {
+        try {
+            for (Location location : segment.locations) {
+                Region source = location.region;
+                if (source.segment != segment)
+                    continue;
+                // compaction frees more than it takes, so it may go beyond the bound
+                Region target = allocate(location.length, false);
+                try {
+                    target.buffer(location.length).put(source.buffer(location.length));
+                } finally {
+                    target.segment.written();
+                }
+                location.move(source, target);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debugf(e, "Could not compact %s", segment.file);
+        } finally {
+            segment.compacting.set(false);
+        }
+    }
+
+    /**
+     * Where the bytes of a {@link MappedEntity} are. Compaction moves them to another segment.
+     */
+    static final class Location {
+        private volatile Region region;
+        private final int length;
+        private boolean released;
+
+        private Location(final Region region, final int length) {
+            this.region = region;
+            this.length = length;
+            region.segment.locations.add(this);
+        }
+
+        int getLength() {
+            return length;
+        }
+
+        /**
+         * Pins the segment holding the bytes, so it is not closed before {@link Region#release()} is called. The
+         * location keeps a reference to its segment until it is released, and is neither moved nor released while its
+         * monitor is held, so the segment cannot be closed in between.
+         *
+         * @throws IllegalStateException if the location has been released
+         */
+        synchronized Region acquire() {
+            if (released || !region.segment.retain())
+                throw new IllegalStateException("Released entity");
+            return region;
+        }
+
+        private synchronized void move(Region source, Region target) {
+            if (released || region != source) {
+                target.segment.free(this, length);
+                return;
+            }
+            region = target;
+            target.segment.locations.add(this);
+            source.segment.free(this, length);
+        }
+
+        private synchronized void release() {
+            if (released)
+                return;
+            released = true;
+            region.segment.free(this, length);
+        }
+    }
+
+    /**
+     * A position in a segment.
+     */
+    static final class Region {
+        final Segment segment;
+        final int offset;
+
+        private Region(final Segment segment, final int offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+
+        ByteBuffer buffer(int length) {
+            ByteBuffer buffer = segment.buffer.duplicate();
+            buffer.limit(offset + length).position(offset);
+            return buffer;
+        }
+
+        void release() {
+            segment.release();
+        }
+    }
+
+    final class Segment {
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private int position;
+        private volatile boolean sealed;
+        // one for every location and every read in progress
+        private final AtomicInteger references = new AtomicInteger();
+        private final AtomicInteger writers = new AtomicInteger();
+        private final AtomicLong liveBytes = new AtomicLong();
+        private final AtomicBoolean compacting = new AtomicBoolean();
+        private final Set<Location> locations = ConcurrentHashMap.newKeySet();
+
+        private Segment(final Path file, final int capacity) throws IOException {
+            this.file = file;
+            this.capacity = capacity;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            // the action must not reach the buffer, only its size
+            AtomicLong mapped = bytes;
+            mapped.addAndGet(capacity);
+            CLEANER.register(buffer, () -> mapped.addAndGet(-capacity));
+        }
+
+        private boolean retain() {
+            while (true) {
+                int count = references.get();
+                if (count <= 0)
+                    return false;
+                if (references.compareAndSet(count, count + 1))
+                    return true;
+            }
+        }
+
+        private void release() {
+            if (references.decrementAndGet() == 0 && sealed) {
+                close();
+            }
+        }
+
+        private void seal() {
+            sealed = true;
+            if (references.get() == 0) {
+                close();
+            } else {
+                compactIfSparse();
+            }
+        }
+
+        private void written() {
+            writers.decrementAndGet();
+            compactIfSparse();
+        }
+
+        private void free(Location location, int length) {
+            locations.remove(location);
+            liveBytes.addAndGet(-length);
+            compactIfSparse();
+            release();
+        }
+
+        private void compactIfSparse() {
+            // only full segments are compacted, and only once all their entities are written
+            if (sealed && writers.get() == 0 && liveBytes.get() > 0 && liveBytes.get() * 2 < position
+                    && compacting.compareAndSet(false, true)) {
+                compactor.execute(() -> compact(this));
+            }
+        }
+
+        private void close() {
+            if (!references.compareAndSet(0, CLOSED))
+                return;
+            try {
+                channel.close();
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOGGER.debugf(e, "Could not delete %s", file);
+            }
+        }
+    }
+
+    /**
+     * Writes into a mapped buffer.
+     */
+    private static final class BufferOutputStream extends OutputStream {
+        private final ByteBuffer buffer;
+
+        private BufferOutputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            buffer.put(b, off, len);
+        }
+    }
+}
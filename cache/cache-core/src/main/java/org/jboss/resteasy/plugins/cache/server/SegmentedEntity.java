@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.jboss.resteasy.spi.AsyncOutputStream;
+
+/**
+ * A {@link CachedEntity} held in a list of heap segments. Every segment is completely filled, so an entity weighs its
+ * length, and the content is never copied into one contiguous array when it is buffered, stored or written.
+ */
+public class SegmentedEntity implements CachedEntity, Serializable {
+    private static final long serialVersionUID = 6398417261325893465L;
+    static final int MAX_SEGMENT_SIZE = 64 * 1024;
+    private static final byte[][] NO_SEGMENTS = new byte[0][];
+
+    private transient byte[][] segments;
+    private transient long length;
+
+    SegmentedEntity(final byte[][] segments, final long length) {
+        this.segments = segments;
+        this.length = length;
+    }
+
+    /**
+     * Creates an entity backed by the given array. The array is not copied.
+     *
+     * @param bytes the content of the entity
+     *
+     * @return the entity
+     */
+    public static SegmentedEntity wrap(byte[] bytes) {
+        return new SegmentedEntity(bytes.length == 0 ? NO_SEGMENTS : new byte[][] { bytes }, bytes.length);
+    }
+
+    @Override
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        write(output, 0, length);
+    }
+
+    @Override
+    public CompletionStage<Void> asyncWrite(AsyncOutputStream output) {
+        return asyncWrite(output, 0, length);
+    }
+
+    @Override
+    public void write(OutputStream output, long offset, long length) throws IOException {
+        // the segments grow up to their maximum size, so the first one of the range is found by walking them
+        for (byte[] segment : segments) {
+            if (length <= 0)
+                break;
+            if (offset >= segment.length) {
+                offset -= segment.length;
+                continue;
+            }
+            int count = (int) Math.min(segment.length - offset, length);
+            output.write(segment, (int) offset, count);
+            offset = 0;
+            length -= count;
+        }
+    }
+
+    @Override
+    public CompletionStage<Void> asyncWrite(AsyncOutputStream output, long offset, long length) {
+        CompletionStage<Void> stage = CompletableFuture.completedFuture(null);
+        for (byte[] segment : segments) {
+            if (length <= 0)
+                break;
+            if (offset >= segment.length) {
+                offset -= segment.length;
+                continue;
+            }
+            int start = (int) offset;
+            int count = (int) Math.min(segment.length - offset, length);
+            stage = stage.thenCompose(v -> output.asyncWrite(segment, start, count));
+            offset = 0;
+            length -= count;
+        }
+        return stage;
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[Math.toIntExact(length)];
+        int position = 0;
+        for (byte[] segment : segments) {
+            int count = Math.min(segment.length, bytes.length - position);
+            System.arraycopy(segment, 0, bytes, position, count);
+            position += count;
+        }
+        return bytes;
+    }
+
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        stream.defaultWriteObject();
+        stream.writeLong(length);
+        write(stream);
+    }
+
+    private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        length = stream.readLong();
+        segments = readSegments(stream, length);
+    }
+
+    /**
+     * Reads an entity of the given length.
+     *
+     * @param in     the input to read the raw bytes from
+     * @param length the number of bytes
+     *
+     * @return the entity
+     *
+     * @throws IOException if reading fails
+     */
+    static SegmentedEntity read(DataInput in, long length) throws IOException {
+        return new SegmentedEntity(readSegments(in, length), length);
+    }
+
+    private static byte[][] readSegments(DataInput in, long length) throws IOException {
+        byte[][] segments = new byte[(int) ((length + MAX_SEGMENT_SIZE - 1) / MAX_SEGMENT_SIZE)][];
+        long remaining = length;
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new byte[(int) Math.min(MAX_SEGMENT_SIZE, remaining)];
+            in.readFully(segments[i]);
+            remaining -= segments[i].length;
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Buffers a response entity into segments which grow from a small initial size up to a fixed maximum. Unlike a
+ * {@link java.io.ByteArrayOutputStream} the buffered bytes are never copied when the buffer grows, and only those of
+ * the last segment are when the {@link SegmentedEntity} is created.
+ */
+public class SegmentedEntityOutputStream extends OutputStream {
+    private static final int INITIAL_SEGMENT_SIZE = 1024;
+
+    private byte[][] segments = new byte[8][];
+    private int segmentCount;
+    private byte[] current;
+    private int position;
+    private long length;
+    private final ETagStrategy.Hasher hasher;
+
+    /**
+     * Creates a buffer.
+     */
+    public SegmentedEntityOutputStream() {
+        this(null);
+    }
+
+    /**
+     * Creates a buffer which hashes the bytes as they are written.
+     *
+     * @param hasher the hasher to update, may be {@code null}
+     */
+    public SegmentedEntityOutputStream(final ETagStrategy.Hasher hasher) {
+        this.hasher = hasher;
+    }
+
+    /**
+     * Returns the hasher the written bytes are passed to.
+     *
+     * @return the hasher or {@code null} if the bytes are not hashed
+     */
+    public ETagStrategy.Hasher getHasher() {
+        return hasher;
+    }
+
+    @Override
+    public void write(int b) {
+        if (current == null || position == current.length) {
+            nextSegment();
+        }
+        current[position++] = (byte) b;
+        length++;
+        if (hasher != null) {
+            hasher.update(current, position - 1, 1);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (hasher != null) {
+            hasher.update(b, off, len);
+        }
+        while (len > 0) {
+            if (current == null || position == current.length) {
+                nextSegment();
+            }
+            int count = Math.min(len, current.length - position);
+            System.arraycopy(b, off, current, position, count);
+            position += count;
+            off += count;
+            len -= count;
+            length += count;
+        }
+    }
+
+    /**
+     * Returns the number of bytes written so far.
+     *
+     * @return the number of buffered bytes
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Creates an entity from the buffered bytes. The full segments are handed over without being copied, so nothing
+     * may be written to this stream afterwards; only the bytes of the last one are, unless it is full, so that the
+     * entity does not keep the unused end of a segment of up to {@value SegmentedEntity#MAX_SEGMENT_SIZE} bytes.
+     *
+     * @return the buffered entity
+     */
+    public SegmentedEntity toEntity() {
+        byte[][] entitySegments = Arrays.copyOf(segments, segmentCount);
+        if (current != null && position < current.length) {
+            entitySegments[segmentCount - 1] = Arrays.copyOf(current, position);
+        }
+        return new SegmentedEntity(entitySegments, length);
+    }
+
+    private void nextSegment() {
+        int size = current == null ? INITIAL_SEGMENT_SIZE
+                : Math.min(current.length * 2, SegmentedEntity.MAX_SEGMENT_SIZE);
+        current = new byte[size];
+        position = 0;
+        if (segmentCount == segments.length) {
+            segments = Arrays.copyOf(segments, segmentCount * 2);
+        }
+        segments[segmentCount++] = current;
+    }
+}
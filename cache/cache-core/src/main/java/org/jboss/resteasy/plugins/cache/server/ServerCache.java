@@ -16,10 +16,16 @@
 
 package org.jboss.resteasy.plugins.cache.server;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.MultivaluedMap;
 
@@ -28,6 +34,38 @@ import jakarta.ws.rs.core.MultivaluedMap;
  * @version $Revision: 1 $
  */
 public interface ServerCache {
+    /**
+     * The RFC 5861 {@code Cache-Control} extension allowing a stale response to be served while it is revalidated.
+     */
+    String STALE_WHILE_REVALIDATE = "stale-while-revalidate";
+    /**
+     * The RFC 5861 {@code Cache-Control} extension allowing a stale response to be served if revalidation fails.
+     */
+    String STALE_IF_ERROR = "stale-if-error";
+    /**
+     * The status code of the responses cached unless {@link NegativeCaching} is configured.
+     */
+    int OK = 200;
+
+    /**
+     * Returns the value, in seconds, of a {@code Cache-Control} extension such as {@link #STALE_WHILE_REVALIDATE}.
+     *
+     * @param cc        the cache control
+     * @param extension the name of the extension
+     *
+     * @return the number of seconds, or {@code 0} if the extension is absent or not a number
+     */
+    static int getExtensionSeconds(CacheControl cc, String extension) {
+        String value = cc.getCacheExtension().get(extension);
+        if (value == null)
+            return 0;
+        try {
+            return Math.max(0, Integer.parseInt(value.replace("\"", "").trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     static boolean mayVary(Entry cached, MultivaluedMap<String, String> current) {
         boolean mayVary = false;
         for (Map.Entry<String, List<String>> entry : cached.getVaryHeaders().entrySet()) {
@@ -44,19 +82,257 @@ public interface ServerCache {
 
         String getEtag();
 
+        /**
+         * Returns a copy of the cached entity.
+         *
+         * @return the cached entity
+         * @see #getEntity()
+         */
         byte[] getCached();
 
+        /**
+         * Returns the cached entity without copying it.
+         *
+         * @return the cached entity
+         */
+        default CachedEntity getEntity() {
+            return SegmentedEntity.wrap(getCached());
+        }
+
         MultivaluedMap<String, Object> getHeaders();
 
         MultivaluedMap<String, String> getVaryHeaders();
+
+        /**
+         * Returns the fingerprint of the request headers this entry varies on. Implementations should create it once
+         * when the entry is stored, the default implementation creates it on every call.
+         *
+         * @return the fingerprint
+         */
+        default VaryFingerprint getVaryFingerprint() {
+            return VaryFingerprint.of(getHeaders(), getVaryHeaders());
+        }
+
+        /**
+         * Returns how long ago, in seconds, the entry was stored.
+         *
+         * @return the value of the {@value PreparedHeaders#AGE} header
+         */
+        default int getAgeInSeconds() {
+            return 0;
+        }
+
+        /**
+         * Returns the headers of the entry serialized for serving. Implementations should prepare them once when the
+         * entry is stored, the default implementation prepares them on every call.
+         *
+         * @return the prepared headers
+         */
+        default PreparedHeaders getPreparedHeaders() {
+            return PreparedHeaders.of(this);
+        }
+
+        /**
+         * Returns the media type of the cached entity.
+         *
+         * @return the media type, by default taken from the {@code Content-Type} header
+         */
+        default MediaType getMediaType() {
+            Object type = getHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
+            if (type == null)
+                return MediaType.WILDCARD_TYPE;
+            return type instanceof MediaType ? (MediaType) type : MediaType.valueOf(type.toString());
+        }
+
+        /**
+         * Returns the {@code Cache-Control} extensions of the cached response.
+         *
+         * @return the extensions, never {@code null}
+         */
+        default Map<String, String> getCacheExtension() {
+            return Collections.emptyMap();
+        }
+
+        /**
+         * Returns how long, in seconds, this entry may be served after it expired while it is being revalidated.
+         *
+         * @return the {@value #STALE_WHILE_REVALIDATE} window
+         */
+        default int getStaleWhileRevalidate() {
+            return 0;
+        }
+
+        /**
+         * Returns how long, in seconds, this entry may be served after it expired if revalidating it fails.
+         *
+         * @return the {@value #STALE_IF_ERROR} window
+         */
+        default int getStaleIfError() {
+            return 0;
+        }
+
+        /**
+         * Returns the status code of the cached response.
+         *
+         * @return the status code, {@code 200} unless the response was cached by {@link NegativeCaching}
+         */
+        default int getStatus() {
+            return OK;
+        }
     }
 
     Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers, byte[] entity,
             String etag, MultivaluedMap<String, String> varyHeaders);
 
+    /**
+     * Adds an entity which is already held in a {@link CachedEntity}. The default implementation copies the entity and
+     * calls {@link #add(String, MediaType, CacheControl, MultivaluedMap, byte[], String, MultivaluedMap)}.
+     */
+    default Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers,
+            CachedEntity entity, String etag, MultivaluedMap<String, String> varyHeaders) {
+        return add(uri, mediaType, cc, headers, entity.toByteArray(), etag, varyHeaders);
+    }
+
+    /**
+     * Adds a response with the given status code. The default implementation only adds {@code 200} responses, with
+     * {@link #add(String, MediaType, CacheControl, MultivaluedMap, CachedEntity, String, MultivaluedMap)}; caches
+     * which keep the status, see {@link Entry#getStatus()}, should override it.
+     *
+     * @return the new entry or {@code null} if the cache does not keep responses with this status code
+     */
+    default Entry add(String uri, int status, MediaType mediaType, CacheControl cc,
+            MultivaluedMap<String, Object> headers, CachedEntity entity, String etag,
+            MultivaluedMap<String, String> varyHeaders) {
+        if (status != OK)
+            return null;
+        return add(uri, mediaType, cc, headers, entity, etag, varyHeaders);
+    }
+
     Entry get(String uri, MediaType accept, MultivaluedMap<String, String> headers);
 
     void remove(String uri);
 
     void clear();
+
+    /**
+     * Passes every cached resource to an action, for example to write a snapshot of the cache. The default
+     * implementation passes nothing, a cache which cannot be enumerated cannot be snapshotted.
+     *
+     * @param action the action, passed the URI and the variants of each resource
+     */
+    default void forEachResource(BiConsumer<String, VariantGroup> action) {
+    }
+
+    /**
+     * Adds the variants of a resource read back from a snapshot, see {@link CacheSnapshot}. Entries which can no
+     * longer be served are skipped. The default implementation adds the entries again with the time to live they have
+     * left, so their {@value PreparedHeaders#AGE} starts from zero; implementations should keep the time they were
+     * stored.
+     *
+     * @param uri   the URI of the resource
+     * @param group the variants of the resource
+     */
+    default void restore(String uri, VariantGroup group) {
+        // the oldest variant first, so that the group keeps its order
+        for (int i = group.size() - 1; i >= 0; i--) {
+            Entry entry = group.getEntry(i);
+            if (entry.isExpired())
+                continue;
+            CacheControl cc = new CacheControl();
+            cc.setMaxAge(entry.getExpirationInSeconds());
+            cc.getCacheExtension().putAll(entry.getCacheExtension());
+            add(uri, entry.getStatus(), entry.getMediaType(), cc, entry.getHeaders(), entry.getEntity(),
+                    entry.getEtag(), entry.getVaryHeaders());
+        }
+    }
+
+    /**
+     * Looks up the validator of the variant of a resource a request selects, without loading its entity.
+     *
+     * @param uri     the URI of the resource
+     * @param accept  the media type accepted by the request
+     * @param headers the request headers
+     *
+     * @return the validator or {@code null} if the cache does not index validators, see {@link ETagIndex}
+     */
+    default CachedValidator getValidator(String uri, MediaType accept, MultivaluedMap<String, String> headers) {
+        return null;
+    }
+
+    /**
+     * Looks a resource up without blocking the calling thread. The default implementation calls
+     * {@link #get(String, MediaType, MultivaluedMap)}, caches which do I/O, for example over the network, should
+     * override it.
+     *
+     * @param uri     the URI of the resource
+     * @param accept  the media type accepted by the request
+     * @param headers the request headers
+     *
+     * @return a stage completed with the matching entry or {@code null} if there is none
+     */
+    default CompletionStage<Entry> getAsync(String uri, MediaType accept, MultivaluedMap<String, String> headers) {
+        return CompletableFuture.completedFuture(get(uri, accept, headers));
+    }
+
+    /**
+     * Adds an entity without blocking the calling thread. The default implementation calls
+     * {@link #add(String, MediaType, CacheControl, MultivaluedMap, CachedEntity, String, MultivaluedMap)}.
+     *
+     * @return a stage completed with the new entry once it is stored
+     */
+    default CompletionStage<Entry> addAsync(String uri, MediaType mediaType, CacheControl cc,
+            MultivaluedMap<String, Object> headers, CachedEntity entity, String etag,
+            MultivaluedMap<String, String> varyHeaders) {
+        return CompletableFuture.completedFuture(add(uri, mediaType, cc, headers, entity, etag, varyHeaders));
+    }
+
+    /**
+     * Adds a response with the given status code without blocking the calling thread. The default implementation
+     * calls {@link #addAsync(String, MediaType, CacheControl, MultivaluedMap, CachedEntity, String, MultivaluedMap)}
+     * for a {@code 200} response and
+     * {@link #add(String, int, MediaType, CacheControl, MultivaluedMap, CachedEntity, String, MultivaluedMap)}
+     * otherwise.
+     *
+     * @return a stage completed with the new entry, or {@code null} if the cache does not keep responses with this
+     *         status code
+     */
+    default CompletionStage<Entry> addAsync(String uri, int status, MediaType mediaType, CacheControl cc,
+            MultivaluedMap<String, Object> headers, CachedEntity entity, String etag,
+            MultivaluedMap<String, String> varyHeaders) {
+        if (status == OK)
+            return addAsync(uri, mediaType, cc, headers, entity, etag, varyHeaders);
+        return CompletableFuture.completedFuture(add(uri, status, mediaType, cc, headers, entity, etag, varyHeaders));
+    }
+
+    /**
+     * Removes a resource without blocking the calling thread. The default implementation calls {@link #remove(String)}.
+     *
+     * @param uri the URI of the resource
+     *
+     * @return a stage completed once the resource is removed
+     */
+    default CompletionStage<Void> removeAsync(String uri) {
+        remove(uri);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Sets the metrics the cache reports its evictions and rejections to.
+     *
+     * @param metrics the metrics
+     */
+    default void setMetrics(CacheMetrics metrics) {
+    }
+
+    /**
+     * Registers a listener notified when a resource is removed or replaced, including by other clients of the cache
+     * such as the other nodes of a cluster.
+     *
+     * @param listener the listener, passed the URI of the resource
+     *
+     * @return {@code true} if the cache notifies the listener, {@code false} if it does not support listeners
+     */
+    default boolean addRemovalListener(Consumer<String> listener) {
+        return false;
+    }
 }
@@ -17,7 +17,23 @@
 package org.jboss.resteasy.plugins.cache.server;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import jakarta.annotation.PreDestroy;
 import jakarta.ws.rs.core.Configurable;
 import jakarta.ws.rs.core.Feature;
 import jakarta.ws.rs.core.FeatureContext;
@@ -28,6 +44,7 @@ import org.infinispan.configuration.parsing.ConfigurationBuilderHolder;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.manager.DefaultCacheManager;
 import org.infinispan.manager.EmbeddedCacheManager;
+import org.jboss.logging.Logger;
 import org.jboss.resteasy.plugins.cache.server.i18n.Messages;
 import org.jboss.resteasy.spi.config.Configuration;
 import org.jboss.resteasy.spi.config.ConfigurationFactory;
@@ -37,8 +54,199 @@ import org.jboss.resteasy.spi.config.ConfigurationFactory;
  * @version $Revision: 1 $
  */
 public class ServerCacheFeature implements Feature {
+    /**
+     * Set to {@code true} to coalesce concurrent cache misses for the same resource into a single invocation of the
+     * resource method.
+     */
+    public static final String SINGLE_FLIGHT = "server.request.cache.single.flight";
+    /**
+     * The maximum time, in milliseconds, a coalesced request waits for the leading request. Defaults to
+     * {@code 2000}.
+     */
+    public static final String SINGLE_FLIGHT_TIMEOUT = "server.request.cache.single.flight.timeout";
+    /**
+     * The default cache implementation, either {@code infinispan} or {@code local} for the in-process
+     * {@link LocalServerCache}. Defaults to {@code infinispan}.
+     */
+    public static final String CACHE_TYPE = "server.request.cache.type";
+    /**
+     * The capacity in bytes of the {@link LocalServerCache}. Defaults to 32 MiB.
+     */
+    public static final String LOCAL_MAX_BYTES = "server.request.cache.local.max.bytes";
+    /**
+     * A directory to move large entities to, see {@link TieredServerCache}. Not set by default, which keeps all
+     * entities on the heap.
+     */
+    public static final String DISK_DIRECTORY = "server.request.cache.disk.directory";
+    /**
+     * The length in bytes from which entities are moved to the {@link #DISK_DIRECTORY}. Defaults to 1 MiB.
+     */
+    public static final String DISK_THRESHOLD = "server.request.cache.disk.threshold";
+    /**
+     * The size in bytes of the segment files in the {@link #DISK_DIRECTORY}. Defaults to 64 MiB.
+     */
+    public static final String DISK_SEGMENT_SIZE = "server.request.cache.disk.segment.size";
+    /**
+     * The maximum size in bytes of the segment files in the {@link #DISK_DIRECTORY}. Defaults to 1 GiB; responses
+     * whose entity does not fit any more are not cached.
+     */
+    public static final String DISK_MAX_BYTES = "server.request.cache.disk.max.bytes";
+    /**
+     * The maximum number of resources kept in a {@link NearServerCache} in front of the cache. Defaults to {@code 0},
+     * which disables the near cache.
+     */
+    public static final String NEAR_MAX_ENTRIES = "server.request.cache.near.max.entries";
+    /**
+     * The maximum time, in seconds, a resource is kept in the {@link NearServerCache}. Defaults to {@code 5}.
+     */
+    public static final String NEAR_TTL = "server.request.cache.near.ttl";
+    /**
+     * The maximum number of resources whose validators the {@link ETagIndex} keeps to answer revalidations without
+     * loading entities. Defaults to {@code 0}, which disables the index.
+     */
+    public static final String ETAG_INDEX_MAX_ENTRIES = "server.request.cache.etag.index.max.entries";
+
+    /**
+     * A comma separated list of content codings, {@code gzip} and {@code deflate}, in which cached entities are also
+     * stored so that hits are served compressed without compressing them again. Entities are encoded after the
+     * response of the miss is sent and stored once encoded. Not set by default.
+     */
+    public static final String CONTENT_CODINGS = "server.request.cache.content.codings";
+    /**
+     * The compression level of the {@link #CONTENT_CODINGS}, from {@code 1}, the fastest, to {@code 9}, the smallest.
+     * Defaults to {@code -1}, the default level of zlib.
+     */
+    public static final String CONTENT_CODING_LEVEL = "server.request.cache.content.coding.level";
+
+    /**
+     * The number of threads refreshing stale entries in the background, see {@link BackgroundRefresher}. Requires
+     * {@link #REFRESH_BASE_URI}. Defaults to {@code 0}, which lets the request revalidating a stale entry through to
+     * the resource method instead.
+     */
+    public static final String REFRESH_THREADS = "server.request.cache.refresh.threads";
+    /**
+     * The base URI of the application stale entries are refreshed against, for example
+     * {@code http://localhost:8080/app/}. Required by {@link #REFRESH_THREADS}.
+     */
+    public static final String REFRESH_BASE_URI = "server.request.cache.refresh.base.uri";
+    /**
+     * Set to {@code true} to replay the credentials of requests, their {@code Authorization},
+     * {@code Proxy-Authorization} and {@code Cookie} headers, when stale entries are refreshed. Defaults to
+     * {@code false}.
+     */
+    public static final String REFRESH_CREDENTIALS = "server.request.cache.refresh.credentials";
+
+    /**
+     * The strategy creating the ETags of cached responses which do not set one: {@code xxhash64}, {@code md5} or the
+     * name of an {@link ETagStrategy} class. Defaults to {@code xxhash64}.
+     */
+    public static final String ETAG_STRATEGY = "server.request.cache.etag.strategy";
+
+    /**
+     * Set to {@code true} to stream cacheable responses to the client while they are buffered for the cache, see
+     * {@link ServerCacheInterceptor#setStreaming(boolean)}.
+     */
+    public static final String STREAMING = "server.request.cache.streaming";
+    /**
+     * Set to {@code true} to look the cache up and store in it without blocking the request threads, see
+     * {@link ServerCacheHitFilter#setAsync(boolean)} and {@link ServerCacheInterceptor#setAsync(boolean)}.
+     */
+    public static final String ASYNC = "server.request.cache.async";
+    /**
+     * The times to live, in seconds, of cached error responses by status code or class, for example
+     * {@code 404=60,5xx=0}, see {@link NegativeCaching}. Not set by default: responses of any status code but
+     * {@code 206} are cached as long as their {@code Cache-Control} header allows it.
+     */
+    public static final String NEGATIVE_TTLS = "server.request.cache.negative.ttls";
+    /**
+     * Set to {@code true} to only cache the resource methods annotated with {@link ServerCached}, see
+     * {@link CachePolicyFeature}. Other methods then skip the cache lookup and the {@link ServerCacheInterceptor}.
+     */
+    public static final String ANNOTATED_ONLY = "server.request.cache.annotated.only";
+    /**
+     * The number of times a cache key has to miss recently before its response is stored, see {@link CacheAdmission}.
+     * Defaults to {@code 1}, which stores every cacheable response.
+     */
+    public static final String ADMISSION_MIN_MISSES = "server.request.cache.admission.min.misses";
+    /**
+     * The number of distinct cache keys the {@link CacheAdmission} is sized for. Defaults to {@code 100000}.
+     */
+    public static final String ADMISSION_KEYS = "server.request.cache.admission.keys";
+    /**
+     * The size, in bytes, of the largest response which is cached, see
+     * {@link ServerCacheInterceptor#setMaxBodyBytes(long)}. Defaults to {@code -1}, no limit.
+     */
+    public static final String MAX_BODY_BYTES = "server.request.cache.max.body.bytes";
+
+    /**
+     * The name of a {@link CacheKeyStrategy} class creating the cache keys of requests. Defaults to a
+     * {@link CanonicalCacheKeyStrategy}.
+     */
+    public static final String KEY_STRATEGY = "server.request.cache.key.strategy";
+    /**
+     * A comma separated list of query parameters the default {@link CacheKeyStrategy} leaves out of cache keys, for
+     * example {@code utm_*,fbclid}. A name ending with {@code *} matches all the parameters starting with it.
+     */
+    public static final String KEY_IGNORED_PARAMETERS = "server.request.cache.key.ignored.parameters";
+
+    /**
+     * The maximum number of cached keys the {@link CacheInvalidator} indexes for invalidation by tag and by prefix.
+     * Keys beyond this number are evicted from the cache, so it should be at least the number of cached resources.
+     * Defaults to {@code 0}, which disables the invalidator: a write only invalidates the written URI.
+     */
+    public static final String INVALIDATION_MAX_KEYS = "server.request.cache.invalidation.max.keys";
+    /**
+     * Set to {@code true} to invalidate the resources above and below a written URI as well, see
+     * {@link CacheInvalidator#invalidateHierarchy(String)}. Requires {@link #INVALIDATION_MAX_KEYS}.
+     */
+    public static final String INVALIDATE_HIERARCHY = "server.request.cache.invalidate.hierarchy";
+
+    /**
+     * Set to {@code false} to disable the default {@link DefaultCacheMetrics}. A custom {@link CacheMetrics} can be
+     * set as the {@code org.jboss.resteasy.plugins.cache.server.CacheMetrics} property instead.
+     */
+    public static final String METRICS = "server.request.cache.metrics";
+    /**
+     * Set to {@code true} to register the {@link DefaultCacheMetrics} as the
+     * {@code org.jboss.resteasy.cache:type=ServerCache,name=<name>} MBean, see {@link #METRICS_JMX_NAME}. The MBeans
+     * are unregistered when the feature is shut down, see {@link #shutdown()}.
+     */
+    public static final String METRICS_JMX = "server.request.cache.metrics.jmx";
+    /**
+     * The name the MBeans of the deployment are registered with, for example its context path. Defaults to
+     * {@code default}; deployments sharing a JVM must set names of their own.
+     */
+    public static final String METRICS_JMX_NAME = "server.request.cache.metrics.jmx.name";
+
+    /**
+     * A file the resources of the cache are written to when the application shuts down, see {@link #shutdown()}, and
+     * restored from when the next node starts, see {@link CacheSnapshot}. Not set by default.
+     */
+    public static final String WARM_SNAPSHOT = "server.request.cache.warm.snapshot";
+    /**
+     * A manifest of requests replayed through the application to warm the cache up when it starts, see
+     * {@link CacheWarmer}. Not set by default.
+     */
+    public static final String WARM_MANIFEST = "server.request.cache.warm.manifest";
+    /**
+     * The base URI of the application the requests of the {@link #WARM_MANIFEST} are resolved against, for example
+     * {@code http://localhost:8080/app/}. Required by {@link #WARM_MANIFEST}.
+     */
+    public static final String WARM_BASE_URI = "server.request.cache.warm.base.uri";
+    /**
+     * The maximum number of requests of the {@link #WARM_MANIFEST} replayed at a time. Defaults to {@code 4}.
+     */
+    public static final String WARM_CONCURRENCY = "server.request.cache.warm.concurrency";
+
+    private static final Logger LOGGER = Logger.getLogger(ServerCacheFeature.class);
+
     private final Configuration configuration;
     protected ServerCache cache;
+    protected BackgroundRefresher refresher;
+    private Thread shutdownHook;
+    private final List<ObjectName> mbeans = new ArrayList<>();
+    private CacheWarmer warmer;
+    private Path snapshot;
 
     public ServerCacheFeature() {
         configuration = ConfigurationFactory.getInstance().getConfiguration();
@@ -50,13 +258,71 @@ public class ServerCacheFeature implements Feature {
         this.cache = cache;
     }
 
+    /**
+     * Configures the cache. What an earlier configuration of this feature holds is released first, see
+     * {@link #shutdown()}. The feature is set as the {@code org.jboss.resteasy.plugins.cache.server.ServerCacheFeature}
+     * property so that the application can shut it down.
+     */
     @Override
     public boolean configure(FeatureContext configurable) {
+        shutdown();
         ServerCache cache = getCache(configurable);
         if (cache == null)
             return false;
-        configurable.register(new ServerCacheHitFilter(cache));
-        configurable.register(new ServerCacheInterceptor(cache));
+        configurable.property(ServerCacheFeature.class.getName(), this);
+        cache = getTieredCache(configurable, cache);
+        cache = getETagIndex(configurable, cache);
+        cache = getNearCache(configurable, cache);
+        CacheKeyStrategy keyStrategy = getCacheKeyStrategy(configurable);
+        CacheMetrics metrics = getMetrics(configurable);
+        cache.setMetrics(metrics);
+        getCacheWarmer(configurable, cache);
+        ServerCacheHitFilter hitFilter = new ServerCacheHitFilter(cache);
+        hitFilter.setMetrics(metrics);
+        hitFilter.setCacheKeyStrategy(keyStrategy);
+        boolean async = Boolean.parseBoolean(getConfigValue(configurable, ASYNC, "false"));
+        hitFilter.setAsync(async);
+        String negativeTtls = getConfigValue(configurable, NEGATIVE_TTLS, null);
+        NegativeCaching negativeCaching = negativeTtls == null ? null : NegativeCaching.parse(negativeTtls);
+        hitFilter.setNegativeCaching(negativeCaching);
+        boolean annotatedOnly = Boolean.parseBoolean(getConfigValue(configurable, ANNOTATED_ONLY, "false"));
+        hitFilter.setAnnotatedOnly(annotatedOnly);
+        CacheInvalidator invalidator = null;
+        int maxKeys = Integer.parseInt(getConfigValue(configurable, INVALIDATION_MAX_KEYS, "0"));
+        if (maxKeys > 0) {
+            invalidator = new CacheInvalidator(cache, maxKeys);
+            hitFilter.setCacheInvalidator(invalidator,
+                    Boolean.parseBoolean(getConfigValue(configurable, INVALIDATE_HIERARCHY, "false")));
+            configurable.property(CacheInvalidator.class.getName(), invalidator);
+        }
+        if (Boolean.parseBoolean(getConfigValue(configurable, SINGLE_FLIGHT, "false"))) {
+            hitFilter.setRequestCoalescer(
+                    new RequestCoalescer(Long.parseLong(getConfigValue(configurable, SINGLE_FLIGHT_TIMEOUT, "2000"))));
+        }
+        hitFilter.setBackgroundRefresher(getBackgroundRefresher(configurable));
+        configurable.register(hitFilter);
+        ServerCacheInterceptor interceptor = new ServerCacheInterceptor(cache);
+        interceptor.setCacheKeyStrategy(keyStrategy);
+        interceptor.setCacheInvalidator(invalidator);
+        interceptor.setMetrics(metrics);
+        interceptor.setAsync(async);
+        interceptor.setNegativeCaching(negativeCaching);
+        interceptor.setCacheAdmission(getCacheAdmission(configurable));
+        interceptor.setMaxBodyBytes(Long.parseLong(getConfigValue(configurable, MAX_BODY_BYTES, "-1")));
+        interceptor.setStreaming(Boolean.parseBoolean(getConfigValue(configurable, STREAMING, "false")));
+        interceptor.setETagStrategy(ETagStrategy.forName(getConfigValue(configurable, ETAG_STRATEGY, "xxhash64")));
+        List<String> contentCodings = getContentCodings(configurable);
+        if (!contentCodings.isEmpty()) {
+            interceptor.setContentCodings(contentCodings);
+            interceptor.setCompressionLevel(Integer.parseInt(getConfigValue(configurable, CONTENT_CODING_LEVEL, "-1")));
+            configurable.register(new EncodedEntityInterceptor());
+        }
+        // the @ServerCached policies are resolved per resource method once the resources are deployed
+        configurable.register(new CachePolicyFeature(annotatedOnly ? interceptor : null));
+        if (!annotatedOnly) {
+            configurable.register(interceptor);
+        }
+        configurable.register(new CachedEntityWriter());
         return true;
     }
 
@@ -76,23 +342,293 @@ public class ServerCacheFeature implements Feature {
         return configuration.getOptionalValue(name, String.class).orElse(null);
     }
 
+    /**
+     * Returns a configuration property, looking it up in the JAX-RS configuration first and then with the
+     * {@link Configuration} API.
+     *
+     * @param configurable the configurable being configured
+     * @param name         the configuration property name
+     * @param defaultValue the value to return if the property is not set
+     *
+     * @return the value found or the default value
+     */
+    protected String getConfigValue(Configurable<?> configurable, String name, String defaultValue) {
+        Object value = configurable.getConfiguration().getProperty(name);
+        if (value != null)
+            return value.toString();
+        return configuration.getOptionalValue(name, String.class).orElse(defaultValue);
+    }
+
+    protected CacheMetrics getMetrics(Configurable<?> configurable) {
+        Object metrics = configurable.getConfiguration().getProperty(CacheMetrics.class.getName());
+        if (metrics != null)
+            return (CacheMetrics) metrics;
+        if (!Boolean.parseBoolean(getConfigValue(configurable, METRICS, "true")))
+            return CacheMetrics.NONE;
+        DefaultCacheMetrics defaultMetrics = new DefaultCacheMetrics();
+        registerMBean(configurable, "ServerCache", defaultMetrics);
+        configurable.property(CacheMetrics.class.getName(), defaultMetrics);
+        return defaultMetrics;
+    }
+
+    protected CacheKeyStrategy getCacheKeyStrategy(Configurable<?> configurable) {
+        String className = getConfigValue(configurable, KEY_STRATEGY, null);
+        if (className != null) {
+            try {
+                return Class.forName(className, true, getClass().getClassLoader()).asSubclass(CacheKeyStrategy.class)
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                throw new IllegalArgumentException(className, e);
+            }
+        }
+        List<String> ignored = new ArrayList<>();
+        for (String name : getConfigValue(configurable, KEY_IGNORED_PARAMETERS, "").split(",")) {
+            if (!name.trim().isEmpty()) {
+                ignored.add(name.trim());
+            }
+        }
+        return new CanonicalCacheKeyStrategy(ignored);
+    }
+
+    private List<String> getContentCodings(Configurable<?> configurable) {
+        List<String> contentCodings = new ArrayList<>();
+        for (String contentCoding : getConfigValue(configurable, CONTENT_CODINGS, "").split(",")) {
+            contentCoding = contentCoding.trim().toLowerCase(Locale.ROOT);
+            if (contentCoding.isEmpty())
+                continue;
+            if (!EncodedEntity.isSupported(contentCoding))
+                throw new IllegalArgumentException(Messages.MESSAGES.unsupportedContentCoding(contentCoding));
+            contentCodings.add(contentCoding);
+        }
+        return contentCodings;
+    }
+
     protected ServerCache getCache(Configurable<?> configurable) {
         if (this.cache != null)
             return this.cache;
         ServerCache c = (ServerCache) configurable.getConfiguration().getProperty(ServerCache.class.getName());
         if (c != null)
             return c;
+        if ("local".equalsIgnoreCase(getConfigValue(configurable, CACHE_TYPE, "infinispan")))
+            return getLocalCache(configurable);
         c = getXmlCache(configurable);
         if (c != null)
             return c;
         return getDefaultCache();
     }
 
+    protected ServerCache getLocalCache(Configurable<?> configurable) {
+        return new LocalServerCache(Long.parseLong(getConfigValue(configurable, LOCAL_MAX_BYTES, "33554432")));
+    }
+
+    /**
+     * Wraps the cache into a {@link TieredServerCache} if a {@link #DISK_DIRECTORY} is configured.
+     *
+     * @param configurable the configurable being configured
+     * @param cache        the cache
+     *
+     * @return the cache to use
+     */
+    protected ServerCache getTieredCache(Configurable<?> configurable, ServerCache cache) {
+        String directory = getConfigValue(configurable, DISK_DIRECTORY, null);
+        if (directory == null)
+            return cache;
+        try {
+            return new TieredServerCache(cache, Paths.get(directory),
+                    Long.parseLong(getConfigValue(configurable, DISK_THRESHOLD, "1048576")),
+                    Integer.parseInt(getConfigValue(configurable, DISK_SEGMENT_SIZE, "67108864")),
+                    Long.parseLong(getConfigValue(configurable, DISK_MAX_BYTES, "1073741824")));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Creates the refresher of stale entries unless {@link #REFRESH_THREADS} is {@code 0}. Its executor is owned by
+     * this feature and shut down with it, see {@link #shutdown()}.
+     *
+     * @param configurable the configurable being configured
+     *
+     * @return the refresher or {@code null}
+     */
+    protected BackgroundRefresher getBackgroundRefresher(Configurable<?> configurable) {
+        int threads = Integer.parseInt(getConfigValue(configurable, REFRESH_THREADS, "0"));
+        if (threads <= 0)
+            return null;
+        String baseUri = getConfigValue(configurable, REFRESH_BASE_URI, null);
+        if (baseUri == null)
+            throw new IllegalArgumentException(Messages.MESSAGES.refreshBaseUriRequired());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "server-cache-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher = new BackgroundRefresher(executor, URI.create(baseUri));
+        refresher.setForwardCredentials(
+                Boolean.parseBoolean(getConfigValue(configurable, REFRESH_CREDENTIALS, "false")));
+        addShutdownHook();
+        return refresher;
+    }
+
+    /**
+     * Releases what the feature holds beyond the cache: the background refresh of stale entries is shut down, the
+     * {@link #WARM_SNAPSHOT} is written and the MBeans are unregistered. The container calls it when the application
+     * is undeployed if it manages the feature, the application should call it when it stops otherwise. Until then, a
+     * JVM shutdown hook calls it at the latest; the hook is removed here.
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        BackgroundRefresher refresher = this.refresher;
+        if (refresher != null) {
+            this.refresher = null;
+            refresher.shutdown();
+        }
+        CacheWarmer warmer = this.warmer;
+        if (warmer != null) {
+            this.warmer = null;
+            warmer.writeSnapshot(snapshot);
+            snapshot = null;
+        }
+        for (ObjectName mbean : mbeans) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbean);
+            } catch (JMException e) {
+                LOGGER.debugf(e, "Could not unregister %s", mbean);
+            }
+        }
+        mbeans.clear();
+        Thread hook = shutdownHook;
+        if (hook != null) {
+            shutdownHook = null;
+            if (Thread.currentThread() != hook) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(hook);
+                } catch (IllegalStateException e) {
+                    // the JVM is shutting down already
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers an MBean under the {@link #METRICS_JMX_NAME} if {@link #METRICS_JMX} is set, until the feature is
+     * shut down.
+     */
+    private synchronized void registerMBean(Configurable<?> configurable, String type, Object mbean) {
+        if (!Boolean.parseBoolean(getConfigValue(configurable, METRICS_JMX, "false")))
+            return;
+        String name = getConfigValue(configurable, METRICS_JMX_NAME, "default");
+        try {
+            ObjectName objectName = new ObjectName("org.jboss.resteasy.cache", new Hashtable<>(
+                    Map.of("type", type, "name", ObjectName.quote(name))));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, objectName);
+            mbeans.add(objectName);
+        } catch (InstanceAlreadyExistsException e) {
+            throw new IllegalArgumentException(Messages.MESSAGES.mbeanNameInUse(name), e);
+        } catch (JMException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private synchronized void addShutdownHook() {
+        if (shutdownHook == null) {
+            shutdownHook = new Thread(this::shutdown, "server-cache-shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        }
+    }
+
+    /**
+     * Warms the cache up if a {@link #WARM_SNAPSHOT} or a {@link #WARM_MANIFEST} is configured. The warmer is set as
+     * the {@code org.jboss.resteasy.plugins.cache.server.CacheWarmer} property, and registered as the
+     * {@code org.jboss.resteasy.cache:type=CacheWarmer,name=<name>} MBean if {@link #METRICS_JMX} is set. The snapshot
+     * is written when this feature is shut down, see {@link #shutdown()}.
+     *
+     * @param configurable the configurable being configured
+     * @param cache        the cache
+     *
+     * @return the warmer or {@code null} if there is nothing to warm the cache up with
+     */
+    protected CacheWarmer getCacheWarmer(Configurable<?> configurable, ServerCache cache) {
+        String snapshot = getConfigValue(configurable, WARM_SNAPSHOT, null);
+        String manifest = getConfigValue(configurable, WARM_MANIFEST, null);
+        if (snapshot == null && manifest == null)
+            return null;
+        String baseUri = getConfigValue(configurable, WARM_BASE_URI, null);
+        if (manifest != null && baseUri == null)
+            throw new IllegalArgumentException(Messages.MESSAGES.warmBaseUriRequired());
+        CacheWarmer warmer = new CacheWarmer(cache);
+        if (snapshot != null) {
+            Path file = Paths.get(snapshot);
+            warmer.restore(file);
+            synchronized (this) {
+                this.warmer = warmer;
+                this.snapshot = file;
+            }
+            addShutdownHook();
+        }
+        if (manifest != null) {
+            try {
+                warmer.replay(Paths.get(manifest), URI.create(baseUri),
+                        Integer.parseInt(getConfigValue(configurable, WARM_CONCURRENCY, "4")));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        registerMBean(configurable, "CacheWarmer", warmer);
+        configurable.property(CacheWarmer.class.getName(), warmer);
+        return warmer;
+    }
+
+    /**
+     * Wraps the cache into an {@link ETagIndex} if {@link #ETAG_INDEX_MAX_ENTRIES} is set.
+     *
+     * @param configurable the configurable being configured
+     * @param cache        the cache
+     *
+     * @return the cache to use
+     */
+    protected ServerCache getETagIndex(Configurable<?> configurable, ServerCache cache) {
+        int maxEntries = Integer.parseInt(getConfigValue(configurable, ETAG_INDEX_MAX_ENTRIES, "0"));
+        if (maxEntries <= 0)
+            return cache;
+        return new ETagIndex(cache, maxEntries);
+    }
+
+    /**
+     * Wraps the cache into a {@link NearServerCache} if {@link #NEAR_MAX_ENTRIES} is set.
+     *
+     * @param configurable the configurable being configured
+     * @param cache        the cache
+     *
+     * @return the cache to use
+     */
+    protected ServerCache getNearCache(Configurable<?> configurable, ServerCache cache) {
+        int maxEntries = Integer.parseInt(getConfigValue(configurable, NEAR_MAX_ENTRIES, "0"));
+        if (maxEntries <= 0)
+            return cache;
+        return new NearServerCache(cache, maxEntries, Integer.parseInt(getConfigValue(configurable, NEAR_TTL, "5")));
+    }
+
+    /**
+     * Creates the {@link CacheAdmission} if {@link #ADMISSION_MIN_MISSES} is more than {@code 1}.
+     *
+     * @param configurable the configurable being configured
+     *
+     * @return the admission policy or {@code null} to store all cacheable responses
+     */
+    protected CacheAdmission getCacheAdmission(Configurable<?> configurable) {
+        int minMisses = Integer.parseInt(getConfigValue(configurable, ADMISSION_MIN_MISSES, "1"));
+        if (minMisses <= 1)
+            return null;
+        return new CacheAdmission(minMisses, Long.parseLong(getConfigValue(configurable, ADMISSION_KEYS, "100000")));
+    }
+
     protected ServerCache getDefaultCache() {
         String RESTEASY_DEFAULT_CACHE = "resteasy-default-cache";
         ConfigurationBuilderHolder configBuilderHolder = new ConfigurationBuilderHolder();
         configBuilderHolder.getGlobalConfigurationBuilder()
                 .defaultCacheName(RESTEASY_DEFAULT_CACHE)
+                .serialization().marshaller(new ServerCacheMarshaller())
                 .jmx().enable()
                 .build();
         configBuilderHolder.newConfigurationBuilder(RESTEASY_DEFAULT_CACHE)
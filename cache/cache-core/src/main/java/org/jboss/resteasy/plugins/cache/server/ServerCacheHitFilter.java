@@ -17,25 +17,76 @@
 package org.jboss.resteasy.plugins.cache.server;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import jakarta.ws.rs.Path;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.container.ContainerRequestFilter;
-import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 
+import org.jboss.resteasy.core.interception.jaxrs.SuspendableContainerRequestContext;
+
 /**
  * @author <a href="mailto:bill@burkecentral.com">Bill Burke</a>
  * @version $Revision: 1 $
  */
-public class ServerCacheHitFilter implements ContainerRequestFilter {
+public class ServerCacheHitFilter implements ContainerRequestFilter, ContainerResponseFilter {
     protected ServerCache cache;
+    protected RequestCoalescer coalescer;
+    protected BackgroundRefresher refresher;
+    protected CacheKeyStrategy keyStrategy = new CanonicalCacheKeyStrategy();
+    protected CacheInvalidator invalidator;
+    protected boolean invalidateHierarchy;
+    protected CacheMetrics metrics = CacheMetrics.NONE;
+    protected boolean async;
+    protected NegativeCaching negativeCaching;
+    protected boolean annotatedOnly;
+    private final ConcurrentMap<Method, String> endpoints = new ConcurrentHashMap<>();
     public static final String DO_NOT_CACHE_RESPONSE = "DO NOT CACHE RESPONSE";
+    /**
+     * Request property holding the cache key of the request, see {@link CacheKeyStrategy}.
+     */
+    public static final String CACHE_KEY = ServerCacheHitFilter.class.getName() + ".key";
+    /**
+     * Request property holding the endpoint, the URI template of the resource method, metrics are reported for.
+     */
+    public static final String ENDPOINT = ServerCacheHitFilter.class.getName() + ".endpoint";
+    /**
+     * Request property holding the {@link System#nanoTime()} of a cache miss.
+     */
+    public static final String MISS_START = ServerCacheHitFilter.class.getName() + ".miss";
+    /**
+     * Request property holding the pre-encoded entity of a cache hit, see {@link EncodedEntityInterceptor}.
+     */
+    public static final String ENCODED_ENTITY = ServerCacheHitFilter.class.getName() + ".encoded";
+    /**
+     * Request property holding the status code of the response, which the {@link ServerCacheInterceptor} stores.
+     */
+    public static final String STATUS = ServerCacheHitFilter.class.getName() + ".status";
+    private static final String STALE_ENTRY = ServerCacheHitFilter.class.getName() + ".stale";
+    private static final long REVALIDATION_TIMEOUT = 10000;
+    private final RequestCoalescer revalidations = new RequestCoalescer(REVALIDATION_TIMEOUT);
+    private static final CompletionStage<Boolean> HIT = CompletableFuture.completedFuture(true);
+    private static final CompletionStage<Boolean> MISS = CompletableFuture.completedFuture(false);
 
     public ServerCacheHitFilter(final ServerCache cache) {
         this.cache = cache;
@@ -44,52 +95,529 @@ public class ServerCacheHitFilter implements ContainerRequestFilter {
     @Context
     protected Request validation;
 
+    @Context
+    protected ResourceInfo resourceInfo;
+
+    /**
+     * Enables coalescing of concurrent cache misses for the same resource.
+     *
+     * @param coalescer the coalescer to use, or {@code null} to let every miss through to the resource method
+     */
+    public void setRequestCoalescer(RequestCoalescer coalescer) {
+        this.coalescer = coalescer;
+    }
+
+    /**
+     * Enables background revalidation: the request which revalidates a stale entry is served the stale response
+     * too, and the refresher replays it to the resource method.
+     *
+     * @param refresher the refresher, or {@code null} to let the revalidating request through to the resource method
+     */
+    public void setBackgroundRefresher(BackgroundRefresher refresher) {
+        this.refresher = refresher;
+    }
+
+    /**
+     * Sets the strategy creating the cache keys of requests. Defaults to a {@link CanonicalCacheKeyStrategy} which
+     * keeps all query parameters.
+     *
+     * @param keyStrategy the strategy
+     */
+    public void setCacheKeyStrategy(CacheKeyStrategy keyStrategy) {
+        this.keyStrategy = keyStrategy;
+    }
+
+    /**
+     * Sets the invalidator used to invalidate cached resources by tag when they are written.
+     *
+     * @param invalidator         the invalidator, or {@code null} to only invalidate the written URI
+     * @param invalidateHierarchy {@code true} to also invalidate the resources above and below the written URI, see
+     *                            {@link CacheInvalidator#invalidateHierarchy(String)}
+     */
+    public void setCacheInvalidator(CacheInvalidator invalidator, boolean invalidateHierarchy) {
+        this.invalidator = invalidator;
+        this.invalidateHierarchy = invalidateHierarchy;
+    }
+
+    /**
+     * Sets the metrics hits, misses and conditional requests are reported to.
+     *
+     * @param metrics the metrics
+     */
+    public void setMetrics(CacheMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Enables the asynchronous lookup: requests are suspended while the cache is looked up, see
+     * {@link ServerCache#getAsync(String, MediaType, MultivaluedMap)}, so that a remote cache does not block the
+     * thread of the request. Only applies to containers whose request filters can suspend a request.
+     *
+     * @param async {@code true} to look the cache up asynchronously
+     */
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    /**
+     * Sets the times to live of error responses, such as {@code 404 Not Found}, see {@link NegativeCaching}. Error
+     * responses without an entity are given an empty one if a time to live is configured for their status code, so
+     * that the {@link ServerCacheInterceptor} stores them.
+     *
+     * @param negativeCaching the times to live, may be {@code null}
+     */
+    public void setNegativeCaching(NegativeCaching negativeCaching) {
+        this.negativeCaching = negativeCaching;
+    }
+
+    /**
+     * Restricts lookups to the resource methods annotated with {@link ServerCached}, the only ones cached then. Other
+     * requests still invalidate the resources they write.
+     *
+     * @param annotatedOnly {@code true} to only look up requests with a {@link CachePolicy}
+     */
+    public void setAnnotatedOnly(boolean annotatedOnly) {
+        this.annotatedOnly = annotatedOnly;
+    }
+
     @Override
     public void filter(ContainerRequestContext request) throws IOException {
-        String key = request.getUriInfo().getRequestUri().toString();
+        CachePolicy policy = (CachePolicy) request.getProperty(CachePolicy.PROPERTY);
+        String key = policy != null ? policy.getKey(request.getUriInfo().getRequestUri(), keyStrategy)
+                : keyStrategy.getKey(request.getUriInfo().getRequestUri());
+        request.setProperty(CACHE_KEY, key);
+        SuspendableContainerRequestContext suspendable = async && request instanceof SuspendableContainerRequestContext
+                ? (SuspendableContainerRequestContext) request
+                : null;
+        boolean head = request.getMethod().equalsIgnoreCase("HEAD");
+        if (head || request.getMethod().equalsIgnoreCase("GET")) {
+            if (policy == null && annotatedOnly)
+                return;
+            String endpoint = getEndpoint();
+            request.setProperty(ENDPOINT, endpoint);
+            if (!head && refresher != null && refresher.isRefresh(request)) {
+                // replayed by the refresher, the ServerCacheInterceptor stores the response of the resource method
+                return;
+            }
+            if (suspendable == null) {
+                if (!join(head ? handleHEAD(request, key, endpoint) : handleGET(request, key, endpoint)) && !head) {
+                    miss(request, endpoint);
+                }
+                return;
+            }
+            // suspended before the lookup starts, a lookup completing on this thread resumes the request at once
+            suspendable.suspend();
+            (head ? handleHEAD(request, key, endpoint) : handleGET(request, key, endpoint)).whenComplete((hit, t) -> {
+                if (t != null) {
+                    suspendable.resume(unwrap(t));
+                } else if (!hit) {
+                    if (!head) {
+                        miss(request, endpoint);
+                    }
+                    suspendable.resume();
+                }
+                // a hit was resumed by aborting the request
+            });
+        } else {
+            if (invalidator == null) {
+                if (suspendable == null) {
+                    cache.remove(key);
+                } else {
+                    suspendable.suspend();
+                    cache.removeAsync(key).whenComplete((v, t) -> {
+                        if (t != null) {
+                            suspendable.resume(unwrap(t));
+                        } else {
+                            suspendable.resume();
+                        }
+                    });
+                }
+            } else if (invalidateHierarchy) {
+                invalidator.invalidateHierarchy(key);
+            } else {
+                invalidator.invalidate(key);
+            }
+        }
+    }
+
+    private void miss(ContainerRequestContext request, String endpoint) {
+        metrics.miss(endpoint);
+        request.setProperty(MISS_START, System.nanoTime());
+    }
+
+    private static boolean join(CompletionStage<Boolean> served) {
+        try {
+            return served.toCompletableFuture().join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw e;
+        }
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        return t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        ServerCache.Entry stale = (ServerCache.Entry) request.getProperty(STALE_ENTRY);
+        if (stale != null && response.getStatus() >= 500) {
+            // stale-if-error: the resource failed, serve what we have instead
+            response.setStatus(stale.getStatus());
+            response.getHeaders().clear();
+            CachedEntity entity = stale.getEntity();
+            // an encoded entity is served in the identity encoding here, without its stored Content-Encoding
+            response.getHeaders().putAll(stale.getPreparedHeaders().toHeaders(!(entity instanceof EncodedEntity),
+                    stale.getAgeInSeconds()));
+            response.setEntity(entity);
+            request.setProperty(DO_NOT_CACHE_RESPONSE, true);
+            metrics.staleHit((String) request.getProperty(ENDPOINT));
+        }
+        request.setProperty(STATUS, response.getStatus());
+        if (!response.hasEntity() && isNegativelyCached(request, response.getStatus())) {
+            // only responses with an entity pass the ServerCacheInterceptor
+            response.setEntity(new byte[0]);
+        }
+        if (invalidator != null) {
+            handleTags(request, response);
+        }
+        // responses with an entity release their flight once the ServerCacheInterceptor has stored them
+        if (!response.hasEntity()) {
+            Object flight = request.getProperty(RequestCoalescer.FLIGHT);
+            if (flight != null) {
+                request.removeProperty(RequestCoalescer.FLIGHT);
+                ((RequestCoalescer.Flight) flight).complete();
+            }
+        }
+    }
+
+    private boolean isNegativelyCached(ContainerRequestContext request, int status) {
+        return negativeCaching != null && status != ServerCache.OK && negativeCaching.getTtl(status) > 0
+                && request.getMethod().equalsIgnoreCase("GET") && request.getProperty(DO_NOT_CACHE_RESPONSE) == null;
+    }
+
+    private void handleTags(ContainerRequestContext request, ContainerResponseContext response) {
+        CacheTags tags = getCacheTags();
         if (request.getMethod().equalsIgnoreCase("GET")) {
-            handleGET(request, key);
-        } else if (!request.getMethod().equalsIgnoreCase("HEAD")) {
-            cache.remove(key);
+            // the ServerCacheInterceptor indexes the tags of the header
+            if (tags != null && request.getProperty(DO_NOT_CACHE_RESPONSE) == null) {
+                response.getHeaders().add(CacheInvalidator.SURROGATE_KEY, String.join(" ", tags.value()));
+            }
+        } else if (!request.getMethod().equalsIgnoreCase("HEAD") && response.getStatus() < 400) {
+            if (tags != null) {
+                for (String tag : tags.value()) {
+                    invalidator.invalidateTag(tag);
+                }
+            }
+            for (String tag : getSurrogateKeys(response.getHeaders().get(CacheInvalidator.SURROGATE_KEY))) {
+                invalidator.invalidateTag(tag);
+            }
+        }
+    }
+
+    private CacheTags getCacheTags() {
+        if (resourceInfo == null || resourceInfo.getResourceMethod() == null)
+            return null;
+        CacheTags tags = resourceInfo.getResourceMethod().getAnnotation(CacheTags.class);
+        return tags != null ? tags : resourceInfo.getResourceClass().getAnnotation(CacheTags.class);
+    }
+
+    /**
+     * Splits {@value CacheInvalidator#SURROGATE_KEY} header values into tags.
+     *
+     * @param values the header values, may be {@code null}
+     *
+     * @return the tags
+     */
+    static List<String> getSurrogateKeys(List<?> values) {
+        if (values == null || values.isEmpty())
+            return Collections.emptyList();
+        List<String> tags = new ArrayList<>();
+        for (Object value : values) {
+            for (String tag : value.toString().trim().split("\\s+")) {
+                if (!tag.isEmpty()) {
+                    tags.add(tag);
+                }
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * Returns the URI template of the matched resource method, for example {@code /orders/{id}}.
+     */
+    private String getEndpoint() {
+        Method method = resourceInfo == null ? null : resourceInfo.getResourceMethod();
+        if (method == null)
+            return null;
+        String endpoint = endpoints.get(method);
+        if (endpoint == null) {
+            StringBuilder template = new StringBuilder();
+            appendPath(template, resourceInfo.getResourceClass().getAnnotation(Path.class));
+            appendPath(template, method.getAnnotation(Path.class));
+            endpoint = template.length() == 0 ? "/" : template.toString();
+            endpoints.putIfAbsent(method, endpoint);
+        }
+        return endpoint;
+    }
+
+    private static void appendPath(StringBuilder template, Path path) {
+        if (path == null)
+            return;
+        String value = path.value();
+        if (!value.startsWith("/")) {
+            template.append('/');
+        }
+        template.append(value.endsWith("/") ? value.substring(0, value.length() - 1) : value);
+    }
+
+    /**
+     * Serves a cached response if there is one.
+     *
+     * @return a stage completed with {@code true} if the request was served from the cache, {@code false} if it is
+     *         passed on to the resource
+     */
+    private CompletionStage<Boolean> handleGET(ContainerRequestContext request, String key, String endpoint) {
+        MediaType accept = getAccept(request);
+        String flightKey = key + "    " + accept;
+        if (revalidate(request, key, accept, endpoint)) {
+            return HIT;
+        }
+        return cache.getAsync(key, accept, request.getHeaders()).thenCompose(entry -> {
+            if (entry != null && entry.isExpired()) {
+                int staleness = -entry.getExpirationInSeconds();
+                if (staleness < entry.getStaleIfError()) {
+                    request.setProperty(STALE_ENTRY, entry);
+                }
+                if (staleness < entry.getStaleWhileRevalidate()) {
+                    // one request revalidates the entry, in the background if there is a refresher, all the others
+                    // are served the stale entry meanwhile
+                    RequestCoalescer.Flight flight = (coalescer != null ? coalescer : revalidations).lead(flightKey);
+                    if (flight != null) {
+                        if (refresher == null) {
+                            request.setProperty(RequestCoalescer.FLIGHT, flight);
+                            return MISS;
+                        }
+                        refresher.refresh(request, flight::complete);
+                    }
+                    request.removeProperty(STALE_ENTRY);
+                    serve(request, entry, endpoint);
+                    return HIT;
+                }
+                if (request.getProperty(STALE_ENTRY) == null) {
+                    cache.removeAsync(key);
+                }
+                entry = null;
+            }
+            if (entry == null && coalescer != null) {
+                // the Vary headers of the response are not known yet, waiting requests look the cache up again
+                RequestCoalescer.Flight flight = coalescer.lead(flightKey);
+                if (flight != null) {
+                    // the previous leader may have finished between the lookup and now
+                    return cache.getAsync(key, accept, request.getHeaders()).thenApply(again -> {
+                        ServerCache.Entry fresh = fresh(again);
+                        if (fresh == null) {
+                            request.setProperty(RequestCoalescer.FLIGHT, flight);
+                            return false;
+                        }
+                        flight.complete();
+                        serve(request, fresh, endpoint);
+                        return true;
+                    });
+                }
+                return coalescer.awaitAsync(flightKey).thenCompose(done -> !done ? MISS
+                        : cache.getAsync(key, accept, request.getHeaders()).thenApply(again -> {
+                            ServerCache.Entry fresh = fresh(again);
+                            if (fresh == null)
+                                return false;
+                            serve(request, fresh, endpoint);
+                            return true;
+                        }));
+            }
+            if (entry != null) {
+                serve(request, entry, endpoint);
+                return HIT;
+            }
+            return MISS;
+        });
+    }
+
+    /**
+     * Serves a {@code HEAD} request from the cached response of the {@code GET} request, without its entity. A
+     * {@code HEAD} request neither waits for nor leads a flight and never revalidates a stale entry, on a miss the
+     * resource method answers it.
+     *
+     * @return a stage completed with {@code true} if the request was served from the cache, {@code false} if it is
+     *         passed on to the resource
+     */
+    private CompletionStage<Boolean> handleHEAD(ContainerRequestContext request, String key, String endpoint) {
+        MediaType accept = getAccept(request);
+        if (revalidate(request, key, accept, endpoint)) {
+            return HIT;
         }
+        return cache.getAsync(key, accept, request.getHeaders()).thenApply(entry -> {
+            ServerCache.Entry fresh = fresh(entry);
+            if (fresh == null)
+                return false;
+            serve(request, fresh, endpoint);
+            return true;
+        });
     }
 
-    private void handleGET(ContainerRequestContext request, String key) {
-        ServerCache.Entry entry = null;
+    private static MediaType getAccept(ContainerRequestContext request) {
         List<MediaType> acceptableMediaTypes = request.getAcceptableMediaTypes();
         if (acceptableMediaTypes != null && acceptableMediaTypes.size() > 0) {
             // only see if most desired is cached.
-            entry = cache.get(key, acceptableMediaTypes.get(0), request.getHeaders());
+            return acceptableMediaTypes.get(0);
+        }
+        return MediaType.WILDCARD_TYPE;
+    }
+
+    /**
+     * Answers a revalidation without loading the entity if the cache indexes validators.
+     *
+     * @return {@code true} if the request was answered with {@code 304 Not Modified}
+     */
+    private boolean revalidate(ContainerRequestContext request, String key, MediaType accept, String endpoint) {
+        if (!request.getHeaders().containsKey(HttpHeaders.IF_NONE_MATCH))
+            return false;
+        CachedValidator validator = cache.getValidator(key, accept, request.getHeaders());
+        if (validator == null)
+            return false;
+        String contentCoding = selectContentCoding(request.getHeaderString(HttpHeaders.ACCEPT_ENCODING),
+                validator.getContentCodings());
+        EntityTag etag = contentCoding == null ? new EntityTag(validator.getEtag())
+                : EncodedEntity.getETag(validator.getEtag(), contentCoding);
+        Response.ResponseBuilder builder = request.getRequest().evaluatePreconditions(etag);
+        if (builder == null)
+            return false;
+        notModified(request, builder.tag(etag), validator.getCacheControl(), validator.getAgeInSeconds(), endpoint);
+        return true;
+    }
+
+    private static ServerCache.Entry fresh(ServerCache.Entry entry) {
+        return entry == null || entry.isExpired() ? null : entry;
+    }
+
+    private void serve(ContainerRequestContext request, ServerCache.Entry entry, String endpoint) {
+        PreparedHeaders prepared = entry.getPreparedHeaders();
+        int age = entry.getAgeInSeconds();
+        // error responses are served as they are, they can neither be revalidated nor served in ranges
+        boolean ok = entry.getStatus() == ServerCache.OK;
+        boolean head = request.getMethod().equalsIgnoreCase("HEAD");
+        CachedEntity entity = entry.getEntity();
+        // entities stored with encodings are negotiated here, the stored Content-Encoding is the one of the miss
+        boolean negotiate = entity instanceof EncodedEntity;
+        String range = !ok || head ? null : request.getHeaderString(ByteRanges.RANGE);
+        long[][] ranges = range == null ? null : ByteRanges.parse(range, entity.getLength());
+        // ranges are served from the identity encoding, so If-Range only matches the ETag of the identity encoding
+        boolean partial = ranges != null
+                && ByteRanges.isCurrent(request.getHeaderString(ByteRanges.IF_RANGE), entry.getEtag());
+        // each content coding is a representation with an ETag of its own
+        String contentCoding = !negotiate || partial ? null
+                : selectContentCoding(request.getHeaderString(HttpHeaders.ACCEPT_ENCODING),
+                        ((EncodedEntity) entity).getEncodings().keySet());
+        EntityTag etag = contentCoding == null ? new EntityTag(entry.getEtag())
+                : EncodedEntity.getETag(entry.getEtag(), contentCoding);
+        // validation if client sent, the lookup may have completed on a thread the injected Request is not bound to
+        Response.ResponseBuilder builder = !ok ? null : request.getRequest().evaluatePreconditions(etag);
+        if (builder != null) {
+            notModified(request, builder.tag(etag), prepared.getCacheControl(), age, endpoint);
+            return;
+        }
+        if (entry.isExpired()) {
+            metrics.staleHit(endpoint);
         } else {
-            entry = cache.get(key, MediaType.WILDCARD_TYPE, request.getHeaders());
+            metrics.hit(endpoint);
         }
-        if (entry != null) {
-            if (entry.isExpired()) {
-                cache.remove(key);
-                return;
-            } else {
-                // validation if client sent
-                Response.ResponseBuilder builder = validation.evaluatePreconditions(new EntityTag(entry.getEtag()));
-                CacheControl cc = new CacheControl();
-                cc.setMaxAge(entry.getExpirationInSeconds());
-                if (builder != null) {
-                    request.abortWith(builder.cacheControl(cc).build());
-                    return;
+
+        MultivaluedMap<String, Object> headers = prepared.toHeaders(!negotiate, age);
+        if (ok) {
+            headers.putSingle(ByteRanges.ACCEPT_RANGES, "bytes");
+        }
+        if (partial) {
+            if (negotiate && !prepared.isVaryOnEncoding()) {
+                headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            request.setProperty(DO_NOT_CACHE_RESPONSE, true);
+            request.abortWith(ByteRanges.partial(headers, entity, ranges).build());
+            return;
+        }
+        if (negotiate) {
+            if (contentCoding != null) {
+                entity = entity.getEncoding(contentCoding);
+                headers.putSingle(HttpHeaders.CONTENT_ENCODING, contentCoding);
+                headers.putSingle(HttpHeaders.ETAG, etag);
+                if (!head) {
+                    request.setProperty(ENCODED_ENTITY, entity);
                 }
+            }
+            if (!prepared.isVaryOnEncoding()) {
+                headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+        }
+        request.setProperty(DO_NOT_CACHE_RESPONSE, true);
+        if (head) {
+            // the headers of the GET response, with the length of the entity which is not sent
+            headers.putSingle(HttpHeaders.CONTENT_LENGTH, Long.toString(entity.getLength()));
+            request.abortWith(Response.status(entry.getStatus()).replaceAll(headers).build());
+            return;
+        }
+        request.abortWith(Response.status(entry.getStatus()).replaceAll(headers).entity(entity).build());
+    }
 
-                builder = Response.ok();
-                builder.entity(entry.getCached());
+    private void notModified(ContainerRequestContext request, Response.ResponseBuilder builder, String cacheControl,
+            int age, String endpoint) {
+        metrics.notModified(endpoint);
+        request.abortWith(builder.header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .header(PreparedHeaders.AGE, Integer.toString(Math.max(0, age))).build());
+    }
 
-                for (Map.Entry<String, List<Object>> header : entry.getHeaders().entrySet()) {
-                    for (Object val : header.getValue()) {
-                        builder.header(header.getKey(), val);
+    /**
+     * Selects the stored content coding most preferred by an {@code Accept-Encoding} header.
+     *
+     * @param acceptEncoding the {@code Accept-Encoding} header, may be {@code null}
+     * @param contentCodings the content codings stored besides the identity encoding
+     *
+     * @return the content coding or {@code null} to serve the identity encoding
+     */
+    static String selectContentCoding(String acceptEncoding, Set<String> contentCodings) {
+        if (acceptEncoding == null || contentCodings.isEmpty())
+            return null;
+        String selected = null;
+        float preference = 0;
+        for (String element : acceptEncoding.split(",")) {
+            String[] params = element.split(";");
+            String contentCoding = params[0].trim().toLowerCase(Locale.ROOT);
+            float q = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Float.parseFloat(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
                     }
                 }
-                builder.cacheControl(cc);
-                request.setProperty(DO_NOT_CACHE_RESPONSE, true);
-                request.abortWith(builder.build());
             }
-        } else {
+            if (q <= preference)
+                continue;
+            if ("*".equals(contentCoding)) {
+                contentCoding = contentCodings.contains(EncodedEntity.GZIP) ? EncodedEntity.GZIP
+                        : EncodedEntity.DEFLATE;
+            }
+            if ("identity".equals(contentCoding)) {
+                preference = q;
+                selected = null;
+            } else if (contentCodings.contains(contentCoding)) {
+                preference = q;
+                selected = contentCoding;
+            }
         }
+        return selected;
     }
 }
@@ -16,12 +16,16 @@
 
 package org.jboss.resteasy.plugins.cache.server;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.Deflater;
 
 import jakarta.ws.rs.ConstrainedTo;
 import jakarta.ws.rs.RuntimeType;
@@ -42,7 +46,6 @@ import org.jboss.logging.Logger;
 import org.jboss.resteasy.spi.AsyncOutputStream;
 import org.jboss.resteasy.spi.AsyncWriterInterceptor;
 import org.jboss.resteasy.spi.AsyncWriterInterceptorContext;
-import org.jboss.resteasy.spi.BlockingAsyncOutputStream;
 import org.jboss.resteasy.spi.HttpRequest;
 import org.jboss.resteasy.spi.NoLogWebApplicationException;
 
@@ -54,9 +57,56 @@ import org.jboss.resteasy.spi.NoLogWebApplicationException;
 public class ServerCacheInterceptor implements WriterInterceptor, AsyncWriterInterceptor {
     private static final Logger LOGGER = Logger.getLogger(ServerCacheInterceptor.class);
     protected ServerCache cache;
+    protected List<String> contentCodings = Collections.emptyList();
+    protected ETagStrategy etagStrategy = ETagStrategy.XXHASH64;
+    protected boolean streaming;
+    protected CacheKeyStrategy keyStrategy = new CanonicalCacheKeyStrategy();
+    protected CacheInvalidator invalidator;
+    protected CacheMetrics metrics = CacheMetrics.NONE;
+    protected boolean async;
+    protected NegativeCaching negativeCaching;
+    protected CacheAdmission admission;
+    protected long maxBodyBytes = -1;
+    protected int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    protected Executor encodingExecutor = ForkJoinPool.commonPool();
+    private static final CompletionStage<Void> STORED = CompletableFuture.completedFuture(null);
+    // set if a subclass overrides createHash(byte[]), the ETags are then created from the whole buffered entity
+    private final boolean hashesWholeEntity;
 
     public ServerCacheInterceptor(final ServerCache cache) {
         this.cache = cache;
+        this.hashesWholeEntity = overridesCreateHash(getClass());
+    }
+
+    /**
+     * Sets the content codings, besides the identity, in which cached entities are stored. Cache hits are then served
+     * in the encoding the client prefers without being compressed again.
+     *
+     * @param contentCodings the content codings, see {@link EncodedEntity#isSupported(String)}
+     */
+    public void setContentCodings(List<String> contentCodings) {
+        this.contentCodings = contentCodings;
+    }
+
+    /**
+     * Sets the compression level of the stored content codings, from {@link Deflater#BEST_SPEED} to
+     * {@link Deflater#BEST_COMPRESSION}. Defaults to {@link Deflater#DEFAULT_COMPRESSION}.
+     *
+     * @param compressionLevel the compression level
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Sets the executor entities are encoded in the {@link #setContentCodings(List) content codings} on, so that the
+     * response of a miss is not delayed by the compression. The entity is stored once it is encoded. Defaults to the
+     * common fork-join pool.
+     *
+     * @param encodingExecutor the executor
+     */
+    public void setEncodingExecutor(Executor encodingExecutor) {
+        this.encodingExecutor = encodingExecutor;
     }
 
     @Context
@@ -65,42 +115,159 @@ public class ServerCacheInterceptor implements WriterInterceptor, AsyncWriterInt
     @Context
     protected Request validation;
 
-    private static final String[] pseudo = { "0", "1", "2",
-            "3", "4", "5", "6", "7", "8",
-            "9", "A", "B", "C", "D", "E",
-            "F" };
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
 
     public static String byteArrayToHexString(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = HEX[(bytes[i] >> 4) & 0x0F];
+            out[i * 2 + 1] = HEX[bytes[i] & 0x0F];
+        }
+        return new String(out);
+    }
 
-        byte ch = 0x00;
+    static String longToHexString(long value) {
+        char[] out = new char[16];
+        for (int i = 15; i >= 0; i--) {
+            out[i] = HEX[(int) value & 0x0F];
+            value >>>= 4;
+        }
+        return new String(out);
+    }
 
-        StringBuffer out = new StringBuffer(bytes.length * 2);
+    /**
+     * Sets the strategy creating the ETags of cached responses which do not set one. Defaults to
+     * {@link ETagStrategy#XXHASH64}.
+     *
+     * @param etagStrategy the strategy
+     */
+    public void setETagStrategy(ETagStrategy etagStrategy) {
+        this.etagStrategy = etagStrategy;
+    }
 
-        for (byte b : bytes) {
+    /**
+     * Enables streaming of cacheable responses: the entity is written to the client while it is being buffered for the
+     * cache, instead of after it has been fully buffered. A response without an application provided ETag then reaches
+     * the client without the generated ETag, which only cache hits carry. Conditional requests for such responses are
+     * still fully buffered, as their ETag has to be known before anything is sent.
+     *
+     * @param streaming {@code true} to stream cacheable responses
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
 
-            ch = (byte) (b & 0xF0);
-            ch = (byte) (ch >>> 4);
-            ch = (byte) (ch & 0x0F);
-            out.append(pseudo[(int) ch]);
-            ch = (byte) (b & 0x0F);
-            out.append(pseudo[(int) ch]);
+    /**
+     * Sets the strategy creating the cache keys of requests the {@link ServerCacheHitFilter} has not keyed already. It
+     * has to be the strategy of the hit filter.
+     *
+     * @param keyStrategy the strategy
+     */
+    public void setCacheKeyStrategy(CacheKeyStrategy keyStrategy) {
+        this.keyStrategy = keyStrategy;
+    }
 
-        }
+    /**
+     * Sets the invalidator indexing the cached keys and their {@value CacheInvalidator#SURROGATE_KEY} tags.
+     *
+     * @param invalidator the invalidator, may be {@code null}
+     */
+    public void setCacheInvalidator(CacheInvalidator invalidator) {
+        this.invalidator = invalidator;
+    }
+
+    /**
+     * Sets the metrics stores, rejections and ETag hashing are reported to.
+     *
+     * @param metrics the metrics
+     */
+    public void setMetrics(CacheMetrics metrics) {
+        this.metrics = metrics;
+    }
 
-        String rslt = new String(out);
+    /**
+     * Enables the asynchronous store: entities written asynchronously are added to the cache with
+     * {@link ServerCache#addAsync}, so that a remote cache does not block the thread writing the response. The response
+     * is written while the entity is being stored.
+     *
+     * @param async {@code true} to store asynchronously written entities asynchronously
+     */
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
 
-        return rslt;
+    /**
+     * Sets the times to live of error responses, such as {@code 404 Not Found}, see {@link NegativeCaching}. Responses
+     * with other status codes are cached by their {@code Cache-Control} header, the same as {@code 200} responses.
+     *
+     * @param negativeCaching the times to live, may be {@code null}
+     */
+    public void setNegativeCaching(NegativeCaching negativeCaching) {
+        this.negativeCaching = negativeCaching;
+    }
+
+    /**
+     * Sets the admission policy deciding which cacheable responses are stored. Responses which are not admitted are
+     * neither buffered nor given an ETag.
+     *
+     * @param admission the admission policy, or {@code null} to store all cacheable responses
+     */
+    public void setCacheAdmission(CacheAdmission admission) {
+        this.admission = admission;
+    }
 
+    /**
+     * Sets the size of the largest response which is cached. A larger response declaring its {@code Content-Length} is
+     * not buffered at all, any other streams through once it outgrows the buffer.
+     *
+     * @param maxBodyBytes the maximum size in bytes, or {@code -1} for no limit
+     */
+    public void setMaxBodyBytes(long maxBodyBytes) {
+        this.maxBodyBytes = maxBodyBytes;
     }
 
+    /**
+     * Creates the ETag of an entity with the {@link ETagStrategy}. Entities are hashed while they are buffered, unless
+     * a subclass overrides this method: it is then called with the whole entity once it is buffered.
+     *
+     * @param entity the entity
+     *
+     * @return the ETag
+     */
     protected String createHash(byte[] entity) {
+        ETagStrategy.Hasher hasher = etagStrategy.newHasher();
+        hasher.update(entity, 0, entity.length);
+        return hasher.getValue();
+    }
+
+    /**
+     * Creates the ETag of a buffered entity, with {@link #createHash(byte[])} if a subclass overrides it.
+     *
+     * @param entity the entity
+     *
+     * @return the ETag
+     */
+    protected String createHash(CachedEntity entity) {
+        if (hashesWholeEntity) {
+            return createHash(entity.toByteArray());
+        }
+        ETagStrategy.Hasher hasher = etagStrategy.newHasher();
         try {
-            MessageDigest messagedigest = MessageDigest.getInstance("MD5");
-            byte[] abyte0 = messagedigest.digest(entity);
-            return byteArrayToHexString(abyte0);
-        } catch (NoSuchAlgorithmException e) {
+            entity.write(new OutputStream() {
+                @Override
+                public void write(int b) {
+                    write(new byte[] { (byte) b }, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    hasher.update(b, off, len);
+                }
+            });
+        } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        return hasher.getValue();
     }
 
     private CacheControl getCacheControl(MultivaluedMap<String, Object> headers) {
@@ -109,13 +276,31 @@ public class ServerCacheInterceptor implements WriterInterceptor, AsyncWriterInt
             return null;
         }
 
+        int status = getStatus();
+        // a partial response cannot answer a request for the whole entity
+        if (status == Response.Status.PARTIAL_CONTENT.getStatusCode()) {
+            return null;
+        }
+        int ttl = status == ServerCache.OK || negativeCaching == null ? -1 : negativeCaching.getTtl(status);
+        if (ttl == 0) {
+            return null;
+        }
+
         Object occ = headers.getFirst(HttpHeaders.CACHE_CONTROL);
-        if (occ == null) {
+        CachePolicy policy = getPolicy();
+        if (policy != null && occ == policy.getCacheControlHeader()) {
+            // set by the CachePolicyFeature, it was parsed when the application was deployed
+            return policy.getCacheControl();
+        }
+        if (occ == null && ttl < 0) {
             return null;
         }
         CacheControl cc = null;
 
-        if (occ instanceof CacheControl)
+        if (occ == null) {
+            cc = new CacheControl();
+            cc.setMaxAge(ttl);
+        } else if (occ instanceof CacheControl)
             cc = (CacheControl) occ;
         else {
             cc = CacheControl.valueOf(occ.toString());
@@ -124,65 +309,311 @@ public class ServerCacheInterceptor implements WriterInterceptor, AsyncWriterInt
         if (cc.isNoCache()) {
             return null;
         }
+        if (ttl > 0) {
+            // error responses are cached no longer than their status allows, whatever their own max-age
+            if (occ != null) {
+                cc = CacheControl.valueOf(PreparedHeaders.toString(cc));
+                cc.setMaxAge(cc.getMaxAge() < 0 ? ttl : Math.min(cc.getMaxAge(), ttl));
+            }
+            headers.putSingle(HttpHeaders.CACHE_CONTROL, cc);
+        }
         return cc;
     }
 
-    private byte[] handleCaching(ByteArrayOutputStream buffer, CacheControl cc, MultivaluedMap<String, Object> headers,
-            MediaType mediaType) {
-        byte[] entity = buffer.toByteArray();
+    private int getStatus() {
+        Object status = request.getAttribute(ServerCacheHitFilter.STATUS);
+        return status == null ? ServerCache.OK : (Integer) status;
+    }
+
+    private CachedEntity handleCaching(SegmentedEntityOutputStream buffer, CacheControl cc,
+            MultivaluedMap<String, Object> headers, MediaType mediaType, boolean async,
+            RequestCoalescer.Flight flight) {
+        CachedEntity entity = buffer.toEntity();
+        String etag = createETag(entity, buffer.getHasher(), headers);
+        // waiting requests look the cache up again, so the flight lasts until the entity is stored
+        store(entity, etag, cc, headers, mediaType, async).whenComplete((v, t) -> complete(flight));
+        if (getStatus() == ServerCache.OK) {
+            evaluatePreconditions(etag, cc);
+        }
+        return entity;
+    }
+
+    private String createETag(CachedEntity entity, ETagStrategy.Hasher hasher, MultivaluedMap<String, Object> headers) {
         Object etagObject = headers.getFirst(HttpHeaders.ETAG);
-        String etag = null;
-        if (etagObject == null) {
-            etag = createHash(entity);
-            headers.putSingle(HttpHeaders.ETAG, etag);
-        } else // use application provided ETag if it exists
-        {
-            etag = etagObject.toString();
-        }
-
-        if (!cc.isPrivate() && !cc.isNoStore()) {
-            MultivaluedMap<String, String> varyHeaders = new MultivaluedHashMap<>();
-            if (headers.containsKey(HttpHeaders.VARY)) {
-                for (Object varyHeader : headers.get(HttpHeaders.VARY)) {
-                    if (request.getMutableHeaders().containsKey(varyHeader)) {
-                        varyHeaders.addAll((String) varyHeader, request.getMutableHeaders().get(varyHeader));
-                    }
-                }
+        if (etagObject != null) {
+            // use application provided ETag if it exists
+            return etagObject.toString();
+        }
+        // hashed while the entity was buffered
+        long start = System.nanoTime();
+        String etag = hasher != null ? hasher.getValue() : createHash(entity);
+        metrics.hashed(System.nanoTime() - start);
+        headers.putSingle(HttpHeaders.ETAG, etag);
+        return etag;
+    }
+
+    private String getKey() {
+        Object key = request.getAttribute(ServerCacheHitFilter.CACHE_KEY);
+        if (key != null)
+            return key.toString();
+        CachePolicy policy = getPolicy();
+        return policy != null ? policy.getKey(request.getUri().getRequestUri(), keyStrategy)
+                : keyStrategy.getKey(request.getUri().getRequestUri());
+    }
+
+    /**
+     * Returns the size of the largest response which is cached, the lower of the configured one and the one of the
+     * {@link CachePolicy}.
+     */
+    private long getMaxBodyBytes() {
+        long max = maxBodyBytes;
+        CachePolicy policy = getPolicy();
+        if (policy != null && policy.getMaxBodyBytes() >= 0) {
+            max = max < 0 ? policy.getMaxBodyBytes() : Math.min(max, policy.getMaxBodyBytes());
+        }
+        return max < 0 ? Long.MAX_VALUE : max;
+    }
+
+    /**
+     * Checks whether a cacheable response is admitted into the cache, counting the miss for the admission policy.
+     */
+    private boolean isAdmitted(MultivaluedMap<String, Object> headers, long maxBytes) {
+        Object length = headers.getFirst(HttpHeaders.CONTENT_LENGTH);
+        if (length != null && maxBytes < Long.MAX_VALUE) {
+            try {
+                if (Long.parseLong(length.toString().trim()) > maxBytes)
+                    return false;
+            } catch (NumberFormatException e) {
+                // buffered up to the maximum size instead
             }
-            cache.add(request.getUri().getRequestUri().toString(), mediaType, cc, headers, entity, etag, varyHeaders);
         }
+        return admission == null || admission.admit(getKey());
+    }
+
+    private CachePolicy getPolicy() {
+        return (CachePolicy) request.getAttribute(CachePolicy.PROPERTY);
+    }
+
+    private String getEndpoint() {
+        return (String) request.getAttribute(ServerCacheHitFilter.ENDPOINT);
+    }
+
+    private void rejected() {
+        // only misses count, not hits or requests other than GET
+        if (request.getAttribute(ServerCacheHitFilter.MISS_START) != null) {
+            metrics.rejected(getEndpoint());
+        }
+    }
 
+    private void evaluatePreconditions(String etag, CacheControl cc) {
         // check to see if ETags are the same.  If they are, we don't need to send a response back.
         Response.ResponseBuilder validatedResponse = validation.evaluatePreconditions(new EntityTag(etag));
         if (validatedResponse != null) {
+            metrics.notModified(getEndpoint());
             throw new NoLogWebApplicationException(validatedResponse.status(Response.Status.NOT_MODIFIED)
                     .cacheControl(cc)
                     .header(HttpHeaders.ETAG, etag)
                     .build());
         }
-        return entity;
+    }
+
+    /**
+     * Checks whether the response can be streamed to the client while it is being cached. The ETag has to be known up
+     * front if the request is conditional, so in that case only an ETag set by the application allows streaming.
+     */
+    private boolean isStreamable(MultivaluedMap<String, Object> headers) {
+        return streaming && (headers.containsKey(HttpHeaders.ETAG)
+                || (!request.getMutableHeaders().containsKey(HttpHeaders.IF_NONE_MATCH)
+                        && !request.getMutableHeaders().containsKey(HttpHeaders.IF_MATCH)));
+    }
+
+    private void evaluateApplicationPreconditions(CacheControl cc, MultivaluedMap<String, Object> headers) {
+        Object etag = headers.getFirst(HttpHeaders.ETAG);
+        if (etag != null && getStatus() == ServerCache.OK) {
+            evaluatePreconditions(etag.toString(), cc);
+        }
+    }
+
+    /**
+     * Adds a buffered entity to the cache.
+     *
+     * @param async {@code true} to add it with {@link ServerCache#addAsync}, without blocking the calling thread
+     *
+     * @return a stage completed once the entity is stored or rejected
+     */
+    private CompletionStage<Void> store(CachedEntity entity, String etag, CacheControl cc,
+            MultivaluedMap<String, Object> headers, MediaType mediaType, boolean async) {
+        if (cc.isPrivate() || cc.isNoStore()) {
+            rejected();
+            return STORED;
+        }
+        MultivaluedMap<String, String> varyHeaders = new MultivaluedHashMap<>();
+        for (String varyHeader : VaryFingerprint.getNames(headers.get(HttpHeaders.VARY))) {
+            if (request.getMutableHeaders().containsKey(varyHeader)) {
+                varyHeaders.addAll(varyHeader, request.getMutableHeaders().get(varyHeader));
+            }
+        }
+        String key = getKey();
+        int status = getStatus();
+        // read now, the request may no longer be bound to the thread completing an asynchronous add
+        String endpoint = getEndpoint();
+        Object missStart = request.getAttribute(ServerCacheHitFilter.MISS_START);
+        Runnable stored = () -> {
+            if (invalidator != null) {
+                List<String> tags = ServerCacheHitFilter.getSurrogateKeys(headers.get(CacheInvalidator.SURROGATE_KEY));
+                invalidator.add(key, tags);
+            }
+            metrics.stored(endpoint, entity.getLength(), missStart == null ? -1 : System.nanoTime() - (Long) missStart);
+        };
+        Runnable rejected = () -> {
+            // only misses count, not hits or requests other than GET
+            if (missStart != null) {
+                metrics.rejected(endpoint);
+            }
+        };
+        if (contentCodings.isEmpty()) {
+            return add(key, status, mediaType, cc, headers, entity, etag, varyHeaders, async, stored, rejected);
+        }
+        // compressing a large entity takes a while, the response is sent meanwhile and the entity stored once encoded
+        MultivaluedMap<String, Object> storedHeaders = new MultivaluedHashMap<>(headers);
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        try {
+            encodingExecutor.execute(() -> {
+                CachedEntity cached = entity;
+                try {
+                    cached = EncodedEntity.encode(entity, contentCodings, compressionLevel);
+                } catch (IOException e) {
+                    LOGGER.debugf(e, "Could not encode %s, caching the identity encoding only", key);
+                }
+                try {
+                    add(key, status, mediaType, cc, storedHeaders, cached, etag, varyHeaders, async, stored, rejected)
+                            .whenComplete((v, t) -> done.complete(null));
+                } catch (RuntimeException e) {
+                    LOGGER.debugf(e, "Could not cache %s", key);
+                    done.complete(null);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.run();
+            done.complete(null);
+        }
+        return done;
+    }
+
+    private CompletionStage<Void> add(String key, int status, MediaType mediaType, CacheControl cc,
+            MultivaluedMap<String, Object> headers, CachedEntity cached, String etag,
+            MultivaluedMap<String, String> varyHeaders, boolean async, Runnable stored, Runnable rejected) {
+        if (!async) {
+            if (cache.add(key, status, mediaType, cc, headers, cached, etag, varyHeaders) != null) {
+                stored.run();
+            } else {
+                rejected.run();
+            }
+            return STORED;
+        }
+        return cache.addAsync(key, status, mediaType, cc, headers, cached, etag, varyHeaders)
+                .thenAccept(entry -> {
+                    if (entry != null) {
+                        stored.run();
+                    }
+                })
+                .exceptionally(t -> {
+                    // the response has been served, only the cache misses out
+                    LOGGER.debugf(t, "Could not cache %s", key);
+                    return null;
+                });
+    }
+
+    private SegmentedEntityOutputStream newBuffer(MultivaluedMap<String, Object> headers) {
+        // an ETag set by the application is used as is, there is nothing to hash
+        return new SegmentedEntityOutputStream(headers.containsKey(HttpHeaders.ETAG) || hashesWholeEntity ? null
+                : etagStrategy.newHasher());
+    }
+
+    private static boolean overridesCreateHash(Class<?> type) {
+        for (Class<?> c = type; c != ServerCacheInterceptor.class; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod("createHash", byte[].class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // not in this class
+            }
+        }
+        return false;
+    }
+
+    private RequestCoalescer.Flight takeFlight() {
+        RequestCoalescer.Flight flight = (RequestCoalescer.Flight) request.getAttribute(RequestCoalescer.FLIGHT);
+        if (flight != null) {
+            request.removeAttribute(RequestCoalescer.FLIGHT);
+        }
+        return flight;
+    }
+
+    private static void complete(RequestCoalescer.Flight flight) {
+        if (flight != null) {
+            flight.complete();
+        }
     }
 
     @Override
     public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
         LOGGER.debugf("Interceptor : %s,  Method : aroundWriteTo", getClass().getName());
 
+        RequestCoalescer.Flight flight = takeFlight();
         CacheControl cc = getCacheControl(context.getHeaders());
-        if (cc == null) {
+        long maxBytes = getMaxBodyBytes();
+        if (cc == null || !isAdmitted(context.getHeaders(), maxBytes)) {
+            rejected();
+            complete(flight);
             context.proceed();
             return;
         }
 
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        SegmentedEntityOutputStream buffer = newBuffer(context.getHeaders());
         OutputStream old = context.getOutputStream();
+        if (isStreamable(context.getHeaders())) {
+            try {
+                evaluateApplicationPreconditions(cc, context.getHeaders());
+                if (cc.isPrivate() || cc.isNoStore()) {
+                    // nothing will be stored, so there is nothing to buffer either
+                    rejected();
+                    context.proceed();
+                    return;
+                }
+                TeeOutputStream tee = new TeeOutputStream(old, buffer, maxBytes);
+                context.setOutputStream(tee);
+                context.proceed();
+
+                if (tee.isOverflowed()) {
+                    rejected();
+                    return;
+                }
+                CachedEntity entity = buffer.toEntity();
+                store(entity, createETag(entity, buffer.getHasher(), context.getHeaders()), cc, context.getHeaders(),
+                        context.getMediaType(), false);
+            } finally {
+                context.setOutputStream(old);
+                complete(flight);
+            }
+            return;
+        }
         try {
-            context.setOutputStream(buffer);
+            BoundedEntityOutputStream bounded = new BoundedEntityOutputStream(old, buffer, maxBytes);
+            context.setOutputStream(bounded);
             context.proceed();
 
-            byte[] entity = handleCaching(buffer, cc, context.getHeaders(), context.getMediaType());
-            old.write(entity);
+            if (bounded.isOverflowed()) {
+                // streamed to the client already
+                rejected();
+                return;
+            }
+            CachedEntity entity = handleCaching(buffer, cc, context.getHeaders(), context.getMediaType(), false,
+                    flight);
+            entity.write(old);
         } finally {
             context.setOutputStream(old);
+            complete(flight);
         }
     }
 
@@ -190,18 +621,68 @@ public class ServerCacheInterceptor implements WriterInterceptor, AsyncWriterInt
     public CompletionStage<Void> asyncAroundWriteTo(AsyncWriterInterceptorContext context) {
         LOGGER.debugf("Interceptor : %s,  Method : aroundWriteTo", getClass().getName());
 
+        RequestCoalescer.Flight flight = takeFlight();
         CacheControl cc = getCacheControl(context.getHeaders());
-        if (cc == null) {
+        long maxBytes = getMaxBodyBytes();
+        if (cc == null || !isAdmitted(context.getHeaders(), maxBytes)) {
+            rejected();
+            complete(flight);
             return context.asyncProceed();
         }
 
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        SegmentedEntityOutputStream buffer = newBuffer(context.getHeaders());
         AsyncOutputStream old = context.getAsyncOutputStream();
-        context.setAsyncOutputStream(new BlockingAsyncOutputStream(buffer));
+        if (isStreamable(context.getHeaders())) {
+            try {
+                evaluateApplicationPreconditions(cc, context.getHeaders());
+            } catch (WebApplicationException e) {
+                complete(flight);
+                throw e;
+            }
+            if (cc.isPrivate() || cc.isNoStore()) {
+                rejected();
+                complete(flight);
+                return context.asyncProceed();
+            }
+            TeeAsyncOutputStream tee = new TeeAsyncOutputStream(old, buffer, maxBytes);
+            context.setAsyncOutputStream(tee);
+            return context.asyncProceed()
+                    .whenComplete((v, t) -> {
+                        context.setAsyncOutputStream(old);
+                        if (t != null) {
+                            complete(flight);
+                        }
+                    })
+                    .thenRun(() -> {
+                        if (tee.isOverflowed()) {
+                            rejected();
+                            complete(flight);
+                            return;
+                        }
+                        CachedEntity entity = buffer.toEntity();
+                        store(entity, createETag(entity, buffer.getHasher(), context.getHeaders()), cc,
+                                context.getHeaders(), context.getMediaType(), async)
+                                .whenComplete((v, t) -> complete(flight));
+                    });
+        }
+        // the buffer is on the heap, writing to it never blocks until the entity overflows
+        BoundedEntityOutputStream bounded = new BoundedEntityOutputStream(old, buffer, maxBytes);
+        context.setAsyncOutputStream(bounded);
         return context.asyncProceed()
+                .whenComplete((v, t) -> {
+                    if (t != null) {
+                        complete(flight);
+                    }
+                })
                 .thenCompose(v -> {
-                    byte[] entity = handleCaching(buffer, cc, context.getHeaders(), context.getMediaType());
-                    return old.asyncWrite(entity);
+                    if (bounded.isOverflowed()) {
+                        rejected();
+                        complete(flight);
+                        return STORED;
+                    }
+                    CachedEntity entity = handleCaching(buffer, cc, context.getHeaders(), context.getMediaType(),
+                            async, flight);
+                    return entity.asyncWrite(old);
                 }).whenComplete((v, t) -> context.setAsyncOutputStream(old));
     }
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.infinispan.commons.dataconversion.MediaType;
+import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.io.ByteBufferImpl;
+import org.infinispan.commons.marshall.AbstractMarshaller;
+import org.jboss.logging.Logger;
+
+/**
+ * An Infinispan marshaller for the server cache. The cached variants of a resource are written in a compact, versioned
+ * binary format: the header values as the strings they are sent as, each with a byte naming its type, and the entity as
+ * its raw bytes. Reading an entry neither parses its headers nor copies its entity; the headers are decoded once the
+ * entry is served.
+ * <p>
+ * It is configured as the marshaller of the default cache. Caches configured with
+ * {@code server.request.cache.infinispan.config.file} can use it with:
+ * </p>
+ *
+ * <pre>
+ * &lt;serialization marshaller="org.jboss.resteasy.plugins.cache.server.ServerCacheMarshaller"/&gt;
+ * </pre>
+ * <p>
+ * Other marshallers relying on Java serialization write the same format, see {@link SerializedForm}.
+ * </p>
+ * <p>
+ * Every value starts with the version of the format. The older versions are still read; values which cannot be read,
+ * written by a newer version or by Java serialization before the binary format, are dropped with a warning instead
+ * of failing, for example when a persistent store is loaded. They are read as a placeholder which is never served and
+ * is replaced by the next response stored for the resource.
+ * </p>
+ */
+public class ServerCacheMarshaller extends AbstractMarshaller {
+    private static final Logger LOGGER = Logger.getLogger(ServerCacheMarshaller.class);
+    private static final MediaType MEDIA_TYPE = MediaType.fromString("application/x-resteasy-server-cache");
+    // the placeholder of the values which cannot be read
+    private static final String UNREADABLE = ServerCacheMarshaller.class.getName() + ".unreadable";
+    private static final AtomicBoolean WARNED = new AtomicBoolean();
+
+    private static final byte STRING = 0;
+    private static final byte VARIANT_GROUP = 1;
+    private static final byte CACHE_ENTRY = 2;
+
+    @Override
+    protected ByteBuffer objectToBuffer(Object o, int estimatedSize) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(estimatedSize);
+        write(new DataOutputStream(bytes), o);
+        return ByteBufferImpl.create(bytes.toByteArray());
+    }
+
+    @Override
+    public Object objectFromByteBuffer(byte[] buf, int offset, int length) throws IOException {
+        return read(new DataInputStream(new ByteArrayInputStream(buf, offset, length)));
+    }
+
+    @Override
+    public boolean isMarshallable(Object o) {
+        return o instanceof String || o instanceof VariantGroup || o instanceof InfinispanCache.CacheEntry;
+    }
+
+    @Override
+    public MediaType mediaType() {
+        return MEDIA_TYPE;
+    }
+
+    private static void write(DataOutput out, Object o) throws IOException {
+        BinaryFormat.writeVersion(out);
+        if (o instanceof String) {
+            out.writeByte(STRING);
+            BinaryFormat.writeString(out, (String) o);
+        } else if (o instanceof VariantGroup) {
+            out.writeByte(VARIANT_GROUP);
+            ((VariantGroup) o).writeTo(out);
+        } else if (o instanceof InfinispanCache.CacheEntry) {
+            out.writeByte(CACHE_ENTRY);
+            ((InfinispanCache.CacheEntry) o).writeTo(out);
+        } else {
+            throw new NotSerializableException(o == null ? "null" : o.getClass().getName());
+        }
+    }
+
+    private static Object read(DataInput in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (!BinaryFormat.isSupported(version))
+            return unreadable("unsupported format version " + version);
+        byte type = in.readByte();
+        switch (type) {
+            case STRING:
+                return BinaryFormat.readString(in);
+            case VARIANT_GROUP:
+                return VariantGroup.readFrom(in, version);
+            case CACHE_ENTRY:
+                return InfinispanCache.CacheEntry.readFrom(in, version);
+            default:
+                throw new NotSerializableException(Byte.toString(type));
+        }
+    }
+
+    /**
+     * Returns the placeholder of a value which cannot be read. The first one is logged as a warning, the others at
+     * debug level.
+     *
+     * @param reason why the value cannot be read
+     *
+     * @return the placeholder
+     */
+    static Object unreadable(String reason) {
+        if (WARNED.compareAndSet(false, true)) {
+            LOGGER.warnf("Dropping the server cache entries which cannot be read (%s), the stores written by other "
+                    + "versions may need to be cleared", reason);
+        } else {
+            LOGGER.debugf("Dropping a server cache entry which cannot be read (%s)", reason);
+        }
+        return UNREADABLE;
+    }
+
+    /**
+     * The Java serialization form of {@link VariantGroup} and {@link InfinispanCache.CacheEntry}, so that marshallers
+     * based on Java serialization write the binary format as well.
+     */
+    public static final class SerializedForm implements Externalizable {
+        private static final long serialVersionUID = 2893514170458327361L;
+
+        private Object value;
+
+        /**
+         * Creates an empty form to read into.
+         */
+        public SerializedForm() {
+        }
+
+        SerializedForm(final Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            write(out, value);
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException {
+            value = read(in);
+        }
+
+        private Object readResolve() {
+            return value;
+        }
+    }
+}
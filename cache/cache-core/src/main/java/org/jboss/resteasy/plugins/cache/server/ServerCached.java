@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the cache policy of a {@code GET} resource method, or of all the {@code GET} methods of a resource class.
+ * The policy is resolved once per method when the application is deployed, see {@link CachePolicyFeature}, instead of
+ * parsing the {@code Cache-Control} header of every response.
+ * <p>
+ * Responses are sent with the {@code Cache-Control} and {@code Vary} headers of the policy unless the method sets its
+ * own.
+ * </p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface ServerCached {
+
+    /**
+     * How long, in seconds, responses are fresh.
+     *
+     * @return the {@code max-age}
+     */
+    int maxAge();
+
+    /**
+     * How long, in seconds, responses may be served after they expired while they are revalidated.
+     *
+     * @return the {@value ServerCache#STALE_WHILE_REVALIDATE} window, {@code 0} by default
+     */
+    int staleWhileRevalidate() default 0;
+
+    /**
+     * The request headers responses vary on.
+     *
+     * @return the names of the headers of the {@code Vary} header, none by default
+     */
+    String[] varyOn() default {};
+
+    /**
+     * The query parameters which are part of the cache key. A name ending with {@code *} keeps all the parameters
+     * starting with it.
+     *
+     * @return the names of the parameters, all of them by default
+     */
+    String[] keyParams() default { "*" };
+
+    /**
+     * The size, in bytes, of the largest response which is cached.
+     *
+     * @return the maximum size, {@code -1} by default for no limit
+     */
+    long maxBodyBytes() default -1;
+}
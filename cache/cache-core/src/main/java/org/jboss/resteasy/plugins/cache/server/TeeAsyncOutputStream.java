@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionStage;
+
+import org.jboss.resteasy.spi.AsyncOutputStream;
+
+/**
+ * Writes to the asynchronous output stream of the response and to the cache buffer at the same time. The bytes are
+ * copied into the buffer before the asynchronous write is started, so the caller may reuse its array once the write
+ * completes.
+ */
+class TeeAsyncOutputStream extends AsyncOutputStream {
+    private final AsyncOutputStream out;
+    private final long maxBytes;
+    private SegmentedEntityOutputStream buffer;
+
+    TeeAsyncOutputStream(final AsyncOutputStream out, final SegmentedEntityOutputStream buffer, final long maxBytes) {
+        this.out = out;
+        this.buffer = buffer;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns whether the entity outgrew the maximum size, in which case it was not buffered to the end.
+     *
+     * @return {@code true} if the buffer is incomplete
+     */
+    boolean isOverflowed() {
+        return buffer == null;
+    }
+
+    private boolean fits(int len) {
+        if (buffer != null && buffer.getLength() + len > maxBytes) {
+            // the entity will not be cached, stop buffering it
+            buffer = null;
+        }
+        return buffer != null;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        if (fits(1)) {
+            buffer.write(b);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        if (fits(len)) {
+            buffer.write(b, off, len);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public CompletionStage<Void> asyncFlush() {
+        return out.asyncFlush();
+    }
+
+    @Override
+    public CompletionStage<Void> asyncWrite(byte[] bytes, int offset, int length) {
+        if (fits(length)) {
+            buffer.write(bytes, offset, length);
+        }
+        return out.asyncWrite(bytes, offset, length);
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+import org.jboss.logging.Logger;
+
+/**
+ * A two-tier {@link ServerCache}: the entries stay in the wrapped cache while entities above a size threshold are moved
+ * to memory-mapped segment files, so that large and rarely changing payloads neither fill the heap nor add to the work
+ * of the garbage collector. Those entities are {@link MappedEntity MappedEntities}, written from the mapped pages in
+ * chunks.
+ * <p>
+ * The disk tier is not persistent, a new directory is used by every instance. Segment space is reclaimed once the
+ * wrapped cache drops an entry and its entity is garbage collected. The disk tier is bounded separately from the
+ * wrapped cache, which does not count mapped entities, see {@link #getDiskWeight()}; an entry whose entity does not fit
+ * on disk any more is not cached.
+ * </p>
+ */
+public class TieredServerCache implements ServerCache {
+    private static final Logger LOGGER = Logger.getLogger(TieredServerCache.class);
+
+    private final ServerCache cache;
+    private final SegmentStore store;
+    private final long threshold;
+
+    /**
+     * Creates a two-tier cache without a bound on the size of the disk tier.
+     *
+     * @param cache       the cache holding the entries
+     * @param directory   the directory to create the segment files in
+     * @param threshold   the length from which entities are moved to a segment file, in bytes
+     * @param segmentSize the size of a segment file, in bytes; larger entities get a segment of their own
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    public TieredServerCache(final ServerCache cache, final Path directory, final long threshold,
+            final int segmentSize) throws IOException {
+        this(cache, directory, threshold, segmentSize, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates a two-tier cache.
+     *
+     * @param cache       the cache holding the entries
+     * @param directory   the directory to create the segment files in
+     * @param threshold   the length from which entities are moved to a segment file, in bytes
+     * @param segmentSize the size of a segment file, in bytes; larger entities get a segment of their own
+     * @param maxBytes    the maximum size of all the segment files, in bytes
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    public TieredServerCache(final ServerCache cache, final Path directory, final long threshold,
+            final int segmentSize, final long maxBytes) throws IOException {
+        this.cache = cache;
+        this.store = new SegmentStore(directory, segmentSize, maxBytes);
+        this.threshold = threshold;
+    }
+
+    /**
+     * Returns the space taken by the disk tier. Segment files count until their mapping is garbage collected, even once
+     * they are deleted, since their blocks are only freed then.
+     *
+     * @return the size of the segment files in bytes
+     */
+    public long getDiskWeight() {
+        return store.getBytes();
+    }
+
+    @Override
+    public Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers,
+            byte[] entity, String etag, MultivaluedMap<String, String> varyHeaders) {
+        return add(uri, mediaType, cc, headers, SegmentedEntity.wrap(entity), etag, varyHeaders);
+    }
+
+    @Override
+    public Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers,
+            CachedEntity entity, String etag, MultivaluedMap<String, String> varyHeaders) {
+        CachedEntity mapped = map(entity);
+        if (mapped == null)
+            return null;
+        return cache.add(uri, mediaType, cc, headers, mapped, etag, varyHeaders);
+    }
+
+    @Override
+    public Entry add(String uri, int status, MediaType mediaType, CacheControl cc,
+            MultivaluedMap<String, Object> headers, CachedEntity entity, String etag,
+            MultivaluedMap<String, String> varyHeaders) {
+        CachedEntity mapped = map(entity);
+        if (mapped == null)
+            return null;
+        return cache.add(uri, status, mediaType, cc, headers, mapped, etag, varyHeaders);
+    }
+
+    /**
+     * Moves an entity to disk if it is large enough.
+     *
+     * @return the entity, or {@code null} if it does not fit on disk any more
+     */
+    private CachedEntity map(CachedEntity entity) {
+        if (entity instanceof EncodedEntity) {
+            EncodedEntity encoded = (EncodedEntity) entity;
+            CachedEntity identity = map(encoded.getIdentity());
+            if (identity == null)
+                return null;
+            HashMap<String, CachedEntity> encodings = new HashMap<>();
+            for (Map.Entry<String, CachedEntity> encoding : encoded.getEncodings().entrySet()) {
+                CachedEntity mapped = map(encoding.getValue());
+                // the identity is enough to serve the entry
+                if (mapped != null) {
+                    encodings.put(encoding.getKey(), mapped);
+                }
+            }
+            return new EncodedEntity(identity, encodings);
+        }
+        if (entity.getLength() < threshold || entity.getLength() > Integer.MAX_VALUE || entity instanceof MappedEntity)
+            return entity;
+        try {
+            return store.store(entity);
+        } catch (IOException e) {
+            LOGGER.debugf(e, "Could not move an entity of %s bytes to disk, keeping it on the heap",
+                    entity.getLength());
+            return entity;
+        }
+    }
+
+    @Override
+    public Entry get(String uri, MediaType accept, MultivaluedMap<String, String> headers) {
+        return cache.get(uri, accept, headers);
+    }
+
+    @Override
+    public CompletionStage<Entry> getAsync(String uri, MediaType accept, MultivaluedMap<String, String> headers) {
+        return cache.getAsync(uri, accept, headers);
+    }
+
+    @Override
+    public CompletionStage<Entry> addAsync(String uri, MediaType mediaType, CacheControl cc,
+            MultivaluedMap<String, Object> headers, CachedEntity entity, String etag,
+            MultivaluedMap<String, String> varyHeaders) {
+        // the entity is copied into a mapped segment, only starting a new segment file touches the file system
+        CachedEntity mapped = map(entity);
+        if (mapped == null)
+            return CompletableFuture.completedFuture(null);
+        return cache.addAsync(uri, mediaType, cc, headers, mapped, etag, varyHeaders);
+    }
+
+    @Override
+    public CompletionStage<Entry> addAsync(String uri, int status, MediaType mediaType, CacheControl cc,
+            MultivaluedMap<String, Object> headers, CachedEntity entity, String etag,
+            MultivaluedMap<String, String> varyHeaders) {
+        CachedEntity mapped = map(entity);
+        if (mapped == null)
+            return CompletableFuture.completedFuture(null);
+        return cache.addAsync(uri, status, mediaType, cc, headers, mapped, etag, varyHeaders);
+    }
+
+    @Override
+    public CompletionStage<Void> removeAsync(String uri) {
+        return cache.removeAsync(uri);
+    }
+
+    @Override
+    public CachedValidator getValidator(String uri, MediaType accept, MultivaluedMap<String, String> headers) {
+        return cache.getValidator(uri, accept, headers);
+    }
+
+    @Override
+    public void forEachResource(BiConsumer<String, VariantGroup> action) {
+        cache.forEachResource(action);
+    }
+
+    @Override
+    public void restore(String uri, VariantGroup group) {
+        cache.restore(uri, group);
+    }
+
+    @Override
+    public void remove(String uri) {
+        cache.remove(uri);
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public void setMetrics(CacheMetrics metrics) {
+        cache.setMetrics(metrics);
+    }
+
+    @Override
+    public boolean addRemovalListener(Consumer<String> listener) {
+        return cache.addRemovalListener(listener);
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+/**
+ * All the cached variants of a single resource. A group is stored under the URI of the resource so that every variant
+ * can be matched with a single cache lookup.
+ * <p>
+ * Instances are immutable. Adding a variant creates a new group which replaces the old one: the
+ * {@link InfinispanCache} replaces it only if it is still the current one, with a conditional {@code replace}, or
+ * {@code putIfAbsent} for the first variant, and starts over from the group it finds otherwise; the
+ * {@link LocalServerCache} swaps it under its eviction lock.
+ * </p>
+ * <p>
+ * The entries are indexed by their {@link VaryFingerprint}. A request is fingerprinted once for every distinct set of
+ * {@code Vary} headers in the group, usually just one, and its candidates are then found with a hash lookup.
+ * </p>
+ */
+public class VariantGroup implements Serializable {
+    private static final long serialVersionUID = -2415263373958154186L;
+
+    private final String[] variants;
+    private final ServerCache.Entry[] entries;
+    private final transient String[][] varyNames;
+    private final transient Map<String, ServerCache.Entry[]> index;
+
+    private VariantGroup(final String[] variants, final ServerCache.Entry[] entries) {
+        this.variants = variants;
+        this.entries = entries;
+        List<String[]> names = new ArrayList<>(1);
+        Map<String, ServerCache.Entry[]> index = new HashMap<>();
+        for (ServerCache.Entry entry : entries) {
+            VaryFingerprint fingerprint = entry.getVaryFingerprint();
+            if (names.stream().noneMatch(fingerprint::hasNames)) {
+                names.add(fingerprint.getNames());
+            }
+            // entries of the same fingerprint differ in their media type, they keep the order of the group
+            index.merge(fingerprint.getValue(), new ServerCache.Entry[] { entry }, (a, b) -> {
+                ServerCache.Entry[] merged = Arrays.copyOf(a, a.length + b.length);
+                System.arraycopy(b, 0, merged, a.length, b.length);
+                return merged;
+            });
+        }
+        this.varyNames = names.toArray(new String[0][]);
+        this.index = index;
+    }
+
+    /**
+     * Writes this group in the binary format, see {@link ServerCacheMarshaller}.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        BinaryFormat.writeInt(out, entries.length);
+        for (int i = 0; i < entries.length; i++) {
+            BinaryFormat.writeString(out, variants[i]);
+            InfinispanCache.CacheEntry.of(entries[i]).writeTo(out);
+        }
+    }
+
+    /**
+     * Reads a group written by {@link #writeTo(DataOutput)}.
+     *
+     * @param version the version of the format the group was written in, see {@link BinaryFormat#readVersion}
+     */
+    static VariantGroup readFrom(DataInput in, int version) throws IOException {
+        int size = BinaryFormat.readInt(in);
+        String[] variants = new String[size];
+        ServerCache.Entry[] entries = new ServerCache.Entry[size];
+        for (int i = 0; i < size; i++) {
+            variants[i] = BinaryFormat.readString(in);
+            entries[i] = InfinispanCache.CacheEntry.readFrom(in, version);
+        }
+        return new VariantGroup(variants, entries);
+    }
+
+    private Object writeReplace() {
+        return new ServerCacheMarshaller.SerializedForm(this);
+    }
+
+    /**
+     * Creates a group holding a single variant.
+     *
+     * @param variant the variant key, see {@link #variantKey(MediaType, VaryFingerprint)}
+     * @param entry   the cached entry
+     *
+     * @return the new group
+     */
+    public static VariantGroup of(String variant, ServerCache.Entry entry) {
+        return new VariantGroup(new String[] { variant }, new ServerCache.Entry[] { entry });
+    }
+
+    /**
+     * Creates the key identifying a variant of a resource.
+     *
+     * @param mediaType   the media type of the cached representation
+     * @param fingerprint the fingerprint of the request headers the representation varies on
+     *
+     * @return the variant key
+     */
+    public static String variantKey(MediaType mediaType, VaryFingerprint fingerprint) {
+        return mediaType + "\n" + fingerprint.getValue();
+    }
+
+    /**
+     * Returns a copy of this group with the given variant added. An existing entry for the same variant is replaced and
+     * entries which can no longer be served, not even stale, are dropped.
+     *
+     * @param group   the group to add to, may be {@code null}
+     * @param variant the variant key
+     * @param entry   the entry to add
+     *
+     * @return the new group
+     */
+    public static VariantGroup with(VariantGroup group, String variant, ServerCache.Entry entry) {
+        if (group == null) {
+            return of(variant, entry);
+        }
+        String[] newVariants = new String[group.entries.length + 1];
+        ServerCache.Entry[] newEntries = new ServerCache.Entry[group.entries.length + 1];
+        newVariants[0] = variant;
+        newEntries[0] = entry;
+        int size = 1;
+        for (int i = 0; i < group.entries.length; i++) {
+            if (group.variants[i].equals(variant) || getRetentionInSeconds(group.entries[i]) <= 0) {
+                continue;
+            }
+            newVariants[size] = group.variants[i];
+            newEntries[size] = group.entries[i];
+            size++;
+        }
+        return new VariantGroup(Arrays.copyOf(newVariants, size), Arrays.copyOf(newEntries, size));
+    }
+
+    /**
+     * Finds the variant matching a request. A fresh entry is preferred; an expired entry is only returned if it may
+     * still be served stale.
+     *
+     * @param accept  the media type accepted by the request
+     * @param headers the request headers
+     *
+     * @return the matching entry or {@code null} if there is none
+     */
+    public ServerCache.Entry match(MediaType accept, MultivaluedMap<String, String> headers) {
+        ServerCache.Entry stale = null;
+        for (String[] names : varyNames) {
+            ServerCache.Entry[] candidates = index.get(VaryFingerprint.of(names, headers));
+            if (candidates == null)
+                continue;
+            for (ServerCache.Entry entry : candidates) {
+                if (!accept.isCompatible(entry.getMediaType()))
+                    continue;
+                if (!entry.isExpired())
+                    return entry;
+                if (stale == null && getRetentionInSeconds(entry) > 0)
+                    stale = entry;
+            }
+        }
+        return stale;
+    }
+
+    /**
+     * Returns the number of variants in this group.
+     *
+     * @return the number of variants
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * Returns the variant key at the given index.
+     *
+     * @param index the index of the variant
+     *
+     * @return the variant key
+     */
+    public String getVariant(int index) {
+        return variants[index];
+    }
+
+    /**
+     * Returns the entry at the given index.
+     *
+     * @param index the index of the variant
+     *
+     * @return the cached entry
+     */
+    public ServerCache.Entry getEntry(int index) {
+        return entries[index];
+    }
+
+    /**
+     * Tells whether another group holds the same variants. Entries of an {@link InfinispanCache} are the same if they
+     * were stored at the same time with the same ETag, so that a group read back from the cache equals the group
+     * which was stored; other entries are compared by identity.
+     *
+     * @param obj the other group
+     *
+     * @return {@code true} if the groups hold the same variants
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof VariantGroup))
+            return false;
+        VariantGroup other = (VariantGroup) obj;
+        if (!Arrays.equals(variants, other.variants))
+            return false;
+        for (int i = 0; i < entries.length; i++) {
+            ServerCache.Entry entry = entries[i];
+            ServerCache.Entry otherEntry = other.entries[i];
+            if (entry != otherEntry && !(entry instanceof InfinispanCache.CacheEntry
+                    && ((InfinispanCache.CacheEntry) entry).isSameAs(otherEntry))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(variants);
+    }
+
+    /**
+     * Returns the longest remaining retention time of the entries in this group. This is how long the group itself
+     * needs to be kept.
+     *
+     * @return the remaining retention time in seconds
+     */
+    public int getRetentionInSeconds() {
+        int retention = 0;
+        for (ServerCache.Entry entry : entries) {
+            retention = Math.max(retention, getRetentionInSeconds(entry));
+        }
+        return retention;
+    }
+
+    /**
+     * Returns how long an entry needs to be kept: until it expires, plus the time it may still be served stale.
+     *
+     * @param entry the entry
+     *
+     * @return the remaining retention time in seconds
+     */
+    public static int getRetentionInSeconds(ServerCache.Entry entry) {
+        return entry.getExpirationInSeconds() + Math.max(entry.getStaleWhileRevalidate(), entry.getStaleIfError());
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+/**
+ * The normalised values of the request headers a cached response varies on. Two requests select the same variant if
+ * and only if their fingerprints for the {@code Vary} header names of the variant are equal, so a variant is found
+ * with a hash lookup instead of comparing its headers one by one.
+ * <p>
+ * Header names are compared case-insensitively and their values are compared after splitting them at commas and
+ * trimming the elements. A header the request did not send is part of the fingerprint too.
+ * </p>
+ */
+public final class VaryFingerprint {
+    private static final String[] NONE = new String[0];
+
+    private final String[] names;
+    private final String value;
+
+    VaryFingerprint(final String[] names, final String value) {
+        this.names = names;
+        this.value = value;
+    }
+
+    /**
+     * Creates the fingerprint of a cached response.
+     *
+     * @param responseHeaders the headers of the response, its {@code Vary} header names the request headers
+     * @param varyHeaders     the request headers the response was created for
+     *
+     * @return the fingerprint
+     */
+    public static VaryFingerprint of(MultivaluedMap<String, ?> responseHeaders,
+            MultivaluedMap<String, String> varyHeaders) {
+        String[] names = getNames(responseHeaders.get(HttpHeaders.VARY));
+        return new VaryFingerprint(names, of(names, varyHeaders));
+    }
+
+    /**
+     * Creates the fingerprint of a request.
+     *
+     * @param names   the header names, as returned by {@link #getNames()}
+     * @param headers the request headers
+     *
+     * @return the fingerprint
+     */
+    public static String of(String[] names, MultivaluedMap<String, String> headers) {
+        if (names.length == 0)
+            return "";
+        StringBuilder fingerprint = new StringBuilder();
+        for (String name : names) {
+            fingerprint.append(name.toLowerCase(Locale.ROOT));
+            List<String> values = headers.get(name);
+            if (values != null) {
+                // a header the request sent empty differs from one it did not send
+                fingerprint.append(':');
+                char separator = 0;
+                for (String value : values) {
+                    for (String element : value.split(",")) {
+                        element = element.trim();
+                        if (element.isEmpty())
+                            continue;
+                        if (separator != 0) {
+                            fingerprint.append(separator);
+                        }
+                        fingerprint.append(element);
+                        separator = ',';
+                    }
+                }
+            }
+            fingerprint.append('\n');
+        }
+        return fingerprint.toString();
+    }
+
+    /**
+     * Splits {@code Vary} header values into header names, sorted and without duplicates.
+     *
+     * @param vary the {@code Vary} header values, may be {@code null}
+     *
+     * @return the header names
+     */
+    public static String[] getNames(List<?> vary) {
+        if (vary == null || vary.isEmpty())
+            return NONE;
+        TreeMap<String, String> names = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Object value : vary) {
+            for (String name : value.toString().split(",")) {
+                name = name.trim();
+                if (!name.isEmpty()) {
+                    names.putIfAbsent(name, name);
+                }
+            }
+        }
+        return names.values().toArray(NONE);
+    }
+
+    /**
+     * Returns the names of the request headers the response varies on.
+     *
+     * @return the header names, sorted case-insensitively
+     */
+    public String[] getNames() {
+        return names;
+    }
+
+    /**
+     * Returns the fingerprint.
+     *
+     * @return the normalised header values
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Returns whether the response varies on the same headers as another one.
+     *
+     * @param names the header names of the other response
+     *
+     * @return {@code true} if the header names are equal, ignoring case
+     */
+    boolean hasNames(String[] names) {
+        return Arrays.equals(this.names, names, String.CASE_INSENSITIVE_ORDER);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
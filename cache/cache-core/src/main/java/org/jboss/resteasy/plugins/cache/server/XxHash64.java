@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * A streaming implementation of the xxHash64 algorithm with seed 0.
+ *
+ * @see <a href="https://github.com/Cyan4973/xxHash/blob/dev/doc/xxhash_spec.md">xxHash specification</a>
+ */
+final class XxHash64 implements ETagStrategy.Hasher {
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private long v1 = PRIME1 + PRIME2;
+    private long v2 = PRIME2;
+    private long v3 = 0;
+    private long v4 = -PRIME1;
+    private final byte[] buffer = new byte[32];
+    private int buffered;
+    private long length;
+
+    @Override
+    public void update(byte[] b, int off, int len) {
+        length += len;
+        if (buffered > 0) {
+            int count = Math.min(len, 32 - buffered);
+            System.arraycopy(b, off, buffer, buffered, count);
+            buffered += count;
+            off += count;
+            len -= count;
+            if (buffered < 32)
+                return;
+            stripe(buffer, 0);
+            buffered = 0;
+        }
+        while (len >= 32) {
+            stripe(b, off);
+            off += 32;
+            len -= 32;
+        }
+        if (len > 0) {
+            System.arraycopy(b, off, buffer, 0, len);
+            buffered = len;
+        }
+    }
+
+    private void stripe(byte[] b, int off) {
+        v1 = round(v1, getLong(b, off));
+        v2 = round(v2, getLong(b, off + 8));
+        v3 = round(v3, getLong(b, off + 16));
+        v4 = round(v4, getLong(b, off + 24));
+    }
+
+    @Override
+    public String getValue() {
+        long hash;
+        if (length >= 32) {
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = merge(hash, v1);
+            hash = merge(hash, v2);
+            hash = merge(hash, v3);
+            hash = merge(hash, v4);
+        } else {
+            hash = PRIME5;
+        }
+        hash += length;
+        int off = 0;
+        while (off + 8 <= buffered) {
+            hash ^= round(0, getLong(buffer, off));
+            hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+            off += 8;
+        }
+        if (off + 4 <= buffered) {
+            hash ^= (getInt(buffer, off) & 0xFFFFFFFFL) * PRIME1;
+            hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+            off += 4;
+        }
+        while (off < buffered) {
+            hash ^= (buffer[off] & 0xFFL) * PRIME5;
+            hash = Long.rotateLeft(hash, 11) * PRIME1;
+            off++;
+        }
+        hash ^= hash >>> 33;
+        hash *= PRIME2;
+        hash ^= hash >>> 29;
+        hash *= PRIME3;
+        hash ^= hash >>> 32;
+        return ServerCacheInterceptor.longToHexString(hash);
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME1;
+    }
+
+    private static long merge(long hash, long v) {
+        hash ^= round(0, v);
+        return hash * PRIME1 + PRIME4;
+    }
+
+    private static long getLong(byte[] b, int off) {
+        return (long) LONG.get(b, off);
+    }
+
+    private static int getInt(byte[] b, int off) {
+        return (int) INT.get(b, off);
+    }
+}
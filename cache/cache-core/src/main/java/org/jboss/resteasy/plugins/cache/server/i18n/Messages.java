@@ -25,4 +25,25 @@ public interface Messages {
 
     @Message(id = 10000, value = "need to specify server.request.cache.infinispan.cache.name")
     String needToSpecifyCacheName();
+
+    @Message(id = 10001, value = "unsupported content coding in server.request.cache.content.codings: %s")
+    String unsupportedContentCoding(String contentCoding);
+
+    @Message(id = 10002, value = "unsupported server cache entry format version: %d")
+    String unsupportedFormatVersion(int version);
+
+    @Message(id = 10003, value = "not a server cache snapshot: %s")
+    String notASnapshot(String file);
+
+    @Message(id = 10004, value = "invalid time to live in server.request.cache.negative.ttls: %s")
+    String invalidNegativeTtl(String ttl);
+
+    @Message(id = 10005, value = "server.request.cache.refresh.threads requires server.request.cache.refresh.base.uri")
+    String refreshBaseUriRequired();
+
+    @Message(id = 10006, value = "an MBean is already registered under the server.request.cache.metrics.jmx.name %s")
+    String mbeanNameInUse(String name);
+
+    @Message(id = 10007, value = "server.request.cache.warm.manifest requires server.request.cache.warm.base.uri")
+    String warmBaseUriRequired();
 }
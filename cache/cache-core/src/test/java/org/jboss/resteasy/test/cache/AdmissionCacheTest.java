@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+
+import org.jboss.resteasy.annotations.cache.Cache;
+import org.jboss.resteasy.plugins.cache.server.ServerCacheFeature;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.jboss.resteasy.test.TestPortProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+
+/**
+ * Tests that responses are only stored once their key missed {@link ServerCacheFeature#ADMISSION_MIN_MISSES} times,
+ * and never if they are larger than {@link ServerCacheFeature#MAX_BODY_BYTES}.
+ */
+@EnabledOnJre({
+        JRE.JAVA_11,
+        JRE.JAVA_17,
+        JRE.JAVA_21,
+})
+public class AdmissionCacheTest {
+    private static final String LARGE;
+
+    static {
+        char[] chars = new char[4096];
+        Arrays.fill(chars, 'x');
+        LARGE = new String(chars);
+    }
+
+    private static NettyJaxrsServer server;
+    private static ResteasyDeployment deployment;
+    private static Client client;
+    private static final AtomicInteger smallCount = new AtomicInteger();
+    private static final AtomicInteger largeCount = new AtomicInteger();
+
+    @Path("/admission")
+    public static class AdmissionResource {
+        @GET
+        @Path("small")
+        @Produces("text/plain")
+        @Cache(maxAge = 60)
+        public String small() {
+            return "small " + smallCount.incrementAndGet();
+        }
+
+        @GET
+        @Path("large")
+        @Produces("text/plain")
+        @Cache(maxAge = 60)
+        public String large() {
+            largeCount.incrementAndGet();
+            return LARGE;
+        }
+    }
+
+    @BeforeAll
+    public static void beforeClass() {
+        server = new NettyJaxrsServer();
+        server.setPort(TestPortProvider.getPort());
+        server.setRootResourcePath("/");
+        deployment = server.getDeployment();
+        server.start();
+        deployment.getProviderFactory().property(ServerCacheFeature.CACHE_TYPE, "local");
+        deployment.getProviderFactory().property(ServerCacheFeature.ADMISSION_MIN_MISSES, "3");
+        deployment.getProviderFactory().property(ServerCacheFeature.ADMISSION_KEYS, "1000");
+        deployment.getProviderFactory().property(ServerCacheFeature.MAX_BODY_BYTES, "1024");
+        deployment.getProviderFactory().register(ServerCacheFeature.class);
+        deployment.getRegistry().addPerRequestResource(AdmissionResource.class);
+        client = ClientBuilder.newClient();
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        server.stop();
+        server = null;
+        deployment = null;
+        client.close();
+    }
+
+    @Test
+    public void testAdmittedAfterMinMisses() {
+        Assertions.assertEquals("small 1", client.target(generateURL("/admission/small")).request().get(String.class));
+        Assertions.assertEquals("small 2", client.target(generateURL("/admission/small")).request().get(String.class));
+        // the third miss is admitted and stored
+        Assertions.assertEquals("small 3", client.target(generateURL("/admission/small")).request().get(String.class));
+        Assertions.assertEquals("small 3", client.target(generateURL("/admission/small")).request().get(String.class));
+    }
+
+    @Test
+    public void testOversizedNotStored() {
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals(LARGE, client.target(generateURL("/admission/large")).request().get(String.class));
+        }
+        Assertions.assertEquals(5, largeCount.get());
+    }
+}
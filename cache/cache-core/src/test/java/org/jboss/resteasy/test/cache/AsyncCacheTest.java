@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+
+import org.jboss.resteasy.annotations.cache.Cache;
+import org.jboss.resteasy.plugins.cache.server.ServerCacheFeature;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.jboss.resteasy.test.TestPortProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+
+/**
+ * Tests that the cache is looked up and stored in without blocking the request threads when it is configured to.
+ */
+@EnabledOnJre({
+        JRE.JAVA_11,
+        JRE.JAVA_17,
+        JRE.JAVA_21,
+})
+public class AsyncCacheTest {
+    private static NettyJaxrsServer server;
+    private static ResteasyDeployment deployment;
+    private static Client client;
+    private static final AtomicInteger count = new AtomicInteger();
+
+    @Path("/async")
+    public static class AsyncResource {
+        @GET
+        @Produces("text/plain")
+        @Cache(maxAge = 60)
+        public String get() {
+            return "async" + count.incrementAndGet();
+        }
+
+        @GET
+        @Produces("text/plain")
+        @Path("uncached")
+        public String getUncached() {
+            return "uncached" + count.incrementAndGet();
+        }
+    }
+
+    @BeforeAll
+    public static void beforeClass() {
+        server = new NettyJaxrsServer();
+        server.setPort(TestPortProvider.getPort());
+        server.setRootResourcePath("/");
+        deployment = server.getDeployment();
+        server.start();
+        // the local cache stores synchronously, so the request after a miss is a hit
+        deployment.getProviderFactory().property(ServerCacheFeature.CACHE_TYPE, "local");
+        deployment.getProviderFactory().property(ServerCacheFeature.ASYNC, "true");
+        deployment.getProviderFactory().register(ServerCacheFeature.class);
+        deployment.getRegistry().addPerRequestResource(AsyncResource.class);
+        client = ClientBuilder.newClient();
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        server.stop();
+        server = null;
+        deployment = null;
+        client.close();
+    }
+
+    @Test
+    public void testHitsAndRevalidation() {
+        Response response = client.target(generateURL("/async")).request().get();
+        Assertions.assertEquals(200, response.getStatus());
+        String body = response.readEntity(String.class);
+        String etag = response.getHeaderString(HttpHeaders.ETAG);
+        Assertions.assertNotNull(etag);
+        int invocations = count.get();
+
+        Assertions.assertEquals(body, client.target(generateURL("/async")).request().get(String.class));
+        Assertions.assertEquals(body, client.target(generateURL("/async")).request().get(String.class));
+        Assertions.assertEquals(invocations, count.get());
+
+        response = client.target(generateURL("/async")).request().header(HttpHeaders.IF_NONE_MATCH, etag).get();
+        Assertions.assertEquals(304, response.getStatus());
+        response.close();
+        Assertions.assertEquals(invocations, count.get());
+    }
+
+    @Test
+    public void testUncachedResponse() {
+        String first = client.target(generateURL("/async/uncached")).request().get(String.class);
+        String second = client.target(generateURL("/async/uncached")).request().get(String.class);
+        Assertions.assertNotEquals(first, second);
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.jboss.resteasy.plugins.cache.server.InfinispanCache;
+import org.jboss.resteasy.plugins.cache.server.LocalServerCache;
+import org.jboss.resteasy.plugins.cache.server.SegmentedEntity;
+import org.jboss.resteasy.plugins.cache.server.ServerCache;
+import org.jboss.resteasy.plugins.cache.server.VariantGroup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the non-blocking methods of the {@link ServerCache} SPI, those of the {@link InfinispanCache} and the default
+ * ones.
+ */
+public class AsyncServerCacheTest {
+    private static final MultivaluedMap<String, String> NO_HEADERS = new MultivaluedHashMap<>();
+
+    /**
+     * A cache implementing only the blocking methods, as caches written before the non-blocking ones did.
+     */
+    private static class BlockingCache implements ServerCache {
+        private final ServerCache cache = new LocalServerCache(1024 * 1024);
+
+        @Override
+        public Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers,
+                byte[] entity, String etag, MultivaluedMap<String, String> varyHeaders) {
+            return cache.add(uri, mediaType, cc, headers, entity, etag, varyHeaders);
+        }
+
+        @Override
+        public Entry get(String uri, MediaType accept, MultivaluedMap<String, String> headers) {
+            return cache.get(uri, accept, headers);
+        }
+
+        @Override
+        public void remove(String uri) {
+            cache.remove(uri);
+        }
+
+        @Override
+        public void clear() {
+            cache.clear();
+        }
+    }
+
+    private DefaultCacheManager manager;
+    private Cache<Object, Object> groups;
+
+    @BeforeEach
+    public void setUp() {
+        manager = new DefaultCacheManager();
+        manager.defineConfiguration("test", new ConfigurationBuilder().build());
+        groups = manager.getCache("test");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        manager.stop();
+    }
+
+    private static CompletableFuture<ServerCache.Entry> addAsync(ServerCache cache, int status, String mediaType,
+            String cacheControl, String body) {
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.putSingle(HttpHeaders.CONTENT_TYPE, mediaType);
+        return cache.addAsync("/resource", status, MediaType.valueOf(mediaType), CacheControl.valueOf(cacheControl),
+                headers, SegmentedEntity.wrap(body.getBytes()), body, new MultivaluedHashMap<>())
+                .toCompletableFuture();
+    }
+
+    private static String getAsync(ServerCache cache, String accept) throws Exception {
+        ServerCache.Entry entry = cache.getAsync("/resource", MediaType.valueOf(accept), NO_HEADERS)
+                .toCompletableFuture().get(10, TimeUnit.SECONDS);
+        return entry == null ? null : entry.getEtag();
+    }
+
+    @Test
+    public void testInfinispanCache() throws Exception {
+        InfinispanCache cache = new InfinispanCache(groups);
+        Assertions.assertNull(getAsync(cache, "*/*"));
+
+        ServerCache.Entry entry = addAsync(cache, 200, "text/plain", "max-age=60", "plain").get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals("plain", entry.getEtag());
+        addAsync(cache, 404, "text/html", "max-age=60", "html").get(10, TimeUnit.SECONDS);
+
+        Assertions.assertEquals("plain", getAsync(cache, "text/plain"));
+        Assertions.assertEquals("html", getAsync(cache, "text/html"));
+        Assertions.assertEquals(404, cache.get("/resource", MediaType.TEXT_HTML_TYPE, NO_HEADERS).getStatus());
+
+        cache.removeAsync("/resource").toCompletableFuture().get(10, TimeUnit.SECONDS);
+        Assertions.assertNull(getAsync(cache, "*/*"));
+        Assertions.assertTrue(groups.isEmpty());
+    }
+
+    @Test
+    public void testInfinispanCacheConcurrentAdds() throws Exception {
+        InfinispanCache cache = new InfinispanCache(groups);
+        String[] mediaTypes = { "text/plain", "text/html", "text/xml", "text/csv", "application/json",
+                "application/xml", "application/yaml", "image/png" };
+
+        List<CompletableFuture<ServerCache.Entry>> added = new ArrayList<>();
+        for (String mediaType : mediaTypes) {
+            added.add(addAsync(cache, 200, mediaType, "max-age=60", mediaType));
+        }
+        for (CompletableFuture<ServerCache.Entry> stage : added) {
+            stage.get(10, TimeUnit.SECONDS);
+        }
+
+        // every add is retried until it is applied to the group it read
+        Assertions.assertEquals(mediaTypes.length, ((VariantGroup) groups.get("/resource")).size());
+        for (String mediaType : mediaTypes) {
+            Assertions.assertEquals(mediaType, getAsync(cache, mediaType));
+        }
+    }
+
+    @Test
+    public void testInfinispanCacheExpiredAdd() throws Exception {
+        InfinispanCache cache = new InfinispanCache(groups);
+        addAsync(cache, 200, "text/plain", "max-age=60", "fresh").get(10, TimeUnit.SECONDS);
+
+        // without a max-age the variant is expired at once, and with it the whole group
+        addAsync(cache, 200, "text/plain", "no-transform", "expired").get(10, TimeUnit.SECONDS);
+
+        Assertions.assertNull(getAsync(cache, "*/*"));
+        Assertions.assertTrue(groups.isEmpty());
+    }
+
+    @Test
+    public void testDefaultMethods() throws Exception {
+        ServerCache cache = new BlockingCache();
+
+        Assertions.assertNull(getAsync(cache, "*/*"));
+        ServerCache.Entry entry = addAsync(cache, 200, "text/plain", "max-age=60", "plain").get(10, TimeUnit.SECONDS);
+        Assertions.assertEquals("plain", entry.getEtag());
+        Assertions.assertEquals("plain", getAsync(cache, "text/plain"));
+
+        // the default implementation does not keep the status code, so it only adds 200 responses
+        Assertions.assertNull(addAsync(cache, 404, "text/html", "max-age=60", "html").get(10, TimeUnit.SECONDS));
+        Assertions.assertNull(getAsync(cache, "text/html"));
+
+        cache.removeAsync("/resource").toCompletableFuture().get(10, TimeUnit.SECONDS);
+        Assertions.assertNull(getAsync(cache, "*/*"));
+        Assertions.assertFalse(cache.addRemovalListener(uri -> {
+        }));
+        Assertions.assertNull(cache.getValidator("/resource", MediaType.WILDCARD_TYPE, NO_HEADERS));
+    }
+}
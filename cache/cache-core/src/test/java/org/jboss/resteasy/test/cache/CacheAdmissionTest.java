@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jboss.resteasy.plugins.cache.server.CacheAdmission;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that {@link CacheAdmission} only admits the responses of keys which missed often enough.
+ */
+public class CacheAdmissionTest {
+
+    @Test
+    public void testAdmittedAfterMinMisses() {
+        CacheAdmission admission = new CacheAdmission(3, 1000);
+
+        Assertions.assertFalse(admission.admit("/a"));
+        Assertions.assertFalse(admission.admit("/a"));
+        Assertions.assertTrue(admission.admit("/a"));
+        Assertions.assertTrue(admission.admit("/a"));
+        // the misses are counted per key
+        Assertions.assertFalse(admission.admit("/b"));
+    }
+
+    @Test
+    public void testSingleMissAdmitsAll() {
+        CacheAdmission admission = new CacheAdmission(1, 1000);
+
+        Assertions.assertTrue(admission.admit("/a"));
+        Assertions.assertTrue(admission.admit("/b"));
+    }
+
+    @Test
+    public void testMinMissesCapped() {
+        CacheAdmission admission = new CacheAdmission(100, 1000);
+
+        for (int i = 1; i < 15; i++) {
+            Assertions.assertFalse(admission.admit("/a"));
+        }
+        Assertions.assertTrue(admission.admit("/a"));
+    }
+
+    @Test
+    public void testConcurrentMisses() throws Exception {
+        CacheAdmission admission = new CacheAdmission(3, 1000);
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int admitted = 0;
+                    // one key shared by all the threads, and keys of their own
+                    admitted += admission.admit("/shared") ? 1 : 0;
+                    for (int i = 0; i < 3; i++) {
+                        admitted += admission.admit("/own/" + thread) ? 100 : 0;
+                    }
+                    return admitted;
+                }));
+            }
+            start.countDown();
+            int admitted = 0;
+            for (Future<Integer> result : results) {
+                admitted += result.get();
+            }
+
+            // no miss is lost: every own key is admitted on its third miss, the shared one from the third thread on
+            Assertions.assertEquals(threads * 100 + threads - 2, admitted);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
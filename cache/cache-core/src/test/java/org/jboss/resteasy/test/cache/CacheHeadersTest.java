@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+
+import org.jboss.resteasy.plugins.cache.server.EncodedEntity;
+import org.jboss.resteasy.plugins.cache.server.PreparedHeaders;
+import org.jboss.resteasy.plugins.cache.server.ServerCacheFeature;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.jboss.resteasy.test.TestPortProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+
+/**
+ * Tests the {@code Cache-Control}, {@code Age} and {@code Content-Encoding} headers of the responses served from the
+ * prepared headers of cache entries.
+ */
+@EnabledOnJre({
+        JRE.JAVA_11,
+        JRE.JAVA_17,
+        JRE.JAVA_21,
+})
+public class CacheHeadersTest {
+    private static final String TEXT = "The quick brown fox jumps over the lazy dog. ".repeat(200);
+
+    private static NettyJaxrsServer server;
+    private static ResteasyDeployment deployment;
+    private static HttpClient client;
+    private static final AtomicInteger freshCount = new AtomicInteger();
+    private static final AtomicInteger validatedCount = new AtomicInteger();
+    private static final AtomicInteger errorCount = new AtomicInteger();
+    private static final AtomicInteger encodedCount = new AtomicInteger();
+    private static volatile boolean failing;
+
+    @Path("/headers")
+    public static class HeadersResource {
+        @GET
+        @Produces("text/plain")
+        @Path("fresh")
+        public Response getFresh() {
+            return Response.ok("fresh" + freshCount.incrementAndGet())
+                    .header(HttpHeaders.CACHE_CONTROL, "max-age=60")
+                    .build();
+        }
+
+        @GET
+        @Produces("text/plain")
+        @Path("validated")
+        public Response getValidated() {
+            return Response.ok("validated" + validatedCount.incrementAndGet())
+                    .header(HttpHeaders.CACHE_CONTROL, "max-age=60")
+                    .build();
+        }
+
+        @GET
+        @Produces("text/plain")
+        @Path("error")
+        public Response getError() {
+            errorCount.incrementAndGet();
+            if (failing)
+                return Response.serverError().entity("failed").build();
+            return Response.ok("error" + errorCount.get())
+                    .header(HttpHeaders.CACHE_CONTROL, "max-age=1, stale-if-error=30")
+                    .build();
+        }
+
+        @GET
+        @Produces("text/plain")
+        @Path("encoded")
+        public Response getEncoded() {
+            encodedCount.incrementAndGet();
+            // as left by an entity coder running after the cache on the miss
+            return Response.ok(TEXT)
+                    .header(HttpHeaders.CACHE_CONTROL, "max-age=60")
+                    .header(HttpHeaders.CONTENT_ENCODING, "x-miss")
+                    .build();
+        }
+    }
+
+    @BeforeAll
+    public static void beforeClass() {
+        server = new NettyJaxrsServer();
+        server.setPort(TestPortProvider.getPort());
+        server.setRootResourcePath("/");
+        deployment = server.getDeployment();
+        server.start();
+        deployment.getProviderFactory().property(ServerCacheFeature.CACHE_TYPE, "local");
+        deployment.getProviderFactory().property(ServerCacheFeature.CONTENT_CODINGS, "gzip");
+        deployment.getProviderFactory().register(ServerCacheFeature.class);
+        deployment.getRegistry().addPerRequestResource(HeadersResource.class);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        server.stop();
+        server = null;
+        deployment = null;
+    }
+
+    private static HttpResponse<byte[]> send(String path, String... headers) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(generateURL(path))).GET();
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * Waits until a resource is served from the cache, entities are stored once they are encoded.
+     *
+     * @return the response served from the cache
+     */
+    private static HttpResponse<byte[]> awaitStored(String path, AtomicInteger count) throws Exception {
+        for (int i = 0; i < 50; i++) {
+            int misses = count.get();
+            HttpResponse<byte[]> response = send(path);
+            if (count.get() == misses)
+                return response;
+            Thread.sleep(100);
+        }
+        throw new AssertionError(path + " was not cached");
+    }
+
+    private static String getHeader(HttpResponse<byte[]> response, String name) {
+        return response.headers().firstValue(name).orElse(null);
+    }
+
+    private static void assertCacheControl(HttpResponse<byte[]> response, String... directives) {
+        Assertions.assertEquals(1, response.headers().allValues(HttpHeaders.CACHE_CONTROL).size());
+        String cacheControl = getHeader(response, HttpHeaders.CACHE_CONTROL);
+        for (String directive : directives) {
+            Assertions.assertTrue(cacheControl.contains(directive), cacheControl);
+        }
+    }
+
+    private static int getAge(HttpResponse<byte[]> response) {
+        String age = getHeader(response, PreparedHeaders.AGE);
+        Assertions.assertNotNull(age);
+        return Integer.parseInt(age);
+    }
+
+    @Test
+    public void testHit() throws Exception {
+        HttpResponse<byte[]> response = awaitStored("/headers/fresh", freshCount);
+
+        Assertions.assertEquals(200, response.statusCode());
+        assertCacheControl(response, "max-age=60");
+        int age = getAge(response);
+        Assertions.assertTrue(age >= 0 && age < 60, Integer.toString(age));
+
+        Thread.sleep(1100);
+
+        // the max-age stays the one the response was stored with, the Age grows
+        response = send("/headers/fresh");
+        assertCacheControl(response, "max-age=60");
+        Assertions.assertTrue(getAge(response) >= 1);
+        Assertions.assertEquals(1, response.headers().allValues(PreparedHeaders.AGE).size());
+    }
+
+    @Test
+    public void testNotModified() throws Exception {
+        String etag = getHeader(awaitStored("/headers/validated", validatedCount), HttpHeaders.ETAG);
+        Assertions.assertNotNull(etag);
+
+        HttpResponse<byte[]> response = send("/headers/validated", HttpHeaders.IF_NONE_MATCH, etag);
+
+        Assertions.assertEquals(304, response.statusCode());
+        Assertions.assertEquals(0, response.body().length);
+        assertCacheControl(response, "max-age=60");
+        Assertions.assertTrue(getAge(response) >= 0);
+        Assertions.assertEquals(etag, getHeader(response, HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void testStaleIfError() throws Exception {
+        failing = false;
+        try {
+            String body = new String(awaitStored("/headers/error", errorCount).body(), StandardCharsets.UTF_8);
+            failing = true;
+
+            Thread.sleep(1100);
+
+            // the resource method fails, the stale response is served with its own headers
+            HttpResponse<byte[]> response = send("/headers/error");
+            Assertions.assertEquals(200, response.statusCode());
+            Assertions.assertEquals(body, new String(response.body(), StandardCharsets.UTF_8));
+            assertCacheControl(response, "max-age=1", "stale-if-error=30");
+            Assertions.assertTrue(getAge(response) >= 1);
+        } finally {
+            failing = false;
+        }
+    }
+
+    @Test
+    public void testStoredContentEncodingDropped() throws Exception {
+        HttpResponse<byte[]> response = awaitStored("/headers/encoded", encodedCount);
+
+        // the entity is negotiated, the encoding of the miss is not replayed
+        Assertions.assertNull(getHeader(response, HttpHeaders.CONTENT_ENCODING));
+        Assertions.assertEquals(TEXT, new String(response.body(), StandardCharsets.UTF_8));
+
+        response = send("/headers/encoded", HttpHeaders.ACCEPT_ENCODING, "gzip");
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals(1, response.headers().allValues(HttpHeaders.CONTENT_ENCODING).size());
+        Assertions.assertEquals(EncodedEntity.GZIP, getHeader(response, HttpHeaders.CONTENT_ENCODING));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            Assertions.assertEquals(TEXT, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
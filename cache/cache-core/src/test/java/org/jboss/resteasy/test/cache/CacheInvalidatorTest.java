@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import java.util.List;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+
+import org.jboss.resteasy.plugins.cache.server.CacheInvalidator;
+import org.jboss.resteasy.plugins.cache.server.LocalServerCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the invalidation of cached resources by tag, by URI prefix and by hierarchy with the {@link CacheInvalidator}.
+ */
+public class CacheInvalidatorTest {
+    private LocalServerCache cache;
+    private CacheInvalidator invalidator;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new LocalServerCache(1024 * 1024);
+        invalidator = new CacheInvalidator(cache, 100);
+    }
+
+    private void add(String key, String... tags) {
+        cache.add(key, MediaType.TEXT_PLAIN_TYPE, CacheControl.valueOf("max-age=60"), new MultivaluedHashMap<>(),
+                new byte[10], key, new MultivaluedHashMap<>());
+        invalidator.add(key, List.of(tags));
+    }
+
+    private boolean isCached(String key) {
+        return cache.get(key, MediaType.WILDCARD_TYPE, new MultivaluedHashMap<>()) != null;
+    }
+
+    @Test
+    public void testInvalidate() {
+        add("http://localhost/a");
+        add("http://localhost/b");
+
+        invalidator.invalidate("http://localhost/a");
+
+        Assertions.assertFalse(isCached("http://localhost/a"));
+        Assertions.assertTrue(isCached("http://localhost/b"));
+        Assertions.assertEquals(1, invalidator.size());
+    }
+
+    @Test
+    public void testInvalidateTag() {
+        add("http://localhost/orders/1", "orders", "customer-7");
+        add("http://localhost/orders/2", "orders");
+        add("http://localhost/customers/7", "customer-7");
+
+        invalidator.invalidateTag("customer-7");
+
+        Assertions.assertFalse(isCached("http://localhost/orders/1"));
+        Assertions.assertTrue(isCached("http://localhost/orders/2"));
+        Assertions.assertFalse(isCached("http://localhost/customers/7"));
+
+        invalidator.invalidateTag("orders");
+        Assertions.assertFalse(isCached("http://localhost/orders/2"));
+        Assertions.assertEquals(0, invalidator.size());
+
+        // unknown tags are ignored
+        invalidator.invalidateTag("orders");
+    }
+
+    @Test
+    public void testRetaggedKey() {
+        add("http://localhost/orders/1", "orders");
+        add("http://localhost/orders/1", "archive");
+
+        invalidator.invalidateTag("orders");
+        Assertions.assertTrue(isCached("http://localhost/orders/1"));
+
+        invalidator.invalidateTag("archive");
+        Assertions.assertFalse(isCached("http://localhost/orders/1"));
+    }
+
+    @Test
+    public void testInvalidatePrefix() {
+        add("http://localhost/orders/1");
+        add("http://localhost/orders/2?expand=items");
+        add("http://example.com/orders/3");
+        add("http://localhost/ordersummary");
+        add("http://localhost/customers/7");
+
+        invalidator.invalidatePrefix("http://localhost/orders/");
+
+        Assertions.assertFalse(isCached("http://localhost/orders/1"));
+        Assertions.assertFalse(isCached("http://localhost/orders/2?expand=items"));
+        Assertions.assertTrue(isCached("http://example.com/orders/3"));
+        Assertions.assertTrue(isCached("http://localhost/ordersummary"));
+
+        // a path prefix matches any host
+        invalidator.invalidatePrefix("/orders");
+
+        Assertions.assertFalse(isCached("http://example.com/orders/3"));
+        Assertions.assertFalse(isCached("http://localhost/ordersummary"));
+        Assertions.assertTrue(isCached("http://localhost/customers/7"));
+    }
+
+    @Test
+    public void testInvalidateHierarchy() {
+        add("http://localhost/orders");
+        add("http://localhost/orders?page=2");
+        add("http://localhost/orders/42");
+        add("http://localhost/orders/42/items");
+        add("http://localhost/orders/43");
+        add("http://example.com/orders");
+        add("http://example.com/orders/42");
+
+        invalidator.invalidateHierarchy("http://localhost/orders/42");
+
+        Assertions.assertFalse(isCached("http://localhost/orders"));
+        Assertions.assertFalse(isCached("http://localhost/orders?page=2"));
+        Assertions.assertFalse(isCached("http://localhost/orders/42"));
+        Assertions.assertFalse(isCached("http://localhost/orders/42/items"));
+        Assertions.assertTrue(isCached("http://localhost/orders/43"));
+        // only the resources of the same origin
+        Assertions.assertTrue(isCached("http://example.com/orders"));
+        Assertions.assertTrue(isCached("http://example.com/orders/42"));
+    }
+
+    @Test
+    public void testIndexIsBounded() {
+        invalidator = new CacheInvalidator(cache, 3);
+        for (int i = 0; i < 5; i++) {
+            add("http://localhost/r/" + i);
+        }
+
+        Assertions.assertEquals(3, invalidator.size());
+        // the oldest keys are evicted from the cache too, so they can never be served stale
+        Assertions.assertFalse(isCached("http://localhost/r/0"));
+        Assertions.assertFalse(isCached("http://localhost/r/1"));
+        for (int i = 2; i < 5; i++) {
+            Assertions.assertTrue(isCached("http://localhost/r/" + i));
+        }
+
+        invalidator.invalidatePrefix("/r/");
+        Assertions.assertEquals(0, invalidator.size());
+        Assertions.assertFalse(isCached("http://localhost/r/4"));
+    }
+
+    @Test
+    public void testReaddedKeyIsNotEvictedTwice() {
+        invalidator = new CacheInvalidator(cache, 2);
+        add("http://localhost/a");
+        add("http://localhost/b");
+        add("http://localhost/a");
+        add("http://localhost/c");
+
+        // b is now the oldest
+        Assertions.assertTrue(isCached("http://localhost/a"));
+        Assertions.assertFalse(isCached("http://localhost/b"));
+        Assertions.assertTrue(isCached("http://localhost/c"));
+        Assertions.assertEquals(2, invalidator.size());
+    }
+}
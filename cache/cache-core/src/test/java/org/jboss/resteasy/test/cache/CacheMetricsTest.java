@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.ObjectName;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.core.Response;
+
+import org.jboss.resteasy.annotations.cache.Cache;
+import org.jboss.resteasy.plugins.cache.server.CacheMetrics;
+import org.jboss.resteasy.plugins.cache.server.DefaultCacheMetrics;
+import org.jboss.resteasy.plugins.cache.server.EndpointStatistics;
+import org.jboss.resteasy.plugins.cache.server.ServerCacheFeature;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.jboss.resteasy.test.TestPortProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+
+/**
+ * Tests the metrics of the cache as the application sees them, through JMX.
+ */
+@EnabledOnJre({
+        JRE.JAVA_11,
+        JRE.JAVA_17,
+        JRE.JAVA_21,
+})
+public class CacheMetricsTest {
+    private static final String NAME = "metrics-test";
+
+    private static NettyJaxrsServer server;
+    private static ResteasyDeployment deployment;
+    private static Client client;
+
+    @Path("/metrics/orders")
+    public static class OrderResource {
+        @GET
+        @Path("{id}")
+        @Cache(maxAge = 60)
+        public String get(@PathParam("id") String id) {
+            return "order " + id;
+        }
+    }
+
+    // without leading slash, with a trailing one, and no path on the method
+    @Path("metrics/catalog/")
+    public static class CatalogResource {
+        @GET
+        @Cache(maxAge = 60)
+        public String get() {
+            return "catalog";
+        }
+    }
+
+    @BeforeAll
+    public static void beforeClass() {
+        server = new NettyJaxrsServer();
+        server.setPort(TestPortProvider.getPort());
+        server.setRootResourcePath("/");
+        deployment = server.getDeployment();
+        server.start();
+        deployment.getProviderFactory().property(ServerCacheFeature.CACHE_TYPE, "local");
+        deployment.getProviderFactory().property(ServerCacheFeature.METRICS_JMX, "true");
+        deployment.getProviderFactory().property(ServerCacheFeature.METRICS_JMX_NAME, NAME);
+        deployment.getProviderFactory().register(ServerCacheFeature.class);
+        deployment.getRegistry().addPerRequestResource(OrderResource.class);
+        deployment.getRegistry().addPerRequestResource(CatalogResource.class);
+        client = ClientBuilder.newClient();
+    }
+
+    @AfterAll
+    public static void afterClass() throws Exception {
+        ((ServerCacheFeature) deployment.getProviderFactory().getProperty(ServerCacheFeature.class.getName()))
+                .shutdown();
+        // unregistered with the application, so that a redeployment can take the name again
+        Assertions.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName()));
+        server.stop();
+        server = null;
+        deployment = null;
+        client.close();
+    }
+
+    private static ObjectName objectName() throws Exception {
+        return new ObjectName("org.jboss.resteasy.cache:type=ServerCache,name=" + ObjectName.quote(NAME));
+    }
+
+    private static void get(String path) {
+        Response response = client.target(generateURL(path)).request().get();
+        Assertions.assertEquals(200, response.getStatus());
+        response.close();
+    }
+
+    @Test
+    public void testEndpointTemplates() {
+        DefaultCacheMetrics metrics = (DefaultCacheMetrics) deployment.getProviderFactory()
+                .getProperty(CacheMetrics.class.getName());
+        get("/metrics/orders/1");
+        get("/metrics/orders/1");
+        get("/metrics/orders/2");
+        get("/metrics/catalog");
+
+        Map<String, EndpointStatistics> endpoints = metrics.getEndpoints();
+
+        // the requests for every order count against the template of the resource method
+        EndpointStatistics orders = endpoints.get("/metrics/orders/{id}");
+        Assertions.assertNotNull(orders, endpoints.keySet().toString());
+        Assertions.assertTrue(orders.getHits() >= 1);
+        Assertions.assertTrue(orders.getMisses() >= 2);
+        Assertions.assertTrue(orders.getStores() >= 2);
+        Assertions.assertTrue(orders.getStoredBytes() > 0);
+        Assertions.assertTrue(orders.getMedianMissLatency() > 0);
+        EndpointStatistics catalog = endpoints.get("/metrics/catalog");
+        Assertions.assertNotNull(catalog, endpoints.keySet().toString());
+        Assertions.assertTrue(catalog.getMisses() >= 1);
+        Assertions.assertFalse(endpoints.containsKey("/metrics/orders/1"));
+    }
+
+    @Test
+    public void testMBean() throws Exception {
+        ObjectName name = objectName();
+        Assertions.assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        long hits = (Long) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Hits");
+
+        get("/metrics/orders/jmx");
+        get("/metrics/orders/jmx");
+
+        Assertions.assertEquals(hits + 1, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Hits"));
+    }
+}
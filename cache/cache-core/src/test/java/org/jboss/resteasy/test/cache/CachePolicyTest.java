@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import java.net.URI;
+
+import org.jboss.resteasy.plugins.cache.server.CacheKeyStrategy;
+import org.jboss.resteasy.plugins.cache.server.CachePolicy;
+import org.jboss.resteasy.plugins.cache.server.ServerCache;
+import org.jboss.resteasy.plugins.cache.server.ServerCached;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the resolution of {@link ServerCached} annotations into {@link CachePolicy} instances.
+ */
+public class CachePolicyTest {
+
+    @ServerCached(maxAge = 60)
+    public void defaults() {
+    }
+
+    @ServerCached(maxAge = 30, staleWhileRevalidate = 10, varyOn = { "Accept", "Accept-Language" }, keyParams = {
+            "id", "page.*" }, maxBodyBytes = 1024)
+    public void configured() {
+    }
+
+    @Test
+    public void testDefaults() throws Exception {
+        CachePolicy policy = CachePolicy.of(annotation("defaults"));
+
+        Assertions.assertEquals(60, policy.getCacheControl().getMaxAge());
+        Assertions.assertTrue(policy.getCacheControlHeader().contains("max-age=60"));
+        Assertions.assertNull(policy.getVary());
+        Assertions.assertEquals(-1, policy.getMaxBodyBytes());
+        // all the parameters are kept, so the fallback strategy creates the key
+        CacheKeyStrategy fallback = uri -> "fallback";
+        Assertions.assertEquals("fallback", policy.getKey(URI.create("http://localhost/r?a=1"), fallback));
+    }
+
+    @Test
+    public void testConfigured() throws Exception {
+        CachePolicy policy = CachePolicy.of(annotation("configured"));
+
+        Assertions.assertEquals(30, policy.getCacheControl().getMaxAge());
+        Assertions.assertEquals("10",
+                policy.getCacheControl().getCacheExtension().get(ServerCache.STALE_WHILE_REVALIDATE));
+        Assertions.assertTrue(policy.getCacheControlHeader().contains("max-age=30"));
+        Assertions.assertTrue(
+                policy.getCacheControlHeader().contains(ServerCache.STALE_WHILE_REVALIDATE + "=10"));
+        Assertions.assertEquals("Accept, Accept-Language", policy.getVary());
+        Assertions.assertEquals(1024, policy.getMaxBodyBytes());
+        Assertions.assertEquals("http://localhost/r?id=1&page.size=10",
+                policy.getKey(URI.create("http://localhost/r?utm_source=mail&page.size=10&id=1"),
+                        CacheKeyStrategy.VERBATIM));
+    }
+
+    private static ServerCached annotation(String method) throws NoSuchMethodException {
+        return CachePolicyTest.class.getMethod(method).getAnnotation(ServerCached.class);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import java.io.InvalidObjectException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+import org.jboss.resteasy.plugins.cache.server.CacheSnapshot;
+import org.jboss.resteasy.plugins.cache.server.CacheWarmer;
+import org.jboss.resteasy.plugins.cache.server.LocalServerCache;
+import org.jboss.resteasy.plugins.cache.server.ServerCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests that the {@link CacheWarmer} restores snapshots of the cache and replays the requests of a manifest.
+ */
+public class CacheWarmerTest {
+    private static final MultivaluedMap<String, String> NO_HEADERS = new MultivaluedHashMap<>();
+
+    @TempDir
+    Path directory;
+
+    private static void add(ServerCache cache, String uri, MediaType mediaType, String body) {
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.putSingle(HttpHeaders.CONTENT_TYPE, mediaType);
+        cache.add(uri, mediaType, CacheControl.valueOf("max-age=60, stale-while-revalidate=30"), headers,
+                body.getBytes(StandardCharsets.UTF_8), body, new MultivaluedHashMap<>());
+    }
+
+    private static String get(ServerCache cache, String uri, MediaType accept) {
+        ServerCache.Entry entry = cache.get(uri, accept, NO_HEADERS);
+        return entry == null ? null : new String(entry.getEntity().toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        LocalServerCache cache = new LocalServerCache(1024 * 1024);
+        add(cache, "/a", MediaType.TEXT_PLAIN_TYPE, "a plain");
+        add(cache, "/a", MediaType.APPLICATION_JSON_TYPE, "a json");
+        add(cache, "/b", MediaType.TEXT_PLAIN_TYPE, "b");
+        Path snapshot = directory.resolve("snapshots/cache.snapshot");
+
+        Assertions.assertEquals(2, CacheSnapshot.write(cache, snapshot));
+
+        LocalServerCache restored = new LocalServerCache(1024 * 1024);
+        Assertions.assertEquals(2, CacheSnapshot.read(restored, snapshot));
+        Assertions.assertEquals("a plain", get(restored, "/a", MediaType.TEXT_PLAIN_TYPE));
+        Assertions.assertEquals("a json", get(restored, "/a", MediaType.APPLICATION_JSON_TYPE));
+        Assertions.assertEquals("b", get(restored, "/b", MediaType.WILDCARD_TYPE));
+        ServerCache.Entry entry = restored.get("/b", MediaType.WILDCARD_TYPE, NO_HEADERS);
+        Assertions.assertEquals("b", entry.getEtag());
+        Assertions.assertEquals(30, entry.getStaleWhileRevalidate());
+        Assertions.assertTrue(entry.getExpirationInSeconds() > 50);
+        // the snapshot is written to a temporary file first
+        try (Stream<Path> files = Files.list(snapshot.getParent())) {
+            Assertions.assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void testRestore() throws Exception {
+        LocalServerCache cache = new LocalServerCache(1024 * 1024);
+        add(cache, "/a", MediaType.TEXT_PLAIN_TYPE, "a");
+        Path snapshot = directory.resolve("cache.snapshot");
+        new CacheWarmer(cache).writeSnapshot(snapshot);
+
+        LocalServerCache restored = new LocalServerCache(1024 * 1024);
+        CacheWarmer warmer = new CacheWarmer(restored);
+        warmer.restore(snapshot);
+
+        Assertions.assertEquals(1, warmer.getRestored());
+        Assertions.assertEquals("a", get(restored, "/a", MediaType.WILDCARD_TYPE));
+        Assertions.assertTrue(warmer.isReady());
+    }
+
+    @Test
+    public void testMissingOrInvalidSnapshot() throws Exception {
+        LocalServerCache cache = new LocalServerCache(1024 * 1024);
+        CacheWarmer warmer = new CacheWarmer(cache);
+        warmer.restore(directory.resolve("missing.snapshot"));
+        Assertions.assertEquals(0, warmer.getRestored());
+
+        Path invalid = directory.resolve("invalid.snapshot");
+        Files.write(invalid, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+        Assertions.assertThrows(InvalidObjectException.class, () -> CacheSnapshot.read(cache, invalid));
+        // skipped by the warmer, the node starts with an empty cache
+        warmer.restore(invalid);
+        Assertions.assertEquals(0, warmer.getRestored());
+    }
+
+    @Test
+    public void testReplay() throws Exception {
+        Map<String, String> requested = new ConcurrentHashMap<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().toString();
+            String accept = exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT);
+            requested.put(path, accept == null ? "" : accept);
+            exchange.sendResponseHeaders(path.startsWith("/app/missing") ? 404 : 200, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            URI baseUri = URI.create("http://localhost:" + server.getAddress().getPort() + "/app/");
+            Path manifest = directory.resolve("manifest.txt");
+            Files.write(manifest, List.of(
+                    "# the hottest resources",
+                    "orders?page=1",
+                    "",
+                    "  orders/42   application/json  ",
+                    "/app/customers text/plain",
+                    "missing"), StandardCharsets.UTF_8);
+
+            CacheWarmer warmer = new CacheWarmer(new LocalServerCache(1024 * 1024));
+            warmer.replay(manifest, baseUri, 2);
+            Assertions.assertEquals(4, warmer.getRequests());
+            for (int i = 0; i < 100 && !warmer.isReady(); i++) {
+                Thread.sleep(100);
+            }
+
+            Assertions.assertTrue(warmer.isReady());
+            Assertions.assertEquals(4, warmer.getCompleted());
+            Assertions.assertEquals(1, warmer.getFailed());
+            Assertions.assertEquals(1.0, warmer.getProgress());
+            Assertions.assertEquals(Map.of(
+                    "/app/orders?page=1", "",
+                    "/app/orders/42", "application/json",
+                    "/app/customers", "text/plain",
+                    "/app/missing", ""), requested);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testEmptyManifest() throws Exception {
+        Path manifest = directory.resolve("manifest.txt");
+        Files.write(manifest, List.of("# nothing yet"), StandardCharsets.UTF_8);
+
+        CacheWarmer warmer = new CacheWarmer(new LocalServerCache(1024 * 1024));
+        warmer.replay(manifest, URI.create("http://localhost:1/"), 2);
+
+        Assertions.assertTrue(warmer.isReady());
+        Assertions.assertEquals(0, warmer.getRequests());
+        Assertions.assertEquals(1.0, warmer.getProgress());
+    }
+}
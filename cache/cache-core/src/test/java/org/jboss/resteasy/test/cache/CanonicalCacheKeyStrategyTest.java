@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import java.net.URI;
+import java.util.List;
+
+import org.jboss.resteasy.plugins.cache.server.CacheKeyStrategy;
+import org.jboss.resteasy.plugins.cache.server.CanonicalCacheKeyStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that equivalent request URIs share a cache key with the {@link CanonicalCacheKeyStrategy}.
+ */
+public class CanonicalCacheKeyStrategyTest {
+
+    private static String key(CacheKeyStrategy strategy, String uri) {
+        return strategy.getKey(URI.create(uri));
+    }
+
+    @Test
+    public void testSchemeAndHostAreLowerCased() {
+        CacheKeyStrategy strategy = new CanonicalCacheKeyStrategy();
+        Assertions.assertEquals("http://example.com:8080/Path", key(strategy, "HTTP://Example.COM:8080/Path"));
+        Assertions.assertEquals("/relative/Path", key(strategy, "/relative/Path"));
+    }
+
+    @Test
+    public void testPercentEncodings() {
+        CacheKeyStrategy strategy = new CanonicalCacheKeyStrategy();
+        // unreserved characters are decoded
+        Assertions.assertEquals(key(strategy, "http://localhost/a~b-c"), key(strategy, "http://localhost/%61%7Eb%2dc"));
+        // the hex digits of the other ones are upper cased
+        Assertions.assertEquals("http://localhost/a%2Fb?q=x%3Fy", key(strategy, "http://localhost/a%2fb?q=x%3fy"));
+        // an encoded percent sign stays encoded
+        Assertions.assertEquals("/100%25", key(strategy, "/100%25"));
+    }
+
+    @Test
+    public void testParametersAreSorted() {
+        CacheKeyStrategy strategy = new CanonicalCacheKeyStrategy();
+        Assertions.assertEquals("http://localhost/r?a=1&b=2&c=3", key(strategy, "http://localhost/r?c=3&a=1&b=2"));
+        // repeated parameters keep their order
+        Assertions.assertEquals("http://localhost/r?a=2&a=1&b", key(strategy, "http://localhost/r?b&a=2&a=1"));
+        // empty parameters are dropped
+        Assertions.assertEquals("http://localhost/r?a=1", key(strategy, "http://localhost/r?&a=1&&"));
+        Assertions.assertEquals("http://localhost/r", key(strategy, "http://localhost/r?"));
+    }
+
+    @Test
+    public void testIgnoredParameters() {
+        CacheKeyStrategy strategy = new CanonicalCacheKeyStrategy(List.of("utm_*", "fbclid"));
+        Assertions.assertEquals("http://localhost/r?id=1",
+                key(strategy, "http://localhost/r?utm_source=mail&id=1&fbclid=x&utm_medium=web"));
+        Assertions.assertEquals("http://localhost/r", key(strategy, "http://localhost/r?utm_source=mail"));
+        Assertions.assertEquals("http://localhost/r?utm=1", key(strategy, "http://localhost/r?utm=1"));
+    }
+
+    @Test
+    public void testKeptParameters() {
+        CacheKeyStrategy strategy = CanonicalCacheKeyStrategy.keeping(List.of("id", "page.*"));
+        Assertions.assertEquals("http://localhost/r?id=1&page.size=10",
+                key(strategy, "http://localhost/r?page.size=10&session=abc&id=1&idx=2"));
+        Assertions.assertEquals("http://localhost/r", key(strategy, "http://localhost/r?session=abc"));
+    }
+}
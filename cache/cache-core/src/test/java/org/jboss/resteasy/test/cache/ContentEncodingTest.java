@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.HttpHeaders;
+
+import org.jboss.resteasy.annotations.cache.Cache;
+import org.jboss.resteasy.plugins.cache.server.CachedEntity;
+import org.jboss.resteasy.plugins.cache.server.EncodedEntity;
+import org.jboss.resteasy.plugins.cache.server.SegmentedEntity;
+import org.jboss.resteasy.plugins.cache.server.ServerCacheFeature;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.jboss.resteasy.test.TestPortProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+
+/**
+ * Tests that cached responses are stored in the configured content codings and served in the one negotiated by the
+ * {@code Accept-Encoding} header of each request.
+ */
+@EnabledOnJre({
+        JRE.JAVA_11,
+        JRE.JAVA_17,
+        JRE.JAVA_21,
+})
+public class ContentEncodingTest {
+    private static final String TEXT = "The quick brown fox jumps over the lazy dog. ".repeat(200);
+
+    private static NettyJaxrsServer server;
+    private static ResteasyDeployment deployment;
+    private static HttpClient client;
+    private static final AtomicInteger textCount = new AtomicInteger();
+    private static final AtomicInteger shortCount = new AtomicInteger();
+    private static final AtomicInteger validatedCount = new AtomicInteger();
+
+    @Path("/encoded")
+    public static class EncodedResource {
+        @GET
+        @Produces("text/plain")
+        @Cache(maxAge = 60)
+        public String get() {
+            textCount.incrementAndGet();
+            return TEXT;
+        }
+
+        @GET
+        @Produces("text/plain")
+        @Path("short")
+        @Cache(maxAge = 60)
+        public String getShort() {
+            shortCount.incrementAndGet();
+            return "short";
+        }
+
+        @GET
+        @Produces("text/plain")
+        @Path("validated")
+        @Cache(maxAge = 60)
+        public String getValidated() {
+            validatedCount.incrementAndGet();
+            return TEXT;
+        }
+    }
+
+    @BeforeAll
+    public static void beforeClass() {
+        server = new NettyJaxrsServer();
+        server.setPort(TestPortProvider.getPort());
+        server.setRootResourcePath("/");
+        deployment = server.getDeployment();
+        server.start();
+        deployment.getProviderFactory().property(ServerCacheFeature.CONTENT_CODINGS, "gzip, deflate");
+        deployment.getProviderFactory().register(ServerCacheFeature.class);
+        deployment.getRegistry().addPerRequestResource(EncodedResource.class);
+        // the JAX-RS client could decode the entity itself, the raw bytes are compared here
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        server.stop();
+        server = null;
+        deployment = null;
+    }
+
+    private static HttpResponse<byte[]> get(String path, String acceptEncoding) throws Exception {
+        HttpResponse<byte[]> response = acceptEncoding == null ? send(path)
+                : send(path, HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        Assertions.assertEquals(200, response.statusCode());
+        return response;
+    }
+
+    private static HttpResponse<byte[]> send(String path, String... headers) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(generateURL(path))).GET();
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * Waits until a resource is served from the cache: the entity of a miss is stored once it is encoded.
+     *
+     * @return the number of times the resource method was called
+     */
+    private static int awaitStored(String path, AtomicInteger count) throws Exception {
+        for (int i = 0; i < 50; i++) {
+            int misses = count.get();
+            get(path, null);
+            if (count.get() == misses)
+                return misses;
+            Thread.sleep(100);
+        }
+        throw new AssertionError(path + " was not cached");
+    }
+
+    private static String getETag(HttpResponse<byte[]> response) {
+        return response.headers().firstValue(HttpHeaders.ETAG).orElse(null);
+    }
+
+    private static String decode(HttpResponse<byte[]> response) throws IOException {
+        String contentEncoding = response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null);
+        InputStream in = new ByteArrayInputStream(response.body());
+        if (EncodedEntity.GZIP.equals(contentEncoding)) {
+            in = new GZIPInputStream(in);
+        } else if (EncodedEntity.DEFLATE.equals(contentEncoding)) {
+            in = new InflaterInputStream(in);
+        } else {
+            Assertions.assertNull(contentEncoding);
+        }
+        try (InputStream decoded = in) {
+            return new String(decoded.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String getContentEncoding(HttpResponse<byte[]> response) {
+        return response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null);
+    }
+
+    private static boolean isVaryOnEncoding(HttpResponse<byte[]> response) {
+        for (String vary : response.headers().allValues(HttpHeaders.VARY)) {
+            for (String name : vary.split(",")) {
+                if (name.trim().equalsIgnoreCase(HttpHeaders.ACCEPT_ENCODING))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testEncode() throws Exception {
+        CachedEntity entity = SegmentedEntity.wrap(TEXT.getBytes(StandardCharsets.UTF_8));
+
+        CachedEntity encoded = EncodedEntity.encode(entity, List.of(EncodedEntity.GZIP, EncodedEntity.DEFLATE));
+
+        Assertions.assertTrue(encoded instanceof EncodedEntity);
+        Assertions.assertEquals(entity.getLength(), encoded.getLength());
+        Assertions.assertArrayEquals(entity.toByteArray(), encoded.toByteArray());
+        CachedEntity gzip = encoded.getEncoding(EncodedEntity.GZIP);
+        Assertions.assertTrue(gzip.getLength() < entity.getLength());
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.toByteArray()))) {
+            Assertions.assertEquals(TEXT, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        CachedEntity deflate = encoded.getEncoding(EncodedEntity.DEFLATE);
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(deflate.toByteArray()))) {
+            Assertions.assertEquals(TEXT, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testCompressionLevel() throws Exception {
+        CachedEntity entity = SegmentedEntity.wrap(TEXT.getBytes(StandardCharsets.UTF_8));
+
+        CachedEntity fastest = EncodedEntity.encode(entity, List.of(EncodedEntity.GZIP), Deflater.BEST_SPEED);
+        CachedEntity smallest = EncodedEntity.encode(entity, List.of(EncodedEntity.GZIP), Deflater.BEST_COMPRESSION);
+
+        Assertions.assertTrue(smallest.getEncoding(EncodedEntity.GZIP).getLength()
+                <= fastest.getEncoding(EncodedEntity.GZIP).getLength());
+        try (InputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(fastest.getEncoding(EncodedEntity.GZIP).toByteArray()))) {
+            Assertions.assertEquals(TEXT, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testLargerEncodingsAreNotKept() throws Exception {
+        CachedEntity entity = SegmentedEntity.wrap("short".getBytes(StandardCharsets.UTF_8));
+
+        Assertions.assertSame(entity, EncodedEntity.encode(entity, List.of(EncodedEntity.GZIP)));
+        Assertions.assertTrue(EncodedEntity.isSupported(EncodedEntity.DEFLATE));
+        Assertions.assertFalse(EncodedEntity.isSupported("br"));
+    }
+
+    @Test
+    public void testNegotiation() throws Exception {
+        // the miss is served as the resource method produced it
+        Assertions.assertEquals(TEXT, decode(get("/encoded", "gzip")));
+        int misses = awaitStored("/encoded", textCount);
+
+        HttpResponse<byte[]> response = get("/encoded", "gzip");
+        Assertions.assertEquals(EncodedEntity.GZIP, getContentEncoding(response));
+        Assertions.assertTrue(response.body().length < TEXT.length());
+        Assertions.assertTrue(isVaryOnEncoding(response));
+        Assertions.assertEquals(TEXT, decode(response));
+
+        response = get("/encoded", "deflate");
+        Assertions.assertEquals(EncodedEntity.DEFLATE, getContentEncoding(response));
+        Assertions.assertEquals(TEXT, decode(response));
+
+        response = get("/encoded", "deflate;q=0.5, gzip;q=0.8");
+        Assertions.assertEquals(EncodedEntity.GZIP, getContentEncoding(response));
+        Assertions.assertEquals(TEXT, decode(response));
+
+        response = get("/encoded", "*");
+        Assertions.assertEquals(EncodedEntity.GZIP, getContentEncoding(response));
+
+        response = get("/encoded", "br");
+        Assertions.assertNull(getContentEncoding(response));
+        Assertions.assertEquals(TEXT, new String(response.body(), StandardCharsets.UTF_8));
+
+        response = get("/encoded", "gzip;q=0.5, identity");
+        Assertions.assertNull(getContentEncoding(response));
+        Assertions.assertTrue(isVaryOnEncoding(response));
+        Assertions.assertEquals(TEXT, new String(response.body(), StandardCharsets.UTF_8));
+
+        response = get("/encoded", null);
+        Assertions.assertNull(getContentEncoding(response));
+        Assertions.assertEquals(TEXT, new String(response.body(), StandardCharsets.UTF_8));
+
+        // all served from the one cached entry
+        Assertions.assertEquals(misses, textCount.get());
+    }
+
+    @Test
+    public void testIncompressibleResponse() throws Exception {
+        Assertions.assertEquals("short", decode(get("/encoded/short", "gzip")));
+        int misses = awaitStored("/encoded/short", shortCount);
+
+        HttpResponse<byte[]> response = get("/encoded/short", "gzip");
+        Assertions.assertNull(getContentEncoding(response));
+        Assertions.assertEquals("short", new String(response.body(), StandardCharsets.UTF_8));
+        Assertions.assertEquals(misses, shortCount.get());
+    }
+
+    @Test
+    public void testETagPerContentCoding() throws Exception {
+        get("/encoded/validated", null);
+        int misses = awaitStored("/encoded/validated", validatedCount);
+
+        String identity = getETag(get("/encoded/validated", null));
+        HttpResponse<byte[]> gzip = get("/encoded/validated", "gzip");
+        Assertions.assertEquals(EncodedEntity.GZIP, getContentEncoding(gzip));
+        String gzipETag = getETag(gzip);
+        String deflateETag = getETag(get("/encoded/validated", "deflate"));
+        Assertions.assertNotNull(identity);
+        Assertions.assertNotEquals(identity, gzipETag);
+        Assertions.assertNotEquals(identity, deflateETag);
+        Assertions.assertNotEquals(gzipETag, deflateETag);
+
+        // each encoding is revalidated by its own ETag
+        HttpResponse<byte[]> response = send("/encoded/validated", HttpHeaders.ACCEPT_ENCODING, "gzip",
+                HttpHeaders.IF_NONE_MATCH, gzipETag);
+        Assertions.assertEquals(304, response.statusCode());
+        Assertions.assertEquals(gzipETag, getETag(response));
+        response = send("/encoded/validated", HttpHeaders.ACCEPT_ENCODING, "gzip", HttpHeaders.IF_NONE_MATCH, identity);
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals(EncodedEntity.GZIP, getContentEncoding(response));
+
+        // ranges are served from the identity encoding, If-Range only matches its ETag
+        response = send("/encoded/validated", HttpHeaders.ACCEPT_ENCODING, "gzip", "Range", "bytes=0-2",
+                "If-Range", gzipETag);
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals(EncodedEntity.GZIP, getContentEncoding(response));
+        Assertions.assertEquals(TEXT, decode(response));
+        response = send("/encoded/validated", HttpHeaders.ACCEPT_ENCODING, "gzip", "Range", "bytes=0-2",
+                "If-Range", identity);
+        Assertions.assertEquals(206, response.statusCode());
+        Assertions.assertNull(getContentEncoding(response));
+        Assertions.assertEquals(TEXT.substring(0, 3), new String(response.body(), StandardCharsets.UTF_8));
+        Assertions.assertEquals(misses, validatedCount.get());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import java.util.Map;
+
+import org.jboss.resteasy.plugins.cache.server.DefaultCacheMetrics;
+import org.jboss.resteasy.plugins.cache.server.EndpointStatistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the counters of the {@link DefaultCacheMetrics}, in total and per endpoint.
+ */
+public class DefaultCacheMetricsTest {
+
+    @Test
+    public void testTotals() {
+        DefaultCacheMetrics metrics = new DefaultCacheMetrics();
+        Assertions.assertEquals(0.0, metrics.getHitRatio());
+
+        metrics.hit("/orders/{id}");
+        metrics.hit("/orders/{id}");
+        metrics.staleHit("/orders/{id}");
+        metrics.notModified("/orders/{id}");
+        metrics.miss("/orders/{id}");
+        metrics.miss(null);
+        metrics.stored("/orders/{id}", 100, 4000);
+        metrics.stored(null, 50, 8000);
+        metrics.rejected("/orders/{id}");
+        metrics.evicted(30);
+        metrics.hashed(2000);
+        metrics.hashed(4000);
+
+        Assertions.assertEquals(2, metrics.getHits());
+        Assertions.assertEquals(1, metrics.getStaleHits());
+        Assertions.assertEquals(1, metrics.getNotModified());
+        Assertions.assertEquals(2, metrics.getMisses());
+        // stale hits are hits, revalidations are not requests to the cache
+        Assertions.assertEquals(0.6, metrics.getHitRatio(), 0.0001);
+        Assertions.assertEquals(2, metrics.getStores());
+        Assertions.assertEquals(150, metrics.getStoredBytes());
+        Assertions.assertEquals(1, metrics.getRejects());
+        Assertions.assertEquals(1, metrics.getEvictions());
+        Assertions.assertEquals(30, metrics.getEvictedBytes());
+        Assertions.assertEquals(3.0, metrics.getMeanHashTime(), 0.0001);
+        Assertions.assertEquals(2, metrics.getMissLatency().getCount());
+        Assertions.assertEquals(6000, metrics.getMissLatency().getMean());
+    }
+
+    @Test
+    public void testEndpoints() {
+        DefaultCacheMetrics metrics = new DefaultCacheMetrics();
+        metrics.hit("/orders/{id}");
+        metrics.miss("/orders/{id}");
+        metrics.stored("/orders/{id}", 100, 4000);
+        metrics.miss("/customers");
+        metrics.rejected("/customers");
+        // not counted against any endpoint
+        metrics.hit(null);
+
+        Map<String, EndpointStatistics> endpoints = metrics.getEndpoints();
+
+        Assertions.assertEquals(2, endpoints.size());
+        // sorted by template
+        Assertions.assertEquals("/customers", endpoints.keySet().iterator().next());
+        EndpointStatistics orders = endpoints.get("/orders/{id}");
+        Assertions.assertEquals(1, orders.getHits());
+        Assertions.assertEquals(1, orders.getMisses());
+        Assertions.assertEquals(1, orders.getStores());
+        Assertions.assertEquals(100, orders.getStoredBytes());
+        Assertions.assertEquals(0, orders.getRejects());
+        // in microseconds, the upper bound of the bucket holding 4000 nanoseconds
+        Assertions.assertEquals(4.0, orders.getMeanMissLatency(), 0.0001);
+        Assertions.assertEquals(4.095, orders.getMedianMissLatency(), 0.0001);
+        Assertions.assertEquals(4.095, orders.getP99MissLatency(), 0.0001);
+        EndpointStatistics customers = endpoints.get("/customers");
+        Assertions.assertEquals(1, customers.getMisses());
+        Assertions.assertEquals(1, customers.getRejects());
+        Assertions.assertEquals(0, customers.getHits());
+        Assertions.assertEquals(2, metrics.getHits());
+    }
+
+    @Test
+    public void testReset() {
+        DefaultCacheMetrics metrics = new DefaultCacheMetrics();
+        metrics.hit("/orders/{id}");
+        metrics.stored("/orders/{id}", 100, 4000);
+        metrics.evicted(100);
+        metrics.hashed(1000);
+
+        metrics.reset();
+
+        Assertions.assertEquals(0, metrics.getHits());
+        Assertions.assertEquals(0, metrics.getStores());
+        Assertions.assertEquals(0, metrics.getEvictions());
+        Assertions.assertEquals(0.0, metrics.getMeanHashTime());
+        Assertions.assertEquals(0, metrics.getMissLatency().getCount());
+        Assertions.assertTrue(metrics.getEndpoints().isEmpty());
+    }
+}
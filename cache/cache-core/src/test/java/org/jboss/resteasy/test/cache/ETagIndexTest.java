@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+import org.jboss.resteasy.plugins.cache.server.CachedValidator;
+import org.jboss.resteasy.plugins.cache.server.ETagIndex;
+import org.jboss.resteasy.plugins.cache.server.LocalServerCache;
+import org.jboss.resteasy.plugins.cache.server.SegmentedEntity;
+import org.jboss.resteasy.plugins.cache.server.ServerCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the {@link ETagIndex} keeps the validators of the cached variants, and drops them once they change.
+ */
+public class ETagIndexTest {
+    private static final MultivaluedMap<String, String> NO_HEADERS = new MultivaluedHashMap<>();
+
+    private LocalServerCache cache;
+    private ETagIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new LocalServerCache(1024 * 1024);
+        index = new ETagIndex(cache, 2);
+    }
+
+    private static void add(ServerCache cache, String uri, MediaType mediaType, String cacheControl, String etag) {
+        cache.add(uri, mediaType, CacheControl.valueOf(cacheControl), new MultivaluedHashMap<>(), new byte[10], etag,
+                new MultivaluedHashMap<>());
+    }
+
+    private String getEtag(String uri, MediaType accept, MultivaluedMap<String, String> headers) {
+        CachedValidator validator = index.getValidator(uri, accept, headers);
+        return validator == null ? null : validator.getEtag();
+    }
+
+    private String getEtag(String uri) {
+        return getEtag(uri, MediaType.WILDCARD_TYPE, NO_HEADERS);
+    }
+
+    @Test
+    public void testValidatorOfAddedVariant() {
+        add(index, "/a", MediaType.TEXT_PLAIN_TYPE, "max-age=60", "plain");
+
+        CachedValidator validator = index.getValidator("/a", MediaType.WILDCARD_TYPE, NO_HEADERS);
+        Assertions.assertEquals("plain", validator.getEtag());
+        Assertions.assertTrue(validator.getCacheControl().contains("max-age="));
+        Assertions.assertEquals(0, validator.getAgeInSeconds());
+        Assertions.assertFalse(validator.isExpired());
+        Assertions.assertNull(getEtag("/b"));
+    }
+
+    @Test
+    public void testVariants() {
+        add(index, "/a", MediaType.TEXT_PLAIN_TYPE, "max-age=60", "plain");
+        add(index, "/a", MediaType.APPLICATION_JSON_TYPE, "max-age=60", "json");
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.putSingle(HttpHeaders.VARY, "Accept-Language");
+        MultivaluedMap<String, String> german = new MultivaluedHashMap<>();
+        german.putSingle("Accept-Language", "de");
+        index.add("/a", MediaType.TEXT_HTML_TYPE, CacheControl.valueOf("max-age=60"), headers,
+                SegmentedEntity.wrap(new byte[10]), "html-de", german);
+
+        Assertions.assertEquals("plain", getEtag("/a", MediaType.TEXT_PLAIN_TYPE, NO_HEADERS));
+        Assertions.assertEquals("json", getEtag("/a", MediaType.APPLICATION_JSON_TYPE, NO_HEADERS));
+        Assertions.assertEquals("html-de", getEtag("/a", MediaType.TEXT_HTML_TYPE, german));
+        Assertions.assertNull(getEtag("/a", MediaType.TEXT_HTML_TYPE, NO_HEADERS));
+
+        // a replaced variant is answered with its new ETag
+        add(index, "/a", MediaType.TEXT_PLAIN_TYPE, "max-age=60", "plain2");
+        Assertions.assertEquals("plain2", getEtag("/a", MediaType.TEXT_PLAIN_TYPE, NO_HEADERS));
+        Assertions.assertEquals("json", getEtag("/a", MediaType.APPLICATION_JSON_TYPE, NO_HEADERS));
+    }
+
+    @Test
+    public void testLookupsAreIndexed() {
+        add(cache, "/a", MediaType.TEXT_PLAIN_TYPE, "max-age=60", "plain");
+        Assertions.assertNull(getEtag("/a"));
+
+        Assertions.assertNotNull(index.get("/a", MediaType.WILDCARD_TYPE, NO_HEADERS));
+
+        Assertions.assertEquals("plain", getEtag("/a"));
+    }
+
+    @Test
+    public void testEvictionKeepsValidator() {
+        add(index, "/a", MediaType.TEXT_PLAIN_TYPE, "max-age=60", "plain");
+
+        // evicted from the wrapped cache, the response of the resource method is still the same
+        cache.remove("/a");
+
+        Assertions.assertEquals("plain", getEtag("/a"));
+    }
+
+    @Test
+    public void testRemovalDropsValidator() throws Exception {
+        add(index, "/a", MediaType.TEXT_PLAIN_TYPE, "max-age=60", "plain");
+        index.remove("/a");
+        Assertions.assertNull(getEtag("/a"));
+
+        add(index, "/b", MediaType.TEXT_PLAIN_TYPE, "max-age=60", "plain");
+        index.removeAsync("/b").toCompletableFuture().get();
+        Assertions.assertNull(getEtag("/b"));
+
+        add(index, "/c", MediaType.TEXT_PLAIN_TYPE, "max-age=60", "plain");
+        index.clear();
+        Assertions.assertNull(getEtag("/c"));
+    }
+
+    @Test
+    public void testErrorResponseDropsValidator() {
+        add(index, "/a", MediaType.TEXT_PLAIN_TYPE, "max-age=60", "plain");
+
+        index.add("/a", 500, MediaType.TEXT_PLAIN_TYPE, CacheControl.valueOf("max-age=10"), new MultivaluedHashMap<>(),
+                SegmentedEntity.wrap(new byte[0]), "error", new MultivaluedHashMap<>());
+
+        Assertions.assertNull(getEtag("/a"));
+    }
+
+    @Test
+    public void testExpiredValidator() throws Exception {
+        add(index, "/a", MediaType.TEXT_PLAIN_TYPE, "max-age=1, stale-while-revalidate=30", "plain");
+        Assertions.assertEquals("plain", getEtag("/a"));
+
+        Thread.sleep(1100);
+
+        // a stale variant is revalidated by the resource method
+        Assertions.assertNull(getEtag("/a"));
+    }
+
+    @Test
+    public void testBounded() {
+        for (String uri : new String[] { "/a", "/b", "/c" }) {
+            add(index, uri, MediaType.TEXT_PLAIN_TYPE, "max-age=60", uri);
+        }
+
+        int indexed = 0;
+        for (String uri : new String[] { "/a", "/b", "/c" }) {
+            if (uri.equals(getEtag(uri))) {
+                indexed++;
+            }
+        }
+        Assertions.assertEquals(2, indexed);
+        Assertions.assertEquals("/c", getEtag("/c"));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.jboss.resteasy.plugins.cache.server.ETagStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link ETagStrategy} implementations against known hash values.
+ */
+public class ETagStrategyTest {
+
+    /**
+     * A strategy which hashes nothing, created by its class name.
+     */
+    public static class ConstantStrategy implements ETagStrategy {
+        @Override
+        public Hasher newHasher() {
+            return new Hasher() {
+                @Override
+                public void update(byte[] b, int off, int len) {
+                }
+
+                @Override
+                public String getValue() {
+                    return "constant";
+                }
+            };
+        }
+    }
+
+    private static String hash(ETagStrategy strategy, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ETagStrategy.Hasher hasher = strategy.newHasher();
+        hasher.update(bytes, 0, bytes.length);
+        return hasher.getValue();
+    }
+
+    @Test
+    public void testXxHash64() {
+        Assertions.assertEquals("EF46DB3751D8E999", hash(ETagStrategy.XXHASH64, ""));
+        Assertions.assertEquals("D24EC4F1A98C6E5B", hash(ETagStrategy.XXHASH64, "a"));
+        Assertions.assertEquals("44BC2CF5AD770999", hash(ETagStrategy.XXHASH64, "abc"));
+        Assertions.assertEquals("066ED728FCEEB3BE", hash(ETagStrategy.XXHASH64, "message digest"));
+        // longer than a stripe of 32 bytes
+        Assertions.assertEquals("FBCEA83C8A378BF1",
+                hash(ETagStrategy.XXHASH64, "Nobody inspects the spammish repetition"));
+    }
+
+    @Test
+    public void testMd5() {
+        Assertions.assertEquals("D41D8CD98F00B204E9800998ECF8427E", hash(ETagStrategy.MD5, ""));
+        Assertions.assertEquals("900150983CD24FB0D6963F7D28E17F72", hash(ETagStrategy.MD5, "abc"));
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        byte[] bytes = new byte[100_000];
+        new Random(42).nextBytes(bytes);
+        for (ETagStrategy strategy : new ETagStrategy[] { ETagStrategy.XXHASH64, ETagStrategy.MD5 }) {
+            ETagStrategy.Hasher whole = strategy.newHasher();
+            whole.update(bytes, 0, bytes.length);
+
+            // chunks of every length up to and across a stripe, and single bytes
+            ETagStrategy.Hasher chunked = strategy.newHasher();
+            int off = 0;
+            for (int len = 0; off < bytes.length; len = (len + 1) % 70) {
+                int count = Math.min(len, bytes.length - off);
+                chunked.update(bytes, off, count);
+                off += count;
+            }
+            Assertions.assertEquals(whole.getValue(), chunked.getValue());
+        }
+    }
+
+    @Test
+    public void testForName() {
+        Assertions.assertSame(ETagStrategy.XXHASH64, ETagStrategy.forName("xxhash64"));
+        Assertions.assertSame(ETagStrategy.XXHASH64, ETagStrategy.forName("xxHash64"));
+        Assertions.assertSame(ETagStrategy.MD5, ETagStrategy.forName("MD5"));
+        Assertions.assertEquals("constant", hash(ETagStrategy.forName(ConstantStrategy.class.getName()), "abc"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ETagStrategy.forName("sha1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ETagStrategy.forName(String.class.getName()));
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import org.jboss.resteasy.plugins.cache.server.ServerCacheFeature;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.jboss.resteasy.test.TestPortProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+
+/**
+ * Tests that error responses are cached for the configured times to live and replayed with their status.
+ */
+@EnabledOnJre({
+        JRE.JAVA_11,
+        JRE.JAVA_17,
+        JRE.JAVA_21,
+})
+public class ErrorResponseCacheTest {
+    private static NettyJaxrsServer server;
+    private static ResteasyDeployment deployment;
+    private static Client client;
+    private static final AtomicInteger missingCount = new AtomicInteger();
+    private static final AtomicInteger emptyCount = new AtomicInteger();
+    private static final AtomicInteger cappedCount = new AtomicInteger();
+    private static final AtomicInteger errorCount = new AtomicInteger();
+    private static final AtomicInteger conflictCount = new AtomicInteger();
+
+    @Path("/errors")
+    public static class ErrorResource {
+        @GET
+        @Path("missing")
+        public Response missing() {
+            missingCount.incrementAndGet();
+            return Response.status(Response.Status.NOT_FOUND).entity("missing").type(MediaType.TEXT_PLAIN_TYPE).build();
+        }
+
+        @GET
+        @Path("empty")
+        public Response empty() {
+            emptyCount.incrementAndGet();
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+
+        @GET
+        @Path("capped")
+        public Response capped() {
+            cappedCount.incrementAndGet();
+            CacheControl cacheControl = new CacheControl();
+            cacheControl.setMaxAge(3600);
+            return Response.status(Response.Status.NOT_FOUND).entity("capped").type(MediaType.TEXT_PLAIN_TYPE)
+                    .cacheControl(cacheControl).build();
+        }
+
+        @GET
+        @Path("error")
+        public Response error() {
+            errorCount.incrementAndGet();
+            CacheControl cacheControl = new CacheControl();
+            cacheControl.setMaxAge(60);
+            return Response.serverError().entity("error").type(MediaType.TEXT_PLAIN_TYPE).cacheControl(cacheControl)
+                    .build();
+        }
+
+        @GET
+        @Path("conflict")
+        public Response conflict() {
+            conflictCount.incrementAndGet();
+            return Response.status(409).entity("conflict").type(MediaType.TEXT_PLAIN_TYPE)
+                    .build();
+        }
+    }
+
+    @BeforeAll
+    public static void beforeClass() {
+        server = new NettyJaxrsServer();
+        server.setPort(TestPortProvider.getPort());
+        server.setRootResourcePath("/");
+        deployment = server.getDeployment();
+        server.start();
+        deployment.getProviderFactory().property(ServerCacheFeature.CACHE_TYPE, "local");
+        deployment.getProviderFactory().property(ServerCacheFeature.NEGATIVE_TTLS, "404=60,5xx=0");
+        deployment.getProviderFactory().register(ServerCacheFeature.class);
+        deployment.getRegistry().addPerRequestResource(ErrorResource.class);
+        client = ClientBuilder.newClient();
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        server.stop();
+        server = null;
+        deployment = null;
+        client.close();
+    }
+
+    @Test
+    public void testStatusReplayed() {
+        for (int i = 0; i < 2; i++) {
+            Response response = client.target(generateURL("/errors/missing")).request().get();
+            Assertions.assertEquals(404, response.getStatus());
+            Assertions.assertEquals("missing", response.readEntity(String.class));
+            Assertions.assertTrue(response.getHeaderString(HttpHeaders.CACHE_CONTROL).contains("max-age"));
+        }
+        Assertions.assertEquals(1, missingCount.get());
+    }
+
+    @Test
+    public void testWithoutEntity() {
+        for (int i = 0; i < 2; i++) {
+            Response response = client.target(generateURL("/errors/empty")).request().get();
+            Assertions.assertEquals(404, response.getStatus());
+            response.close();
+        }
+        Assertions.assertEquals(1, emptyCount.get());
+    }
+
+    @Test
+    public void testMaxAgeCapped() {
+        Response response = client.target(generateURL("/errors/capped")).request().get();
+        Assertions.assertEquals(404, response.getStatus());
+        Assertions.assertEquals("capped", response.readEntity(String.class));
+        Assertions.assertEquals(60, CacheControl.valueOf(response.getHeaderString(HttpHeaders.CACHE_CONTROL))
+                .getMaxAge());
+
+        response = client.target(generateURL("/errors/capped")).request().get();
+        Assertions.assertEquals(404, response.getStatus());
+        Assertions.assertEquals("capped", response.readEntity(String.class));
+        Assertions.assertTrue(CacheControl.valueOf(response.getHeaderString(HttpHeaders.CACHE_CONTROL))
+                .getMaxAge() <= 60);
+        Assertions.assertEquals(1, cappedCount.get());
+    }
+
+    @Test
+    public void testZeroTtlNotCached() {
+        for (int i = 0; i < 2; i++) {
+            Response response = client.target(generateURL("/errors/error")).request().get();
+            Assertions.assertEquals(500, response.getStatus());
+            response.close();
+        }
+        Assertions.assertEquals(2, errorCount.get());
+    }
+
+    @Test
+    public void testUnconfiguredStatusNotCached() {
+        for (int i = 0; i < 2; i++) {
+            Response response = client.target(generateURL("/errors/conflict")).request().get();
+            Assertions.assertEquals(409, response.getStatus());
+            response.close();
+        }
+        Assertions.assertEquals(2, conflictCount.get());
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.HttpHeaders;
+
+import org.jboss.resteasy.annotations.cache.Cache;
+import org.jboss.resteasy.plugins.cache.server.ServerCacheFeature;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.jboss.resteasy.test.TestPortProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+
+/**
+ * Tests that {@code HEAD} requests are answered with the headers of the cached {@code GET} response.
+ */
+@EnabledOnJre({
+        JRE.JAVA_11,
+        JRE.JAVA_17,
+        JRE.JAVA_21,
+})
+public class HeadRequestTest {
+    private static final String ENTITY = "h\u00e9ad";
+
+    private static NettyJaxrsServer server;
+    private static ResteasyDeployment deployment;
+    private static HttpClient client;
+    private static final AtomicInteger cachedCount = new AtomicInteger();
+    private static final AtomicInteger missCount = new AtomicInteger();
+
+    @Path("/head")
+    public static class HeadResource {
+        @GET
+        @Path("cached")
+        @Produces("text/plain;charset=UTF-8")
+        @Cache(maxAge = 60)
+        public String cached() {
+            cachedCount.incrementAndGet();
+            return ENTITY;
+        }
+
+        @GET
+        @Path("miss")
+        @Produces("text/plain;charset=UTF-8")
+        @Cache(maxAge = 60)
+        public String miss() {
+            missCount.incrementAndGet();
+            return ENTITY;
+        }
+    }
+
+    @BeforeAll
+    public static void beforeClass() {
+        server = new NettyJaxrsServer();
+        server.setPort(TestPortProvider.getPort());
+        server.setRootResourcePath("/");
+        deployment = server.getDeployment();
+        server.start();
+        deployment.getProviderFactory().property(ServerCacheFeature.CACHE_TYPE, "local");
+        deployment.getProviderFactory().register(ServerCacheFeature.class);
+        deployment.getRegistry().addPerRequestResource(HeadResource.class);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        server.stop();
+        server = null;
+        deployment = null;
+        client = null;
+    }
+
+    @Test
+    public void testHeadFromCachedGet() throws Exception {
+        HttpResponse<byte[]> get = send("/head/cached", "GET");
+        Assertions.assertEquals(200, get.statusCode());
+        Assertions.assertEquals(ENTITY, new String(get.body(), StandardCharsets.UTF_8));
+        String etag = get.headers().firstValue(HttpHeaders.ETAG).orElse(null);
+        Assertions.assertNotNull(etag);
+
+        HttpResponse<byte[]> head = send("/head/cached", "HEAD");
+        Assertions.assertEquals(200, head.statusCode());
+        Assertions.assertEquals(0, head.body().length);
+        Assertions.assertEquals(etag, head.headers().firstValue(HttpHeaders.ETAG).orElse(null));
+        Assertions.assertEquals(Integer.toString(ENTITY.getBytes(StandardCharsets.UTF_8).length),
+                head.headers().firstValue(HttpHeaders.CONTENT_LENGTH).orElse(null));
+        Assertions.assertTrue(head.headers().firstValue(HttpHeaders.CONTENT_TYPE).orElse("").startsWith("text/plain"));
+        Assertions.assertTrue(head.headers().firstValue(HttpHeaders.CACHE_CONTROL).isPresent());
+        Assertions.assertEquals(1, cachedCount.get());
+    }
+
+    @Test
+    public void testHeadMissFallsThrough() throws Exception {
+        HttpResponse<byte[]> head = send("/head/miss", "HEAD");
+        Assertions.assertEquals(200, head.statusCode());
+        Assertions.assertEquals(0, head.body().length);
+        Assertions.assertEquals(1, missCount.get());
+
+        // the response to a HEAD request is not stored
+        Assertions.assertEquals(ENTITY, new String(send("/head/miss", "GET").body(), StandardCharsets.UTF_8));
+        Assertions.assertEquals(2, missCount.get());
+    }
+
+    private static HttpResponse<byte[]> send(String path, String method) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(generateURL(path)))
+                .method(method, HttpRequest.BodyPublishers.noBody()).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.jboss.resteasy.plugins.cache.server.InfinispanCache;
+import org.jboss.resteasy.plugins.cache.server.ServerCache;
+import org.jboss.resteasy.plugins.cache.server.VariantGroup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the {@link InfinispanCache} stores all the variants of a resource in a single {@link VariantGroup}.
+ */
+public class InfinispanCacheTest {
+    private static final MultivaluedMap<String, String> NO_HEADERS = new MultivaluedHashMap<>();
+
+    private DefaultCacheManager manager;
+    private Cache<Object, Object> groups;
+    private InfinispanCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        manager = new DefaultCacheManager();
+        manager.defineConfiguration("test", new ConfigurationBuilder().build());
+        groups = manager.getCache("test");
+        cache = new InfinispanCache(groups);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        manager.stop();
+    }
+
+    private static ServerCache.Entry add(ServerCache cache, String mediaType, int maxAge, String body) {
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.putSingle(HttpHeaders.CONTENT_TYPE, mediaType);
+        CacheControl cc = new CacheControl();
+        cc.setMaxAge(maxAge);
+        return cache.add("/resource", MediaType.valueOf(mediaType), cc, headers, body.getBytes(), body,
+                new MultivaluedHashMap<>());
+    }
+
+    @Test
+    public void testVariantsAreStoredInOneGroup() {
+        add(cache, "text/plain", 60, "plain");
+        add(cache, "text/html", 60, "html");
+
+        Assertions.assertEquals(1, groups.size());
+        VariantGroup group = (VariantGroup) groups.get("/resource");
+        Assertions.assertEquals(2, group.size());
+        // the newest variant first
+        Assertions.assertEquals("html", group.getEntry(0).getEtag());
+        Assertions.assertEquals("plain", cache.get("/resource", MediaType.valueOf("text/plain"), NO_HEADERS)
+                .getEtag());
+        Assertions.assertEquals("html", cache.get("/resource", MediaType.valueOf("text/html"), NO_HEADERS)
+                .getEtag());
+        Assertions.assertNull(cache.get("/resource", MediaType.valueOf("application/json"), NO_HEADERS));
+    }
+
+    @Test
+    public void testSameVariantIsReplaced() {
+        add(cache, "text/plain", 60, "first");
+        add(cache, "text/plain", 60, "second");
+
+        Assertions.assertEquals(1, ((VariantGroup) groups.get("/resource")).size());
+        Assertions.assertEquals("second", cache.get("/resource", MediaType.WILDCARD_TYPE, NO_HEADERS).getEtag());
+    }
+
+    @Test
+    public void testGroupLivesAsLongAsItsLongestVariant() throws Exception {
+        add(cache, "text/html", 60, "html");
+        add(cache, "text/plain", 1, "plain");
+
+        Thread.sleep(1100);
+
+        Assertions.assertNull(cache.get("/resource", MediaType.valueOf("text/plain"), NO_HEADERS));
+        Assertions.assertEquals("html", cache.get("/resource", MediaType.valueOf("text/html"), NO_HEADERS)
+                .getEtag());
+
+        // the expired variant is dropped from the group by the next add
+        add(cache, "application/json", 60, "json");
+        VariantGroup group = (VariantGroup) groups.get("/resource");
+        Assertions.assertEquals(2, group.size());
+        Assertions.assertEquals(60, group.getRetentionInSeconds(), 1);
+    }
+
+    @Test
+    public void testExpiredEntryRemovesTheGroup() {
+        add(cache, "text/plain", 60, "plain");
+        ServerCache.Entry entry = add(cache, "text/plain", 0, "expired");
+
+        Assertions.assertTrue(entry.isExpired());
+        Assertions.assertNull(groups.get("/resource"));
+    }
+
+    @Test
+    public void testConcurrentAddsKeepAllVariants() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> adds = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String mediaType = "application/x-variant-" + i;
+                adds.add(executor.submit(() -> {
+                    start.await();
+                    return add(cache, mediaType, 60, mediaType);
+                }));
+            }
+            start.countDown();
+            for (Future<?> add : adds) {
+                add.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertEquals(threads, ((VariantGroup) groups.get("/resource")).size());
+        for (int i = 0; i < threads; i++) {
+            String mediaType = "application/x-variant-" + i;
+            Assertions.assertEquals(mediaType, cache.get("/resource", MediaType.valueOf(mediaType), NO_HEADERS)
+                    .getEtag());
+        }
+    }
+
+    @Test
+    public void testRemove() {
+        add(cache, "text/plain", 60, "plain");
+        add(cache, "text/html", 60, "html");
+
+        cache.remove("/resource");
+
+        Assertions.assertNull(cache.get("/resource", MediaType.WILDCARD_TYPE, NO_HEADERS));
+        Assertions.assertTrue(groups.isEmpty());
+    }
+}
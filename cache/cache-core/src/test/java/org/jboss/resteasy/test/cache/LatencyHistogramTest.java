@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import org.jboss.resteasy.plugins.cache.server.LatencyHistogram;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the buckets and percentiles of the {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest {
+
+    private static long bucketOf(long value) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(value);
+        return histogram.getPercentile(100);
+    }
+
+    @Test
+    public void testSmallValues() {
+        // one bucket per value below four
+        for (long value = 0; value < 8; value++) {
+            Assertions.assertEquals(value, bucketOf(value));
+        }
+        Assertions.assertEquals(9, bucketOf(8));
+        Assertions.assertEquals(9, bucketOf(9));
+        Assertions.assertEquals(11, bucketOf(10));
+    }
+
+    @Test
+    public void testPowersOfTwo() {
+        for (int exponent = 2; exponent < 63; exponent++) {
+            long value = 1L << exponent;
+            long width = 1L << (exponent - 2);
+            // a quarter of the power of two wide
+            Assertions.assertEquals(value + width - 1, bucketOf(value));
+            Assertions.assertEquals(value + width - 1, bucketOf(value + width - 1));
+            Assertions.assertEquals(value - 1, bucketOf(value - 1));
+        }
+    }
+
+    @Test
+    public void testBoundsHoldValue() {
+        for (long value = 0; value < 100_000; value += 7) {
+            long bound = bucketOf(value);
+            Assertions.assertTrue(bound >= value && bound <= value + value / 4, value + " -> " + bound);
+        }
+    }
+
+    @Test
+    public void testLargestValue() {
+        Assertions.assertEquals(Long.MAX_VALUE, bucketOf(Long.MAX_VALUE));
+        Assertions.assertEquals(Long.MAX_VALUE, bucketOf(Long.MAX_VALUE - 1));
+        Assertions.assertEquals(Long.MAX_VALUE, bucketOf(7L << 60));
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assertions.assertEquals(0, histogram.getPercentile(50));
+        Assertions.assertEquals(0, histogram.getMean());
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-1);
+
+        Assertions.assertEquals(100, histogram.getCount());
+        Assertions.assertEquals(50, histogram.getMean());
+        Assertions.assertEquals(1, histogram.getPercentile(0));
+        Assertions.assertEquals(1, histogram.getPercentile(1));
+        // the 50th value is in the bucket from 48 to 55, the 99th and 100th in the one from 96 to 111
+        Assertions.assertEquals(55, histogram.getPercentile(50));
+        Assertions.assertEquals(111, histogram.getPercentile(99));
+        Assertions.assertEquals(111, histogram.getPercentile(100));
+
+        histogram.reset();
+        Assertions.assertEquals(0, histogram.getCount());
+        Assertions.assertEquals(0, histogram.getPercentile(99));
+    }
+}
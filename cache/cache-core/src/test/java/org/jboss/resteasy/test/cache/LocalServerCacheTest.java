@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+import org.jboss.resteasy.plugins.cache.server.DefaultCacheMetrics;
+import org.jboss.resteasy.plugins.cache.server.LocalServerCache;
+import org.jboss.resteasy.plugins.cache.server.ServerCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the W-TinyLFU eviction and the expiry of the {@link LocalServerCache}.
+ */
+public class LocalServerCacheTest {
+    private static final MultivaluedMap<String, String> NO_HEADERS = new MultivaluedHashMap<>();
+    private static final int ENTITY_SIZE = 1024;
+
+    private DefaultCacheMetrics metrics;
+
+    @BeforeEach
+    public void setUp() {
+        metrics = new DefaultCacheMetrics();
+    }
+
+    private LocalServerCache newCache(long maximumWeight) {
+        LocalServerCache cache = new LocalServerCache(maximumWeight);
+        cache.setMetrics(metrics);
+        return cache;
+    }
+
+    private static ServerCache.Entry add(ServerCache cache, String uri, String cacheControl, int size) {
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.putSingle(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN);
+        return cache.add(uri, MediaType.TEXT_PLAIN_TYPE, CacheControl.valueOf(cacheControl), headers, new byte[size],
+                uri, new MultivaluedHashMap<>());
+    }
+
+    private static ServerCache.Entry get(ServerCache cache, String uri) {
+        return cache.get(uri, MediaType.WILDCARD_TYPE, NO_HEADERS);
+    }
+
+    @Test
+    public void testAddGetRemove() {
+        LocalServerCache cache = newCache(1024 * 1024);
+        add(cache, "/a", "max-age=60", ENTITY_SIZE);
+
+        ServerCache.Entry entry = get(cache, "/a");
+        Assertions.assertNotNull(entry);
+        Assertions.assertEquals("/a", entry.getEtag());
+        Assertions.assertEquals(ENTITY_SIZE, entry.getEntity().getLength());
+        Assertions.assertTrue(cache.getWeight() > ENTITY_SIZE);
+
+        cache.remove("/a");
+        Assertions.assertNull(get(cache, "/a"));
+        Assertions.assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    public void testWeightIsBounded() {
+        LocalServerCache cache = newCache(64 * 1024);
+        for (int i = 0; i < 200; i++) {
+            add(cache, "/resource/" + i, "max-age=60", ENTITY_SIZE);
+            Assertions.assertTrue(cache.getWeight() <= cache.getMaximumWeight());
+        }
+
+        int cached = 0;
+        for (int i = 0; i < 200; i++) {
+            if (get(cache, "/resource/" + i) != null)
+                cached++;
+        }
+        Assertions.assertTrue(cached > 0 && cached < 64, "cached " + cached);
+        Assertions.assertEquals(200 - cached, metrics.getEvictions());
+    }
+
+    @Test
+    public void testFrequentResourcesSurviveScan() {
+        LocalServerCache cache = newCache(64 * 1024);
+        for (int i = 0; i < 10; i++) {
+            add(cache, "/hot/" + i, "max-age=60", ENTITY_SIZE);
+        }
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 10; i++) {
+                Assertions.assertNotNull(get(cache, "/hot/" + i));
+            }
+        }
+
+        // resources requested once do not push the frequently requested ones out
+        for (int i = 0; i < 1000; i++) {
+            add(cache, "/scan/" + i, "max-age=60", ENTITY_SIZE);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertNotNull(get(cache, "/hot/" + i), "/hot/" + i);
+        }
+        Assertions.assertTrue(cache.getWeight() <= cache.getMaximumWeight());
+    }
+
+    @Test
+    public void testOversizedResourceIsRejected() {
+        LocalServerCache cache = newCache(16 * 1024);
+        add(cache, "/large", "max-age=60", 32 * 1024);
+
+        Assertions.assertNull(get(cache, "/large"));
+        Assertions.assertEquals(0, cache.getWeight());
+        Assertions.assertEquals(1, metrics.getRejects());
+    }
+
+    @Test
+    public void testReplaceUpdatesWeight() {
+        LocalServerCache cache = newCache(1024 * 1024);
+        add(cache, "/a", "max-age=60", 10 * ENTITY_SIZE);
+        long weight = cache.getWeight();
+
+        add(cache, "/a", "max-age=60", ENTITY_SIZE);
+
+        Assertions.assertEquals(weight - 9 * ENTITY_SIZE, cache.getWeight());
+        Assertions.assertEquals(ENTITY_SIZE, get(cache, "/a").getEntity().getLength());
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        LocalServerCache cache = newCache(1024 * 1024);
+        add(cache, "/a", "max-age=1", ENTITY_SIZE);
+        Assertions.assertNotNull(get(cache, "/a"));
+
+        Thread.sleep(2100);
+
+        // expired entries are not served even before the timer wheel purges them
+        Assertions.assertNull(get(cache, "/a"));
+        Assertions.assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    public void testExpiredEntryIsNotStored() {
+        LocalServerCache cache = newCache(1024 * 1024);
+        add(cache, "/a", "max-age=60", ENTITY_SIZE);
+
+        ServerCache.Entry entry = add(cache, "/a", "no-transform", ENTITY_SIZE);
+
+        Assertions.assertTrue(entry.isExpired());
+        Assertions.assertNull(get(cache, "/a"));
+        Assertions.assertEquals(0, cache.getWeight());
+    }
+
+    @Test
+    public void testStaleEntryIsRetained() throws Exception {
+        LocalServerCache cache = newCache(1024 * 1024);
+        add(cache, "/a", "max-age=1, stale-while-revalidate=30", ENTITY_SIZE);
+
+        Thread.sleep(1100);
+
+        ServerCache.Entry entry = get(cache, "/a");
+        Assertions.assertNotNull(entry);
+        Assertions.assertTrue(entry.isExpired());
+        Assertions.assertEquals(30, entry.getStaleWhileRevalidate());
+    }
+
+    @Test
+    public void testClear() {
+        LocalServerCache cache = newCache(1024 * 1024);
+        for (int i = 0; i < 10; i++) {
+            add(cache, "/resource/" + i, "max-age=60", ENTITY_SIZE);
+        }
+
+        cache.clear();
+
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertNull(get(cache, "/resource/" + i));
+        }
+        Assertions.assertEquals(0, cache.getWeight());
+    }
+}
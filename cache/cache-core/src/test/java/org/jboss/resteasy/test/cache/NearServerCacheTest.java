@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+import org.jboss.resteasy.plugins.cache.server.LocalServerCache;
+import org.jboss.resteasy.plugins.cache.server.NearServerCache;
+import org.jboss.resteasy.plugins.cache.server.ServerCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the {@link NearServerCache} serves the hottest resources without looking them up in the wrapped cache,
+ * and drops them once they change.
+ */
+public class NearServerCacheTest {
+    private static final MultivaluedMap<String, String> NO_HEADERS = new MultivaluedHashMap<>();
+
+    /**
+     * Stands in for a remote cache, counting the lookups and reporting the changes made by other nodes.
+     */
+    private static class RemoteCache extends LocalServerCache {
+        private final AtomicInteger gets = new AtomicInteger();
+        private Consumer<String> listener;
+
+        RemoteCache() {
+            super(1024 * 1024);
+        }
+
+        @Override
+        public Entry get(String uri, MediaType accept, MultivaluedMap<String, String> headers) {
+            gets.incrementAndGet();
+            return super.get(uri, accept, headers);
+        }
+
+        @Override
+        public boolean addRemovalListener(Consumer<String> listener) {
+            this.listener = listener;
+            return true;
+        }
+
+        void changedElsewhere(String uri, String etag) {
+            NearServerCacheTest.add(this, uri, etag);
+            listener.accept(uri);
+        }
+    }
+
+    private RemoteCache remote;
+    private NearServerCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        remote = new RemoteCache();
+        cache = new NearServerCache(remote, 2, 60);
+    }
+
+    private static void add(ServerCache cache, String uri, String etag) {
+        cache.add(uri, MediaType.TEXT_PLAIN_TYPE, CacheControl.valueOf("max-age=60"), new MultivaluedHashMap<>(),
+                new byte[10], etag, new MultivaluedHashMap<>());
+    }
+
+    private String get(String uri) {
+        ServerCache.Entry entry = cache.get(uri, MediaType.WILDCARD_TYPE, NO_HEADERS);
+        return entry == null ? null : entry.getEtag();
+    }
+
+    @Test
+    public void testNearHits() throws Exception {
+        add(cache, "/a", "a1");
+
+        Assertions.assertEquals("a1", get("/a"));
+        Assertions.assertEquals("a1", get("/a"));
+        Assertions.assertEquals("a1", cache.getAsync("/a", MediaType.WILDCARD_TYPE, NO_HEADERS)
+                .toCompletableFuture().get().getEtag());
+        Assertions.assertEquals(1, remote.gets.get());
+    }
+
+    @Test
+    public void testMissesAreNotKept() {
+        Assertions.assertNull(get("/missing"));
+        add(cache, "/missing", "m1");
+
+        Assertions.assertEquals("m1", get("/missing"));
+        Assertions.assertEquals(2, remote.gets.get());
+    }
+
+    @Test
+    public void testChangesThroughNearCache() {
+        add(cache, "/a", "a1");
+        Assertions.assertEquals("a1", get("/a"));
+
+        add(cache, "/a", "a2");
+        Assertions.assertEquals("a2", get("/a"));
+
+        cache.remove("/a");
+        Assertions.assertNull(get("/a"));
+        Assertions.assertEquals(3, remote.gets.get());
+    }
+
+    @Test
+    public void testChangesElsewhere() {
+        add(cache, "/a", "a1");
+        Assertions.assertEquals("a1", get("/a"));
+
+        remote.changedElsewhere("/a", "a2");
+
+        Assertions.assertEquals("a2", get("/a"));
+        Assertions.assertEquals(2, remote.gets.get());
+    }
+
+    @Test
+    public void testTimeToLive() throws Exception {
+        cache = new NearServerCache(remote, 2, 1);
+        add(cache, "/a", "a1");
+        Assertions.assertEquals("a1", get("/a"));
+        // changed without telling the near cache
+        add(remote, "/a", "a2");
+        Assertions.assertEquals("a1", get("/a"));
+
+        Thread.sleep(1100);
+
+        Assertions.assertEquals("a2", get("/a"));
+        Assertions.assertEquals(2, remote.gets.get());
+    }
+
+    @Test
+    public void testBounded() {
+        for (String uri : new String[] { "/a", "/b", "/c" }) {
+            add(cache, uri, uri);
+            Assertions.assertEquals(uri, get(uri));
+        }
+        Assertions.assertEquals(3, remote.gets.get());
+
+        // only two of the three resources are kept
+        for (String uri : new String[] { "/a", "/b", "/c" }) {
+            Assertions.assertEquals(uri, get(uri));
+        }
+        Assertions.assertTrue(remote.gets.get() > 3);
+    }
+
+    @Test
+    public void testClear() {
+        add(cache, "/a", "a1");
+        Assertions.assertEquals("a1", get("/a"));
+
+        cache.clear();
+
+        Assertions.assertNull(get("/a"));
+    }
+}
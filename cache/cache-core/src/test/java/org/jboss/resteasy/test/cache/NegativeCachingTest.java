@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import org.jboss.resteasy.plugins.cache.server.NegativeCaching;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the parsing of the times to live of error responses by {@link NegativeCaching}.
+ */
+public class NegativeCachingTest {
+
+    @Test
+    public void testTtls() {
+        NegativeCaching negativeCaching = NegativeCaching.parse("404=60, 410=3600,4XX=5 ,5xx=0,");
+
+        Assertions.assertEquals(60, negativeCaching.getTtl(404));
+        Assertions.assertEquals(3600, negativeCaching.getTtl(410));
+        // the class of the status code if the code itself is not configured
+        Assertions.assertEquals(5, negativeCaching.getTtl(400));
+        Assertions.assertEquals(0, negativeCaching.getTtl(503));
+        Assertions.assertEquals(-1, negativeCaching.getTtl(302));
+    }
+
+    @Test
+    public void testEmptySpec() {
+        NegativeCaching negativeCaching = NegativeCaching.parse("");
+
+        Assertions.assertEquals(-1, negativeCaching.getTtl(404));
+    }
+
+    @Test
+    public void testNegativeTtlMeansNotCached() {
+        Assertions.assertEquals(0, NegativeCaching.parse("404=-1").getTtl(404));
+    }
+
+    @Test
+    public void testInvalidSpecs() {
+        for (String spec : new String[] { "404", "404=", "404=abc", "4040=5", "6xx=5", "x04=5", "=5" }) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> NegativeCaching.parse(spec));
+        }
+    }
+}
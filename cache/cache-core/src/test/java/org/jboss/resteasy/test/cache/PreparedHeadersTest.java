@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+import org.jboss.resteasy.plugins.cache.server.LocalServerCache;
+import org.jboss.resteasy.plugins.cache.server.PreparedHeaders;
+import org.jboss.resteasy.plugins.cache.server.ServerCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link PreparedHeaders} a cache hit is served with.
+ */
+public class PreparedHeadersTest {
+
+    private static ServerCache.Entry add(MultivaluedMap<String, Object> headers) {
+        ServerCache cache = new LocalServerCache(1024 * 1024);
+        return cache.add("/prepared", MediaType.TEXT_PLAIN_TYPE, CacheControl.valueOf("max-age=60"), headers,
+                "prepared".getBytes(), "\"1\"", new MultivaluedHashMap<>());
+    }
+
+    @Test
+    public void testStoredCacheControl() {
+        MultivaluedHashMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.add(HttpHeaders.CACHE_CONTROL, "max-age=60, stale-if-error=30");
+        headers.add(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_TYPE);
+
+        MultivaluedMap<String, Object> prepared = add(headers).getPreparedHeaders().toHeaders(true, 12);
+
+        // the original max-age, the Age tells how much of it is used up
+        Assertions.assertEquals("max-age=60, stale-if-error=30", prepared.getFirst(HttpHeaders.CACHE_CONTROL));
+        Assertions.assertEquals(1, prepared.get(HttpHeaders.CACHE_CONTROL).size());
+        Assertions.assertEquals("12", prepared.getFirst(PreparedHeaders.AGE));
+        // serialized once, when the entry is stored
+        Assertions.assertEquals("text/plain", prepared.getFirst(HttpHeaders.CONTENT_TYPE));
+    }
+
+    @Test
+    public void testCacheControlFromEntry() {
+        ServerCache.Entry entry = add(new MultivaluedHashMap<>());
+
+        String cacheControl = entry.getPreparedHeaders().getCacheControl();
+
+        Assertions.assertTrue(cacheControl.contains("max-age=60"), cacheControl);
+        Assertions.assertEquals(cacheControl,
+                entry.getPreparedHeaders().toHeaders(true, 0).getFirst(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    public void testAge() {
+        PreparedHeaders prepared = add(new MultivaluedHashMap<>()).getPreparedHeaders();
+
+        Assertions.assertEquals("0", prepared.toHeaders(true, 0).getFirst(PreparedHeaders.AGE));
+        Assertions.assertEquals("0", prepared.toHeaders(true, -5).getFirst(PreparedHeaders.AGE));
+        Assertions.assertEquals("3600", prepared.toHeaders(true, 3600).getFirst(PreparedHeaders.AGE));
+    }
+
+    @Test
+    public void testContentEncoding() {
+        MultivaluedHashMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.add(HttpHeaders.CONTENT_ENCODING, "gzip");
+        headers.add(HttpHeaders.VARY, "Accept-Encoding");
+        PreparedHeaders prepared = add(headers).getPreparedHeaders();
+
+        Assertions.assertEquals("gzip", prepared.toHeaders(true, 0).getFirst(HttpHeaders.CONTENT_ENCODING));
+        // negotiated entities are served without the encoding of the miss
+        MultivaluedMap<String, Object> negotiated = prepared.toHeaders(false, 0);
+        Assertions.assertFalse(negotiated.containsKey(HttpHeaders.CONTENT_ENCODING));
+        Assertions.assertEquals("Accept-Encoding", negotiated.getFirst(HttpHeaders.VARY));
+        Assertions.assertTrue(prepared.isVaryOnEncoding());
+        Assertions.assertFalse(add(new MultivaluedHashMap<>()).getPreparedHeaders().isVaryOnEncoding());
+    }
+
+    @Test
+    public void testHeadersAreCopies() {
+        MultivaluedHashMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.add("X-Prepared", "1");
+        PreparedHeaders prepared = add(headers).getPreparedHeaders();
+
+        prepared.toHeaders(true, 0).add("X-Prepared", "2");
+        prepared.toHeaders(true, 0).putSingle(HttpHeaders.CACHE_CONTROL, "no-store");
+
+        MultivaluedMap<String, Object> served = prepared.toHeaders(true, 0);
+        Assertions.assertEquals(1, served.get("X-Prepared").size());
+        Assertions.assertTrue(((String) served.getFirst(HttpHeaders.CACHE_CONTROL)).contains("max-age=60"));
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.HttpHeaders;
+
+import org.jboss.resteasy.annotations.cache.Cache;
+import org.jboss.resteasy.plugins.cache.server.ServerCacheFeature;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.jboss.resteasy.test.TestPortProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+
+/**
+ * Tests that {@code Range} requests are served from cached entities.
+ */
+@EnabledOnJre({
+        JRE.JAVA_11,
+        JRE.JAVA_17,
+        JRE.JAVA_21,
+})
+public class RangeTest {
+    private static final int LENGTH = 1000;
+    private static final byte[] BYTES = new byte[LENGTH];
+
+    static {
+        for (int i = 0; i < LENGTH; i++) {
+            BYTES[i] = (byte) ('a' + i % 26);
+        }
+    }
+
+    private static NettyJaxrsServer server;
+    private static ResteasyDeployment deployment;
+    private static HttpClient client;
+    private static final AtomicInteger count = new AtomicInteger();
+    private static String etag;
+    private static String contentType;
+
+    @Path("/range")
+    public static class RangeResource {
+        @GET
+        @Produces("text/plain")
+        @Cache(maxAge = 60)
+        public byte[] get() {
+            count.incrementAndGet();
+            return BYTES;
+        }
+    }
+
+    @BeforeAll
+    public static void beforeClass() {
+        server = new NettyJaxrsServer();
+        server.setPort(TestPortProvider.getPort());
+        server.setRootResourcePath("/");
+        deployment = server.getDeployment();
+        server.start();
+        deployment.getProviderFactory().property(ServerCacheFeature.CACHE_TYPE, "local");
+        deployment.getProviderFactory().register(ServerCacheFeature.class);
+        deployment.getRegistry().addPerRequestResource(RangeResource.class);
+        // the raw multipart entity is compared here
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        server.stop();
+        server = null;
+        deployment = null;
+    }
+
+    @BeforeEach
+    public void cache() throws Exception {
+        // ranges are served from the cache only
+        Assertions.assertEquals(200, get(null, null).statusCode());
+        HttpResponse<byte[]> response = get(null, null);
+        Assertions.assertEquals(200, response.statusCode());
+        etag = response.headers().firstValue(HttpHeaders.ETAG).orElseThrow();
+        contentType = response.headers().firstValue(HttpHeaders.CONTENT_TYPE).orElseThrow();
+    }
+
+    private static HttpResponse<byte[]> get(String range, String ifRange) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(generateURL("/range"))).GET();
+        if (range != null) {
+            request.header("Range", range);
+        }
+        if (ifRange != null) {
+            request.header("If-Range", ifRange);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String header(HttpResponse<?> response, String name) {
+        return response.headers().firstValue(name).orElse(null);
+    }
+
+    private static void assertPartial(HttpResponse<byte[]> response, int first, int last) {
+        Assertions.assertEquals(206, response.statusCode());
+        Assertions.assertEquals("bytes " + first + "-" + last + "/" + LENGTH, header(response, "Content-Range"));
+        Assertions.assertArrayEquals(Arrays.copyOfRange(BYTES, first, last + 1), response.body());
+    }
+
+    private static void assertWhole(HttpResponse<byte[]> response) {
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertNull(header(response, "Content-Range"));
+        Assertions.assertArrayEquals(BYTES, response.body());
+    }
+
+    @Test
+    public void testSingleRange() throws Exception {
+        HttpResponse<byte[]> response = get("bytes=0-99", null);
+        assertPartial(response, 0, 99);
+        Assertions.assertEquals("bytes", header(response, "Accept-Ranges"));
+        Assertions.assertTrue(header(response, HttpHeaders.CONTENT_TYPE).startsWith("text/plain"));
+
+        assertPartial(get("bytes=990-", null), 990, 999);
+        assertPartial(get("bytes=-100", null), 900, 999);
+        assertPartial(get("bytes=500-5000", null), 500, 999);
+        assertPartial(get("Bytes=10-19", null), 10, 19);
+        Assertions.assertEquals(1, count.get());
+    }
+
+    @Test
+    public void testUnsatisfiableRange() throws Exception {
+        HttpResponse<byte[]> response = get("bytes=1000-2000", null);
+
+        Assertions.assertEquals(416, response.statusCode());
+        Assertions.assertEquals("bytes */" + LENGTH, header(response, "Content-Range"));
+    }
+
+    @Test
+    public void testIgnoredRanges() throws Exception {
+        assertWhole(get("items=0-9", null));
+        assertWhole(get("bytes=9-0", null));
+        assertWhole(get("bytes=a-b", null));
+        // too many ranges
+        assertWhole(get("bytes=" + "0-0,".repeat(16) + "0-0", null));
+    }
+
+    @Test
+    public void testMultipleRanges() throws Exception {
+        HttpResponse<byte[]> response = get("bytes=0-9,20-29", null);
+
+        Assertions.assertEquals(206, response.statusCode());
+        String multipart = header(response, HttpHeaders.CONTENT_TYPE);
+        Assertions.assertTrue(multipart.startsWith("multipart/byteranges; boundary="), multipart);
+        String boundary = multipart.substring(multipart.indexOf('=') + 1);
+        String body = new String(response.body(), StandardCharsets.ISO_8859_1);
+        String expected = "\r\n--" + boundary + "\r\n"
+                + "Content-Type: " + contentType + "\r\n"
+                + "Content-Range: bytes 0-9/" + LENGTH + "\r\n\r\n"
+                + new String(BYTES, 0, 10, StandardCharsets.ISO_8859_1)
+                + "\r\n--" + boundary + "\r\n"
+                + "Content-Type: " + contentType + "\r\n"
+                + "Content-Range: bytes 20-29/" + LENGTH + "\r\n\r\n"
+                + new String(BYTES, 20, 10, StandardCharsets.ISO_8859_1)
+                + "\r\n--" + boundary + "--\r\n";
+        Assertions.assertEquals(expected, body);
+    }
+
+    @Test
+    public void testIfRange() throws Exception {
+        assertPartial(get("bytes=0-9", etag), 0, 9);
+        assertPartial(get("bytes=0-9", "\"" + etag + "\""), 0, 9);
+        // a changed, weak or date validator gets the whole entity
+        assertWhole(get("bytes=0-9", "\"other\""));
+        assertWhole(get("bytes=0-9", "W/\"" + etag + "\""));
+        assertWhole(get("bytes=0-9", "Sat, 17 Oct 2026 00:00:00 GMT"));
+    }
+}
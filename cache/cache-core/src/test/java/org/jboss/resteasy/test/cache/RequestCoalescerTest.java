@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.resteasy.plugins.cache.server.RequestCoalescer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the flights of the {@link RequestCoalescer}.
+ */
+public class RequestCoalescerTest {
+
+    @Test
+    public void testSingleLeader() {
+        RequestCoalescer coalescer = new RequestCoalescer(2000);
+        RequestCoalescer.Flight flight = coalescer.lead("key");
+
+        Assertions.assertNotNull(flight);
+        Assertions.assertNull(coalescer.lead("key"));
+        Assertions.assertNotNull(coalescer.lead("other"));
+
+        flight.complete();
+        Assertions.assertNotNull(coalescer.lead("key"));
+    }
+
+    @Test
+    public void testAwaitReleasedByLeader() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(5000);
+        RequestCoalescer.Flight flight = coalescer.lead("key");
+        CountDownLatch waiting = new CountDownLatch(1);
+        CompletableFuture<Boolean> awaited = CompletableFuture.supplyAsync(() -> {
+            waiting.countDown();
+            return coalescer.await("key");
+        });
+        waiting.await();
+        Thread.sleep(100);
+        Assertions.assertFalse(awaited.isDone());
+
+        flight.complete();
+        Assertions.assertTrue(awaited.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAwaitWithoutFlight() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(2000);
+
+        Assertions.assertTrue(coalescer.await("key"));
+        Assertions.assertTrue(coalescer.awaitAsync("key").toCompletableFuture().get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAwaitTimesOut() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(100);
+        coalescer.lead("key");
+
+        long start = System.nanoTime();
+        Assertions.assertFalse(coalescer.await("key"));
+        Assertions.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        Assertions.assertFalse(coalescer.awaitAsync("key").toCompletableFuture().get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAwaitAsyncReleasedByLeader() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(5000);
+        RequestCoalescer.Flight flight = coalescer.lead("key");
+        CompletableFuture<Boolean> awaited = coalescer.awaitAsync("key").toCompletableFuture();
+
+        Assertions.assertFalse(awaited.isDone());
+        flight.complete();
+        Assertions.assertTrue(awaited.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAbandonedFlightIsReplaced() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer(100);
+        RequestCoalescer.Flight abandoned = coalescer.lead("key");
+        Thread.sleep(150);
+
+        RequestCoalescer.Flight flight = coalescer.lead("key");
+        Assertions.assertNotNull(flight);
+        // completing the abandoned flight does not end the new one
+        abandoned.complete();
+        Assertions.assertNull(coalescer.lead("key"));
+        flight.complete();
+        Assertions.assertNotNull(coalescer.lead("key"));
+    }
+}
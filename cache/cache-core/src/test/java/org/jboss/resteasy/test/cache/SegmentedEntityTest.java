@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.jboss.resteasy.plugins.cache.server.ETagStrategy;
+import org.jboss.resteasy.plugins.cache.server.SegmentedEntity;
+import org.jboss.resteasy.plugins.cache.server.SegmentedEntityOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that entities buffered in segments are stored and written back unchanged.
+ */
+public class SegmentedEntityTest {
+    // spans several segments, the last one partially filled
+    private static final int LENGTH = 300_000;
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static SegmentedEntity buffer(byte[] bytes, ETagStrategy.Hasher hasher) {
+        SegmentedEntityOutputStream out = new SegmentedEntityOutputStream(hasher);
+        // single bytes and chunks of varying size, across the segment boundaries
+        int position = 0;
+        for (int step = 0; position < bytes.length; step++) {
+            if (step % 4 == 0) {
+                out.write(bytes[position++]);
+            } else {
+                int count = Math.min(step * 997 % 20_000, bytes.length - position);
+                out.write(bytes, position, count);
+                position += count;
+            }
+        }
+        Assertions.assertEquals(bytes.length, out.getLength());
+        return out.toEntity();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        for (int length : new int[] { 0, 1, 1023, 1024, 1025, 64 * 1024, LENGTH }) {
+            byte[] bytes = randomBytes(length);
+            SegmentedEntity entity = buffer(bytes, null);
+
+            Assertions.assertEquals(length, entity.getLength());
+            Assertions.assertArrayEquals(bytes, entity.toByteArray(), "length " + length);
+            ByteArrayOutputStream written = new ByteArrayOutputStream();
+            entity.write(written);
+            Assertions.assertArrayEquals(bytes, written.toByteArray(), "length " + length);
+        }
+    }
+
+    @Test
+    public void testWriteRange() throws Exception {
+        byte[] bytes = randomBytes(LENGTH);
+        SegmentedEntity entity = buffer(bytes, null);
+
+        long[][] ranges = { { 0, 1 }, { 0, LENGTH }, { 1000, 100 }, { 1020, 10 }, { 60_000, 10_000 },
+                { LENGTH - 1, 1 }, { LENGTH - 5000, 5000 }, { 100, 0 } };
+        for (long[] range : ranges) {
+            ByteArrayOutputStream written = new ByteArrayOutputStream();
+            entity.write(written, range[0], range[1]);
+            Assertions.assertArrayEquals(Arrays.copyOfRange(bytes, (int) range[0], (int) (range[0] + range[1])),
+                    written.toByteArray(), range[0] + "+" + range[1]);
+        }
+    }
+
+    @Test
+    public void testWrap() throws Exception {
+        byte[] bytes = randomBytes(5000);
+        SegmentedEntity entity = SegmentedEntity.wrap(bytes);
+
+        Assertions.assertEquals(5000, entity.getLength());
+        Assertions.assertArrayEquals(bytes, entity.toByteArray());
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        entity.write(written, 4990, 10);
+        Assertions.assertArrayEquals(Arrays.copyOfRange(bytes, 4990, 5000), written.toByteArray());
+        Assertions.assertEquals(0, SegmentedEntity.wrap(new byte[0]).toByteArray().length);
+    }
+
+    @Test
+    public void testHashedWhileBuffered() {
+        byte[] bytes = randomBytes(LENGTH);
+        ETagStrategy.Hasher hasher = ETagStrategy.XXHASH64.newHasher();
+        buffer(bytes, hasher);
+
+        ETagStrategy.Hasher expected = ETagStrategy.XXHASH64.newHasher();
+        expected.update(bytes, 0, bytes.length);
+        Assertions.assertEquals(expected.getValue(), hasher.getValue());
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        byte[] bytes = randomBytes(LENGTH);
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(buffer(bytes, null));
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized.toByteArray()))) {
+            SegmentedEntity entity = (SegmentedEntity) in.readObject();
+            Assertions.assertEquals(LENGTH, entity.getLength());
+            Assertions.assertArrayEquals(bytes, entity.toByteArray());
+        }
+    }
+}
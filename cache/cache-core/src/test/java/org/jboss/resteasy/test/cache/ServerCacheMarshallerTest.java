@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+import org.infinispan.commons.io.ByteBuffer;
+import org.jboss.resteasy.plugins.cache.server.CachedEntity;
+import org.jboss.resteasy.plugins.cache.server.EncodedEntity;
+import org.jboss.resteasy.plugins.cache.server.LocalServerCache;
+import org.jboss.resteasy.plugins.cache.server.SegmentedEntity;
+import org.jboss.resteasy.plugins.cache.server.ServerCache;
+import org.jboss.resteasy.plugins.cache.server.ServerCacheMarshaller;
+import org.jboss.resteasy.plugins.cache.server.VariantGroup;
+import org.jboss.resteasy.plugins.cache.server.VaryFingerprint;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that cached resources are read back from the binary format of the {@link ServerCacheMarshaller} as they were
+ * written.
+ */
+public class ServerCacheMarshallerTest {
+    private static final String UNREADABLE = ServerCacheMarshaller.class.getName() + ".unreadable";
+
+    private final ServerCacheMarshaller marshaller = new ServerCacheMarshaller();
+
+    private static ServerCache.Entry entry(int status, String cacheControl, CachedEntity entity, String language) {
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.putSingle(HttpHeaders.CACHE_CONTROL, CacheControl.valueOf(cacheControl));
+        headers.putSingle(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_TYPE);
+        headers.putSingle(HttpHeaders.VARY, "Accept-Language");
+        headers.add("X-Custom", "one");
+        headers.add("X-Custom", "two");
+        MultivaluedMap<String, String> varyHeaders = new MultivaluedHashMap<>();
+        varyHeaders.putSingle("Accept-Language", language);
+        return new LocalServerCache(1024 * 1024).add("/resource", status, MediaType.TEXT_PLAIN_TYPE,
+                CacheControl.valueOf(cacheControl), headers, entity, "etag-" + language, varyHeaders);
+    }
+
+    private static VariantGroup add(VariantGroup group, ServerCache.Entry entry) {
+        String variant = VariantGroup.variantKey(entry.getMediaType(),
+                VaryFingerprint.of(entry.getHeaders(), entry.getVaryHeaders()));
+        return VariantGroup.with(group, variant, entry);
+    }
+
+    private Object roundTrip(Object value) throws Exception {
+        Assertions.assertTrue(marshaller.isMarshallable(value));
+        ByteBuffer buffer = marshaller.objectToBuffer(value);
+        return marshaller.objectFromByteBuffer(buffer.getBuf(), buffer.getOffset(), buffer.getLength());
+    }
+
+    private static void assertSameEntry(ServerCache.Entry expected, ServerCache.Entry actual) {
+        Assertions.assertEquals(expected.getStatus(), actual.getStatus());
+        Assertions.assertEquals(expected.getEtag(), actual.getEtag());
+        Assertions.assertEquals(expected.getMediaType(), actual.getMediaType());
+        Assertions.assertEquals(expected.getExpirationInSeconds(), actual.getExpirationInSeconds());
+        Assertions.assertEquals(expected.getStaleWhileRevalidate(), actual.getStaleWhileRevalidate());
+        Assertions.assertEquals(expected.getStaleIfError(), actual.getStaleIfError());
+        Assertions.assertArrayEquals(expected.getEntity().toByteArray(), actual.getEntity().toByteArray());
+        Assertions.assertEquals(expected.getVaryHeaders().get("Accept-Language"),
+                actual.getVaryHeaders().get("Accept-Language"));
+        MultivaluedMap<String, Object> headers = actual.getHeaders();
+        Assertions.assertEquals(List.of("one", "two"), headers.get("X-Custom"));
+        Assertions.assertEquals(expected.getHeaders().getFirst(HttpHeaders.CACHE_CONTROL).toString(),
+                headers.getFirst(HttpHeaders.CACHE_CONTROL).toString());
+        Assertions.assertTrue(headers.getFirst(HttpHeaders.CACHE_CONTROL) instanceof CacheControl);
+        Assertions.assertEquals(MediaType.TEXT_PLAIN_TYPE, headers.getFirst(HttpHeaders.CONTENT_TYPE));
+    }
+
+    @Test
+    public void testString() throws Exception {
+        Assertions.assertEquals("/resource?q=\u00e9", roundTrip("/resource?q=\u00e9"));
+        Assertions.assertEquals("", roundTrip(""));
+    }
+
+    @Test
+    public void testVariantGroup() throws Exception {
+        byte[] bytes = new byte[70_000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        ServerCache.Entry english = entry(200, "max-age=60, stale-while-revalidate=30", SegmentedEntity.wrap(bytes),
+                "en");
+        ServerCache.Entry german = entry(404, "max-age=10, stale-if-error=5",
+                SegmentedEntity.wrap("nicht gefunden".getBytes(StandardCharsets.UTF_8)), "de");
+        VariantGroup group = add(add(null, english), german);
+
+        VariantGroup read = (VariantGroup) roundTrip(group);
+
+        Assertions.assertEquals(group, read);
+        Assertions.assertEquals(2, read.size());
+        assertSameEntry(german, read.getEntry(0));
+        assertSameEntry(english, read.getEntry(1));
+        MultivaluedMap<String, String> request = new MultivaluedHashMap<>();
+        request.putSingle("Accept-Language", "en");
+        Assertions.assertEquals("etag-en", read.match(MediaType.WILDCARD_TYPE, request).getEtag());
+    }
+
+    @Test
+    public void testEncodedEntity() throws Exception {
+        CachedEntity entity = EncodedEntity.encode(
+                SegmentedEntity.wrap("aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa"
+                        .getBytes(StandardCharsets.UTF_8)),
+                List.of(EncodedEntity.GZIP));
+        ServerCache.Entry entry = entry(200, "max-age=60", entity, "en");
+
+        VariantGroup read = (VariantGroup) roundTrip(VariantGroup.of("variant", entry));
+
+        CachedEntity readEntity = read.getEntry(0).getEntity();
+        Assertions.assertArrayEquals(entity.toByteArray(), readEntity.toByteArray());
+        Assertions.assertArrayEquals(entity.getEncoding(EncodedEntity.GZIP).toByteArray(),
+                readEntity.getEncoding(EncodedEntity.GZIP).toByteArray());
+    }
+
+    @Test
+    public void testJavaSerialization() throws Exception {
+        ServerCache.Entry entry = entry(200, "max-age=60", SegmentedEntity.wrap(new byte[] { 1, 2, 3 }), "en");
+        VariantGroup group = VariantGroup.of("variant", entry);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(group);
+            out.writeObject(entry);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Assertions.assertEquals(group, in.readObject());
+            assertSameEntry(entry, (ServerCache.Entry) in.readObject());
+        }
+    }
+
+    @Test
+    public void testUnreadableValues() throws Exception {
+        ByteBuffer buffer = marshaller.objectToBuffer("value");
+        byte[] bytes = buffer.getBuf().clone();
+
+        // written by a newer version
+        bytes[buffer.getOffset()] = (byte) 0xFF;
+        Assertions.assertEquals(UNREADABLE, marshaller.objectFromByteBuffer(bytes, buffer.getOffset(),
+                buffer.getLength()));
+
+        bytes = buffer.getBuf().clone();
+        bytes[buffer.getOffset() + 1] = 99;
+        byte[] unknownType = bytes;
+        Assertions.assertThrows(NotSerializableException.class,
+                () -> marshaller.objectFromByteBuffer(unknownType, buffer.getOffset(), buffer.getLength()));
+        Assertions.assertFalse(marshaller.isMarshallable(1));
+        Assertions.assertThrows(NotSerializableException.class, () -> marshaller.objectToBuffer(1));
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+
+import org.jboss.resteasy.annotations.cache.Cache;
+import org.jboss.resteasy.plugins.cache.server.ServerCacheFeature;
+import org.jboss.resteasy.plugins.cache.server.ServerCached;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.jboss.resteasy.test.TestPortProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+
+/**
+ * Tests that the responses of methods annotated with {@link ServerCached} are cached with the policy of the
+ * annotation, and that only they are when {@link ServerCacheFeature#ANNOTATED_ONLY} is set.
+ */
+@EnabledOnJre({
+        JRE.JAVA_11,
+        JRE.JAVA_17,
+        JRE.JAVA_21,
+})
+public class ServerCachedTest {
+    private static NettyJaxrsServer server;
+    private static ResteasyDeployment deployment;
+    private static Client client;
+    private static final AtomicInteger annotatedCount = new AtomicInteger();
+    private static final AtomicInteger plainCount = new AtomicInteger();
+    private static final AtomicInteger classCount = new AtomicInteger();
+
+    @Path("/policy")
+    public static class PolicyResource {
+        @GET
+        @Path("annotated")
+        @Produces("text/plain")
+        @ServerCached(maxAge = 60, varyOn = "Accept-Language", keyParams = "id")
+        public String annotated(@QueryParam("id") String id) {
+            return id + " " + annotatedCount.incrementAndGet();
+        }
+
+        @GET
+        @Path("plain")
+        @Produces("text/plain")
+        @Cache(maxAge = 60)
+        public String plain() {
+            return "plain " + plainCount.incrementAndGet();
+        }
+    }
+
+    @Path("/classpolicy")
+    @ServerCached(maxAge = 30)
+    public static class ClassPolicyResource {
+        @GET
+        @Produces("text/plain")
+        public String get() {
+            return "class " + classCount.incrementAndGet();
+        }
+    }
+
+    @BeforeAll
+    public static void beforeClass() {
+        server = new NettyJaxrsServer();
+        server.setPort(TestPortProvider.getPort());
+        server.setRootResourcePath("/");
+        deployment = server.getDeployment();
+        server.start();
+        deployment.getProviderFactory().property(ServerCacheFeature.CACHE_TYPE, "local");
+        deployment.getProviderFactory().property(ServerCacheFeature.ANNOTATED_ONLY, "true");
+        deployment.getProviderFactory().register(ServerCacheFeature.class);
+        deployment.getRegistry().addPerRequestResource(PolicyResource.class);
+        deployment.getRegistry().addPerRequestResource(ClassPolicyResource.class);
+        client = ClientBuilder.newClient();
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        server.stop();
+        server = null;
+        deployment = null;
+        client.close();
+    }
+
+    @Test
+    public void testPolicyHeaders() {
+        Response response = client.target(generateURL("/policy/annotated?id=0")).request().get();
+        Assertions.assertEquals(200, response.getStatus());
+        Assertions.assertTrue(response.getHeaderString(HttpHeaders.CACHE_CONTROL).contains("max-age=60"));
+        Assertions.assertEquals("Accept-Language", response.getHeaderString(HttpHeaders.VARY));
+        response.close();
+    }
+
+    @Test
+    public void testKeyParams() {
+        String first = client.target(generateURL("/policy/annotated?id=1&session=a")).request().get(String.class);
+        // the session parameter is not part of the key
+        Assertions.assertEquals(first,
+                client.target(generateURL("/policy/annotated?session=b&id=1")).request().get(String.class));
+        Assertions.assertNotEquals(first,
+                client.target(generateURL("/policy/annotated?id=2&session=a")).request().get(String.class));
+    }
+
+    @Test
+    public void testClassPolicy() {
+        Response response = client.target(generateURL("/classpolicy")).request().get();
+        Assertions.assertEquals(200, response.getStatus());
+        Assertions.assertTrue(response.getHeaderString(HttpHeaders.CACHE_CONTROL).contains("max-age=30"));
+        Assertions.assertEquals("class 1", response.readEntity(String.class));
+
+        Assertions.assertEquals("class 1", client.target(generateURL("/classpolicy")).request().get(String.class));
+        Assertions.assertEquals(1, classCount.get());
+    }
+
+    @Test
+    public void testAnnotatedOnly() {
+        Assertions.assertEquals("plain 1", client.target(generateURL("/policy/plain")).request().get(String.class));
+        Assertions.assertEquals("plain 2", client.target(generateURL("/policy/plain")).request().get(String.class));
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+
+import org.jboss.resteasy.annotations.cache.Cache;
+import org.jboss.resteasy.plugins.cache.server.ServerCacheFeature;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.jboss.resteasy.test.TestPortProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+
+/**
+ * Tests that concurrent misses for the same resource are coalesced into a single invocation of the resource method.
+ */
+@EnabledOnJre({
+        JRE.JAVA_11,
+        JRE.JAVA_17,
+        JRE.JAVA_21,
+})
+public class SingleFlightTest {
+    private static final int REQUESTS = 4;
+
+    private static NettyJaxrsServer server;
+    private static ResteasyDeployment deployment;
+    private static HttpClient client;
+    private static final AtomicInteger slowCount = new AtomicInteger();
+    private static final AtomicInteger otherCount = new AtomicInteger();
+
+    @Path("/single-flight")
+    public static class SlowResource {
+        @GET
+        @Produces("text/plain")
+        @Cache(maxAge = 60)
+        public String get() throws InterruptedException {
+            slowCount.incrementAndGet();
+            Thread.sleep(500);
+            return "slow";
+        }
+
+        @GET
+        @Produces("text/plain")
+        @Path("other")
+        @Cache(maxAge = 60)
+        public String getOther() throws InterruptedException {
+            otherCount.incrementAndGet();
+            Thread.sleep(500);
+            return "other";
+        }
+    }
+
+    @BeforeAll
+    public static void beforeClass() {
+        server = new NettyJaxrsServer();
+        server.setPort(TestPortProvider.getPort());
+        server.setRootResourcePath("/");
+        deployment = server.getDeployment();
+        server.start();
+        deployment.getProviderFactory().property(ServerCacheFeature.CACHE_TYPE, "local");
+        deployment.getProviderFactory().property(ServerCacheFeature.SINGLE_FLIGHT, "true");
+        deployment.getProviderFactory().register(ServerCacheFeature.class);
+        deployment.getRegistry().addPerRequestResource(SlowResource.class);
+        // the JAX-RS client of the other tests sends its requests one at a time
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        server.stop();
+        server = null;
+        deployment = null;
+    }
+
+    private static List<CompletableFuture<HttpResponse<String>>> send(String path, int count) {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            responses.add(client.sendAsync(HttpRequest.newBuilder(URI.create(generateURL(path))).GET().build(),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        return responses;
+    }
+
+    @Test
+    public void testConcurrentMissesAreCoalesced() {
+        List<CompletableFuture<HttpResponse<String>>> slow = send("/single-flight", REQUESTS);
+        List<CompletableFuture<HttpResponse<String>>> other = send("/single-flight/other", REQUESTS);
+
+        for (CompletableFuture<HttpResponse<String>> response : slow) {
+            Assertions.assertEquals(200, response.join().statusCode());
+            Assertions.assertEquals("slow", response.join().body());
+        }
+        for (CompletableFuture<HttpResponse<String>> response : other) {
+            Assertions.assertEquals(200, response.join().statusCode());
+            Assertions.assertEquals("other", response.join().body());
+        }
+        // one flight per resource
+        Assertions.assertEquals(1, slowCount.get());
+        Assertions.assertEquals(1, otherCount.get());
+    }
+}
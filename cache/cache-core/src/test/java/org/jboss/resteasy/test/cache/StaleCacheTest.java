@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+
+import org.jboss.resteasy.annotations.cache.Cache;
+import org.jboss.resteasy.plugins.cache.server.BackgroundRefresher;
+import org.jboss.resteasy.plugins.cache.server.PreparedHeaders;
+import org.jboss.resteasy.plugins.cache.server.ServerCacheFeature;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.jboss.resteasy.test.TestPortProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+
+/**
+ * Tests that expired responses are served per their {@code stale-while-revalidate} and {@code stale-if-error}
+ * {@code Cache-Control} extensions.
+ */
+@EnabledOnJre({
+        JRE.JAVA_11,
+        JRE.JAVA_17,
+        JRE.JAVA_21,
+})
+public class StaleCacheTest {
+    private static NettyJaxrsServer server;
+    private static ResteasyDeployment deployment;
+    private static Client client;
+    private static final AtomicInteger revalidateCount = new AtomicInteger();
+    private static final AtomicInteger errorCount = new AtomicInteger();
+    private static final AtomicInteger expiredCount = new AtomicInteger();
+    private static final AtomicInteger credentialsCount = new AtomicInteger();
+    private static final AtomicInteger forgedCount = new AtomicInteger();
+    private static volatile String authorization;
+    private static volatile boolean failing;
+
+    @Path("/stale")
+    public static class StaleResource {
+        @GET
+        @Produces("text/plain")
+        @Path("revalidate")
+        public Response getRevalidate() {
+            return Response.ok("revalidate" + revalidateCount.incrementAndGet())
+                    .header(HttpHeaders.CACHE_CONTROL, "max-age=1, stale-while-revalidate=30")
+                    .build();
+        }
+
+        @GET
+        @Produces("text/plain")
+        @Path("error")
+        public Response getError() {
+            errorCount.incrementAndGet();
+            if (failing)
+                return Response.serverError().entity("failed").build();
+            return Response.ok("error" + errorCount.get())
+                    .header(HttpHeaders.CACHE_CONTROL, "max-age=1, stale-if-error=30")
+                    .build();
+        }
+
+        @GET
+        @Produces("text/plain")
+        @Path("expired")
+        public Response getExpired() {
+            expiredCount.incrementAndGet();
+            if (failing)
+                return Response.serverError().entity("failed").build();
+            return Response.ok("expired" + expiredCount.get())
+                    .header(HttpHeaders.CACHE_CONTROL, "max-age=1")
+                    .build();
+        }
+
+        @GET
+        @Produces("text/plain")
+        @Path("credentials")
+        public Response getCredentials(@HeaderParam(HttpHeaders.AUTHORIZATION) String value) {
+            authorization = value;
+            return Response.ok("credentials" + credentialsCount.incrementAndGet())
+                    .header(HttpHeaders.CACHE_CONTROL, "max-age=1, stale-while-revalidate=30")
+                    .build();
+        }
+
+        @GET
+        @Produces("text/plain")
+        @Path("forged")
+        @Cache(maxAge = 60)
+        public String getForged() {
+            return "forged" + forgedCount.incrementAndGet();
+        }
+    }
+
+    @BeforeAll
+    public static void beforeClass() {
+        server = new NettyJaxrsServer();
+        server.setPort(TestPortProvider.getPort());
+        server.setRootResourcePath("/");
+        deployment = server.getDeployment();
+        server.start();
+        deployment.getProviderFactory().property(ServerCacheFeature.REFRESH_THREADS, "2");
+        deployment.getProviderFactory().property(ServerCacheFeature.REFRESH_BASE_URI, generateURL("/"));
+        deployment.getProviderFactory().register(ServerCacheFeature.class);
+        deployment.getRegistry().addPerRequestResource(StaleResource.class);
+        client = ClientBuilder.newClient();
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        ((ServerCacheFeature) deployment.getProviderFactory().getProperty(ServerCacheFeature.class.getName()))
+                .shutdown();
+        server.stop();
+        server = null;
+        deployment = null;
+        client.close();
+    }
+
+    private static String get(String path, int status) {
+        Response response = client.target(generateURL(path)).request().get();
+        Assertions.assertEquals(status, response.getStatus());
+        return response.readEntity(String.class);
+    }
+
+    @Test
+    public void testStaleWhileRevalidate() throws Exception {
+        Assertions.assertEquals("revalidate1", get("/stale/revalidate", 200));
+        Assertions.assertEquals("revalidate1", get("/stale/revalidate", 200));
+
+        Thread.sleep(1100);
+
+        // served stale at once, the entry is refreshed in the background
+        Response response = client.target(generateURL("/stale/revalidate")).request().get();
+        Assertions.assertEquals(200, response.getStatus());
+        Assertions.assertEquals("revalidate1", response.readEntity(String.class));
+        Assertions.assertNotNull(response.getHeaderString(PreparedHeaders.AGE));
+
+        String refreshed = null;
+        for (int i = 0; i < 50 && !"revalidate2".equals(refreshed); i++) {
+            Thread.sleep(100);
+            refreshed = get("/stale/revalidate", 200);
+        }
+        Assertions.assertEquals("revalidate2", refreshed);
+        Assertions.assertEquals(2, revalidateCount.get());
+    }
+
+    @Test
+    public void testStaleIfError() throws Exception {
+        failing = false;
+        try {
+            errorCount.set(0);
+            Assertions.assertEquals("error1", get("/stale/error", 200));
+            failing = true;
+            // fresh, the resource method is not called
+            Assertions.assertEquals("error1", get("/stale/error", 200));
+            Assertions.assertEquals(1, errorCount.get());
+
+            Thread.sleep(1100);
+
+            // the resource method fails, the stale response is served instead of the error
+            Assertions.assertEquals("error1", get("/stale/error", 200));
+            Assertions.assertEquals(2, errorCount.get());
+
+            failing = false;
+            Assertions.assertEquals("error3", get("/stale/error", 200));
+        } finally {
+            failing = false;
+        }
+    }
+
+    @Test
+    public void testErrorWithoutStaleIfError() throws Exception {
+        failing = false;
+        try {
+            expiredCount.set(0);
+            Assertions.assertEquals("expired1", get("/stale/expired", 200));
+            failing = true;
+
+            Thread.sleep(1100);
+
+            Assertions.assertEquals("failed", get("/stale/expired", 500));
+        } finally {
+            failing = false;
+        }
+    }
+
+    @Test
+    public void testCredentialsNotReplayed() throws Exception {
+        Response response = client.target(generateURL("/stale/credentials")).request()
+                .header(HttpHeaders.AUTHORIZATION, "Bearer secret").get();
+        Assertions.assertEquals("credentials1", response.readEntity(String.class));
+        Assertions.assertEquals("Bearer secret", authorization);
+
+        Thread.sleep(1100);
+
+        response = client.target(generateURL("/stale/credentials")).request()
+                .header(HttpHeaders.AUTHORIZATION, "Bearer secret").get();
+        Assertions.assertEquals("credentials1", response.readEntity(String.class));
+        for (int i = 0; i < 50 && credentialsCount.get() < 2; i++) {
+            Thread.sleep(100);
+        }
+        Assertions.assertEquals(2, credentialsCount.get());
+        Assertions.assertNull(authorization);
+    }
+
+    @Test
+    public void testForgedRefreshIgnored() {
+        Assertions.assertEquals("forged1", get("/stale/forged", 200));
+        // only the nonces of refreshes in progress skip the cache
+        Response response = client.target(generateURL("/stale/forged")).request()
+                .header(BackgroundRefresher.REFRESH, "forged").get();
+        Assertions.assertEquals("forged1", response.readEntity(String.class));
+        Assertions.assertEquals(1, forgedCount.get());
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import org.jboss.resteasy.annotations.cache.Cache;
+import org.jboss.resteasy.plugins.cache.server.ServerCacheFeature;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.jboss.resteasy.test.TestPortProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+
+/**
+ * Tests that cacheable responses are streamed to the client while they are buffered, and that responses larger than
+ * the configured maximum are streamed completely without being cached.
+ */
+@EnabledOnJre({
+        JRE.JAVA_11,
+        JRE.JAVA_17,
+        JRE.JAVA_21,
+})
+public class StreamingCacheTest {
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+    private static final int LARGE_SIZE = 100_000;
+
+    private static NettyJaxrsServer server;
+    private static ResteasyDeployment deployment;
+    private static Client client;
+    private static final AtomicInteger smallCount = new AtomicInteger();
+    private static final AtomicInteger largeCount = new AtomicInteger();
+
+    @Path("/streaming")
+    public static class StreamingResource {
+        @GET
+        @Produces("application/octet-stream")
+        @Path("small")
+        @Cache(maxAge = 60)
+        public StreamingOutput getSmall() {
+            smallCount.incrementAndGet();
+            return output -> output.write(bytes(1000));
+        }
+
+        @GET
+        @Produces("application/octet-stream")
+        @Path("large")
+        @Cache(maxAge = 60)
+        public StreamingOutput getLarge() {
+            largeCount.incrementAndGet();
+            // written in chunks, the buffer overflows part way through the entity
+            return output -> {
+                byte[] bytes = bytes(LARGE_SIZE);
+                for (int off = 0; off < bytes.length; off += 1000) {
+                    output.write(bytes, off, Math.min(1000, bytes.length - off));
+                }
+            };
+        }
+    }
+
+    private static byte[] bytes(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        return bytes;
+    }
+
+    @BeforeAll
+    public static void beforeClass() {
+        server = new NettyJaxrsServer();
+        server.setPort(TestPortProvider.getPort());
+        server.setRootResourcePath("/");
+        deployment = server.getDeployment();
+        server.start();
+        deployment.getProviderFactory().property(ServerCacheFeature.STREAMING, "true");
+        deployment.getProviderFactory().property(ServerCacheFeature.MAX_BODY_BYTES, Integer.toString(MAX_BODY_BYTES));
+        deployment.getProviderFactory().register(ServerCacheFeature.class);
+        deployment.getRegistry().addPerRequestResource(StreamingResource.class);
+        client = ClientBuilder.newClient();
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        server.stop();
+        server = null;
+        deployment = null;
+        client.close();
+    }
+
+    private static Response get(String path) {
+        Response response = client.target(generateURL(path)).request().get();
+        Assertions.assertEquals(200, response.getStatus());
+        return response;
+    }
+
+    @Test
+    public void testStreamedResponseIsCached() {
+        byte[] expected = bytes(1000);
+        Assertions.assertArrayEquals(expected, get("/streaming/small").readEntity(byte[].class));
+
+        Response response = get("/streaming/small");
+        Assertions.assertArrayEquals(expected, response.readEntity(byte[].class));
+        String etag = response.getHeaderString(HttpHeaders.ETAG);
+        Assertions.assertNotNull(etag);
+        Assertions.assertEquals(1, smallCount.get());
+
+        response = client.target(generateURL("/streaming/small")).request()
+                .header(HttpHeaders.IF_NONE_MATCH, etag).get();
+        Assertions.assertEquals(304, response.getStatus());
+        response.close();
+        Assertions.assertEquals(1, smallCount.get());
+    }
+
+    @Test
+    public void testOverflowIsStreamedButNotCached() {
+        byte[] expected = bytes(LARGE_SIZE);
+        for (int i = 1; i <= 3; i++) {
+            byte[] entity = get("/streaming/large").readEntity(byte[].class);
+            Assertions.assertEquals(LARGE_SIZE, entity.length);
+            Assertions.assertTrue(Arrays.equals(expected, entity));
+            Assertions.assertEquals(i, largeCount.get());
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+
+import org.jboss.resteasy.plugins.cache.server.CachedEntity;
+import org.jboss.resteasy.plugins.cache.server.EncodedEntity;
+import org.jboss.resteasy.plugins.cache.server.LocalServerCache;
+import org.jboss.resteasy.plugins.cache.server.MappedEntity;
+import org.jboss.resteasy.plugins.cache.server.SegmentedEntity;
+import org.jboss.resteasy.plugins.cache.server.ServerCache;
+import org.jboss.resteasy.plugins.cache.server.TieredServerCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that the {@link TieredServerCache} moves large entities to memory-mapped segment files.
+ */
+public class TieredServerCacheTest {
+    private static final int THRESHOLD = 4096;
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private TieredServerCache cache;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        cache = new TieredServerCache(new LocalServerCache(16 * 1024 * 1024), directory, THRESHOLD, SEGMENT_SIZE);
+    }
+
+    private static byte[] bytes(int size, int seed) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i * 31 + seed);
+        }
+        return bytes;
+    }
+
+    private CachedEntity add(String uri, CachedEntity entity) {
+        cache.add(uri, MediaType.APPLICATION_OCTET_STREAM_TYPE, CacheControl.valueOf("max-age=60"),
+                new MultivaluedHashMap<>(), entity, uri, new MultivaluedHashMap<>());
+        ServerCache.Entry entry = cache.get(uri, MediaType.WILDCARD_TYPE, new MultivaluedHashMap<>());
+        Assertions.assertNotNull(entry);
+        return entry.getEntity();
+    }
+
+    private long countFiles() throws Exception {
+        // the segment files are in a directory of their own
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    public void testSmallEntityStaysOnHeap() throws Exception {
+        byte[] bytes = bytes(THRESHOLD - 1, 1);
+
+        CachedEntity entity = add("/small", SegmentedEntity.wrap(bytes));
+
+        Assertions.assertFalse(entity instanceof MappedEntity);
+        Assertions.assertArrayEquals(bytes, entity.toByteArray());
+        Assertions.assertEquals(0, countFiles());
+    }
+
+    @Test
+    public void testLargeEntityIsMapped() throws Exception {
+        byte[] bytes = bytes(THRESHOLD, 2);
+
+        CachedEntity entity = add("/large", SegmentedEntity.wrap(bytes));
+
+        Assertions.assertTrue(entity instanceof MappedEntity);
+        Assertions.assertEquals(bytes.length, entity.getLength());
+        Assertions.assertArrayEquals(bytes, entity.toByteArray());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.write(out);
+        Assertions.assertArrayEquals(bytes, out.toByteArray());
+        Assertions.assertEquals(1, countFiles());
+    }
+
+    @Test
+    public void testRanges() throws Exception {
+        byte[] bytes = bytes(100_000, 3);
+        CachedEntity entity = add("/range", SegmentedEntity.wrap(bytes));
+        Assertions.assertTrue(entity instanceof MappedEntity);
+
+        for (long[] range : new long[][] { { 0, 1 }, { 0, 100_000 }, { 99_999, 1 }, { 1000, 70_000 } }) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            entity.write(out, range[0], range[1]);
+            byte[] expected = new byte[(int) range[1]];
+            System.arraycopy(bytes, (int) range[0], expected, 0, expected.length);
+            Assertions.assertArrayEquals(expected, out.toByteArray());
+        }
+    }
+
+    @Test
+    public void testEntitiesShareSegments() throws Exception {
+        byte[] first = bytes(10_000, 4);
+        byte[] second = bytes(20_000, 5);
+        // larger than a segment, stored in one of its own
+        byte[] third = bytes(SEGMENT_SIZE + 1, 6);
+
+        CachedEntity firstEntity = add("/first", SegmentedEntity.wrap(first));
+        CachedEntity secondEntity = add("/second", SegmentedEntity.wrap(second));
+        CachedEntity thirdEntity = add("/third", SegmentedEntity.wrap(third));
+
+        Assertions.assertArrayEquals(first, firstEntity.toByteArray());
+        Assertions.assertArrayEquals(second, secondEntity.toByteArray());
+        Assertions.assertArrayEquals(third, thirdEntity.toByteArray());
+        Assertions.assertEquals(2, countFiles());
+    }
+
+    @Test
+    public void testDiskBound() throws Exception {
+        cache = new TieredServerCache(new LocalServerCache(16 * 1024 * 1024), directory, THRESHOLD, SEGMENT_SIZE,
+                2 * SEGMENT_SIZE);
+        add("/first", SegmentedEntity.wrap(bytes(SEGMENT_SIZE, 8)));
+        add("/second", SegmentedEntity.wrap(bytes(SEGMENT_SIZE, 9)));
+        Assertions.assertEquals(2 * SEGMENT_SIZE, cache.getDiskWeight());
+
+        // a third segment does not fit, the entry is not cached
+        CachedEntity third = SegmentedEntity.wrap(bytes(THRESHOLD, 10));
+        Assertions.assertNull(cache.add("/third", MediaType.APPLICATION_OCTET_STREAM_TYPE,
+                CacheControl.valueOf("max-age=60"), new MultivaluedHashMap<>(), third, "/third",
+                new MultivaluedHashMap<>()));
+        Assertions.assertNull(cache.get("/third", MediaType.WILDCARD_TYPE, new MultivaluedHashMap<>()));
+        Assertions.assertEquals(2, countFiles());
+        // entities kept on the heap are not bounded by the disk tier
+        add("/small", SegmentedEntity.wrap(bytes(THRESHOLD - 1, 11)));
+
+        // the space comes back once the mapping of the removed entity is collected
+        cache.remove("/first");
+        for (int i = 0; i < 100 && cache.getDiskWeight() > SEGMENT_SIZE; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        Assertions.assertEquals(SEGMENT_SIZE, cache.getDiskWeight());
+        byte[] bytes = bytes(THRESHOLD, 12);
+        Assertions.assertArrayEquals(bytes, add("/third", SegmentedEntity.wrap(bytes)).toByteArray());
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        add("/dropped", SegmentedEntity.wrap(bytes(40_000, 13)));
+        byte[] bytes = bytes(20_000, 14);
+        CachedEntity kept = add("/kept", SegmentedEntity.wrap(bytes));
+        // starts a second segment, the first one is compacted once it is mostly dead
+        add("/next", SegmentedEntity.wrap(bytes(30_000, 15)));
+
+        cache.remove("/dropped");
+        for (int i = 0; i < 100 && countFiles() > 1; i++) {
+            System.gc();
+            // read while the entity is moved
+            Assertions.assertArrayEquals(bytes, kept.toByteArray());
+            Thread.sleep(100);
+        }
+        Assertions.assertEquals(1, countFiles());
+        Assertions.assertArrayEquals(bytes, kept.toByteArray());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        kept.write(out, 100, 1000);
+        Assertions.assertArrayEquals(Arrays.copyOfRange(bytes, 100, 1100), out.toByteArray());
+    }
+
+    @Test
+    public void testEncodings() throws Exception {
+        byte[] bytes = "The quick brown fox jumps over the lazy dog. ".repeat(1000).getBytes();
+        CachedEntity encoded = EncodedEntity.encode(SegmentedEntity.wrap(bytes), List.of(EncodedEntity.GZIP));
+
+        CachedEntity entity = add("/encoded", encoded);
+
+        Assertions.assertTrue(entity instanceof EncodedEntity);
+        Assertions.assertArrayEquals(bytes, entity.toByteArray());
+        // the compressed encoding is below the threshold
+        CachedEntity gzip = entity.getEncoding(EncodedEntity.GZIP);
+        Assertions.assertFalse(gzip instanceof MappedEntity);
+        Assertions.assertArrayEquals(encoded.getEncoding(EncodedEntity.GZIP).toByteArray(), gzip.toByteArray());
+    }
+
+    @Test
+    public void testSerializationCopiesOntoHeap() throws Exception {
+        byte[] bytes = bytes(THRESHOLD * 2, 7);
+        CachedEntity entity = add("/serialized", SegmentedEntity.wrap(bytes));
+
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(entity);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized.toByteArray()))) {
+            CachedEntity read = (CachedEntity) in.readObject();
+            Assertions.assertTrue(read instanceof SegmentedEntity);
+            Assertions.assertArrayEquals(bytes, read.toByteArray());
+        }
+    }
+}
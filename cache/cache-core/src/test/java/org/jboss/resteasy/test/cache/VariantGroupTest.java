@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import java.util.List;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+import org.jboss.resteasy.plugins.cache.server.LocalServerCache;
+import org.jboss.resteasy.plugins.cache.server.ServerCache;
+import org.jboss.resteasy.plugins.cache.server.VariantGroup;
+import org.jboss.resteasy.plugins.cache.server.VaryFingerprint;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the selection of cached variants by their {@link VaryFingerprint} in a {@link VariantGroup}.
+ */
+public class VariantGroupTest {
+    private final LocalServerCache cache = new LocalServerCache(1024 * 1024);
+    private int count;
+
+    /**
+     * Creates an entry for a response varying on the given headers.
+     */
+    private ServerCache.Entry entry(MediaType mediaType, String cacheControl, String vary,
+            MultivaluedMap<String, String> requestHeaders) {
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        if (vary != null) {
+            headers.putSingle(HttpHeaders.VARY, vary);
+        }
+        return cache.add("/entry/" + count++, mediaType, CacheControl.valueOf(cacheControl), headers, new byte[0],
+                "etag", requestHeaders);
+    }
+
+    private static MultivaluedMap<String, String> headers(String... namesAndValues) {
+        MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            headers.add(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return headers;
+    }
+
+    private static VariantGroup add(VariantGroup group, ServerCache.Entry entry) {
+        String variant = VariantGroup.variantKey(entry.getMediaType(),
+                VaryFingerprint.of(entry.getHeaders(), entry.getVaryHeaders()));
+        return VariantGroup.with(group, variant, entry);
+    }
+
+    @Test
+    public void testFingerprint() {
+        VaryFingerprint fingerprint = VaryFingerprint.of(headers(HttpHeaders.VARY, "Accept-Language, Accept-Encoding",
+                HttpHeaders.VARY, "ACCEPT-LANGUAGE"), headers("Accept-Language", "en, de"));
+
+        Assertions.assertArrayEquals(new String[] { "Accept-Encoding", "Accept-Language" }, fingerprint.getNames());
+        // elements are trimmed and values split at commas compare equal
+        Assertions.assertEquals(fingerprint.getValue(), VaryFingerprint.of(fingerprint.getNames(),
+                headers("Accept-Language", "en", "Accept-Language", " de ")));
+        Assertions.assertNotEquals(fingerprint.getValue(), VaryFingerprint.of(fingerprint.getNames(),
+                headers("Accept-Language", "de, en")));
+        // a header sent empty differs from one not sent
+        Assertions.assertNotEquals(VaryFingerprint.of(fingerprint.getNames(), headers()),
+                VaryFingerprint.of(fingerprint.getNames(), headers("Accept-Encoding", "")));
+        Assertions.assertEquals("", VaryFingerprint.of(VaryFingerprint.getNames(null), headers("Accept", "*/*")));
+    }
+
+    @Test
+    public void testMatchByVaryHeaders() {
+        ServerCache.Entry english = entry(MediaType.TEXT_PLAIN_TYPE, "max-age=60", "Accept-Language",
+                headers("Accept-Language", "en"));
+        ServerCache.Entry german = entry(MediaType.TEXT_PLAIN_TYPE, "max-age=60", "Accept-Language",
+                headers("Accept-Language", "de"));
+        ServerCache.Entry none = entry(MediaType.TEXT_PLAIN_TYPE, "max-age=60", "Accept-Language", headers());
+        VariantGroup group = add(add(add(null, english), german), none);
+
+        Assertions.assertEquals(3, group.size());
+        Assertions.assertSame(english, group.match(MediaType.WILDCARD_TYPE, headers("Accept-Language", "en")));
+        Assertions.assertSame(german, group.match(MediaType.WILDCARD_TYPE, headers("Accept-Language", "de")));
+        Assertions.assertSame(none, group.match(MediaType.WILDCARD_TYPE, headers()));
+        Assertions.assertNull(group.match(MediaType.WILDCARD_TYPE, headers("Accept-Language", "fr")));
+    }
+
+    @Test
+    public void testMatchByMediaType() {
+        ServerCache.Entry text = entry(MediaType.TEXT_PLAIN_TYPE, "max-age=60", null, headers());
+        ServerCache.Entry json = entry(MediaType.APPLICATION_JSON_TYPE, "max-age=60", null, headers());
+        VariantGroup group = add(add(null, text), json);
+
+        Assertions.assertEquals(2, group.size());
+        Assertions.assertSame(text, group.match(MediaType.TEXT_PLAIN_TYPE, headers()));
+        Assertions.assertSame(json, group.match(MediaType.APPLICATION_JSON_TYPE, headers()));
+        Assertions.assertSame(json, group.match(MediaType.WILDCARD_TYPE, headers()));
+        Assertions.assertNull(group.match(MediaType.TEXT_HTML_TYPE, headers()));
+    }
+
+    @Test
+    public void testSameVariantIsReplaced() {
+        ServerCache.Entry first = entry(MediaType.TEXT_PLAIN_TYPE, "max-age=60", "Accept-Language",
+                headers("Accept-Language", "en"));
+        ServerCache.Entry second = entry(MediaType.TEXT_PLAIN_TYPE, "max-age=60", "Accept-Language",
+                headers("Accept-Language", "en"));
+        VariantGroup group = add(add(null, first), second);
+
+        Assertions.assertEquals(1, group.size());
+        Assertions.assertSame(second, group.getEntry(0));
+        Assertions.assertSame(second, group.match(MediaType.WILDCARD_TYPE, headers("Accept-Language", "en")));
+    }
+
+    @Test
+    public void testFreshVariantIsPreferred() {
+        ServerCache.Entry stale = entry(MediaType.TEXT_PLAIN_TYPE, "max-age=0, stale-while-revalidate=30", null,
+                headers());
+        ServerCache.Entry fresh = entry(MediaType.APPLICATION_JSON_TYPE, "max-age=60", null, headers());
+        VariantGroup group = add(add(null, fresh), stale);
+
+        Assertions.assertEquals(2, group.size());
+        Assertions.assertSame(stale, group.getEntry(0));
+        Assertions.assertSame(fresh, group.match(MediaType.WILDCARD_TYPE, headers()));
+        // served stale if it is the only match
+        Assertions.assertSame(stale, group.match(MediaType.TEXT_PLAIN_TYPE, headers()));
+    }
+
+    @Test
+    public void testExpiry() {
+        ServerCache.Entry expired = entry(MediaType.TEXT_PLAIN_TYPE, "max-age=0", null, headers());
+        ServerCache.Entry stale = entry(MediaType.APPLICATION_JSON_TYPE, "max-age=0, stale-if-error=30", null,
+                headers());
+        ServerCache.Entry fresh = entry(MediaType.TEXT_HTML_TYPE, "max-age=60", null, headers());
+
+        VariantGroup group = add(null, expired);
+        Assertions.assertEquals(0, group.getRetentionInSeconds());
+        Assertions.assertNull(group.match(MediaType.TEXT_PLAIN_TYPE, headers()));
+
+        // variants which can no longer be served are dropped when another one is added
+        group = add(add(group, stale), fresh);
+        Assertions.assertEquals(List.of(fresh, stale), List.of(group.getEntry(0), group.getEntry(1)));
+        Assertions.assertTrue(group.getRetentionInSeconds() > 30 && group.getRetentionInSeconds() <= 60);
+        Assertions.assertTrue(VariantGroup.getRetentionInSeconds(stale) > 0
+                && VariantGroup.getRetentionInSeconds(stale) <= 30);
+    }
+}
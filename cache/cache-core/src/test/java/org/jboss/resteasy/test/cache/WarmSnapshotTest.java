@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2026 Red Hat, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the Eclipse
+ * Public License, v. 2.0 are satisfied: GNU General Public License, version 2
+ * with the GNU Classpath Exception which is
+ * available at https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package org.jboss.resteasy.test.cache;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.core.Configurable;
+
+import org.jboss.resteasy.annotations.cache.Cache;
+import org.jboss.resteasy.plugins.cache.server.CacheWarmer;
+import org.jboss.resteasy.plugins.cache.server.LocalServerCache;
+import org.jboss.resteasy.plugins.cache.server.ServerCache;
+import org.jboss.resteasy.plugins.cache.server.ServerCacheFeature;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyProviderFactory;
+import org.jboss.resteasy.test.TestPortProvider;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnJre;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that the {@link ServerCacheFeature} writes the snapshot of the cache when the application shuts down, and
+ * restores it when the next one starts.
+ */
+@EnabledOnJre({
+        JRE.JAVA_11,
+        JRE.JAVA_17,
+        JRE.JAVA_21,
+})
+public class WarmSnapshotTest {
+    private static final AtomicInteger count = new AtomicInteger();
+
+    @TempDir
+    java.nio.file.Path directory;
+
+    @Path("/warm")
+    public static class WarmResource {
+        @GET
+        @Produces("text/plain")
+        @Cache(maxAge = 60)
+        public String get() {
+            return "warm" + count.incrementAndGet();
+        }
+    }
+
+    private static class WarmedFeature extends ServerCacheFeature {
+        @Override
+        protected CacheWarmer getCacheWarmer(Configurable<?> configurable, ServerCache cache) {
+            return super.getCacheWarmer(configurable, cache);
+        }
+    }
+
+    private static NettyJaxrsServer start(java.nio.file.Path snapshot) {
+        NettyJaxrsServer server = new NettyJaxrsServer();
+        server.setPort(TestPortProvider.getPort());
+        server.setRootResourcePath("/");
+        server.start();
+        ResteasyProviderFactory providerFactory = server.getDeployment().getProviderFactory();
+        providerFactory.property(ServerCacheFeature.CACHE_TYPE, "local");
+        providerFactory.property(ServerCacheFeature.WARM_SNAPSHOT, snapshot.toString());
+        providerFactory.register(ServerCacheFeature.class);
+        server.getDeployment().getRegistry().addPerRequestResource(WarmResource.class);
+        return server;
+    }
+
+    private static String get(Client client) {
+        return client.target(generateURL("/warm")).request().get(String.class);
+    }
+
+    @Test
+    public void testSnapshotWrittenOnShutdown() throws Exception {
+        java.nio.file.Path snapshot = directory.resolve("cache.snapshot");
+        Client client = ClientBuilder.newClient();
+        try {
+            NettyJaxrsServer server = start(snapshot);
+            String body;
+            try {
+                body = get(client);
+                Assertions.assertEquals(body, get(client));
+                Assertions.assertFalse(Files.exists(snapshot));
+            } finally {
+                ((ServerCacheFeature) server.getDeployment().getProviderFactory()
+                        .getProperty(ServerCacheFeature.class.getName())).shutdown();
+                server.stop();
+            }
+            Assertions.assertTrue(Files.exists(snapshot));
+            int calls = count.get();
+
+            // the next node starts with the cached response
+            server = start(snapshot);
+            try {
+                Assertions.assertEquals(body, get(client));
+                Assertions.assertEquals(calls, count.get());
+            } finally {
+                ((ServerCacheFeature) server.getDeployment().getProviderFactory()
+                        .getProperty(ServerCacheFeature.class.getName())).shutdown();
+                server.stop();
+            }
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testManifestRequiresBaseUri() throws Exception {
+        java.nio.file.Path manifest = Files.write(directory.resolve("manifest.txt"), new byte[0]);
+        ResteasyProviderFactory providerFactory = ResteasyProviderFactory.newInstance();
+        providerFactory.property(ServerCacheFeature.WARM_MANIFEST, manifest.toString());
+
+        // there is no default, the requests would go to whichever server listens there
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new WarmedFeature().getCacheWarmer(providerFactory, new LocalServerCache(1024 * 1024)));
+    }
+}